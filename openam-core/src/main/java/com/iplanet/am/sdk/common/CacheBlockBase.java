@@ -98,6 +98,11 @@ public abstract class CacheBlockBase {
     // Indicates if this Entry represents a valid DS Entry.
     private volatile boolean isValidEntry = true;
 
+    // Rough sizes used when estimating the memory used by a block
+    protected static final int OBJECT_OVERHEAD = 32;
+
+    private static final int BLOCK_OVERHEAD = 256;
+
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final ReadLock readLock = lock.readLock();
     private final WriteLock writeLock = lock.writeLock();
@@ -128,6 +133,17 @@ public abstract class CacheBlockBase {
 
     public abstract Debug getDebug();
 
+    /**
+     * Returns how long the attributes cached for a principal are valid, measured from when the first of them was
+     * cached. Once they expire, all the attributes of the principal are read from the directory again. Unlike
+     * entry expiration, this applies separately to the attribute set of each principal.
+     *
+     * @return the expiration time in milliseconds, zero if attribute sets do not expire.
+     */
+    public long getAttributeSetExpirationTime() {
+        return 0;
+    }
+
     public void setExists(boolean exists) {
         writeLock.lock();
         try {
@@ -258,7 +274,7 @@ public abstract class CacheBlockBase {
         boolean hasExpired = hasExpiredAndUpdated();
         readLock.lock();
         try {
-            CacheEntry ce = (CacheEntry) cacheEntries.get(principalDN);
+            CacheEntry ce = getCacheEntry(principalDN);
             return (ce != null && !hasExpired);
         } finally {
             readLock.unlock();
@@ -269,7 +285,7 @@ public abstract class CacheBlockBase {
         boolean hasExpired = hasExpiredAndUpdated();
         readLock.lock();
         try {
-            CacheEntry ce = (CacheEntry) cacheEntries.get(principalDN);
+            CacheEntry ce = getCacheEntry(principalDN);
             if (ce != null && !hasExpired) {
                 return ce.isCompleteSet();
             } else {
@@ -290,7 +306,7 @@ public abstract class CacheBlockBase {
         readLock.lock();
         try {
             // Get the cache entry for the principal
-            CacheEntry ce = (CacheEntry) cacheEntries.get(principalDN);
+            CacheEntry ce = getCacheEntry(principalDN);
             if (ce != null && !hasExpired) {
                 // Get the names of attributes that this principal can access
                 Set accessibleAttrs = null;
@@ -335,9 +351,9 @@ public abstract class CacheBlockBase {
             Set inAccessibleAttrNames, boolean isCompleteSet, boolean byteValues) {
         writeLock.lock();
         try {
-            CacheEntry ce = (CacheEntry) cacheEntries.get(principalDN);
+            CacheEntry ce = getCacheEntry(principalDN);
             if (ce == null) {
-                ce = new CacheEntry();
+                ce = new CacheEntry(getAttributeSetExpirationTime());
                 cacheEntries.put(principalDN, ce);
             }
 
@@ -359,6 +375,61 @@ public abstract class CacheBlockBase {
         }
     }
 
+    /**
+     * Returns the cache entry of the principal, or null if it has none or its attribute set has expired. Must be
+     * called while holding the read or write lock.
+     */
+    private CacheEntry getCacheEntry(String principalDN) {
+        CacheEntry ce = (CacheEntry) cacheEntries.get(principalDN);
+        return ce == null || ce.hasExpired() ? null : ce;
+    }
+
+    /**
+     * Returns a rough estimate of the memory used by this block, which is used to bound caches by size rather
+     * than by the number of their entries.
+     *
+     * @return the estimated size in bytes.
+     */
+    public int getEstimatedSize() {
+        readLock.lock();
+        try {
+            int size = BLOCK_OVERHEAD + estimateSize(entryDN) + estimateSize(organizationDN);
+            if (isValidEntry) {
+                size += estimateSize(stringAttributes) + estimateSize(byteAttributes);
+                for (Object ce : cacheEntries.values()) {
+                    size += ((CacheEntry) ce).getEstimatedSize();
+                }
+            }
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    protected static int estimateSize(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD + 2 * value.length();
+    }
+
+    private static int estimateSize(Map attributes) {
+        int size = OBJECT_OVERHEAD;
+        for (Object entry : attributes.entrySet()) {
+            Map.Entry attribute = (Map.Entry) entry;
+            size += OBJECT_OVERHEAD + estimateSize(String.valueOf(attribute.getKey()));
+            Object values = attribute.getValue();
+            if (values instanceof byte[][]) {
+                for (byte[] value : (byte[][]) values) {
+                    size += OBJECT_OVERHEAD + (value == null ? 0 : value.length);
+                }
+            } else if (values instanceof Set) {
+                size += OBJECT_OVERHEAD;
+                for (Object value : (Set) values) {
+                    size += OBJECT_OVERHEAD + estimateSize(String.valueOf(value));
+                }
+            }
+        }
+        return size;
+    }
+
     public void removeAttributes(String principalDN) {
         writeLock.lock();
         try {
@@ -471,9 +542,21 @@ public abstract class CacheBlockBase {
         // Either way there is not need to explictly distinguish them.
         private final Set inAccessibleAttrNames;
 
-        CacheEntry() {
+        // Time at which the attribute set expires, zero if it does not
+        private final long expirationTime;
+
+        CacheEntry(long timeToLive) {
             readableAttrNames = new CaseInsensitiveHashSet();
             inAccessibleAttrNames = new CaseInsensitiveHashSet();
+            expirationTime = timeToLive > 0 ? currentTimeMillis() + timeToLive : 0;
+        }
+
+        protected boolean hasExpired() {
+            return expirationTime != 0 && currentTimeMillis() >= expirationTime;
+        }
+
+        protected int getEstimatedSize() {
+            return OBJECT_OVERHEAD * (2 + readableAttrNames.size() + inAccessibleAttrNames.size());
         }
 
         /**
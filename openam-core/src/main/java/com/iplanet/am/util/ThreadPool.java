@@ -27,12 +27,17 @@
  */
 /**
  * Portions Copyrighted 2015 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.iplanet.am.util;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.openam.shared.concurrency.MonitoredThreadPool;
+
 import com.sun.identity.shared.debug.Debug;
-import org.forgerock.openam.audit.context.AuditRequestContextPropagatingRunnable;
 
 /**
  * <p>
@@ -48,20 +53,17 @@ import org.forgerock.openam.audit.context.AuditRequestContextPropagatingRunnable
  * tasks until the number of un-executed tasks is less than the threshold value.
  * This guarantees the thread pool will not use up the system resources under
  * heavy load.
+ * <p>
+ * The tasks run on a {@link MonitoredThreadPool} of the same name, which
+ * reports the activity of the pool through JMX.
  * @supported.all.api
  */
 public class ThreadPool {
 
-    private int poolSize;
-    private int threshold;
-    private String poolName;
-    private Debug debug;
-    private java.util.ArrayList taskList;
-    private int busyThreadCount;
-    private int currentThreadCount;
-    private boolean shutdownThePool;
-    private boolean daemon;
-    private WorkerThread[] threads;
+    private final String poolName;
+    private final boolean daemon;
+    private final Debug debug;
+    private final MonitoredThreadPool executor;
 
     /**
      * Constructs a thread pool with given parameters.
@@ -80,60 +82,18 @@ public class ThreadPool {
      */
     public ThreadPool(String name, int poolSize, int threshold, boolean daemon,
         Debug debug) {
-	this.debug = debug;
-	this.poolSize = poolSize;
-	this.threshold = threshold;
+        this.debug = debug;
         this.poolName = name;
-        if (threshold > 0) {
-            // initialize the size of the ArrayList, it doesn't need to expand
-            // during runtime.
-            this.taskList = new java.util.ArrayList(threshold);
-        } else {
-            this.taskList = new java.util.ArrayList();
-        }
-        this.busyThreadCount = 0;
-        this.currentThreadCount = 0;
         this.daemon = daemon;
-        this.shutdownThePool = false;
-        this.threads = new WorkerThread[poolSize];
-	if (debug.messageEnabled()) {
+        this.executor = MonitoredThreadPool.builder(name)
+                .threads(poolSize)
+                .queueSize(threshold > 0 ? threshold : MonitoredThreadPool.UNBOUNDED)
+                .daemon(daemon)
+                .build();
+        if (debug.messageEnabled()) {
             debug.message("Initiating login thread pool size = "
-                    + this.poolSize + "\nThreshold = " + threshold);
-        }
-        synchronized (this) {
-            createThreads(poolSize);
-        }
-    }
-    
-    /**
-     * Create thread for the pool.
-     *
-     * @param threadsToCreate number of threads of the pool after creation
-     */
-    protected void createThreads(int threadsToCreate) {
-        if (threadsToCreate > poolSize) {
-            threadsToCreate = poolSize;
-        }
-        for (int i = currentThreadCount; i < threadsToCreate; i++) {
-            threads[i - busyThreadCount] = new WorkerThread(poolName, this);
-            threads[i - busyThreadCount].setDaemon(daemon);
-            threads[i - busyThreadCount].start();
+                    + poolSize + "\nThreshold = " + threshold);
         }
-        currentThreadCount = threadsToCreate;
-    }
-    
-    private WorkerThread getAvailableThread() {
-        WorkerThread t = null;
-        synchronized (this) {
-            if (currentThreadCount == busyThreadCount) {
-                createThreads(poolSize);
-            }
-            // get threads from the end of the array
-            t = threads[currentThreadCount - busyThreadCount - 1];
-            threads[currentThreadCount - busyThreadCount - 1] = null;
-            busyThreadCount++;
-        }
-        return t;
     }
 
     /**
@@ -143,222 +103,74 @@ public class ThreadPool {
      *            user defined task.
      * @throws ThreadPoolException
      */
-    public final void run(Runnable task) throws ThreadPoolException 
-    {
-        WorkerThread t = null;
-        synchronized (this) {
-            if (shutdownThePool) {
-                // No more tasks will be accepted
-                throw new ThreadPoolException(poolName +
-                    " thread pool's being shutdown.");
-            }
-            if (busyThreadCount == poolSize) {
-                if ((threshold > 0) && (taskList.size() >= threshold)) {
-                    throw new ThreadPoolException(poolName + 
-                        " thread pool's task queue is full.");
-                } else {
-                    taskList.add(wrap(task));
-                }
-            }
-            else{
-                t = getAvailableThread();
-            }
+    public final void run(Runnable task) throws ThreadPoolException {
+        if (task == null) {
+            return;
         }
-        if ((t != null) && (task != null)) {
-            t.runTask(wrap(task));
+        try {
+            executor.execute(new LoggingTask(task));
+        } catch (RejectedExecutionException e) {
+            throw new ThreadPoolException(e.getMessage());
         }
     }
 
-    private Runnable wrap(Runnable delegate) {
-        return new AuditRequestContextPropagatingRunnable(delegate);
-    }
-
-    protected synchronized void deductCurrentThreadCount(){
-        currentThreadCount--;
-        busyThreadCount--;
-        if (!taskList.isEmpty()) {
-            WorkerThread t = getAvailableThread();
-            t.runTask((Runnable)taskList.remove(0));
-        } else {
-            if (shutdownThePool && (busyThreadCount == 0)) {
-                notify();
-            }
-        }
-    }
-    
-    // return the thread to the thread pool
-    protected synchronized void returnThread(WorkerThread t) {
-        if (!taskList.isEmpty()){
-            t.runTask((Runnable)taskList.remove(0));
-        }
-        else{
-            if(shutdownThePool) {
-                t.terminate();
-                // notify the thread pool when all threads are backed
-                // need to discuss whether the thread pool need to wait until
-                // all threads are terminated.  For stand alone application, the
-                // answer is yes, however, our application is run under web
-                // container. The reason why we need shutdown because it has a
-                // parameter daemon in the constructor, if it is set to false,
-                // the old implementation has no way to stop the running
-                // threads. For the new implementation, if daemon is set to
-                // false, it is necessary to call shutdown.  If daemon is set to
-                // true, it is nice to call it because the thread pool has
-                // better knownledge than the web container to stop the threads
-                // in the pool.
-                busyThreadCount--;
-                currentThreadCount--;
-                if(busyThreadCount == 0){
-                    notify();
-                }
-            } else {
-                busyThreadCount--;
-                // return threads from the end of array
-                threads[currentThreadCount - busyThreadCount - 1] = t;
-            }
-        }
-    }
-    
     // terminate all the threads since the pass-in parameter of daemon may be
     // false
-    public synchronized void shutdown() {
-        if(!shutdownThePool) {
-            shutdownThePool = true;
-            // If daemon thread, discard the remaining tasks
-            // else, wait for all tasks to be completed
-            if (daemon) {
-                taskList.clear();
-            } else {
-                while (!taskList.isEmpty()) {
-                    try {
-                        // wait if there are tasks & threads to be executed
-                        wait();
-                    } catch (Exception ex) {
-                        debug.error("ThreadPool.shutdown Excetion while " +
-                            "waiting for tasks/threads to complete", ex);
-                    }
-                }
-            }
-            for(int i = 0; i < currentThreadCount - busyThreadCount; i++) {
-                // terminate the thread from the beginning of the array
-                if (threads[i] != null) {
-                    threads[i].terminate();
-                }
+    public void shutdown() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        // If daemon thread, discard the remaining tasks
+        // else, wait for all tasks to be completed
+        if (daemon) {
+            executor.getQueue().clear();
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                debug.warning("ThreadPool.shutdown waiting for tasks of " + poolName + " to complete");
             }
-            while(busyThreadCount != 0){
-                try{
-                    // wait if there are threads running, it will be notified
-                    // when they all back.
-                    wait();
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-            }
-            currentThreadCount = busyThreadCount = 0;
-            threads = null;
+        } catch (InterruptedException ex) {
+            debug.error("ThreadPool.shutdown Exception while " +
+                "waiting for tasks/threads to complete", ex);
+            Thread.currentThread().interrupt();
         }
     }
-    
+
     // for test only
-    public synchronized int getCurrentThreadCount() {
-        return currentThreadCount;
+    public int getCurrentThreadCount() {
+        return executor.getPoolSize();
     }
-    
+
     /*
      * Returns the size of the task list.
      */
     public int getCurrentSize() {
-        return taskList.size();
+        return executor.getQueuedTaskCount();
     }
-    
-    // private thread class that fetches tasks from the task queue and
-    // executes them.
-    private class WorkerThread extends Thread {
-        
-        private Runnable task = null;
-        private ThreadPool pool;
-        private boolean needReturn;
-        private boolean shouldTerminate;
-        
-        public WorkerThread(String name, ThreadPool pool) {
-	    setName(name);
-            this.pool = pool;
-            this.shouldTerminate = false;
-            this.needReturn = true;
+
+    /**
+     * Logs the failures of a task to the debug object of the pool.
+     */
+    private final class LoggingTask implements Runnable {
+        private final Runnable task;
+
+        private LoggingTask(Runnable task) {
+            this.task = task;
         }
- 
-	/**
-	 * Starts the thread pool.
-	 */
+
+        @Override
         public void run() {
-            boolean localShouldTerminate = false;
-            Runnable localTask = null;
-            WorkerThread t = this;
-            while (true) {
-                try{
-                    synchronized (this) {
-                        while ((task == null) && (!shouldTerminate)){
-                            this.wait();
-                        }
-                        // need a local copy because they may be changed after
-                        // leaving synchronized block.
-                        localShouldTerminate = shouldTerminate;
-                        localTask = task;
-                        task = null;
-                    }
-                    if (localShouldTerminate) {
-                        // we may need to log something here!
-                        break;
-                    }
-                    if(localTask != null){
-                        localTask.run();
-                    }
-                } catch (RuntimeException ex) {
-                    debug.error("Running task " + task, ex);
-                    // decide what to log here
-                    pool.deductCurrentThreadCount();
-                    localShouldTerminate = true;
-                    needReturn = false;
-                } catch (Exception ex) {
-                    // don't need to rethrow
-                    debug.error("Running task " + task, ex);
-	        } catch (Throwable e) {
-		    debug.error("Running task " + task, e);
-                    // decide what to log here
-                    pool.deductCurrentThreadCount();
-                    localShouldTerminate = true;
-                    needReturn = false;
-                    // rethrow Error here
-                    throw new Error(e);
-	        } finally {
-                    // the thread may has returned already if shutdown is
-                    // called.
-                    if (needReturn) {
-                        pool.returnThread(t);
-                    }
-                }
-                if (localShouldTerminate) {
-                    // we may need to log something here!
-                    break;
-                }
-	    }
-        }
-    
-        public synchronized void runTask(Runnable toRun) {
-            this.task = toRun;
-            // Although the thread may not in wait state when this function
-            // is called (the taskList is not empty), it doesn't hurt to
-            // call it.  getState method can check whether the Thread is
-            // waiting, but it is available in jdk1.5 or newer.
-            this.notify();
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                debug.error("Running task " + task, ex);
+            }
         }
-        
-        // terminate the thread pool when daemon is set to false
-        // it is better to have a way to terminate the thread pool
-        public synchronized void terminate() {
-            shouldTerminate = true;
-            needReturn = false;
-            this.notify();
+
+        @Override
+        public String toString() {
+            return task.toString();
         }
     }
 }
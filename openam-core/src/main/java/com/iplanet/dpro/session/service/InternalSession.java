@@ -453,6 +453,10 @@ public class InternalSession implements TaskRunnable, Serializable {
      * @return The long value indicates the time this task is scheduled.
      */
     public long scheduledExecutionTime() {
+        SessionExpiryWheel expiryWheel = getExpiryWheel();
+        if (expiryWheel != null) {
+            return expiryWheel.scheduledExecutionTime(this);
+        }
         synchronized (this) {
             if (headTask != null) {
                 return headTask.scheduledExecutionTime();
@@ -557,8 +561,7 @@ public class InternalSession implements TaskRunnable, Serializable {
                     sessionAuditor.auditActivity(toSessionInfo(), AM_SESSION_MAX_TIMED_OUT);
                     if (timerPool != null) {
                         if (purgeDelay > 0) {
-                            timerPool.schedule(this, new Date((timedOutAt +
-                                (purgeDelay * 60)) * 1000));
+                            schedule((timedOutAt + (purgeDelay * 60)) * 1000);
                         }
                     }
                 } else {
@@ -568,16 +571,13 @@ public class InternalSession implements TaskRunnable, Serializable {
                         sessionAuditor.auditActivity(toSessionInfo(), AM_SESSION_IDLE_TIMED_OUT);
                         if (timerPool != null) {
                             if (purgeDelay > 0) {
-                                timerPool.schedule(this, new Date((timedOutAt +
-                                    (purgeDelay * 60)) * 1000));
+                                schedule((timedOutAt + (purgeDelay * 60)) * 1000);
                             }
                         }
                     } else {
                         long timeToWait = Math.min(timeLeft, idleTimeLeft);
                         if (timerPool != null) {
-                            timerPool.schedule(this, new Date(((
-                                    currentTimeMillis() / 1000) +
-                                timeToWait) * 1000));
+                            schedule(((currentTimeMillis() / 1000) + timeToWait) * 1000);
                         }
                     }
                 }
@@ -591,6 +591,11 @@ public class InternalSession implements TaskRunnable, Serializable {
      * Cancel the scheduled run of this task from TimerPool.
      */
     public void cancel() {
+        SessionExpiryWheel expiryWheel = getExpiryWheel();
+        if (expiryWheel != null) {
+            expiryWheel.cancel(this);
+            return;
+        }
         HeadTaskRunnable oldHeadTask = null;
         do {
             oldHeadTask = headTask;
@@ -618,6 +623,25 @@ public class InternalSession implements TaskRunnable, Serializable {
         headTask = null;
     }
 
+    /**
+     * Schedule this task to run at the given time, on the session expiry wheel if it is enabled or otherwise
+     * on the TimerPool.
+     *
+     * @param time The time in milliseconds at which to run this task.
+     */
+    private void schedule(long time) {
+        SessionExpiryWheel expiryWheel = getExpiryWheel();
+        if (expiryWheel != null) {
+            expiryWheel.schedule(this, time);
+        } else {
+            timerPool.schedule(this, new Date(time));
+        }
+    }
+
+    private SessionExpiryWheel getExpiryWheel() {
+        return sessionService == null ? null : sessionService.getExpiryWheel();
+    }
+
     /**
      * Schedule this task to TimerPool according to the current state.
      */
@@ -639,8 +663,7 @@ public class InternalSession implements TaskRunnable, Serializable {
                 cancel();
             }
             if (scheduledExecutionTime() == -1) {
-                Date time = new Date(timeoutTime);
-                timerPool.schedule(this, time);
+                schedule(timeoutTime);
             }
         }
     }
@@ -1853,8 +1876,7 @@ public class InternalSession implements TaskRunnable, Serializable {
                         (maxDefaultIdleTime * 60);
                     if (expectedTime > (currentTimeMillis() / 1000)) {
                         if (timerPool != null) {
-                            timerPool.schedule(this, new Date(expectedTime *
-                                1000));
+                            schedule(expectedTime * 1000);
                         }
                     } else {
                         removeSession();
@@ -1865,8 +1887,7 @@ public class InternalSession implements TaskRunnable, Serializable {
                         changeStateAndNotify(SessionEvent.MAX_TIMEOUT);
                         sessionAuditor.auditActivity(toSessionInfo(), AM_SESSION_MAX_TIMED_OUT);
                         if (timerPool != null) {
-                            timerPool.schedule(this, new Date((timedOutAt +
-                                (purgeDelay * 60)) * 1000));
+                            schedule((timedOutAt + (purgeDelay * 60)) * 1000);
                         }
                     } else {
                         long idleTimeLeft = (maxIdleTime * 60) - getIdleTime();
@@ -1875,15 +1896,12 @@ public class InternalSession implements TaskRunnable, Serializable {
                             changeStateAndNotify(SessionEvent.IDLE_TIMEOUT);
                             sessionAuditor.auditActivity(toSessionInfo(), AM_SESSION_IDLE_TIMED_OUT);
                             if (timerPool != null) {
-                                timerPool.schedule(this, new Date((timedOutAt +
-                                    (purgeDelay * 60)) * 1000));
+                                schedule((timedOutAt + (purgeDelay * 60)) * 1000);
                             }
                         } else {
                             long timeToWait = Math.min(timeLeft, idleTimeLeft);
                             if (timerPool != null) {
-                                timerPool.schedule(this, new Date(((
-                                        currentTimeMillis() / 1000) +
-                                    timeToWait) * 1000));
+                                schedule(((currentTimeMillis() / 1000) + timeToWait) * 1000);
                             }
                         }
                     }
@@ -1892,8 +1910,7 @@ public class InternalSession implements TaskRunnable, Serializable {
                 long expectedTime = timedOutAt + purgeDelay * 60;
                 if (expectedTime > (currentTimeMillis() / 1000)) {
                     if (timerPool != null) {
-                        timerPool.schedule(this, new Date(expectedTime *
-                            1000));
+                        schedule(expectedTime * 1000);
                     }
                 } else {
                     removeSession();
@@ -17,13 +17,15 @@ package com.iplanet.dpro.session.service;
 
 import com.iplanet.dpro.session.SessionID;
 
-import org.forgerock.openam.utils.SingleValueMapper;
 import org.forgerock.util.Reject;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -40,12 +42,24 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * This cache has been designed to remove previous references to Session handles and restricted tokens
  * when they are no longer referenced by the InternalSession.
+ *
+ * Thread Safety: Lookups do not lock. Each cached session is stored together with a snapshot of the
+ * handle and restricted SessionIDs it was indexed under. Updates for the same SessionID are serialised on
+ * one of a fixed set of lock stripes, so updates to different sessions rarely contend. An update publishes
+ * the new index entries before withdrawing the entries recorded in the previous snapshot. Index entries are
+ * only withdrawn if they still refer to the session that was indexed, so no handle or restricted SessionID
+ * is left mapped to a session which is no longer cached.
  */
 @Singleton
 public class InternalSessionCache {
-    private final ConcurrentHashMap<SessionID, InternalSession> cache;
-    private final SingleValueMapper<String, InternalSession> handle = new SingleValueMapper<String, InternalSession>();
-    private final SingleValueMapper<SessionID, InternalSession> restricted = new SingleValueMapper<SessionID, InternalSession>();
+    private static final int LOCK_STRIPES = 256;
+
+    private final ConcurrentHashMap<SessionID, IndexedSession> cache;
+    private final ConcurrentHashMap<String, InternalSession> handle = new ConcurrentHashMap<String, InternalSession>();
+    private final ConcurrentHashMap<SessionID, InternalSession> restricted =
+            new ConcurrentHashMap<SessionID, InternalSession>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Collection<InternalSession> allSessions = Collections.unmodifiableCollection(new SessionsView());
 
     /**
      * Construct an InternalSessionCache intended to provide Session caching for provided SessionService configuration.
@@ -53,18 +67,24 @@ public class InternalSessionCache {
      */
     @Inject
     public InternalSessionCache(SessionServiceConfig config) {
-        cache = new ConcurrentHashMap<SessionID, InternalSession>(config.getMaxSessions());
+        cache = new ConcurrentHashMap<SessionID, IndexedSession>(config.getMaxSessions());
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
     }
 
     public InternalSession getBySessionID(SessionID sessionID) {
-        return cache.get(sessionID);
+        IndexedSession indexed = cache.get(sessionID);
+        return indexed == null ? null : indexed.session;
     }
 
     public InternalSession getByHandle(String sessionHandle) {
+        Reject.ifNull(sessionHandle);
         return handle.get(sessionHandle);
     }
 
     public InternalSession getByRestrictedID(SessionID sessionID) {
+        Reject.ifNull(sessionID);
         return restricted.get(sessionID);
     }
 
@@ -75,52 +95,53 @@ public class InternalSessionCache {
      * - Session Handle
      * - Restricted Tokens
      *
-     * Synchronized: makes updates to multiple data structures atomic.
+     * References which were stored for a previous version of the Session, and which are no longer
+     * present on the Session, are removed.
      *
      * @param session Non null InternalSession to store.
      */
-    public synchronized void put(InternalSession session) {
+    public void put(InternalSession session) {
         Reject.ifNull(session);
-        cache.put(session.getID(), session);
+        IndexedSession indexed = new IndexedSession(session);
+        SessionID sessionID = session.getID();
 
-        // Session Handle
-        if (session.getSessionHandle() != null) {
-            handle.put(session.getSessionHandle(), session);
-        }
+        synchronized (lockFor(sessionID)) {
+            IndexedSession previous = cache.put(sessionID, indexed);
+
+            // Session Handle
+            if (indexed.handle != null) {
+                handle.put(indexed.handle, session);
+            }
 
-        // Restricted Sessions
-        for (SessionID restrictedID : session.getRestrictedTokens()) {
-            restricted.put(restrictedID, session);
+            // Restricted Sessions
+            for (SessionID restrictedID : indexed.restrictedIDs) {
+                restricted.put(restrictedID, session);
+            }
+
+            if (previous != null) {
+                withdraw(previous, indexed);
+            }
         }
     }
 
     /**
      * Remove the Session from the cache.
      *
-     * Synchronized: makes updates to multiple data structures atomic.
-     *
      * @param sessionID Non null SessionID.
      *
      * @return The InternalSession that was removed from the cache.
      */
-    public synchronized InternalSession remove(SessionID sessionID) {
-        InternalSession remove = cache.remove(sessionID);
+    public InternalSession remove(SessionID sessionID) {
+        synchronized (lockFor(sessionID)) {
+            IndexedSession remove = cache.remove(sessionID);
 
-        if (remove == null) {
-            return null;
-        }
+            if (remove == null) {
+                return null;
+            }
 
-        // Clear Session Handle
-        if (remove.getSessionHandle() != null) {
-            handle.remove(remove.getSessionHandle());
+            withdraw(remove, null);
+            return remove.session;
         }
-
-        // Clear Restricted Tokens
-        for (SessionID restrictedID : remove.getRestrictedTokens()) {
-            restricted.remove(restrictedID);
-        }
-
-        return remove;
     }
 
     /**
@@ -149,6 +170,80 @@ public class InternalSessionCache {
      * @return Unmodifiable collection of all Sessions that are stored in the cache.
      */
     public Collection<InternalSession> getAllSessions() {
-        return Collections.unmodifiableCollection(cache.values());
+        return allSessions;
+    }
+
+    /**
+     * Remove the index entries of the previous snapshot which are not part of the current snapshot.
+     * Must be called whilst holding the lock for the SessionID.
+     *
+     * @param previous Non null snapshot which is no longer cached.
+     * @param current The snapshot which replaced it, or null if the Session was removed.
+     */
+    private void withdraw(IndexedSession previous, IndexedSession current) {
+        // Clear Session Handle
+        if (previous.handle != null && (current == null || !previous.handle.equals(current.handle))) {
+            handle.remove(previous.handle, previous.session);
+        }
+
+        // Clear Restricted Tokens
+        for (SessionID restrictedID : previous.restrictedIDs) {
+            if (current == null || !current.restrictedIDs.contains(restrictedID)) {
+                restricted.remove(restrictedID, previous.session);
+            }
+        }
+    }
+
+    private Object lockFor(SessionID sessionID) {
+        Reject.ifNull(sessionID);
+        return locks[(sessionID.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * An InternalSession together with the handle and restricted SessionIDs it was indexed under
+     * when it was stored.
+     */
+    private static final class IndexedSession {
+        private final InternalSession session;
+        private final String handle;
+        private final Set<SessionID> restrictedIDs;
+
+        private IndexedSession(InternalSession session) {
+            this.session = session;
+            this.handle = session.getSessionHandle();
+            Set<SessionID> restrictedTokens = session.getRestrictedTokens();
+            this.restrictedIDs = restrictedTokens == null ? Collections.<SessionID>emptySet() : restrictedTokens;
+        }
+    }
+
+    /**
+     * Live view of the cached sessions.
+     */
+    private final class SessionsView extends AbstractCollection<InternalSession> {
+        @Override
+        public Iterator<InternalSession> iterator() {
+            final Iterator<IndexedSession> iterator = cache.values().iterator();
+            return new Iterator<InternalSession>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public InternalSession next() {
+                    return iterator.next().session;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return cache.size();
+        }
     }
 }
@@ -46,5 +46,56 @@ public class SessionConstants {
      */
     public static final String SESSION_BLACKLIST_PURGE_DELAY_ATTR = "openam-session-stateless-blacklist-purge-delay";
 
+    /**
+     * System property to enable the timing wheel for scheduling session timeouts, instead of the system timer pool.
+     */
+    public static final String SESSION_EXPIRY_WHEEL_ENABLED = "org.forgerock.openam.session.expiry.wheel.enabled";
+
+    /**
+     * System property for the resolution (in milliseconds) of the session expiry timing wheel.
+     */
+    public static final String SESSION_EXPIRY_WHEEL_TICK = "org.forgerock.openam.session.expiry.wheel.tick";
+
+    /**
+     * System property for the maximum number of expired sessions processed by one task of the session expiry
+     * timing wheel.
+     */
+    public static final String SESSION_EXPIRY_WHEEL_BATCH_SIZE = "org.forgerock.openam.session.expiry.wheel.batch.size";
+
+    /**
+     * System property for the number of threads processing expired sessions from the session expiry timing wheel.
+     */
+    public static final String SESSION_EXPIRY_WHEEL_THREADS = "org.forgerock.openam.session.expiry.wheel.threads";
+
+    /**
+     * System property for the time (in milliseconds) remote session notifications wait to be sent together with
+     * other notifications to the same URL.
+     */
+    public static final String SESSION_NOTIFICATION_LINGER_TIME =
+            "org.forgerock.openam.session.notification.lingerTime";
+
+    /**
+     * System property for the maximum number of notifications sent to a URL in one notification set.
+     */
+    public static final String SESSION_NOTIFICATION_BATCH_SIZE = "org.forgerock.openam.session.notification.batch.size";
+
+    /**
+     * System property for the maximum number of notifications waiting to be sent to one URL.
+     */
+    public static final String SESSION_NOTIFICATION_QUEUE_SIZE = "org.forgerock.openam.session.notification.queue.size";
+
+    /**
+     * System property for the number of consecutive failed deliveries after which notifications to a URL are held
+     * back.
+     */
+    public static final String SESSION_NOTIFICATION_FAILURE_THRESHOLD =
+            "org.forgerock.openam.session.notification.failure.threshold";
+
+    /**
+     * System property for the time (in milliseconds) notifications to a failing URL are held back before delivery is
+     * tried again.
+     */
+    public static final String SESSION_NOTIFICATION_RETRY_DELAY =
+            "org.forgerock.openam.session.notification.retry.delay";
 
 }
@@ -0,0 +1,380 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.dpro.session.service;
+
+import static com.iplanet.dpro.session.service.SessionConstants.SESSION_DEBUG;
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.forgerock.util.Reject;
+import org.forgerock.util.thread.ExecutorServiceFactory;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Schedules the timeout processing of {@link InternalSession}s on a hierarchical timing wheel.
+ *
+ * Each level of the wheel has 256 buckets. A bucket on the lowest level holds the sessions which expire on one
+ * tick, a bucket on the next level holds the sessions which expire within 256 ticks, and so on. As time advances
+ * the buckets of the higher levels are cascaded into the lower levels, so scheduling and rescheduling a session
+ * is a constant time operation which allocates a single entry, regardless of how many sessions are scheduled.
+ *
+ * Expired sessions are queued and handed to a pool of worker threads in bounded batches, where the session
+ * performs its timeout processing, including the {@link org.forgerock.openam.session.service.SessionTimeoutHandler}
+ * chain. Only a fixed number of batches are in flight at any time, so a burst of expiring sessions is spread
+ * over time rather than flooding the workers. The number of sessions waiting and how far behind their expiry
+ * they are being processed are available from {@link #getBacklog()} and {@link #getLag()}.
+ *
+ * A session is never processed before the time it was scheduled for, but may be processed up to one tick later.
+ */
+@Singleton
+public class SessionExpiryWheel {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    private static final long HORIZON = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final long LAG_WARNING_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final long origin;
+    private final long tickMillis;
+    private final int batchSize;
+    private final Semaphore batches;
+    private final Executor workers;
+    private final ScheduledExecutorService scheduler;
+    private final Debug debug;
+
+    private final List<List<Set<Entry>>> wheel = new ArrayList<>(LEVELS);
+    private final ConcurrentHashMap<InternalSession, Entry> scheduled = new ConcurrentHashMap<>();
+    private final Queue<Entry> expired = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private long currentTick;
+    private volatile long lastLagWarning;
+
+    /**
+     * Creates a timing wheel configured by the Session Service configuration.
+     *
+     * @param config Non null Session Service configuration.
+     * @param executorServiceFactory Non null factory for the tick and worker threads.
+     * @param debug Non null debug instance.
+     */
+    @Inject
+    public SessionExpiryWheel(SessionServiceConfig config, ExecutorServiceFactory executorServiceFactory,
+            @Named(SESSION_DEBUG) Debug debug) {
+        this(config.getSessionExpiryWheelTick(), config.getSessionExpiryWheelBatchSize(),
+                config.getSessionExpiryWheelThreads(),
+                executorServiceFactory.createFixedThreadPool(config.getSessionExpiryWheelThreads(), "SessionExpiry"),
+                executorServiceFactory.createScheduledService(1), debug, currentTimeMillis());
+    }
+
+    /**
+     * @param tickMillis Resolution of the wheel in milliseconds.
+     * @param batchSize Maximum number of sessions processed by one worker task.
+     * @param maxBatches Maximum number of worker tasks in flight.
+     * @param workers Executes the worker tasks.
+     * @param scheduler Advances the wheel once per tick.
+     * @param debug Debug instance.
+     * @param origin Time in milliseconds at which the wheel starts.
+     */
+    SessionExpiryWheel(long tickMillis, int batchSize, int maxBatches, Executor workers,
+            ScheduledExecutorService scheduler, Debug debug, long origin) {
+        Reject.ifTrue(tickMillis < 1 || batchSize < 1 || maxBatches < 1);
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.batches = new Semaphore(maxBatches);
+        this.workers = workers;
+        this.scheduler = scheduler;
+        this.debug = debug;
+        this.origin = origin;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<Entry>> buckets = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                buckets.add(newBucket());
+            }
+            wheel.add(buckets);
+        }
+    }
+
+    /**
+     * Schedules the timeout processing of the session, replacing any previous schedule of the session.
+     *
+     * @param session Non null session.
+     * @param time The time in milliseconds at which to run the session.
+     */
+    public void schedule(InternalSession session, long time) {
+        Reject.ifNull(session);
+        start();
+        Entry entry = new Entry(session, time, toTick(time));
+        lock.readLock().lock();
+        try {
+            Entry previous = scheduled.put(session, entry);
+            if (previous != null) {
+                unlink(previous);
+            }
+            place(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cancels the scheduled timeout processing of the session, if any.
+     *
+     * @param session Non null session.
+     */
+    public void cancel(InternalSession session) {
+        Entry entry = scheduled.remove(session);
+        if (entry != null) {
+            lock.readLock().lock();
+            try {
+                unlink(entry);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @param session Non null session.
+     * @return The time in milliseconds the session is scheduled for, or -1 if it is not scheduled.
+     */
+    public long scheduledExecutionTime(InternalSession session) {
+        Entry entry = scheduled.get(session);
+        return entry == null ? -1 : entry.time;
+    }
+
+    /**
+     * @return The number of sessions which are scheduled, including those which have expired and are waiting to
+     * be processed.
+     */
+    public int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * @return The number of expired sessions waiting to be processed.
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * @return How long in milliseconds the oldest expired session which is waiting to be processed has been
+     * waiting, or 0 if there are none.
+     */
+    public long getLag() {
+        Entry oldest = expired.peek();
+        return oldest == null ? 0 : Math.max(0, currentTimeMillis() - oldest.time);
+    }
+
+    /**
+     * Advances the wheel to the given time, queueing and dispatching all sessions which have expired.
+     *
+     * @param now The current time in milliseconds.
+     */
+    void advance(long now) {
+        long target = (now - origin) / tickMillis;
+        lock.writeLock().lock();
+        try {
+            while (currentTick < target) {
+                currentTick++;
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                        cascade(level);
+                    }
+                }
+                cascade(0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        dispatch();
+        reportLag();
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            scheduler.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        advance(currentTimeMillis());
+                    } catch (RuntimeException e) {
+                        debug.error("SessionExpiryWheel: Failed to advance the wheel", e);
+                    }
+                }
+            }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Converts the time to the first tick at or after it, so that sessions are never processed early.
+     */
+    private long toTick(long time) {
+        if (time <= origin) {
+            return 0;
+        }
+        return (time - origin - 1) / tickMillis + 1;
+    }
+
+    /**
+     * Places the entry in the bucket for its tick, or queues it if it has expired. Must be called whilst holding
+     * either lock.
+     */
+    private void place(Entry entry) {
+        if (entry.tick <= currentTick) {
+            entry.bucket = null;
+            expired.add(entry);
+            backlog.incrementAndGet();
+            return;
+        }
+        // Ticks beyond the range of the wheel are parked in the furthest bucket and placed again when it cascades
+        long tick = Math.min(entry.tick, currentTick | HORIZON);
+        int level = 0;
+        while ((tick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        Set<Entry> bucket = wheel.get(level).get((int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        entry.bucket = bucket;
+        bucket.add(entry);
+    }
+
+    private void unlink(Entry entry) {
+        Set<Entry> bucket = entry.bucket;
+        if (bucket != null) {
+            bucket.remove(entry);
+        }
+    }
+
+    /**
+     * Replaces the bucket for the current tick on the given level and places its entries again, which moves them
+     * to a lower level or queues them if they have expired. Must be called whilst holding the write lock.
+     */
+    private void cascade(int level) {
+        List<Set<Entry>> buckets = wheel.get(level);
+        int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        Set<Entry> bucket = buckets.get(slot);
+        if (bucket.isEmpty()) {
+            return;
+        }
+        buckets.set(slot, newBucket());
+        for (Entry entry : bucket) {
+            place(entry);
+        }
+    }
+
+    /**
+     * Hands expired sessions to the workers, one batch per available permit.
+     */
+    private void dispatch() {
+        while (!expired.isEmpty() && batches.tryAcquire()) {
+            final List<Entry> batch = new ArrayList<>(Math.min(batchSize, backlog.get() + 1));
+            Entry entry;
+            while (batch.size() < batchSize && (entry = expired.poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                batches.release();
+                return;
+            }
+            try {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            expire(batch);
+                        } finally {
+                            batches.release();
+                        }
+                        dispatch();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                debug.warning("SessionExpiryWheel: Expired sessions will be processed later", e);
+                expired.addAll(batch);
+                batches.release();
+                return;
+            }
+        }
+    }
+
+    private void expire(List<Entry> batch) {
+        for (Entry entry : batch) {
+            backlog.decrementAndGet();
+            // Skip sessions which have been cancelled or rescheduled since they expired
+            if (scheduled.remove(entry.session, entry)) {
+                try {
+                    entry.session.run();
+                } catch (RuntimeException e) {
+                    debug.error("SessionExpiryWheel: Timeout processing failed for a session", e);
+                }
+            }
+        }
+    }
+
+    private void reportLag() {
+        long lag = getLag();
+        long now = currentTimeMillis();
+        if (lag > LAG_WARNING_INTERVAL && now - lastLagWarning > LAG_WARNING_INTERVAL && debug.warningEnabled()) {
+            lastLagWarning = now;
+            debug.warning("SessionExpiryWheel: Session timeout processing is " + lag + "ms behind with "
+                    + getBacklog() + " expired sessions waiting");
+        }
+    }
+
+    private static Set<Entry> newBucket() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>());
+    }
+
+    /**
+     * A single schedule of a session. Each schedule is a distinct entry, so that an entry that has been replaced
+     * is never mistaken for the current schedule of its session.
+     */
+    private static final class Entry {
+        private final InternalSession session;
+        private final long time;
+        private final long tick;
+        private volatile Set<Entry> bucket;
+
+        private Entry(InternalSession session, long time, long tick) {
+            this.session = session;
+            this.time = time;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.dpro.session.service;
+
+import static org.forgerock.openam.utils.Time.*;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.util.Reject;
+
+import com.iplanet.dpro.session.share.SessionNotification;
+import com.iplanet.services.comm.server.SendNotificationException;
+import com.iplanet.services.comm.share.Notification;
+import com.iplanet.services.comm.share.NotificationSet;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Delivers remote session notifications in batches, with one queue per destination URL.
+ *
+ * Notifications for a destination wait for the linger time and are then sent together in one {@link NotificationSet},
+ * so that a burst of events such as a mass logout results in a few large requests per agent rather than one request
+ * per notification. Each destination has at most one delivery in progress: destinations are served concurrently by the
+ * scheduler threads, and notifications to one destination keep their order. Notifications for the same session and
+ * event type which end up in the same batch are coalesced into the latest one.
+ *
+ * Each destination queue is bounded, and notifications are dropped when it is full. The queue is linked rather than
+ * preallocated, so a destination which is idle holds no memory for notifications. After a number of consecutive
+ * failed deliveries the destination is suspended: its notifications stay queued without any delivery attempt until the
+ * retry delay has passed, after which one batch is tried again.
+ */
+final class SessionNotificationDispatcher {
+
+    /**
+     * Sends a notification set to a destination.
+     */
+    interface Transport {
+        void send(URL url, NotificationSet notificationSet) throws SendNotificationException;
+    }
+
+    private final ConcurrentHashMap<String, Destination> destinations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Transport transport;
+    private final Debug debug;
+    private final long lingerTime;
+    private final int batchSize;
+    private final int queueSize;
+    private final int failureThreshold;
+    private final long retryDelay;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger suspendedDestinations = new AtomicInteger();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong deliveryLatency = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param scheduler Runs the deliveries; its pool size bounds the number of destinations served at once.
+     * @param transport Sends the notification sets.
+     * @param debug Debug instance.
+     * @param lingerTime Time in milliseconds a notification waits for others to the same destination.
+     * @param batchSize Maximum number of notifications in one notification set.
+     * @param queueSize Maximum number of notifications waiting for one destination.
+     * @param failureThreshold Number of consecutive failed deliveries after which a destination is suspended.
+     * @param retryDelay Time in milliseconds a destination stays suspended.
+     */
+    SessionNotificationDispatcher(ScheduledExecutorService scheduler, Transport transport, Debug debug,
+            long lingerTime, int batchSize, int queueSize, int failureThreshold, long retryDelay) {
+        Reject.ifNull(scheduler, transport, debug);
+        Reject.ifTrue(batchSize < 1 || queueSize < 1 || failureThreshold < 1);
+        this.scheduler = scheduler;
+        this.transport = transport;
+        this.debug = debug;
+        this.lingerTime = lingerTime;
+        this.batchSize = batchSize;
+        this.queueSize = queueSize;
+        this.failureThreshold = failureThreshold;
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Queues a notification for the destination URL.
+     *
+     * @param url The destination URL.
+     * @param notification The notification to send.
+     * @throws MalformedURLException If the URL is not valid.
+     */
+    void send(String url, SessionNotification notification) throws MalformedURLException {
+        Destination destination = destinations.get(url);
+        if (destination == null) {
+            Destination created = new Destination(new URL(url));
+            destination = destinations.putIfAbsent(url, created);
+            if (destination == null) {
+                destination = created;
+            }
+        }
+        destination.offer(notification);
+    }
+
+    /**
+     * @return The number of notifications waiting to be sent.
+     */
+    int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return The average number of notifications per notification set sent.
+     */
+    long getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : delivered.get() / count;
+    }
+
+    /**
+     * @return The average time in milliseconds between a notification being queued and delivered.
+     */
+    long getAverageDeliveryLatency() {
+        long count = delivered.get();
+        return count == 0 ? 0 : deliveryLatency.get() / count;
+    }
+
+    /**
+     * @return The number of notifications dropped because their destination queue was full or their delivery failed.
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return The number of destinations currently suspended after repeated delivery failures.
+     */
+    int getSuspendedDestinationCount() {
+        return suspendedDestinations.get();
+    }
+
+    private static final class Queued {
+        private final SessionNotification notification;
+        private final long queuedAt;
+
+        private Queued(SessionNotification notification, long queuedAt) {
+            this.notification = notification;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    /**
+     * The queue of one destination. Runs as the delivery task of the destination, which is scheduled at most once
+     * at a time.
+     */
+    private final class Destination implements Runnable {
+        private final URL url;
+        private final ConcurrentLinkedQueue<Queued> queue = new ConcurrentLinkedQueue<>();
+        // Reserved before a notification is queued, so the queue never exceeds the queue size
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Only accessed by the delivery task
+        private int consecutiveFailures;
+        private volatile long suspendedUntil;
+
+        private Destination(URL url) {
+            this.url = url;
+        }
+
+        void offer(SessionNotification notification) {
+            if (size.incrementAndGet() > queueSize) {
+                size.decrementAndGet();
+                if (dropped.getAndIncrement() % queueSize == 0) {
+                    debug.warning("Session notification queue for " + url + " is full, dropping notifications");
+                }
+                return;
+            }
+            queue.offer(new Queued(notification, currentTimeMillis()));
+            queueDepth.incrementAndGet();
+            schedule(lingerTime);
+        }
+
+        private void schedule(long delay) {
+            if (scheduled.compareAndSet(false, true)) {
+                long wait = Math.max(delay, suspendedUntil - currentTimeMillis());
+                try {
+                    scheduler.schedule(this, wait, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    debug.message("Session notifications to " + url + " not sent, shutting down");
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<Queued> batch = new ArrayList<>(Math.min(batchSize, size.get()));
+                Queued queued;
+                while (batch.size() < batchSize && (queued = queue.poll()) != null) {
+                    batch.add(queued);
+                }
+                size.addAndGet(-batch.size());
+                queueDepth.addAndGet(-batch.size());
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            if (!queue.isEmpty()) {
+                // The backlog does not wait for the linger time again
+                schedule(0);
+            }
+        }
+
+        private void deliver(List<Queued> batch) {
+            NotificationSet notificationSet = new NotificationSet(SessionService.SESSION_SERVICE);
+            for (SessionNotification notification : coalesce(batch)) {
+                notificationSet.addNotification(new Notification(notification.toXMLString()));
+            }
+            try {
+                transport.send(url, notificationSet);
+            } catch (SendNotificationException | RuntimeException e) {
+                dropped.addAndGet(batch.size());
+                if (++consecutiveFailures == failureThreshold) {
+                    suspendedDestinations.incrementAndGet();
+                }
+                if (consecutiveFailures >= failureThreshold) {
+                    suspendedUntil = currentTimeMillis() + retryDelay;
+                    debug.error("Remote session notifications to " + url + " suspended for " + retryDelay + "ms", e);
+                } else {
+                    debug.error("Remote session notification to " + url, e);
+                }
+                return;
+            }
+            if (consecutiveFailures >= failureThreshold) {
+                suspendedDestinations.decrementAndGet();
+                debug.message("Remote session notifications to " + url + " resumed");
+            }
+            consecutiveFailures = 0;
+            suspendedUntil = 0;
+
+            long now = currentTimeMillis();
+            long latency = 0;
+            for (Queued queued : batch) {
+                latency += now - queued.queuedAt;
+            }
+            batches.incrementAndGet();
+            delivered.addAndGet(batch.size());
+            deliveryLatency.addAndGet(latency);
+        }
+
+        private Iterable<SessionNotification> coalesce(List<Queued> batch) {
+            Map<String, SessionNotification> latest = new LinkedHashMap<>();
+            for (Queued queued : batch) {
+                SessionNotification notification = queued.notification;
+                String key = notification.getSessionInfo().getSessionID() + ':' + notification.getNotificationType();
+                // Re-insert so that the latest notification keeps its place in the order
+                latest.remove(key);
+                latest.put(key, notification);
+            }
+            return latest.values();
+        }
+    }
+}
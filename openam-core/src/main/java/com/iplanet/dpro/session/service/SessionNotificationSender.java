@@ -25,21 +25,20 @@
  * $Id: SessionService.java,v 1.37 2010/02/03 03:52:54 bina Exp $
  *
  * Portions Copyrighted 2010-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package com.iplanet.dpro.session.service;
 
 import static org.forgerock.openam.utils.Time.*;
 
-import com.iplanet.am.util.ThreadPool;
-import com.iplanet.am.util.ThreadPoolException;
 import com.iplanet.dpro.session.SessionID;
 import com.iplanet.dpro.session.SessionNotificationHandler;
 import com.iplanet.dpro.session.share.SessionInfo;
 import com.iplanet.dpro.session.share.SessionNotification;
 import com.iplanet.dpro.session.utils.SessionInfoFactory;
 import com.iplanet.services.comm.server.PLLServer;
-import com.iplanet.services.comm.share.Notification;
+import com.iplanet.services.comm.server.SendNotificationException;
 import com.iplanet.services.comm.share.NotificationSet;
 import com.sun.identity.shared.debug.Debug;
 import org.forgerock.util.thread.listener.ShutdownListener;
@@ -49,16 +48,18 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.net.URL;
-import java.util.Enumeration;
 import java.util.Map;
 import java.util.Set;
-import java.util.Vector;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Responsible for sending PLL session notification events to registered listeners.
  *
- * Remote listeners (e.g. other instances of AM, Agents, and rich clients) will be notified using PLL/HTTP.
+ * Remote listeners (e.g. other instances of AM, Agents, and rich clients) will be notified using PLL/HTTP. Their
+ * notifications are queued per destination URL and sent in batches by {@link SessionNotificationDispatcher}.
  *
  * Local listeners (i.e. this instance of AM) will be notified by calling SessionNotificationHandler directly.
  */
@@ -68,13 +69,11 @@ import java.util.concurrent.CopyOnWriteArraySet;
 @Singleton
 public class SessionNotificationSender {
 
-    private static final String THREAD_POOL_NAME = "amSession";
-
     private final Debug sessionDebug;
     private final SessionServiceConfig serviceConfig;
     private final SessionServerConfig serverConfig;
     private final SessionInfoFactory sessionInfoFactory;
-    private final ThreadPool threadPool;
+    private final SessionNotificationDispatcher dispatcher;
     /**
      * The URL Vector for ALL session events : SESSION_CREATION, IDLE_TIMEOUT,
      * MAX_TIMEOUT, LOGOUT, REACTIVATION, DESTROY.
@@ -94,23 +93,70 @@ public class SessionNotificationSender {
         this.serverConfig = serverConfig;
         this.sessionInfoFactory = sessionInfoFactory;
 
-        threadPool = new ThreadPool(THREAD_POOL_NAME, serviceConfig.getNotificationThreadPoolSize(),
-                serviceConfig.getNotificationThreadPoolThreshold(), true, sessionDebug);
-        shutdownManager.addShutdownListener(
-                new ShutdownListener() {
-                    public void shutdown() {
-                        threadPool.shutdown();
+        SessionNotificationDispatcher.Transport transport = new SessionNotificationDispatcher.Transport() {
+            @Override
+            public void send(URL url, NotificationSet notificationSet) throws SendNotificationException {
+                PLLServer.deliver(url, notificationSet);
+            }
+        };
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                serviceConfig.getNotificationThreadPoolSize(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "SessionNotification-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
                     }
-                }
-        );
-
+                });
+        shutdownManager.addShutdownListener(new ShutdownListener() {
+            @Override
+            public void shutdown() {
+                scheduler.shutdownNow();
+            }
+        });
+        dispatcher = new SessionNotificationDispatcher(scheduler, transport, sessionDebug,
+                serviceConfig.getSessionNotificationLingerTime(),
+                serviceConfig.getSessionNotificationBatchSize(),
+                serviceConfig.getSessionNotificationQueueSize(),
+                serviceConfig.getSessionNotificationFailureThreshold(),
+                serviceConfig.getSessionNotificationRetryDelay());
     }
 
     /**
      * Returns current Notification queue size.
      */
     public int getNotificationQueueSize() {
-        return threadPool.getCurrentSize();
+        return dispatcher.getQueueDepth();
+    }
+
+    /**
+     * Returns the average number of notifications sent in one request to a remote listener.
+     */
+    public long getNotificationBatchSize() {
+        return dispatcher.getAverageBatchSize();
+    }
+
+    /**
+     * Returns the average time in milliseconds between a remote notification being queued and delivered.
+     */
+    public long getNotificationLatency() {
+        return dispatcher.getAverageDeliveryLatency();
+    }
+
+    /**
+     * Returns the number of remote notifications dropped because of a full queue or a failed delivery.
+     */
+    public long getDroppedNotificationCount() {
+        return dispatcher.getDroppedCount();
+    }
+
+    /**
+     * Returns the number of remote listeners currently suspended after repeated delivery failures.
+     */
+    public int getSuspendedListenerCount() {
+        return dispatcher.getSuspendedDestinationCount();
     }
 
     /**
@@ -130,24 +176,18 @@ public class SessionNotificationSender {
      */
     public void sendEvent(InternalSession session, int eventType) {
         sessionDebug.message("Running sendEvent, type = " + eventType);
-        try {
-            SessionNotificationSenderTask sns = new SessionNotificationSenderTask(session, eventType);
-            // First send local notification. sendToLocal will return
-            // true if remote URL's exists than add the notification
-            // to the thread pool to process remote notifications.
-            if (sns.sendToLocal()) {
-                threadPool.run(sns);
-            }
-
-        } catch (ThreadPoolException e) {
-            sessionDebug.error("Sending Notification Error: ", e);
+        SessionNotificationSenderTask sns = new SessionNotificationSenderTask(session, eventType);
+        // First send local notification. sendToLocal will return
+        // true if remote URL's exists than queue the remote notifications.
+        if (sns.sendToLocal()) {
+            sns.queueRemote();
         }
     }
 
     /**
-     * Inner Session Notification Publisher Class Thread.
+     * Inner Session Notification Publisher Class.
      */
-    private class SessionNotificationSenderTask implements Runnable {
+    private class SessionNotificationSenderTask {
 
         private final InternalSession session;
         private final int eventType;
@@ -180,8 +220,8 @@ public class SessionNotificationSender {
                             // than no need to send individual notification.
                             urls.remove(globalUrl);
                         } else {
-                            // If the Global notification is for a remote URL, it should be handled from run()
-                            // - This allows remote notification to be handled asynchronously from another thread
+                            // If the Global notification is for a remote URL, it should be handled from queueRemote()
+                            // - The remote notification is then sent asynchronously by the dispatcher
                             remoteURLExists = true;
                         }
                     } catch (Exception e) {
@@ -204,8 +244,8 @@ public class SessionNotificationSender {
                                 SessionNotificationHandler.handler.processLocalNotification(notification);
                             }
                         } else {
-                            // If the Global notification is for a remote URL, it should be handled from run()
-                            // - This allows remote notification to be handled asynchronously from another thread
+                            // If the Individual notification is for a remote URL, it is handled from queueRemote()
+                            // - The remote notification is then sent asynchronously by the dispatcher
                             remoteURLExists = true;
                         }
                     } catch (Exception e) {
@@ -218,11 +258,11 @@ public class SessionNotificationSender {
 
 
         /**
-         * Thread which sends the Session Notification.
+         * Queues the Session Notification for the remote URLs.
          */
-        public void run() {
+        void queueRemote() {
             if (urls == null) {
-                throw new IllegalStateException("Must call sendToLocal before starting thread");
+                throw new IllegalStateException("Must call sendToLocal before queueing remote notifications");
             }
 
             // Check global URLs first
@@ -230,16 +270,13 @@ public class SessionNotificationSender {
 
                 SessionNotification globalNotification =
                         new SessionNotification(session.toSessionInfo(), eventType, currentTimeMillis());
-                Notification globalNotificationXml = new Notification(globalNotification.toXMLString());
-                NotificationSet globalNotificationSet = new NotificationSet(SessionService.SESSION_SERVICE);
-                globalNotificationSet.addNotification(globalNotificationXml);
 
                 for (String globalUrl : sessionEventURLs) {
                     try {
                         URL parsedGlobalUrl = new URL(globalUrl);
                         // Only send to remote URLs, local URLs should be handled by sendToLocal
                         if (!serverConfig.isLocalNotificationService(parsedGlobalUrl)) {
-                            PLLServer.send(parsedGlobalUrl, globalNotificationSet);
+                            dispatcher.send(globalUrl, globalNotification);
                         }
                     } catch (Exception e) {
                         sessionDebug.error("Remote Global notification to " + globalUrl, e);
@@ -260,11 +297,7 @@ public class SessionNotificationSender {
                                 SessionInfo info = sessionInfoFactory.makeSessionInfo(session, sid);
                                 SessionNotification notification =
                                         new SessionNotification(info, eventType, currentTimeMillis());
-                                Notification notificationXml = new Notification(notification.toXMLString());
-                                NotificationSet notificationSet = new NotificationSet(SessionService.SESSION_SERVICE);
-                                notificationSet.addNotification(notificationXml);
-
-                                PLLServer.send(parsedUrl, notificationSet);
+                                dispatcher.send(url, notification);
                             }
                         }
                     } catch (Exception e) {
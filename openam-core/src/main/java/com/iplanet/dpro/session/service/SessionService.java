@@ -25,6 +25,7 @@
  * $Id: SessionService.java,v 1.37 2010/02/03 03:52:54 bina Exp $
  *
  * Portions Copyrighted 2010-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.iplanet.dpro.session.service;
 
@@ -87,6 +88,7 @@ import org.forgerock.openam.utils.IOUtils;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpSession;
 import java.io.ByteArrayInputStream;
@@ -168,6 +170,7 @@ public class SessionService {
     private final SessionCookies sessionCookies;
     private final SessionPollerPool sessionPollerPool;
     private final StatelessSessionFactory statelessSessionFactory;
+    private final SessionExpiryWheel expiryWheel;
 
     /**
      * Reference to the ClusterMonitor instance. When server configuration changes which requires
@@ -202,7 +205,8 @@ public class SessionService {
             final SessionCache sessionCache,
             final SessionCookies sessionCookies,
             final SessionPollerPool sessionPollerPool,
-            final StatelessSessionFactory statelessSessionFactory) {
+            final StatelessSessionFactory statelessSessionFactory,
+            final Provider<SessionExpiryWheel> expiryWheelProvider) {
 
         this.sessionDebug = sessionDebug;
         this.stats = stats;
@@ -226,6 +230,7 @@ public class SessionService {
         this.sessionCache = sessionCache;
         this.sessionCookies = sessionCookies;
         this.sessionPollerPool = sessionPollerPool;
+        this.expiryWheel = serviceConfig.isSessionExpiryWheelEnabled() ? expiryWheelProvider.get() : null;
 
         try {
 
@@ -454,6 +459,15 @@ public class SessionService {
         return internalSessionFactory.newInternalSession(domain, httpSession, stateless);
     }
 
+    /**
+     * Returns the timing wheel on which session timeouts are scheduled, if it is enabled.
+     *
+     * @return The session expiry wheel, or null if session timeouts are scheduled on the system timer pool.
+     */
+    SessionExpiryWheel getExpiryWheel() {
+        return expiryWheel;
+    }
+
     /**
      * Removes the Internal Session from the Internal Session table.
      *
@@ -1024,6 +1038,22 @@ public class SessionService {
         return sessionNotificationSender.getNotificationQueueSize();
     }
 
+    /**
+     * @return The number of expired sessions waiting for timeout processing on the session expiry wheel, or 0 if
+     * the wheel is not enabled.
+     */
+    public int getExpiryBacklog() {
+        return expiryWheel == null ? 0 : expiryWheel.getBacklog();
+    }
+
+    /**
+     * @return How long in milliseconds the oldest expired session has been waiting for timeout processing on the
+     * session expiry wheel, or 0 if there is none or the wheel is not enabled.
+     */
+    public long getExpiryLag() {
+        return expiryWheel == null ? 0 : expiryWheel.getLag();
+    }
+
     public void sendEvent(InternalSession internalSession, int eventType) {
         sessionNotificationSender.sendEvent(internalSession, eventType);
     }
@@ -25,6 +25,7 @@
  * $Id: SessionService.java,v 1.37 2010/02/03 03:52:54 bina Exp $
  *
  * Portions Copyrighted 2010-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package com.iplanet.dpro.session.service;
@@ -112,6 +113,32 @@ public class SessionServiceConfig {
     private static final int DEFAULT_NOTIFICATION_THEAD_POOL_THRESHOLD = DEFAULT_NOTIFICATION_THEAD_POOL_SIZE * 10;
     private final int notificationThreadPoolThreshold;
 
+    private static final boolean DEFAULT_SESSION_EXPIRY_WHEEL_ENABLED = false;
+    private final boolean sessionExpiryWheelEnabled;
+
+    private static final long DEFAULT_SESSION_EXPIRY_WHEEL_TICK = 1000;
+    private final long sessionExpiryWheelTick;
+
+    private static final int DEFAULT_SESSION_EXPIRY_WHEEL_BATCH_SIZE = 1000;
+    private final int sessionExpiryWheelBatchSize;
+
+    private static final int DEFAULT_SESSION_EXPIRY_WHEEL_THREADS = 2;
+    private final int sessionExpiryWheelThreads;
+
+    private static final long DEFAULT_SESSION_NOTIFICATION_LINGER_TIME = 50;
+    private final long sessionNotificationLingerTime;
+
+    private static final int DEFAULT_SESSION_NOTIFICATION_BATCH_SIZE = 100;
+    private final int sessionNotificationBatchSize;
+
+    private final int sessionNotificationQueueSize;
+
+    private static final int DEFAULT_SESSION_NOTIFICATION_FAILURE_THRESHOLD = 3;
+    private final int sessionNotificationFailureThreshold;
+
+    private static final long DEFAULT_SESSION_NOTIFICATION_RETRY_DELAY = 30000;
+    private final long sessionNotificationRetryDelay;
+
     private static final long DEFAULT_APPLICATION_MAX_CACHING_TIME = Long.MAX_VALUE / 60;
     private final long applicationMaxCachingTime;
 
@@ -351,6 +378,24 @@ public class SessionServiceConfig {
                 SystemProperties.getAsLong(APPLICATION_SESSION_MAX_CACHING_TIME, DEFAULT_APPLICATION_MAX_CACHING_TIME);
         returnAppSession =
                 SystemProperties.getAsBoolean(SESSION_RETURN_APP_SESSION, DEFAULT_RETURN_APP_SESSION);
+        sessionExpiryWheelEnabled =
+                SystemProperties.getAsBoolean(SESSION_EXPIRY_WHEEL_ENABLED, DEFAULT_SESSION_EXPIRY_WHEEL_ENABLED);
+        sessionExpiryWheelTick =
+                Math.max(1, SystemProperties.getAsLong(SESSION_EXPIRY_WHEEL_TICK, DEFAULT_SESSION_EXPIRY_WHEEL_TICK));
+        sessionExpiryWheelBatchSize = Math.max(1,
+                SystemProperties.getAsInt(SESSION_EXPIRY_WHEEL_BATCH_SIZE, DEFAULT_SESSION_EXPIRY_WHEEL_BATCH_SIZE));
+        sessionExpiryWheelThreads = Math.max(1,
+                SystemProperties.getAsInt(SESSION_EXPIRY_WHEEL_THREADS, DEFAULT_SESSION_EXPIRY_WHEEL_THREADS));
+        sessionNotificationLingerTime = Math.max(0, SystemProperties.getAsLong(SESSION_NOTIFICATION_LINGER_TIME,
+                DEFAULT_SESSION_NOTIFICATION_LINGER_TIME));
+        sessionNotificationBatchSize = Math.max(1,
+                SystemProperties.getAsInt(SESSION_NOTIFICATION_BATCH_SIZE, DEFAULT_SESSION_NOTIFICATION_BATCH_SIZE));
+        sessionNotificationQueueSize = Math.max(1,
+                SystemProperties.getAsInt(SESSION_NOTIFICATION_QUEUE_SIZE, notificationThreadPoolThreshold));
+        sessionNotificationFailureThreshold = Math.max(1, SystemProperties.getAsInt(
+                SESSION_NOTIFICATION_FAILURE_THRESHOLD, DEFAULT_SESSION_NOTIFICATION_FAILURE_THRESHOLD));
+        sessionNotificationRetryDelay = Math.max(0, SystemProperties.getAsLong(SESSION_NOTIFICATION_RETRY_DELAY,
+                DEFAULT_SESSION_NOTIFICATION_RETRY_DELAY));
         sessionFailoverClusterStateCheckTimeout =
                 loadSessionFailoverClusterStateCheckTimeout();
         sessionFailoverClusterStateCheckPeriod =
@@ -615,7 +660,8 @@ public class SessionServiceConfig {
     }
 
     /**
-     * Returns value of SystemProperty "com.iplanet.am.notification.threadpool.threshold".
+     * Returns value of SystemProperty "com.iplanet.am.notification.threadpool.threshold", which is also the default
+     * maximum number of session notifications waiting for one destination.
      *
      * Defaults to 100 if not specified.
      */
@@ -632,6 +678,89 @@ public class SessionServiceConfig {
         return returnAppSession;
     }
 
+    /**
+     * Returns true if SystemProperty "org.forgerock.openam.session.expiry.wheel.enabled" is true, in which case
+     * session timeouts are scheduled on the {@link SessionExpiryWheel} rather than the system timer pool.
+     *
+     * Defaults to false.
+     */
+    public boolean isSessionExpiryWheelEnabled() {
+        return sessionExpiryWheelEnabled;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.expiry.wheel.tick" in milliseconds.
+     *
+     * Defaults to 1000 if not specified.
+     */
+    public long getSessionExpiryWheelTick() {
+        return sessionExpiryWheelTick;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.expiry.wheel.batch.size".
+     *
+     * Defaults to 1000 if not specified.
+     */
+    public int getSessionExpiryWheelBatchSize() {
+        return sessionExpiryWheelBatchSize;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.expiry.wheel.threads".
+     *
+     * Defaults to 2 if not specified.
+     */
+    public int getSessionExpiryWheelThreads() {
+        return sessionExpiryWheelThreads;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.notification.lingerTime" in milliseconds.
+     *
+     * Defaults to 50 if not specified.
+     */
+    public long getSessionNotificationLingerTime() {
+        return sessionNotificationLingerTime;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.notification.batch.size".
+     *
+     * Defaults to 100 if not specified.
+     */
+    public int getSessionNotificationBatchSize() {
+        return sessionNotificationBatchSize;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.notification.queue.size", the maximum number of
+     * notifications waiting for one destination.
+     *
+     * Defaults to the notification thread pool threshold if not specified.
+     */
+    public int getSessionNotificationQueueSize() {
+        return sessionNotificationQueueSize;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.notification.failure.threshold".
+     *
+     * Defaults to 3 if not specified.
+     */
+    public int getSessionNotificationFailureThreshold() {
+        return sessionNotificationFailureThreshold;
+    }
+
+    /**
+     * Returns value of SystemProperty "org.forgerock.openam.session.notification.retry.delay" in milliseconds.
+     *
+     * Defaults to 30000 if not specified.
+     */
+    public long getSessionNotificationRetryDelay() {
+        return sessionNotificationRetryDelay;
+    }
+
     /**
      * Returns true if SystemProperty or amSession.xml property "iplanet-am-session-sfo-enabled" is true.
      *
@@ -28,12 +28,15 @@
 
 /**
  * Portions Copyrighted 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.iplanet.services.comm.client;
 
 import com.iplanet.am.util.SystemProperties;
 import com.iplanet.services.comm.share.PLLBundle;
+import com.iplanet.services.comm.share.Request;
 import com.iplanet.services.comm.share.RequestSet;
+import com.iplanet.services.comm.share.Response;
 import com.iplanet.services.comm.share.ResponseSet;
 import com.iplanet.services.naming.WebtopNaming.SiteMonitor;
 import com.sun.identity.shared.Constants;
@@ -80,8 +83,28 @@ public class PLLClient {
     
     private static boolean useCache = Boolean.getBoolean(
       SystemProperties.get(Constants.URL_CONNECTION_USE_CACHE, "false"));
-    
-    
+
+    /** the pooled transport, if enabled */
+    private static final PooledPLLTransport pooledTransport =
+            SystemProperties.getAsBoolean(Constants.SERVICES_COMM_CLIENT_POOLED, false)
+                    ? new PooledPLLTransport(
+                            SystemProperties.getAsInt(Constants.SERVICES_COMM_CLIENT_MAX_CONNECTIONS, 5),
+                            SystemProperties.getAsLong(Constants.SERVICES_COMM_CLIENT_CONNECTION_WAIT_TIME, 10000),
+                            useCache, debug)
+                    : null;
+
+    /** combines the requests queued with sendQueued */
+    private static final PLLRequestQueue requestQueue = new PLLRequestQueue(
+            new PLLRequestQueue.Sender() {
+                @Override
+                public Vector send(URL url, String cookies, RequestSet set) throws SendRequestException {
+                    return PLLClient.send(url, cookies, set);
+                }
+            },
+            SystemProperties.getAsInt(Constants.SERVICES_COMM_CLIENT_MAX_BATCH_SIZE, 20),
+            // keep RequestSets well below the 16k the server accepts by default
+            SystemProperties.getAsInt(Constants.SERVICES_COMM_SERVER_PLLREQUEST_MAX_CONTENT_LENGTH, 16384) / 2);
+
 
     /**
      * Translates the Java object to an XML RequestSet document and sends the
@@ -139,6 +162,41 @@ public class PLLClient {
         return send(url, null, set, cookieTable);
     }
 
+    /**
+     * Sends the Request to the specified URL and waits for its Response. With
+     * the pooled transport, the Request is sent together with the other
+     * requests queued for the same URL and service while the previous
+     * RequestSet was in flight, in one RequestSet. The RequestSet is sent with
+     * the cookies of one of these requests, so only requests which do not
+     * depend on their cookies may be queued.
+     * 
+     * @param url
+     *            The destination URL for the RequestSet XML document.
+     * @param cookies
+     *            The value for Http Request Header 'Cookie'
+     * @param service
+     *            The name of the service of the Request.
+     * @param request
+     *            The Request to send.
+     * @return The Response to the Request.
+     * @exception SendRequestException
+     *                if there is an error in sending the XML document.
+     */
+    public static Response sendQueued(URL url, String cookies, String service,
+            Request request) throws SendRequestException {
+        if (pooledTransport == null) {
+            RequestSet set = new RequestSet(service);
+            set.addRequest(request);
+            Vector responses = send(url, cookies, set);
+            if (responses.size() != 1) {
+                throw new SendRequestException("Expected one response from "
+                        + url + " but received " + responses.size());
+            }
+            return (Response) responses.elementAt(0);
+        }
+        return requestQueue.send(url, cookies, service, request);
+    }
+
     // The private method that implements the above interfaces.
     // HashMap cookieTable passes in the cookies that will be replayed. It also
     // is the place holder to retrieve additional cookies if any from the
@@ -154,37 +212,19 @@ public class PLLClient {
                 debug.error("Site " + url.toString() + " is down.");
                 throw new SendRequestException("Site is down.");
             }
+
+            // replay cookies
+            cookies = toCookieHeader(cookies, cookieTable);
+            if (pooledTransport != null) {
+                return pooledTransport.send(url, cookies, set, cookieTable);
+            }
     	    
             conn = HttpURLConnectionManager.getConnection(url);
             conn.setDoOutput(true);
             conn.setUseCaches(useCache);
             conn.setRequestMethod("POST");
 
-            // replay cookies
-            StringBuffer cookieStr = null;
             if (cookies != null) {
-                cookieStr = new StringBuffer();
-                cookieStr.append(cookies);
-            }
-            if (cookieTable != null && !cookieTable.isEmpty()) {
-                for (Iterator it = cookieTable.values().iterator(); it
-                        .hasNext();) {
-                    Cookie cookie = (Cookie) it.next();
-                    if (cookieStr == null) {
-                        cookieStr = new StringBuffer();
-                    } else {
-                        cookieStr.append(";");
-                    }
-                    cookieStr.append(cookie.getName()).append("=").append(
-                            cookie.getValue());
-                }
-            }
-
-            if (cookieStr != null) {
-                cookies = cookieStr.toString();
-                if (debug.messageEnabled()) {
-                    debug.message("sending cookies: " + cookies);
-                }
                 conn.setRequestProperty("Cookie", cookies);
             }
             conn.setRequestProperty("Content-Type", "text/xml;charset=UTF-8");
@@ -219,6 +259,9 @@ public class PLLClient {
 
             ResponseSet resset = ResponseSet.parseXML(in_string);
             return resset.getResponses();
+        } catch (SendRequestException e) {
+            // Already logged, e.g. by the pooled transport
+            throw e;
         } catch (Exception e) {
             debug.warning("PLLClient.send URL=" + url + " : exception: ", e);
             throw new SendRequestException(e.getMessage());
@@ -240,6 +283,39 @@ public class PLLClient {
         }
     }
 
+    /*
+     * Returns the value of the Cookie header with the given cookies and the
+     * cookies of the cookie table, or null if there are none.
+     */
+    private static String toCookieHeader(String cookies, HashMap cookieTable) {
+        StringBuffer cookieStr = null;
+        if (cookies != null) {
+            cookieStr = new StringBuffer();
+            cookieStr.append(cookies);
+        }
+        if (cookieTable != null && !cookieTable.isEmpty()) {
+            for (Iterator it = cookieTable.values().iterator(); it
+                    .hasNext();) {
+                Cookie cookie = (Cookie) it.next();
+                if (cookieStr == null) {
+                    cookieStr = new StringBuffer();
+                } else {
+                    cookieStr.append(";");
+                }
+                cookieStr.append(cookie.getName()).append("=").append(
+                        cookie.getValue());
+            }
+        }
+
+        if (cookieStr == null) {
+            return null;
+        }
+        if (debug.messageEnabled()) {
+            debug.message("sending cookies: " + cookieStr);
+        }
+        return cookieStr.toString();
+    }
+
     /**
      * Parses the cookies from the response header and stores them in
      * in cookieTable
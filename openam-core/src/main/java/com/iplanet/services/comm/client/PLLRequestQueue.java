@@ -0,0 +1,214 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.services.comm.client;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.forgerock.util.Reject;
+
+import com.iplanet.services.comm.share.Request;
+import com.iplanet.services.comm.share.RequestSet;
+import com.iplanet.services.comm.share.Response;
+
+/**
+ * Combines the requests of concurrent callers to the same URL and service into shared RequestSets.
+ *
+ * Only one RequestSet per URL and service is in flight at a time. Requests arriving meanwhile are queued, and once the
+ * RequestSet in flight has completed, one of the waiting callers sends all queued requests in the next RequestSet and
+ * hands each caller its response. No request waits longer than one round-trip before being sent, and a single caller
+ * sends its request immediately. A RequestSet holds at most a maximum number of requests and is kept below a maximum
+ * length, so that it is accepted by the server.
+ *
+ * The RequestSet is sent with the cookies of the caller sending it, so only requests which do not depend on their
+ * cookies may be queued.
+ */
+final class PLLRequestQueue {
+
+    /**
+     * Sends a RequestSet and returns its responses.
+     */
+    interface Sender {
+        Vector send(URL url, String cookies, RequestSet set) throws SendRequestException;
+    }
+
+    /** Length of the Request element around the content of a request. */
+    private static final int REQUEST_OVERHEAD = 64;
+
+    private final ConcurrentHashMap<String, Destination> destinations = new ConcurrentHashMap<>();
+    private final Sender sender;
+    private final int maxBatchSize;
+    private final int maxBatchLength;
+
+    /**
+     * @param sender Sends the RequestSets.
+     * @param maxBatchSize The maximum number of requests in one RequestSet.
+     * @param maxBatchLength The length of the request contents above which no further request is added to a set.
+     */
+    PLLRequestQueue(Sender sender, int maxBatchSize, int maxBatchLength) {
+        Reject.ifNull(sender);
+        Reject.ifTrue(maxBatchSize < 1);
+        this.sender = sender;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchLength = maxBatchLength;
+    }
+
+    /**
+     * Sends the request in the next RequestSet to the URL and service, and waits for its response.
+     *
+     * @param url The destination URL.
+     * @param cookies The value of the Cookie header, or {@code null}.
+     * @param service The service of the request.
+     * @param request The request.
+     * @return The response to the request.
+     * @throws SendRequestException If the RequestSet could not be sent or its response is not valid.
+     */
+    Response send(URL url, String cookies, String service, Request request) throws SendRequestException {
+        String key = url.toString() + ' ' + service;
+        Destination destination = destinations.get(key);
+        if (destination == null) {
+            Destination created = new Destination(url, service);
+            destination = destinations.putIfAbsent(key, created);
+            if (destination == null) {
+                destination = created;
+            }
+        }
+        return destination.send(cookies, new Pending(request));
+    }
+
+    private static final class Pending {
+        private final Request request;
+        // Guarded by the lock of the destination
+        private boolean done;
+        private Response response;
+        private String failure;
+
+        private Pending(Request request) {
+            this.request = request;
+        }
+
+        private Response get() throws SendRequestException {
+            if (failure != null) {
+                throw new SendRequestException(failure);
+            }
+            return response;
+        }
+    }
+
+    private final class Destination {
+        private final URL url;
+        private final String service;
+        // Guarded by this
+        private final Queue<Pending> queue = new ArrayDeque<>();
+        private boolean sending;
+
+        private Destination(URL url, String service) {
+            this.url = url;
+            this.service = service;
+        }
+
+        Response send(String cookies, Pending pending) throws SendRequestException {
+            boolean interrupted = false;
+            try {
+                synchronized (this) {
+                    queue.add(pending);
+                }
+                while (true) {
+                    List<Pending> batch;
+                    synchronized (this) {
+                        while (!pending.done && sending) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) {
+                                if (queue.remove(pending)) {
+                                    interrupted = true;
+                                    throw new SendRequestException(e);
+                                }
+                                // Already being sent, wait for the response
+                                interrupted = true;
+                            }
+                        }
+                        if (pending.done) {
+                            return pending.get();
+                        }
+                        sending = true;
+                        batch = takeBatch();
+                    }
+                    try {
+                        sendBatch(cookies, batch);
+                    } finally {
+                        synchronized (this) {
+                            sending = false;
+                            notifyAll();
+                        }
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private List<Pending> takeBatch() {
+            List<Pending> batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+            int length = 0;
+            while (!queue.isEmpty() && batch.size() < maxBatchSize) {
+                int size = queue.peek().request.getContent().length() + REQUEST_OVERHEAD;
+                if (!batch.isEmpty() && length + size > maxBatchLength) {
+                    break;
+                }
+                batch.add(queue.poll());
+                length += size;
+            }
+            return batch;
+        }
+
+        private void sendBatch(String cookies, List<Pending> batch) {
+            RequestSet set = new RequestSet(service);
+            for (Pending pending : batch) {
+                set.addRequest(pending.request);
+            }
+            Vector responses = null;
+            String failure = null;
+            try {
+                responses = sender.send(url, cookies, set);
+                if (responses == null || responses.size() != batch.size()) {
+                    failure = "Expected " + batch.size() + " responses from " + url + " but received "
+                            + (responses == null ? 0 : responses.size());
+                }
+            } catch (SendRequestException | RuntimeException e) {
+                failure = e.getMessage() != null ? e.getMessage() : e.toString();
+            }
+            synchronized (this) {
+                for (int i = 0; i < batch.size(); i++) {
+                    Pending pending = batch.get(i);
+                    if (failure == null) {
+                        pending.response = (Response) responses.elementAt(i);
+                    } else {
+                        pending.failure = failure;
+                    }
+                    pending.done = true;
+                }
+            }
+        }
+    }
+}
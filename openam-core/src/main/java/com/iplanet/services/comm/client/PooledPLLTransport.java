@@ -0,0 +1,195 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.services.comm.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.http.header.TransactionIdHeader;
+import org.forgerock.openam.audit.context.AuditRequestContext;
+import org.forgerock.openam.utils.IOUtils;
+
+import com.iplanet.services.comm.share.RequestSet;
+import com.iplanet.services.comm.share.ResponseSet;
+import com.sun.identity.common.HttpURLConnectionManager;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Sends PLL RequestSets over a bounded number of kept-alive connections per server.
+ *
+ * At most a fixed number of requests to one server are in flight at a time; further callers wait for one of them to
+ * complete. Responses are always read to their end and the connections are never disconnected after a successful
+ * exchange, so the JVM keeps them alive and reuses them for the next request to the same server. The JVM keeps at most
+ * {@code http.maxConnections} idle connections per server, which should therefore not be lower than the number of
+ * connections of this transport.
+ *
+ * The RequestSet is written into a single buffer and sent with a fixed length, and the ResponseSet is parsed straight
+ * from the connection, without the String copies of the default transport. The documents are unchanged, and a
+ * Content-Length is still sent as servers require it.
+ */
+final class PooledPLLTransport {
+
+    private final ConcurrentHashMap<String, Semaphore> servers = new ConcurrentHashMap<>();
+    private final int maxConnections;
+    private final long waitTime;
+    private final boolean useCache;
+    private final Debug debug;
+
+    /**
+     * @param maxConnections The maximum number of connections to one server.
+     * @param waitTime The time in milliseconds to wait for a connection to a server.
+     * @param useCache Whether connections may use caches.
+     * @param debug The debug instance.
+     */
+    PooledPLLTransport(int maxConnections, long waitTime, boolean useCache, Debug debug) {
+        this.maxConnections = maxConnections;
+        this.waitTime = waitTime;
+        this.useCache = useCache;
+        this.debug = debug;
+    }
+
+    /**
+     * Sends the RequestSet to the URL once a connection to the server is available.
+     *
+     * @param url The destination URL.
+     * @param cookies The value of the Cookie header, or {@code null}.
+     * @param set The RequestSet to send.
+     * @param cookieTable Stores the cookies of the response, may be {@code null}.
+     * @return The responses to the requests of the set.
+     * @throws SendRequestException If no connection became available or the exchange failed.
+     */
+    Vector send(URL url, String cookies, RequestSet set, HashMap cookieTable) throws SendRequestException {
+        Semaphore connections = connectionsTo(url);
+        try {
+            if (!connections.tryAcquire(waitTime, TimeUnit.MILLISECONDS)) {
+                debug.warning("PLLClient.send URL=" + url + " : no connection available");
+                throw new SendRequestException("No connection available to " + url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SendRequestException(e);
+        }
+        try {
+            return exchange(url, cookies, set, cookieTable);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private Semaphore connectionsTo(URL url) {
+        String server = url.getProtocol() + "://" + url.getAuthority();
+        Semaphore connections = servers.get(server);
+        if (connections == null) {
+            Semaphore created = new Semaphore(maxConnections, true);
+            connections = servers.putIfAbsent(server, created);
+            if (connections == null) {
+                connections = created;
+            }
+        }
+        return connections;
+    }
+
+    private Vector exchange(URL url, String cookies, RequestSet set, HashMap cookieTable)
+            throws SendRequestException {
+        HttpURLConnection conn = null;
+        try {
+            conn = HttpURLConnectionManager.getConnection(url);
+            conn.setDoOutput(true);
+            conn.setUseCaches(useCache);
+            conn.setRequestMethod("POST");
+            if (cookies != null) {
+                conn.setRequestProperty("Cookie", cookies);
+            }
+            conn.setRequestProperty("Content-Type", "text/xml;charset=UTF-8");
+            conn.setRequestProperty(TransactionIdHeader.NAME, AuditRequestContext.createSubTransactionIdValue());
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+            try (Writer writer = new OutputStreamWriter(body, "UTF-8")) {
+                set.writeXML(writer);
+            }
+            conn.setFixedLengthStreamingMode(body.size());
+            try (OutputStream out = conn.getOutputStream()) {
+                body.writeTo(out);
+            }
+
+            ResponseSet responseSet;
+            try (InputStream in = new DrainingInputStream(conn.getInputStream())) {
+                responseSet = ResponseSet.parseXML(in);
+            }
+            if (cookieTable != null) {
+                PLLClient.parseCookies(conn.getHeaderFields(), cookieTable);
+            }
+            if (responseSet == null) {
+                throw new SendRequestException("Invalid ResponseSet received from " + url);
+            }
+            return responseSet.getResponses();
+        } catch (IOException e) {
+            debug.warning("PLLClient.send URL=" + url + " : exception: ", e);
+            if (conn != null) {
+                // Read the error stream so that the connection can be reused
+                InputStream errorStream = conn.getErrorStream();
+                if (errorStream != null) {
+                    try {
+                        debug.warning("Error stream content is " + IOUtils.readStream(errorStream));
+                    } catch (IOException ioe) {
+                        debug.warning("Error while reading the error stream", ioe);
+                    }
+                }
+            }
+            throw new SendRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the rest of the response before closing it, as the parser may stop before the end of the stream and a
+     * connection can only be reused once its response has been read completely.
+     */
+    private static final class DrainingInputStream extends FilterInputStream {
+        private boolean closed;
+
+        private DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                byte[] buffer = new byte[512];
+                while (in.read(buffer) != -1) {
+                    // Discard
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
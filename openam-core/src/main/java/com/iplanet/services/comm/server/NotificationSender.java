@@ -28,11 +28,13 @@
 
 /**
  * Portions Copyrighted 2011-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.iplanet.services.comm.server;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -118,4 +120,61 @@ public class NotificationSender {
             }
         }
     }
+
+    /**
+     * Sends the notification set like {@link #run()}, but leaves the connection open once the response has been
+     * read, so that the JVM can reuse it for the next notification to the same destination.
+     *
+     * @throws SendNotificationException if the destination could not be reached or answered with a server error.
+     */
+    void deliver() throws SendNotificationException {
+        HttpURLConnection conn = null;
+        try {
+            conn = HttpURLConnectionManager.getConnection(url);
+            conn.setDoOutput(true);
+            conn.setUseCaches(useCache);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "text/xml;charset=UTF-8");
+            conn.setRequestProperty(TransactionIdHeader.NAME, AuditRequestContext.createSubTransactionIdValue());
+            String xml = set.toXMLString();
+            byte[] body = xml.getBytes("UTF-8");
+            conn.setFixedLengthStreamingMode(body.length);
+            if (PLLServer.pllDebug.messageEnabled()) {
+                PLLServer.pllDebug.message("Sent NotificationSet XML :" + xml);
+            }
+            try (OutputStream httpOut = conn.getOutputStream()) {
+                httpOut.write(body);
+            }
+            int status = conn.getResponseCode();
+            // Read the response fully, otherwise the connection cannot be kept alive
+            String response = readFully(status < HttpURLConnection.HTTP_BAD_REQUEST
+                    ? conn.getInputStream() : conn.getErrorStream());
+            if (status >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                throw new SendNotificationException("Notification to " + url + " failed with status " + status);
+            }
+            if (!response.equals("OK") && PLLServer.pllDebug.messageEnabled()) {
+                // Not all agents answer with 'OK', see OPENAM-498
+                PLLServer.pllDebug.message("Unexpected response to notification from " + url + ": " + response);
+            }
+        } catch (IOException e) {
+            if (conn != null) {
+                conn.disconnect();
+            }
+            throw new SendNotificationException(e);
+        }
+    }
+
+    private static String readFully(InputStream stream) throws IOException {
+        if (stream == null) {
+            return "";
+        }
+        StringBuilder buffer = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(stream, "UTF-8"))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                buffer.append(line);
+            }
+        }
+        return buffer.toString();
+    }
 }
@@ -25,6 +25,7 @@
  * $Id: PLLRequestServlet.java,v 1.9 2009/02/12 17:24:13 bina Exp $
  *
  * Portions Copyrighted 2012-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.iplanet.services.comm.server;
 
@@ -39,6 +40,8 @@ import org.forgerock.guice.core.InjectorHolder;
 import org.forgerock.openam.audit.AuditEventFactory;
 import org.forgerock.openam.audit.AuditEventPublisher;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -127,25 +130,30 @@ public class PLLRequestServlet extends HttpServlet {
                 rlength += r;
                 offset += r;
             }
-            String xml = new String(reqData, 0, length, "UTF-8");
-
-            RequestSet set = RequestSet.parseXML(xml);
+            // Parse the bytes directly rather than decoding them into a String first
+            RequestSet set = RequestSet.parseXML(new ByteArrayInputStream(reqData));
+            if (set == null) {
+                throw servletException("invalidRequestSet");
+            }
             String svcid = set.getServiceID();
             if(!AUTH_SVC_ID.equalsIgnoreCase(svcid)) {
                 if (PLLServer.pllDebug.messageEnabled()) {
-                    PLLServer.pllDebug.message("\nReceived RequestSet XML :\n" + xml);
+                    PLLServer.pllDebug.message("\nReceived RequestSet XML :\n"
+                            + new String(reqData, 0, length, "UTF-8"));
                 }
             }
 
-            String responseXML = handleRequest(auditor, set, req, res);
-            res.setContentLength(responseXML.getBytes("UTF-8").length);
-            OutputStreamWriter out = new OutputStreamWriter(res.getOutputStream(),
-                    "UTF-8");
+            ResponseSet responseSet = handleRequest(auditor, set, req, res);
+            // Encode the response once, into the buffer its length is taken from
+            ByteArrayOutputStream responseData = new ByteArrayOutputStream(1024);
+            OutputStreamWriter writer = new OutputStreamWriter(responseData, "UTF-8");
+            responseSet.writeXML(writer);
+            writer.close();
+            res.setContentLength(responseData.size());
+            ServletOutputStream out = res.getOutputStream();
             try {
-                out.write(responseXML);
+                responseData.writeTo(out);
                 out.flush();
-            } catch (IOException e) {
-                throw e;
             } finally {
                 try {
                     out.close();
@@ -185,11 +193,12 @@ public class PLLRequestServlet extends HttpServlet {
      * 
      * @param String XML RequestSet String - Conforming to RequestSet.dtd @param
      * req HttpServletRequest object @param res HttpServletResponse object
-     * @return String XML ResponseSet String - Conforming to ResponseSet.dtd
+     * @return ResponseSet conforming to ResponseSet.dtd
      * 
      * @see sunir.share.profile.service.server.http.RequestProcessor
      */
-    private String handleRequest(PLLAuditor auditor, RequestSet set, HttpServletRequest req, HttpServletResponse res)
+    private ResponseSet handleRequest(PLLAuditor auditor, RequestSet set, HttpServletRequest req,
+            HttpServletResponse res)
             throws ServletException {
         if (!isValid(set)) {
             throw servletException("invalidRequestSet");
@@ -201,7 +210,7 @@ public class PLLRequestServlet extends HttpServlet {
         }
         ResponseSet rset = handler.process(auditor, set.getRequests(), req, res, getServletConfig().getServletContext());
         rset.setRequestSetID(set.getRequestSetID());
-        return rset.toXMLString();
+        return rset;
     }
 
     /*
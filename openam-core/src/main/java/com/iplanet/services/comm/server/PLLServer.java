@@ -24,6 +24,8 @@
  *
  * $Id: PLLServer.java,v 1.3 2008/06/25 05:41:35 qcheng Exp $
  *
+ * Portions Copyright 2026 Wren Security.
+ *
  */
 
 package com.iplanet.services.comm.server;
@@ -68,4 +70,24 @@ public class PLLServer {
         NotificationSender sender = new NotificationSender(url, set);
         sender.run();
     }
+
+    /**
+     * Sends the NotificationSet to the destination URL, reusing a kept-alive
+     * connection to the destination if there is one. Unlike
+     * {@link #send(URL, NotificationSet)}, failures to reach the destination
+     * are reported to the caller.
+     *
+     * @param url
+     *            The destination URL for the NotificationSet XML document.
+     * @param set
+     *            The NotificationSet Java object to be translated to an XML
+     *            NotificationSet document.
+     * @exception SendNotificationException
+     *                is thrown if the destination could not be reached or
+     *                answered with a server error.
+     */
+    public static void deliver(URL url, NotificationSet set)
+            throws SendNotificationException {
+        new NotificationSender(url, set).deliver();
+    }
 }
@@ -28,14 +28,20 @@
 
 /*
  * Portions Copyrighted 2011 ForgeRock AS
+ * Portions Copyright 2026 Wren Security.
  */
 
 package com.iplanet.services.comm.share;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import com.sun.identity.shared.xml.XMLUtils;
+
 /**
  * This <code>RequestSet</code> class represents a RequestSet XML document.
  * The RequestSet DTD is defined as the following:
@@ -125,6 +131,21 @@ public class RequestSet {
         return parser.parseXML();
     }
 
+    /**
+     * Reconstructs a RequestSet object from an XML document read from a
+     * stream, without first copying the document into a String.
+     * 
+     * @param in
+     *            The stream of the UTF-8 encoded RequestSet XML document.
+     * @return The RequestSet, or <code>null</code> if the document could not
+     *         be parsed.
+     */
+    public static RequestSet parseXML(InputStream in) {
+        RequestSetParser parser = new RequestSetParser(
+                XMLUtils.toDOMDocument(in, RequestSetParser.debug));
+        return parser.parseXML();
+    }
+
     /**
      * Gets the version of the RequestSet.
      *
@@ -180,6 +201,29 @@ public class RequestSet {
      */
     public String toXMLString() {
         StringBuilder xml = new StringBuilder(300);
+        try {
+            writeXML(xml);
+        } catch (IOException e) {
+            // Not thrown by StringBuilder
+            throw new IllegalStateException(e);
+        }
+        return xml.toString();
+    }
+
+    /**
+     * Writes the XML RequestSet document returned by {@link #toXMLString()}
+     * to a writer, without building the whole document as a String first.
+     * 
+     * @param out
+     *            The writer to write the document to.
+     * @throws IOException
+     *             if the document could not be written.
+     */
+    public void writeXML(Writer out) throws IOException {
+        writeXML((Appendable) out);
+    }
+
+    private void writeXML(Appendable xml) throws IOException {
         xml.append("<?xml version=").append(QUOTE).append("1.0").append(QUOTE)
                 .append(" encoding=").append(QUOTE).append("UTF-8").append(
                         QUOTE).append(" standalone=").append(QUOTE).append(
@@ -206,7 +250,6 @@ public class RequestSet {
             xml.append("</Request>").append(NL);
         }
         xml.append("</RequestSet>");
-        return (xml.toString());
     }
 
     /*
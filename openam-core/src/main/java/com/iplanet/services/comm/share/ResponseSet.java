@@ -28,11 +28,17 @@
 
 /**
  * Portions Copyrighted [2011] [ForgeRock AS]
+ * Portions Copyright 2026 Wren Security.
  */
 package com.iplanet.services.comm.share;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.util.Vector;
 
+import com.sun.identity.shared.xml.XMLUtils;
+
 /**
  * This <code>ResponseSet</code> class represents a ResponseSet XML document.
  * The ResponseSet DTD is defined as the following:
@@ -119,6 +125,21 @@ public class ResponseSet {
         return parser.parseXML();
     }
 
+    /**
+     * Reconstructs a ResponseSet object from an XML document read from a
+     * stream, without first copying the document into a String.
+     * 
+     * @param in
+     *            The stream of the UTF-8 encoded ResponseSet XML document.
+     * @return The ResponseSet, or <code>null</code> if the document could not
+     *         be parsed.
+     */
+    public static ResponseSet parseXML(InputStream in) {
+        ResponseSetParser parser = new ResponseSetParser(
+                XMLUtils.toDOMDocument(in, RequestSetParser.debug));
+        return parser.parseXML();
+    }
+
     /**
      * Sets the original RequestSet ID for this object.
      * 
@@ -155,6 +176,29 @@ public class ResponseSet {
      */
     public String toXMLString() {
         StringBuilder xml = new StringBuilder(300);
+        try {
+            writeXML(xml);
+        } catch (IOException e) {
+            // Not thrown by StringBuilder
+            throw new IllegalStateException(e);
+        }
+        return xml.toString();
+    }
+
+    /**
+     * Writes the XML ResponseSet document returned by {@link #toXMLString()}
+     * to a writer, without building the whole document as a String first.
+     * 
+     * @param out
+     *            The writer to write the document to.
+     * @throws IOException
+     *             if the document could not be written.
+     */
+    public void writeXML(Writer out) throws IOException {
+        writeXML((Appendable) out);
+    }
+
+    private void writeXML(Appendable xml) throws IOException {
         xml.append("<?xml version=").append(QUOTE).append("1.0").append(QUOTE)
                 .append(" encoding=").append(QUOTE).append("UTF-8").append(
                         QUOTE).append(" standalone=").append(QUOTE).append(
@@ -178,7 +222,6 @@ public class ResponseSet {
             xml.append("</Response>").append(NL);
         }
         xml.append("</ResponseSet>");
-        return (xml.toString());
     }
 
     /*
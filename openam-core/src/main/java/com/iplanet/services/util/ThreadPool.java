@@ -24,14 +24,14 @@
  *
  * $Id: ThreadPool.java,v 1.3 2008/06/25 05:41:41 qcheng Exp $
  *
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.iplanet.services.util;
 
-// TODO:
-// Stopping individual tasks
-// ThreadGroups
-// Exception propagation or callbacks
+import java.util.concurrent.RejectedExecutionException;
+
+import org.forgerock.openam.shared.concurrency.MonitoredThreadPool;
 
 import com.sun.identity.shared.debug.Debug;
 
@@ -55,26 +55,18 @@ import com.sun.identity.shared.debug.Debug;
  * In future, this class may be enhanced to provide support growing the size of
  * the pool at runtime to facilitate dynamic tuning.
  * </p>
+ * <p>
+ * The tasks run on a {@link MonitoredThreadPool} of the same name without a
+ * task queue, which reports the activity of the pool through JMX.
+ * </p>
  */
-
 public final class ThreadPool {
-    private static int nextThreadID = 1;
-
-    private Debug debug;
 
-    private String poolName;
+    private final Debug debug;
 
-    private IPSThread[] allThreadList;
+    private final String poolName;
 
-    private IPSThread[] idleThreadList;
-
-    /**
-     * tail points to the last available idle thread in the idleThreadList. When
-     * the idleThreadList is empty, tail is set to -1. IMPORTANT: tail MUST
-     * always be accessed by acquiring a lock on idleThreadList. Otherwise, the
-     * code will break.
-     */
-    private volatile int tail = -1;
+    private final MonitoredThreadPool executor;
 
     /**
      * <p>
@@ -105,30 +97,14 @@ public final class ThreadPool {
 
         this.debug = debug;
 
-        // ensure that there is at least one thread in the pool
-        numThreads = Math.max(1, numThreads);
-
-        // Normally Lists should be used. However, since this class is a
-        // performance-critical low level code, arrays are used to fully
-        // optmize.
-        idleThreadList = new IPSThread[numThreads];
-        allThreadList = new IPSThread[numThreads];
-
-        // Now initialized only allThreads list. idleThreads list will be
-        // updated by the threads when they are idle and ready.
-
-        for (int i = 0; i < numThreads; ++i) {
-            allThreadList[i] = new IPSThread(getNextIPSThreadID(), daemon);
-        }
-    }
-
-    /** Suppress the no-arg constructor because it is not supported */
-    private ThreadPool() {
-    }
-
-    /** Gets the unique name for the internal thread in the pool */
-    private synchronized String getNextIPSThreadID() {
-        return poolName + ".Thread#" + Integer.toString(nextThreadID++);
+        // ensure that there is at least one thread in the pool, and hand
+        // each task straight to an idle thread, waiting for one if necessary
+        this.executor = MonitoredThreadPool.builder(poolName)
+                .threads(Math.max(1, numThreads))
+                .queueSize(0)
+                .rejectionPolicy(MonitoredThreadPool.RejectionPolicy.BLOCK)
+                .daemon(daemon)
+                .build();
     }
 
     /**
@@ -142,45 +118,43 @@ public final class ThreadPool {
      * @throws InterruptedException
      *             when the thread invoking <code>run</code> is interrupted.
      */
-    public final void run(Runnable task) throws InterruptedException {
-        IPSThread ipsThread;
-        synchronized (idleThreadList) {
-            while (tail == -1) {
-                if ((debug != null) && (debug.warningEnabled())) {
-                    debug.warning(Thread.currentThread().getName()
-                            + " waiting for an idle thread in " + toString());
+    public final void run(final Runnable task) throws InterruptedException {
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        if (debug != null) {
+                            debug.error(Thread.currentThread().getName()
+                                    + " caught exception that fell through from "
+                                    + task + ".run()", e);
+                        }
+                    }
                 }
-                idleThreadList.wait();
-            }
 
-            // Now there is at least one idle thread available
-            ipsThread = idleThreadList[tail--];
-
-            // Now that the idle thread is off the idleThreadList, there is no
-            // danger of some other task being simultaneously assigned to that
-            // idle thread. Release the lock on idleThreadList now so that
-            // other tasks can be processed concurrently.
+                public String toString() {
+                    return String.valueOf(task);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                // clear the flag re-asserted by the pool, as it is thrown
+                Thread.interrupted();
+                throw (InterruptedException) e.getCause();
+            }
+            throw e;
         }
-        // logMessage(Thread.currentThread().getName() + " assigning task '" +
-        // task + "' to " + ipsThread.getName());
-
-        ipsThread.process(task);
     }
 
     /**
      * Stops all the idle threads in the pool. Note that these stopped threads
      * are no longer availble for future tasks because they are returned to
-     * underlying virtual machine. Also note that none of the active threads in
-     * the pool are stopped.
+     * underlying virtual machine, so the pool accepts no more tasks. Also note
+     * that none of the active threads in the pool are stopped.
      */
     public final void stopIdleThreads() {
-        synchronized (idleThreadList) {
-            while (tail >= 0) {
-                IPSThread idleThread = idleThreadList[tail];
-                idleThreadList[tail--] = null;
-                idleThread.stop();
-            }
-        }
+        executor.shutdown();
     }
 
     /**
@@ -188,29 +162,7 @@ public final class ThreadPool {
      * the pool and releases all resources.
      */
     public final void destroy() {
-        // stop the idle threads first to be more productive
-        stopIdleThreads();
-
-        try {
-            // give the idle threads a chance to die
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            // no need to reassert InterruptedException here because the
-            // pool is being shutdown
-        }
-
-        // now go through allThreadList and stop everything
-        synchronized (allThreadList) {
-            int numThreads = allThreadList.length;
-            int i = 0;
-            while (i < numThreads) {
-                IPSThread ipsThread = allThreadList[i];
-                allThreadList[i++] = null;
-                if (ipsThread.isAlive()) {
-                    ipsThread.stop();
-                }
-            }
-        }
+        executor.shutdownNow();
     }
 
     /**
@@ -218,160 +170,13 @@ public final class ThreadPool {
      * name, size and the number of currently idle threads
      */
     public String toString() {
-        synchronized (idleThreadList) {
-            return poolName + "[" + allThreadList.length + " Total threads, "
-                    + ((tail >= 0) ? (tail + 1) : 0) + " Idle threads]";
-        }
+        int total = executor.getPoolSize();
+        return poolName + "[" + total + " Total threads, "
+                + Math.max(0, total - executor.getActiveCount()) + " Idle threads]";
     }
 
     /** Returns the name of this thread pool */
     public final String getName() {
         return poolName;
     }
-
-    private final void logMessage(String msg) {
-        if (debug == null) {
-            return;
-        }
-        debug.message(msg);
-    }
-
-    /** ******************************************************************** */
-    /** An inner class that actually executes the user-defined tasks. */
-    private final class IPSThread {
-        // This internal thread will handle only one task at a time
-        private volatile Runnable task;
-
-        private Thread thread;
-
-        private volatile boolean stopped = false;
-
-        IPSThread(String name, boolean daemon) {
-            Runnable r = new Runnable() {
-                public void run() {
-                    try {
-                        runTask();
-                    } catch (Throwable t) {
-                        // In case any exception slips through
-                        if (debug != null) {
-                            debug.error(IPSThread.this.thread.getName()
-                                    + " caught exception that fell through", t);
-                        }
-                    }
-                }
-            };
-            thread = new Thread(r, name);
-            thread.setDaemon(daemon);
-            thread.start();
-        }
-
-        /** Explicitly suppressed because it is not supported */
-        private IPSThread() {
-        }
-
-        /**
-         * Accepts the user-defined task for execution. Note that by design this
-         * method is called only when this thread is idle.
-         */
-        final synchronized void process(Runnable task)
-                throws InterruptedException {
-            this.task = task;
-
-            // Since only one thread can wait on this object, notifyAll() is
-            // not used.
-            notify();
-        }
-
-        /**
-         * Actually runs the user-defined task. This thread adds itself to the
-         * idleThreadList in the parent pool and waits to be assinged a task.
-         * When the task is assinged, it goes ahead and executes it. While
-         * executing, this thread is not on the idleThreadList.
-         */
-        private void runTask() {
-            while (!stopped) {
-                try {
-                    // This thread is ready to rock-n-roll! Add this thread to
-                    // the idleThreadList
-                    synchronized (idleThreadList) {
-                        idleThreadList[++tail] = this;
-
-                        // If idleThreadList was empty, notify the waiting
-                        // threads
-                        if (tail == 0) {
-                            idleThreadList.notifyAll();
-                        }
-                    }
-
-                    // Now wait until the parent pool assigns this thread a task
-                    synchronized (this) {
-                        while (task == null) {
-                            wait();
-                        }
-                    }
-
-                    // logMessage(thread.getName() + " is running the task '" +
-                    // task + "'");
-                    try {
-                        task.run();
-                    } catch (Exception e) {
-                        if (debug != null) {
-                            debug.error(thread.getName()+ 
-                                    " caught exception that fell through from "
-                                                    + task + ".run()", e);
-                        }
-                    } finally {
-                        // Clear the interrupted flag (in case it comes back
-                        // set) so that if the loops goes again, the task.wait()
-                        // does not mistakenly throw an InterruptedException.
-
-                        Thread.interrupted();
-                    }
-                } catch (InterruptedException e) {
-                    // This catch must be here (in addition to the one inside
-                    // the corresponding try{}) so that a task is not run
-                    // mistakenly after this thread is interrupted.
-
-                    Thread.currentThread().interrupt(); // re-assert
-                } catch (Throwable t) {
-                    // Fatal exception occurred. But we don't want to stop this
-                    // thread as that might only deplete the thread pool.
-                    if (debug != null) {
-                        debug.error(thread.getName()+ 
-                                ": runTask() caught throwable. Investigate " +
-                                "the problem", t);
-                    }
-                } finally {
-                    // set task to null so that the task doesn't get executed
-                    // repeatedly.
-                    // logMessage(thread.getName() +
-                    // " compeleted the task '" + task + "'");
-                    task = null;
-                }
-            }
-            if (debug != null) {
-                debug.error(thread.getName() + " stopped.", (Throwable) null);
-            }
-        }
-
-        /**
-         * Stops this thread. This method may return before this thread actually
-         * dies.
-         */
-        private final void stop() {
-            logMessage(thread.getName() + " received stop() request.");
-            stopped = true;
-            thread.interrupt();
-        }
-
-        /** Gets the name of this thread */
-        final String getName() {
-            return thread.getName();
-        }
-
-        /** Checks if this thread is alive or dead */
-        final boolean isAlive() {
-            return thread.isAlive();
-        }
-    }
 }
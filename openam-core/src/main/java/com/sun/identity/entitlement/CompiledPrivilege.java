@@ -0,0 +1,200 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.entitlement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.security.auth.Subject;
+
+import org.forgerock.openam.entitlement.PrivilegeEvaluatorContext;
+
+import com.sun.identity.entitlement.CostedCondition.Cost;
+
+/**
+ * Immutable evaluation plan of a {@link Privilege}.
+ *
+ * A privilege is compiled the first time it is evaluated, and the plan is kept until the subject or the
+ * condition of the privilege is replaced. As policy changes produce new privilege instances, each policy
+ * version is compiled once and every subsequent evaluation runs against the plan:
+ * <ul>
+ *     <li>The subject and condition cache keys are computed once, rather than serialising the subject and
+ *     condition to JSON on every evaluation.</li>
+ *     <li>Privileges with equivalent subjects share a single subject decision per evaluation, through the
+ *     {@link PrivilegeEvaluatorContext}.</li>
+ *     <li>The members of {@link AndCondition}s and {@link OrCondition}s are ordered by the cost estimated by
+ *     {@link CostedCondition}, so that cheap environment checks can short-circuit the evaluation before
+ *     directory lookups or scripts are run.</li>
+ * </ul>
+ */
+final class CompiledPrivilege {
+
+    private final EntitlementSubject subject;
+    private final String subjectKey;
+    private final EntitlementCondition condition;
+    private final String conditionKey;
+
+    private CompiledPrivilege(EntitlementSubject subject, String subjectKey, EntitlementCondition condition,
+            String conditionKey) {
+        this.subject = subject;
+        this.subjectKey = subjectKey;
+        this.condition = condition;
+        this.conditionKey = conditionKey;
+    }
+
+    /**
+     * Compiles the subject and condition of a privilege.
+     *
+     * @param subject The subject of the privilege, may be null.
+     * @param condition The condition of the privilege, may be null.
+     * @return The evaluation plan.
+     */
+    static CompiledPrivilege compile(EntitlementSubject subject, EntitlementCondition condition) {
+        String subjectKey = subject == null ? null : subject.getClass().getName() + subject.getState();
+        String conditionKey = condition == null ? null : condition.getClass().getName() + condition.getState();
+        return new CompiledPrivilege(subject, subjectKey, order(condition), conditionKey);
+    }
+
+    /**
+     * @return The subject of the privilege, may be null.
+     */
+    EntitlementSubject getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return The condition of the privilege with its logical members ordered by cost, may be null.
+     */
+    EntitlementCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * @return The key under which decisions of the original condition are cached, or null if there is no
+     * condition.
+     */
+    String getConditionKey() {
+        return conditionKey;
+    }
+
+    /**
+     * Evaluates the subject, reusing the decision made for an equivalent subject of another privilege during
+     * the current evaluation, if there is one.
+     *
+     * @param mgr The subject attributes manager.
+     * @param realm The realm.
+     * @param requestSubject The subject of the request.
+     * @param resourceName The resource name.
+     * @param environment The environment.
+     * @return The subject decision.
+     * @throws EntitlementException If the subject could not be evaluated.
+     */
+    SubjectDecision evaluateSubject(SubjectAttributesManager mgr, String realm, Subject requestSubject,
+            String resourceName, Map<String, Set<String>> environment) throws EntitlementException {
+        PrivilegeEvaluatorContext context = PrivilegeEvaluatorContext.getCurrent();
+        if (context == null) {
+            return subject.evaluate(realm, mgr, requestSubject, resourceName, environment);
+        }
+
+        // The context is shared across the evaluator threads. Two threads may evaluate the same subject at the
+        // same time, which is harmless, so the subject is evaluated outside the lock.
+        Map<String, SubjectDecision> decisions;
+        synchronized (context) {
+            decisions = context.getSubjectDecisionCache(resourceName);
+            SubjectDecision cached = decisions.get(subjectKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        SubjectDecision decision = subject.evaluate(realm, mgr, requestSubject, resourceName, environment);
+        synchronized (context) {
+            decisions.put(subjectKey, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * Estimates the relative cost of evaluating a condition. A logical condition costs as much as its most
+     * expensive member.
+     *
+     * @param condition The condition.
+     * @return The estimated cost.
+     */
+    static Cost getCost(EntitlementCondition condition) {
+        if (condition instanceof LogicalCondition) {
+            Cost cost = Cost.ENVIRONMENT;
+            Set<EntitlementCondition> members = ((LogicalCondition) condition).getEConditions();
+            if (members != null) {
+                for (EntitlementCondition member : members) {
+                    Cost memberCost = getCost(member);
+                    if (memberCost.compareTo(cost) > 0) {
+                        cost = memberCost;
+                    }
+                }
+            }
+            return cost;
+        }
+        if (condition instanceof NotCondition) {
+            EntitlementCondition wrapped = ((NotCondition) condition).getECondition();
+            return wrapped == null ? Cost.ENVIRONMENT : getCost(wrapped);
+        }
+        if (condition instanceof CostedCondition) {
+            return ((CostedCondition) condition).getEvaluationCost();
+        }
+        return Cost.UNKNOWN;
+    }
+
+    /**
+     * Copies the and/or conditions of a condition tree with their members ordered by cost. Other conditions,
+     * including subclasses of the logical conditions, are shared rather than copied.
+     */
+    private static EntitlementCondition order(EntitlementCondition condition) {
+        if (condition == null) {
+            return null;
+        }
+        Class<?> type = condition.getClass();
+        if (type != AndCondition.class && type != OrCondition.class) {
+            return condition;
+        }
+
+        LogicalCondition logical = (LogicalCondition) condition;
+        Set<EntitlementCondition> members = logical.getEConditions();
+        if (members == null || members.isEmpty()) {
+            return condition;
+        }
+        List<EntitlementCondition> ordered = new ArrayList<>(members.size());
+        for (EntitlementCondition member : members) {
+            ordered.add(order(member));
+        }
+        Collections.sort(ordered, new Comparator<EntitlementCondition>() {
+            @Override
+            public int compare(EntitlementCondition first, EntitlementCondition second) {
+                return getCost(first).compareTo(getCost(second));
+            }
+        });
+
+        LogicalCondition copy = type == AndCondition.class ? new AndCondition() : new OrCondition();
+        copy.setDisplayType(logical.getDisplayType());
+        copy.setPConditionName(logical.getPConditionName());
+        copy.setEConditions(new LinkedHashSet<>(ordered));
+        return copy;
+    }
+}
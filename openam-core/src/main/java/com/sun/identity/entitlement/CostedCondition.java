@@ -0,0 +1,45 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.entitlement;
+
+/**
+ * Implemented by {@link EntitlementCondition}s which can estimate the relative cost of their evaluation.
+ *
+ * The members of {@link AndCondition}s and {@link OrCondition}s are evaluated cheapest first, so that cheap
+ * checks can decide the outcome before directory lookups or scripts are run. Conditions which do not implement
+ * this interface are treated as {@link Cost#UNKNOWN}.
+ */
+public interface CostedCondition {
+
+    /**
+     * Relative costs of evaluating a condition, cheapest first.
+     */
+    enum Cost {
+        /** Conditions which only inspect the environment or the request. */
+        ENVIRONMENT,
+        /** Conditions which inspect the session of the subject. */
+        SESSION,
+        /** Conditions of unknown cost, such as custom conditions. */
+        UNKNOWN,
+        /** Conditions which call out to the data store, DNS or a script engine. */
+        REMOTE
+    }
+
+    /**
+     * @return The estimated cost of evaluating this condition.
+     */
+    Cost getEvaluationCost();
+}
@@ -550,8 +550,12 @@ public class Entitlement {
 
         if (!userIds.isEmpty()) {
             for (String r : set) {
+                if (!r.contains(Privilege.RESOURCE_MACRO_SELF)) {
+                    resources.add(r);
+                    continue;
+                }
                 for (String uid : userIds) {
-                    resources.add(r.replaceAll("\\$SELF", uid));
+                    resources.add(r.replace(Privilege.RESOURCE_MACRO_SELF, uid));
                 }
             }
         }
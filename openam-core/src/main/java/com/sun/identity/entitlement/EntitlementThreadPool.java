@@ -25,12 +25,16 @@
  * $Id: EntitlementThreadPool.java,v 1.1 2009/08/19 05:40:32 veiming Exp $
  *
  * Portions Copyrighted 2013-2015 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.sun.identity.entitlement;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import com.sun.identity.entitlement.interfaces.IThreadPool;
 import org.forgerock.openam.entitlement.PolicyConstants;
+import org.forgerock.openam.shared.concurrency.MonitoredThreadPool;
 import org.forgerock.util.thread.listener.ShutdownListener;
 import org.forgerock.util.thread.listener.ShutdownManager;
 
@@ -38,14 +42,22 @@ import org.forgerock.util.thread.listener.ShutdownManager;
  * Thread Pool
  */
 public class EntitlementThreadPool implements IThreadPool {
-    private ThreadPool thrdPool;
+    private volatile MonitoredThreadPool thrdPool;
 
-    public EntitlementThreadPool(int size) {
+    /**
+     * Creates the pool.
+     *
+     * @param name The name of the pool, which must be distinct so that its threads, properties and MBean are its own.
+     * @param size The default number of threads.
+     */
+    public EntitlementThreadPool(String name, int size) {
 
-        thrdPool = new ThreadPool("entitlementThreadPool", size);
+        thrdPool = MonitoredThreadPool.builder(name).threads(size).build();
         ShutdownManager shutdownMan = com.sun.identity.common.ShutdownManager.getInstance();
         shutdownMan.addShutdownListener(new ShutdownListener() {
             public void shutdown() {
+                // Pending tasks are discarded, running ones complete
+                thrdPool.getQueue().clear();
                 thrdPool.shutdown();
                 thrdPool = null;
             }
@@ -53,11 +65,11 @@ public class EntitlementThreadPool implements IThreadPool {
     }
 
     public void submit(Runnable task) {
-
-        if (thrdPool != null) {
+        MonitoredThreadPool pool = thrdPool;
+        if (pool != null) {
             try {
-                thrdPool.run(task);
-            } catch (ThreadPoolException e) {
+                pool.execute(task);
+            } catch (RejectedExecutionException e) {
                 PolicyConstants.DEBUG.error("EntitlementThreadPool.submit", e);
             }
         }
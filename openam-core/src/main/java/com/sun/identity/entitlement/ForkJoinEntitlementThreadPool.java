@@ -0,0 +1,167 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.entitlement;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.forgerock.openam.entitlement.PolicyConstants;
+import org.forgerock.util.Reject;
+import org.forgerock.util.thread.listener.ShutdownListener;
+import org.forgerock.util.thread.listener.ShutdownManager;
+
+import com.sun.identity.entitlement.interfaces.IThreadPool;
+
+/**
+ * Work-stealing thread pool for policy evaluation.
+ *
+ * Rather than queueing one task per fixed size batch of privileges, {@link #forEach} splits the privileges of
+ * an evaluation in halves until the batches are small enough to evaluate, and idle workers steal the halves
+ * that have not been started yet. Large and subtree evaluations therefore spread across all workers without a
+ * shared task queue, and each privilege is handed to the caller as soon as it has been evaluated.
+ */
+public class ForkJoinEntitlementThreadPool implements IThreadPool {
+
+    /**
+     * Handles each item given to {@link #forEach}.
+     *
+     * @param <T> The type of the items.
+     */
+    public interface ItemHandler<T> {
+        /**
+         * Handles an item in a worker thread.
+         *
+         * @param item The item.
+         * @return {@code false} if the remaining items should be skipped.
+         */
+        boolean handle(T item);
+    }
+
+    private volatile ForkJoinPool pool;
+
+    /**
+     * Creates a pool with the given number of workers.
+     *
+     * @param size The parallelism of the pool.
+     */
+    public ForkJoinEntitlementThreadPool(int size) {
+        pool = new ForkJoinPool(size, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("entitlementForkJoinPool" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, null, false);
+        ShutdownManager shutdownMan = com.sun.identity.common.ShutdownManager.getInstance();
+        shutdownMan.addShutdownListener(new ShutdownListener() {
+            public void shutdown() {
+                pool.shutdown();
+                pool = null;
+            }
+        });
+    }
+
+    public void submit(Runnable task) {
+        ForkJoinPool pool = this.pool;
+        if (pool != null) {
+            try {
+                pool.execute(task);
+            } catch (RejectedExecutionException e) {
+                PolicyConstants.DEBUG.error("ForkJoinEntitlementThreadPool.submit", e);
+            }
+        }
+    }
+
+    /**
+     * Hands each of the items to the handler in the worker threads, splitting the items recursively until
+     * there are no more than {@code batchSize} of them in each task. Returns as soon as the work has been
+     * scheduled.
+     *
+     * @param items The items to handle.
+     * @param batchSize The largest number of items handled by a single task.
+     * @param handler The item handler.
+     * @param whenComplete Run once all items have been handled or skipped, and after any handler failure.
+     * @param <T> The type of the items.
+     * @return {@code false} if the pool has been shut down, in which case nothing is run.
+     */
+    public <T> boolean forEach(final List<T> items, int batchSize, ItemHandler<T> handler,
+            final Runnable whenComplete) {
+        Reject.ifTrue(batchSize < 1, "Batch size must be positive");
+        ForkJoinPool pool = this.pool;
+        if (pool == null) {
+            return false;
+        }
+        final BatchTask<T> root = new BatchTask<>(items, 0, items.size(), batchSize, handler, new AtomicBoolean());
+        try {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        root.invoke();
+                    } catch (RuntimeException e) {
+                        PolicyConstants.DEBUG.error("ForkJoinEntitlementThreadPool.forEach", e);
+                    } finally {
+                        whenComplete.run();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            PolicyConstants.DEBUG.error("ForkJoinEntitlementThreadPool.forEach", e);
+            return false;
+        }
+        return true;
+    }
+
+    private static final class BatchTask<T> extends RecursiveAction {
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final ItemHandler<T> handler;
+        private final AtomicBoolean stopped;
+
+        private BatchTask(List<T> items, int from, int to, int batchSize, ItemHandler<T> handler,
+                AtomicBoolean stopped) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.handler = handler;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > batchSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask<>(items, from, middle, batchSize, handler, stopped),
+                        new BatchTask<>(items, middle, to, batchSize, handler, stopped));
+                return;
+            }
+            for (int i = from; i < to && !stopped.get(); i++) {
+                if (!handler.handle(items.get(i))) {
+                    stopped.set(true);
+                }
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.json.JSONObject;
 
 import javax.security.auth.Subject;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -140,12 +141,13 @@ public abstract class LogicalCondition extends EntitlementConditionAdaptor {
     ) throws EntitlementException;
 
     /**
-     * Sets the nested <code>EntitlementCondition</code>(s).
+     * Sets the nested <code>EntitlementCondition</code>(s). The iteration order of the given set is retained,
+     * and is the order in which the conditions are evaluated.
      *
      * @param eConditions the nested <code>EntitlementCondition</code>(s)
      */
     public void setEConditions(Set<EntitlementCondition> eConditions) {
-        this.eConditions = new HashSet<EntitlementCondition>();
+        this.eConditions = new LinkedHashSet<EntitlementCondition>();
         if (eConditions != null) {
             this.eConditions.addAll(eConditions);
         }
@@ -172,6 +172,7 @@ public abstract class Privilege implements IPrivilege {
     private long creationDate;
     private long lastModifiedDate;
     private Set<String> applicationIndexes;
+    private transient volatile CompiledPrivilege compiled;
 
 
     static {
@@ -216,6 +217,7 @@ public abstract class Privilege implements IPrivilege {
         throws EntitlementException {
         validateSubject(eSubject);
          this.eSubject = eSubject;
+         this.compiled = null;
     }
 
     void validateSubject(EntitlementSubject sbj)
@@ -663,10 +665,11 @@ public abstract class Privilege implements IPrivilege {
         Map<String, Set<String>> environment
     ) throws EntitlementException {
         SubjectDecision decision;
+        CompiledPrivilege plan = getCompiledPrivilege();
 
-        if (getSubject() != null) {
+        if (plan.getSubject() != null) {
             SubjectAttributesManager mgr = SubjectAttributesManager.getInstance(adminSubject, realm);
-            decision = getSubject().evaluate(realm, mgr, subject, resourceName, environment);
+            decision = plan.evaluateSubject(mgr, realm, subject, resourceName, environment);
         } else {
             decision = new SubjectDecision(true, Collections.<String, Set<String>>emptyMap());
         }
@@ -689,9 +692,11 @@ public abstract class Privilege implements IPrivilege {
         Map<String, Set<String>> environment
     ) throws EntitlementException {
         ConditionDecision decision;
+        CompiledPrivilege plan = getCompiledPrivilege();
 
-        if (eCondition != null) {
-            EntitlementCondition cachedCondition = new CachingEntitlementCondition(eCondition);
+        if (plan.getCondition() != null) {
+            EntitlementCondition cachedCondition =
+                    new CachingEntitlementCondition(plan.getCondition(), plan.getConditionKey());
             decision = cachedCondition.evaluate(realm, subject, resourceName, environment);
         } else {
             decision = ConditionDecision.newSuccessBuilder().build();
@@ -708,6 +713,21 @@ public abstract class Privilege implements IPrivilege {
 
         return decision;
     }
+
+    /**
+     * Returns the evaluation plan of this privilege, compiling it if the subject or condition has changed since
+     * it was last compiled.
+     *
+     * @return the evaluation plan.
+     */
+    CompiledPrivilege getCompiledPrivilege() {
+        CompiledPrivilege plan = compiled;
+        if (plan == null) {
+            plan = CompiledPrivilege.compile(eSubject, eCondition);
+            compiled = plan;
+        }
+        return plan;
+    }
     
     /**
      * Returns creation date.
@@ -841,6 +861,7 @@ public abstract class Privilege implements IPrivilege {
      */
     public void setCondition(EntitlementCondition condition) {
         this.eCondition = condition;
+        this.compiled = null;
     }
 
     /**
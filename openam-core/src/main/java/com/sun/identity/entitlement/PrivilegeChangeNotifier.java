@@ -25,6 +25,7 @@
  * $Id: PrivilegeChangeNotifier.java,v 1.5 2010/01/07 00:19:11 veiming Exp $
  *
  * Portions Copyrighted 2014-2016 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.sun.identity.entitlement;
@@ -94,7 +95,7 @@ public class PrivilegeChangeNotifier {
 
 
     private static EntitlementThreadPool thrdPool =
-        new EntitlementThreadPool(POOL_SIZE);
+        new EntitlementThreadPool("privilegeChangeNotifierThreadPool", POOL_SIZE);
 
 
 
@@ -25,6 +25,7 @@
  * $Id: PrivilegeEvaluator.java,v 1.2 2009/10/07 06:36:40 veiming Exp $
  *
  * Portions Copyrighted 2010-2016 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 package com.sun.identity.entitlement;
 
@@ -33,12 +34,17 @@ import static org.forgerock.openam.entitlement.utils.EntitlementUtils.getApplica
 import static org.forgerock.openam.entitlement.utils.EntitlementUtils.getEntitlementConfiguration;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -51,6 +57,7 @@ import org.forgerock.openam.session.util.AppTokenHandler;
 import org.forgerock.openam.utils.CollectionUtils;
 
 import com.sun.identity.entitlement.interfaces.IThreadPool;
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
 import com.sun.identity.shared.debug.Debug;
 
 /**
@@ -58,6 +65,18 @@ import com.sun.identity.shared.debug.Debug;
  * and a environment parameters.
  */
 class PrivilegeEvaluator {
+    /**
+     * The system property selecting the executor which evaluates privileges in parallel: {@value #THREAD_POOL}
+     * (the default), {@value #FORK_JOIN} or {@value #SEQUENTIAL}.
+     */
+    static final String EVALUATION_EXECUTOR_PROPERTY = "org.forgerock.openam.entitlement.evaluation.executor";
+    static final String THREAD_POOL = "threadpool";
+    static final String FORK_JOIN = "forkjoin";
+    static final String SEQUENTIAL = "sequential";
+
+    // Marks the end of the results of a fork/join evaluation, must not be shared with any privilege result.
+    private static final List<Entitlement> END_OF_RESULTS = new ArrayList<Entitlement>(0);
+
     private String realm = "/";
     private Subject adminSubject;
     private Subject subject;
@@ -99,8 +118,30 @@ class PrivilegeEvaluator {
                     e);
             }
         }
-        isMultiThreaded = evalThreadSize > 1;
-        threadPool = isMultiThreaded ? new EntitlementThreadPool(evalThreadSize) : new SequentialThreadPool();
+        threadPool = createThreadPool(
+                SystemPropertiesManager.get(EVALUATION_EXECUTOR_PROPERTY, THREAD_POOL), evalThreadSize);
+        isMultiThreaded = !(threadPool instanceof SequentialThreadPool);
+    }
+
+    /**
+     * Creates the executor used to evaluate privileges in parallel.
+     *
+     * @param executor One of {@value #THREAD_POOL}, {@value #FORK_JOIN} or {@value #SEQUENTIAL}.
+     * @param size The number of evaluation threads.
+     * @return The thread pool, which is sequential when there are fewer than two evaluation threads.
+     */
+    static IThreadPool createThreadPool(String executor, int size) {
+        if (size <= 1 || SEQUENTIAL.equalsIgnoreCase(executor)) {
+            return new SequentialThreadPool();
+        }
+        if (FORK_JOIN.equalsIgnoreCase(executor)) {
+            return new ForkJoinEntitlementThreadPool(size);
+        }
+        if (!THREAD_POOL.equalsIgnoreCase(executor)) {
+            PolicyConstants.DEBUG.warning("PrivilegeEvaluator.createThreadPool: unknown evaluation executor "
+                    + executor + ", using " + THREAD_POOL);
+        }
+        return new EntitlementThreadPool("policyEvaluationThreadPool", size);
     }
 
     /**
@@ -272,6 +313,10 @@ class PrivilegeEvaluator {
         final PrivilegeIndexStore indexStore = PrivilegeIndexStore.getInstance(adminSubject, realm);
         final Iterator<IPrivilege> policyIterator = indexStore.search(realm, indexes, subjectIndexes, recursive);
 
+        if (threadPool instanceof ForkJoinEntitlementThreadPool) {
+            return evaluate((ForkJoinEntitlementThreadPool) threadPool, policyIterator);
+        }
+
         int totalCount = 0;
         IPrivilege policy;
 
@@ -363,6 +408,116 @@ class PrivilegeEvaluator {
         return entitlementCombiner.getResults();
     }
 
+    /**
+     * Evaluates the privileges in the fork/join pool, which splits them recursively between its workers. The
+     * results are combined in the calling thread as they arrive, and the remaining privileges are skipped once
+     * the combiner has reached its decision.
+     */
+    private List<Entitlement> evaluate(ForkJoinEntitlementThreadPool pool, Iterator<IPrivilege> policyIterator)
+            throws EntitlementException {
+        final Debug debug = PolicyConstants.DEBUG;
+        final List<IPrivilege> policies = new ArrayList<IPrivilege>();
+        while (policyIterator.hasNext()) {
+            IPrivilege policy = policyIterator.next();
+
+            if (policy instanceof ReferralPrivilege) {
+                // We want to ignore referrals - deprecated.
+                continue;
+            }
+
+            if (debug.messageEnabled()) {
+                debug.message("[PolicyEval] PolicyEvaluator.evaluate");
+                debug.message("[PolicyEval] search result: privilege=" + policy.getName());
+            }
+            policies.add(policy);
+        }
+
+        final PrivilegeEvaluatorContext context =
+                new PrivilegeEvaluatorContext(realm, normalisedResourceName, applicationName);
+        final Object appToken = AppTokenHandler.getAndClear();
+        final BlockingQueue<List<Entitlement>> results = new LinkedBlockingQueue<List<Entitlement>>();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final AtomicBoolean done = new AtomicBoolean();
+
+        boolean scheduled = policies.size() > TASKS_PER_THREAD && pool.forEach(policies, TASKS_PER_THREAD,
+                new ForkJoinEntitlementThreadPool.ItemHandler<IPrivilege>() {
+                    @Override
+                    public boolean handle(IPrivilege policy) {
+                        if (done.get()) {
+                            return false;
+                        }
+                        PrivilegeEvaluatorContext.setCurrent(context);
+                        try {
+                            List<Entitlement> entitlements = evaluatePrivilege(policy, appToken);
+                            if (entitlements != null) {
+                                results.add(entitlements);
+                            }
+                            return true;
+                        } catch (EntitlementException | RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                            return false;
+                        } finally {
+                            // Workers are shared with other evaluations, do not leave this one's context behind
+                            PrivilegeEvaluatorContext.setCurrent(null);
+                        }
+                    }
+                }, new Runnable() {
+                    @Override
+                    public void run() {
+                        results.add(END_OF_RESULTS);
+                    }
+                });
+
+        if (!scheduled) {
+            // Too few privileges to be worth handing over to the workers
+            PrivilegeEvaluatorContext.setCurrent(context);
+            try {
+                for (IPrivilege policy : policies) {
+                    List<Entitlement> entitlements = evaluatePrivilege(policy, appToken);
+                    if (entitlements != null) {
+                        entitlementCombiner.add(entitlements);
+                        if (entitlementCombiner.isDone()) {
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                // Do not leave this evaluation's context behind on the caller's thread
+                PrivilegeEvaluatorContext.setCurrent(null);
+            }
+            return entitlementCombiner.getResults();
+        }
+
+        try {
+            List<Entitlement> entitlements;
+            while ((entitlements = results.take()) != END_OF_RESULTS && failure.get() == null) {
+                entitlementCombiner.add(entitlements);
+                if (entitlementCombiner.isDone()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            // The results combined so far are incomplete, so fail rather than return a partial decision
+            Thread.currentThread().interrupt();
+            throw new EntitlementException(100, ex);
+        } finally {
+            done.set(true);
+        }
+
+        Exception ex = failure.get();
+        if (ex instanceof EntitlementException) {
+            throw (EntitlementException) ex;
+        } else if (ex != null) {
+            throw (RuntimeException) ex;
+        }
+        return entitlementCombiner.getResults();
+    }
+
+    private List<Entitlement> evaluatePrivilege(IPrivilege policy, Object appToken) throws EntitlementException {
+        return policy.evaluate(adminSubject, realm, subject, applicationName, normalisedResourceName,
+                requestedResourceName, actionNames, envParameters, recursive, appToken);
+    }
+
     private void receiveEvalResults(int totalCount) {
         int counter = 0;
         lock.lock();
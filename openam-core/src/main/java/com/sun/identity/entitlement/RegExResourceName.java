@@ -29,26 +29,23 @@
 
 package com.sun.identity.entitlement;
 
-import com.iplanet.am.util.Cache;
 import com.sun.identity.entitlement.interfaces.ResourceName;
 
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.forgerock.openam.utils.collections.CacheFactory;
+
 /**
  * A {@link ResourceName} implementation that matches the resourcenames using regular expressions.
  */
 public class RegExResourceName implements ResourceName {
     private String delimiter = "/";
-    private static final ReadWriteLock patternCacheLock =
-        new ReentrantReadWriteLock();
 
     private static final int MAX_CACHE_SIZE = 1000;
-    private static Cache patternCache = new Cache(MAX_CACHE_SIZE);
+    private static final Map<String, Pattern> patternCache = CacheFactory.newCache(MAX_CACHE_SIZE);
 
     public Set<String> getServiceTypeNames() {
         return null;
@@ -169,26 +166,22 @@ public class RegExResourceName implements ResourceName {
     }
 
     private static Pattern getPatternFromCache(String strPattern) {
-        patternCacheLock.writeLock().lock();
-        try {
-            Pattern pattern = (Pattern)patternCache.get(strPattern);
-            if (pattern != null) {
-                return pattern;
-            }
+        // Compiling the same pattern twice is harmless, so there is no need to lock out other threads
+        Pattern pattern = patternCache.get(strPattern);
+        if (pattern != null) {
+            return pattern;
+        }
 
-            // take every non-star character literally, and replace * with .*? to get a compilable regex
-            String buff = strPattern.replaceAll("([^*]+)", "\\\\Q$1\\\\E").replace("*", ".*?");
+        // take every non-star character literally, and replace * with .*? to get a compilable regex
+        String buff = strPattern.replaceAll("([^*]+)", "\\\\Q$1\\\\E").replace("*", ".*?");
 
-            // replace trailing .*? with .*
-            if(buff.endsWith(".*?")) {
-                buff = buff.substring(0, buff.length()-1);
-            }
-            pattern = Pattern.compile(buff + "(.*)");
-            patternCache.put(strPattern, pattern);
-            return pattern;
-        } finally {
-            patternCacheLock.writeLock().unlock();
+        // replace trailing .*? with .*
+        if(buff.endsWith(".*?")) {
+            buff = buff.substring(0, buff.length()-1);
         }
+        pattern = Pattern.compile(buff + "(.*)");
+        patternCache.put(strPattern, pattern);
+        return pattern;
     }
 
     public String[] split(String res) {
@@ -31,10 +31,13 @@ package com.sun.identity.entitlement.opensso;
 import com.sun.identity.entitlement.ResourceSaveIndexes;
 import com.sun.identity.entitlement.ResourceSearchIndexes;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.forgerock.openam.utils.collections.CacheFactory;
+
 /**
  * Caches the indexes which are stored in Directory Server.
  */
@@ -47,11 +50,10 @@ public class IndexCache {
     private static final int CACHE_BUCKET_LIMIT = 25;
 
     private int size = 1000000;
-    private int initCapacity;
-    private Cache subjectIndexCache;
-    private Cache hostIndexCache;
-    private Cache pathIndexCache;
-    private Cache parentPathIndexCache;
+    private Map<String, Set<String>> subjectIndexCache;
+    private Map<String, Set<String>> hostIndexCache;
+    private Map<String, Set<String>> pathIndexCache;
+    private Map<String, Set<String>> parentPathIndexCache;
     private ReadWriteLock rwlock = new ReentrantReadWriteLock();
 
     /**
@@ -61,7 +63,6 @@ public class IndexCache {
      */
     public IndexCache(int size) {
         this.size = size;
-        initCapacity = (int) (size * 0.01d);
         clearCaches();
     }
 
@@ -77,26 +78,25 @@ public class IndexCache {
         Set<String> subjectIndexes,
         String dn) {
         if (subjectIndexes != null) {
-            cache(dn, subjectIndexes, subjectIndexCache);
+            cache(dn, subjectIndexes, SUBJECT_ID, subjectIndexCache);
         }
-        cache(dn, indexes.getHostIndexes(), hostIndexCache);
-        cache(dn, indexes.getPathIndexes(), pathIndexCache);
-        cache(dn, indexes.getParentPathIndexes(), parentPathIndexCache);
+        cache(dn, indexes.getHostIndexes(), HOST_ID, hostIndexCache);
+        cache(dn, indexes.getPathIndexes(), PATH_ID, pathIndexCache);
+        cache(dn, indexes.getParentPathIndexes(), PARENTPATH_ID, parentPathIndexCache);
     }
 
-    private void cache(String dn, Set<String> indexes, Cache cache) {
+    private void cache(String dn, Set<String> indexes, String cacheName, Map<String, Set<String>> cache) {
         rwlock.writeLock().lock();
 
         try {
             for (String s : indexes) {
                 String lc = s.toLowerCase();
-                Set<String> setDNs = (Set<String>)cache.get(lc);
+                Set<String> setDNs = cache.get(lc);
                 if (setDNs == null) {
                     setDNs = new HashSet<String>();
                     cache.put(lc, setDNs);
                     setDNs.add(dn);
                 } else {
-                    String cacheName = cache.getName();
                     if (!CacheTaboo.isTaboo(cacheName, lc)) {
                         if (setDNs.size() >= CACHE_BUCKET_LIMIT) {
                             CacheTaboo.taboo(cacheName, lc);
@@ -126,11 +126,11 @@ public class IndexCache {
         }
     }
 
-    private void clear(String dn, Set<String> indexes, Cache cache) {
+    private void clear(String dn, Set<String> indexes, Map<String, Set<String>> cache) {
         rwlock.writeLock().lock();
         try {
             for (String s : indexes) {
-                Set<String> setDNs = (Set<String>)cache.get(s);
+                Set<String> setDNs = cache.get(s);
                 if (setDNs != null) {
                     setDNs.remove(dn);
                 }
@@ -143,10 +143,10 @@ public class IndexCache {
     private synchronized void clearCaches() {
         rwlock.writeLock().lock();
         try {
-            subjectIndexCache = new Cache(SUBJECT_ID, initCapacity, size);
-            hostIndexCache = new Cache(HOST_ID, initCapacity, size);
-            pathIndexCache = new Cache(PATH_ID, initCapacity, size);
-            parentPathIndexCache = new Cache(PARENTPATH_ID, initCapacity, size);
+            subjectIndexCache = CacheFactory.newCache(SUBJECT_ID, size);
+            hostIndexCache = CacheFactory.newCache(HOST_ID, size);
+            pathIndexCache = CacheFactory.newCache(PATH_ID, size);
+            parentPathIndexCache = CacheFactory.newCache(PARENTPATH_ID, size);
         } finally {
             rwlock.writeLock().unlock();
         }
@@ -25,6 +25,7 @@
  * $Id: Notifier.java,v 1.3 2010/01/07 00:19:11 veiming Exp $
  *
  * Portions Copyrighted 2010-2015 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.sun.identity.entitlement.opensso;
@@ -66,7 +67,7 @@ public class Notifier implements Runnable {
         SystemProperties.getServerInstanceName();
     private String action;
     private Map<String, String> params;
-    private static IThreadPool threadPool = new EntitlementThreadPool(4);
+    private static IThreadPool threadPool = new EntitlementThreadPool("entitlementNotifierThreadPool", 4);
     private static boolean sitemonitorDisabled = Boolean.valueOf(
         SystemProperties.get(Constants.SITEMONITOR_DISABLED, "false")).booleanValue();
 
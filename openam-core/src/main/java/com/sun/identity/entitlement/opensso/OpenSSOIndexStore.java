@@ -25,6 +25,7 @@
  * $Id: OpenSSOIndexStore.java,v 1.13 2010/01/25 23:48:15 veiming Exp $
  *
  * Portions copyright 2011-2016 ForgeRock AS.
+ * Portions copyright 2026 Wren Security.
  */
 
 package com.sun.identity.entitlement.opensso;
@@ -126,7 +127,7 @@ public class OpenSSOIndexStore extends PrivilegeIndexStore {
             DEFAULT_THREAD_SIZE);
         isMultiThreaded = (threadSize > 1);
         threadPool = (isMultiThreaded) ? new EntitlementThreadPool(
-            threadSize) : new SequentialThreadPool();
+            "policyIndexSearchThreadPool", threadSize) : new SequentialThreadPool();
         // Register listener for realm deletions
         try {
             SSOToken adminToken = (SSOToken) AccessController.doPrivileged(
@@ -36,17 +36,18 @@ import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.forgerock.openam.utils.collections.CacheFactory;
+
 /**
  * Policy Cache
  */
 class PolicyCache {
-    private Cache cache;
+    private Map<String, Object> cache;
     private HashMap<String, Integer> countByRealm;
     private ReadWriteLock rwlock = new ReentrantReadWriteLock();
 
     PolicyCache(String name, int size) {
-        int initCapacity = (int) (size * 0.01d);
-        cache = new Cache(name, initCapacity, size);
+        cache = CacheFactory.newCache(name, size);
         countByRealm = new HashMap<String, Integer>();
     }
 
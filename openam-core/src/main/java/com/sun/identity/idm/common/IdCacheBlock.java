@@ -29,9 +29,16 @@
 
 package com.sun.identity.idm.common;
 
+import static org.forgerock.openam.utils.Time.*;
+
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.iplanet.am.sdk.common.CacheBlockBase;
+import com.sun.identity.idm.IdRepoException;
+import com.sun.identity.idm.IdType;
 import com.sun.identity.shared.debug.Debug;
 import com.iplanet.am.util.SystemProperties;
 
@@ -73,17 +80,42 @@ public class IdCacheBlock extends CacheBlockBase {
     protected static final String ENTRY_DEFAULT_EXPIRE_TIME_KEY = 
         "com.sun.identity.idm.cache.entry.default.expire.time";
 
+    protected static final String ATTRIBUTE_SET_EXPIRE_TIME_KEY =
+        "com.sun.identity.idm.cache.attributes.expire.seconds";
+
+    protected static final String NOT_FOUND_EXPIRE_TIME_KEY =
+        "com.sun.identity.idm.cache.notfound.expire.seconds";
+
+    protected static final String MEMBERSHIP_EXPIRE_TIME_KEY =
+        "com.sun.identity.idm.cache.memberships.expire.seconds";
+
+    protected static final int DEFAULT_MEMBERSHIP_EXPIRE_SECONDS = 30;
+
     protected static boolean ENTRY_EXPIRATION_ENABLED_FLAG = false;
 
     protected static long ENTRY_USER_EXPIRE_TIME;
 
     protected static long ENTRY_DEFAULT_EXPIRE_TIME;
 
+    protected static long ATTRIBUTE_SET_EXPIRE_TIME;
+
+    protected static long NOT_FOUND_EXPIRE_TIME;
+
+    protected static long MEMBERSHIP_EXPIRE_TIME;
+
     private static final Debug DEBUG = Debug.getInstance("amIdm");
 
     // Variable to store the fully qualified names for identities
     private Set fullyQualifiedNames;
 
+    // Memberships read by each principal, keyed by principal and membership type
+    private final Map<String, CachedMemberships> memberships = new ConcurrentHashMap<>();
+
+    // Thrown again while this block represents an identity which was not found
+    private volatile IdRepoException notFoundException;
+
+    private volatile long notFoundExpirationTime;
+
     static {
         ENTRY_EXPIRATION_ENABLED_FLAG = SystemProperties.getAsBoolean(ENTRY_EXPIRATION_ENABLED_KEY, false);
         if (ENTRY_EXPIRATION_ENABLED_FLAG) {
@@ -91,6 +123,121 @@ public class IdCacheBlock extends CacheBlockBase {
             ENTRY_USER_EXPIRE_TIME = SystemProperties.getAsInt(ENTRY_USER_EXPIRE_TIME_KEY, 15) * 60000;
             ENTRY_DEFAULT_EXPIRE_TIME = SystemProperties.getAsInt(ENTRY_DEFAULT_EXPIRE_TIME_KEY, 30) * 60000;
         }
+        // Read the attribute set and not found expiration times, zero disables them, convert to milliseconds
+        ATTRIBUTE_SET_EXPIRE_TIME = Math.max(SystemProperties.getAsInt(ATTRIBUTE_SET_EXPIRE_TIME_KEY, 0), 0) * 1000L;
+        NOT_FOUND_EXPIRE_TIME = Math.max(SystemProperties.getAsInt(NOT_FOUND_EXPIRE_TIME_KEY, 0), 0) * 1000L;
+        // Memberships always expire, as nothing else removes them when change notifications are unavailable
+        MEMBERSHIP_EXPIRE_TIME = Math.max(SystemProperties.getAsInt(MEMBERSHIP_EXPIRE_TIME_KEY,
+                DEFAULT_MEMBERSHIP_EXPIRE_SECONDS), 0) * 1000L;
+    }
+
+    /**
+     * Creates a block representing an identity which was not found in the data stores. The block is valid for
+     * the not found expiration time.
+     *
+     * @param entryDN the universal identifier of the identity.
+     * @param cause the exception thrown by the data stores.
+     * @return the block.
+     */
+    public static IdCacheBlock notFound(String entryDN, IdRepoException cause) {
+        IdCacheBlock cb = new IdCacheBlock(entryDN, false);
+        cb.notFoundException = cause;
+        cb.notFoundExpirationTime = currentTimeMillis() + NOT_FOUND_EXPIRE_TIME;
+        return cb;
+    }
+
+    /**
+     * @return true if identities which are not found in the data stores should be cached.
+     */
+    public static boolean isNotFoundCachingEnabled() {
+        return NOT_FOUND_EXPIRE_TIME > 0;
+    }
+
+    /**
+     * @return true if memberships may be cached, which requires a positive membership expiration time.
+     */
+    public static boolean isMembershipCachingEnabled() {
+        return MEMBERSHIP_EXPIRE_TIME > 0;
+    }
+
+    /**
+     * Returns a copy of the exception thrown when the identity was not found, as long as this block still
+     * represents a missing identity and has not expired.
+     *
+     * @return the exception, or null if the identity should be read from the data stores.
+     */
+    public IdRepoException getNotFoundException() {
+        IdRepoException cause = notFoundException;
+        if (cause == null || isExists() || currentTimeMillis() >= notFoundExpirationTime) {
+            return null;
+        }
+        IdRepoException copy = new IdRepoException(cause.getResourceBundleName(), cause.getErrorCode(),
+                cause.getMessageArgs());
+        copy.setLDAPErrorCode(cause.getLDAPErrorCode());
+        return copy;
+    }
+
+    /**
+     * Returns the memberships of the identity cached for the principal, as long as they were cached in the same
+     * membership generation and have not expired.
+     *
+     * @param principalDN the principal which read the memberships.
+     * @param membershipType the type of the memberships.
+     * @param generation the current membership generation.
+     * @return a copy of the memberships, or null if they are not cached.
+     */
+    public Set getMemberships(String principalDN, IdType membershipType, long generation) {
+        CachedMemberships cached = memberships.get(getMembershipKey(principalDN, membershipType));
+        if (cached == null || cached.generation != generation || currentTimeMillis() >= cached.expirationTime) {
+            return null;
+        }
+        return new HashSet(cached.memberships);
+    }
+
+    /**
+     * Caches the memberships of the identity read by the principal, until the membership expiration time.
+     *
+     * @param principalDN the principal which read the memberships.
+     * @param membershipType the type of the memberships.
+     * @param memberships the memberships.
+     * @param generation the membership generation in which the memberships were read.
+     */
+    public void putMemberships(String principalDN, IdType membershipType, Set memberships, long generation) {
+        long expirationTime = currentTimeMillis() + MEMBERSHIP_EXPIRE_TIME;
+        this.memberships.put(getMembershipKey(principalDN, membershipType),
+                new CachedMemberships(new HashSet(memberships), generation, expirationTime));
+    }
+
+    private static String getMembershipKey(String principalDN, IdType membershipType) {
+        return principalDN + '|' + membershipType.getName();
+    }
+
+    @Override
+    public void setExists(boolean exists) {
+        super.setExists(exists);
+        if (exists) {
+            notFoundException = null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        memberships.clear();
+    }
+
+    @Override
+    public int getEstimatedSize() {
+        int size = super.getEstimatedSize();
+        for (CachedMemberships cached : memberships.values()) {
+            size += OBJECT_OVERHEAD * (2 + 4 * cached.memberships.size());
+        }
+        return size;
+    }
+
+    @Override
+    public long getAttributeSetExpirationTime() {
+        return ATTRIBUTE_SET_EXPIRE_TIME;
     }
 
     public Set getFullyQualifiedNames() {
@@ -124,4 +271,16 @@ public class IdCacheBlock extends CacheBlockBase {
     public IdCacheBlock(String entryDN, String orgDN, boolean validEntry) {
         super(entryDN, orgDN, validEntry);
     }
+
+    private static final class CachedMemberships {
+        private final Set memberships;
+        private final long generation;
+        private final long expirationTime;
+
+        private CachedMemberships(Set memberships, long generation, long expirationTime) {
+            this.memberships = memberships;
+            this.generation = generation;
+            this.expirationTime = expirationTime;
+        }
+    }
 }
@@ -54,6 +54,14 @@ public class IdCacheStats implements StatsListener {
 
     long totalSearchHits = 0;   // Overall search cache hits
 
+    long totalMembershipRequests = 0;  // Overall membership requests
+
+    long totalMembershipHits = 0;   // Overall membership cache hits
+
+    long totalNotFoundHits = 0;   // Overall hits of identities cached as not found
+
+    long estimatedCacheBytes = 0;   // estimated size of cache in bytes
+
     private Stats stats = null;
 
 
@@ -99,6 +107,46 @@ public class IdCacheStats implements StatsListener {
         }
     }
 
+    public void updateMembershipHitCount(int sizeOfCache) {
+        if (stats.isEnabled()) {
+            totalMembershipHits++;
+            totalIntervalHits++;
+            cacheSize = sizeOfCache;
+        }
+    }
+
+    public void incrementMembershipRequestCount(int sizeOfCache) {
+        if (stats.isEnabled()) {
+            totalMembershipRequests++;
+            intervalCount++;
+            cacheSize = sizeOfCache;
+        }
+    }
+
+    /**
+     * Counts a request answered by an identity cached as not found. The request itself must be counted too.
+     *
+     * @param sizeOfCache Number of entries in cache
+     */
+    public void updateNotFoundHitCount(int sizeOfCache) {
+        if (stats.isEnabled()) {
+            totalNotFoundHits++;
+            totalIntervalHits++;
+            cacheSize = sizeOfCache;
+        }
+    }
+
+    /**
+     * Records the estimated size of the cache, when the cache is bounded by size.
+     *
+     * @param bytes Estimated size of cache in bytes
+     */
+    public void updateEstimatedCacheBytes(long bytes) {
+        if (stats.isEnabled()) {
+            estimatedCacheBytes = bytes;
+        }
+    }
+
 
     /**
      * Prints the session statistics for the given session table.
@@ -122,7 +170,15 @@ public class IdCacheStats implements StatsListener {
                 + "\nTotal number of FQDN Search hits since server start: "
                 + totalSearchHits + "\nOverall Hit ratio: "
                 + (double) totalSearchHits / (double) totalSearchRequests
-                + "\nTotal Cache Size: " + cacheSize + "\n");
+                + "\nTotal number of Membership requests since server start: "
+                + totalMembershipRequests
+                + "\nTotal number of Membership hits since server start: "
+                + totalMembershipHits + "\nOverall Hit ratio: "
+                + (double) totalMembershipHits / (double) totalMembershipRequests
+                + "\nTotal number of Not Found hits since server start: "
+                + totalNotFoundHits
+                + "\nTotal Cache Size: " + cacheSize
+                + "\nEstimated Cache Size in bytes: " + estimatedCacheBytes + "\n");
 
         // Reset interval hits to 0
         intervalCount = 0;
@@ -30,7 +30,6 @@ package com.sun.identity.idm.server;
 
 import com.iplanet.am.sdk.AMEvent;
 import com.iplanet.am.sdk.AMHashMap;
-import com.iplanet.am.util.Cache;
 import com.iplanet.am.util.SystemProperties;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
@@ -54,11 +53,13 @@ import com.sun.identity.monitoring.MonitoringUtil;
 import com.sun.identity.monitoring.SsoServerIdRepoSvcImpl;
 import com.sun.identity.shared.stats.Stats;
 import com.sun.identity.sm.ServiceManager;
-import java.util.Enumeration;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.openam.utils.CrestQuery;
+import org.forgerock.openam.utils.collections.CacheFactory;
+import org.forgerock.openam.utils.collections.ConcurrentCache;
 import org.forgerock.util.thread.listener.ShutdownListener;
 import org.forgerock.util.thread.listener.ShutdownManager;
 
@@ -73,15 +74,35 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
 
     static final int CACHE_MAX_SIZE_INT = 10000;
 
+    /**
+     * Bounds the cache by the estimated size of its entries in bytes, in addition to their number. Zero, the
+     * default, bounds the cache by the number of entries only.
+     */
+    static final String CACHE_MAX_BYTES_KEY = "com.iplanet.am.sdk.cache.maxBytes";
+
+    /**
+     * Whether the memberships returned by {@link #getMemberships} are cached, which is the default. Cached
+     * memberships expire after {@code com.sun.identity.idm.cache.memberships.expire.seconds}, 30 by default, and
+     * setting that to zero also disables the cache.
+     */
+    static final String MEMBERSHIP_CACHE_ENABLED_KEY = "com.sun.identity.idm.cache.memberships.enabled";
+
     private static int maxSize;
 
+    private static long maxBytes;
+
+    private static boolean membershipCacheEnabled;
+
     private static IdCachedServicesImpl instance;
 
     // Class Private
-    private Cache idRepoCache;
+    private Map<String, IdCacheBlock> idRepoCache;
 
     private IdCacheStats cacheStats;
 
+    // Incremented whenever cached memberships may have become stale, which invalidates all of them
+    private final AtomicLong membershipGeneration = new AtomicLong();
+
     private static Stats stats;
 
     private static SsoServerIdRepoSvcImpl monIdRepo;
@@ -89,6 +110,8 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     static {
         int cacheSize = SystemProperties.getAsInt(CACHE_MAX_SIZE_KEY, CACHE_MAX_SIZE_INT);
         setMaxSize(cacheSize);
+        maxBytes = Math.max(SystemProperties.getAsLong(CACHE_MAX_BYTES_KEY, 0), 0);
+        membershipCacheEnabled = SystemProperties.getAsBoolean(MEMBERSHIP_CACHE_ENABLED_KEY, true);
     }
 
     private static void setMaxSize(int newValue) {
@@ -116,11 +139,22 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     }
 
     private void initializeCache() {
-        idRepoCache = new Cache(maxSize);
+        if (maxBytes > 0) {
+            idRepoCache = new ConcurrentCache<>(IdConstants.IDREPO_CACHESTAT, maxSize, maxBytes,
+                    new ConcurrentCache.Weigher<String, IdCacheBlock>() {
+                        @Override
+                        public int weigh(String key, IdCacheBlock cb) {
+                            return 2 * key.length() + cb.getEstimatedSize();
+                        }
+                    });
+        } else {
+            idRepoCache = CacheFactory.newCache(maxSize);
+        }
     }
 
-    private void resetCache(int maxCacheSize) {
+    private void resetCache(int maxCacheSize, long maxCacheBytes) {
         setMaxSize(maxCacheSize);
+        maxBytes = maxCacheBytes;
         clearCache();
     }
 
@@ -172,10 +206,9 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         StringBuilder sb = new StringBuilder();
         sb.append("\n<<<<<<< BEGIN SDK CACHE CONTENTS >>>>>>>>");
         if (!idRepoCache.isEmpty()) { // Should never be null
-            Enumeration cacheKeys = idRepoCache.keys();
-            while (cacheKeys.hasMoreElements()) {
-                String key = (String) cacheKeys.nextElement();
-                IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(key);
+            for (Map.Entry<String, IdCacheBlock> entry : idRepoCache.entrySet()) {
+                String key = entry.getKey();
+                IdCacheBlock cb = entry.getValue();
                 sb.append("\nSDK Cache Block: ").append(key);
                 sb.append(cb.toString());
             }
@@ -190,15 +223,13 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     // Update/Dirty methods of this class.
     // *************************************************************************
     private void removeCachedAttributes(String affectDNs, Set attrNames) {
-        Enumeration cacheKeys = idRepoCache.keys();
-        while (cacheKeys.hasMoreElements()) {
-            String key = DNUtils.normalizeDN(
-                cacheKeys.nextElement().toString());
+        for (String cacheKey : idRepoCache.keySet()) {
+            String key = DNUtils.normalizeDN(cacheKey);
             int l1 = key.length();
             int l2 = affectDNs.length();
             if (key.regionMatches(true, (l1 - l2), affectDNs, 0, l2)) {
                 // key ends with 'affectDN' string
-                IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(key);
+                IdCacheBlock cb = idRepoCache.get(key);
                 if (cb != null) {
                     // key ends with 'affectDN' string
                     if ((attrNames != null) &&
@@ -254,6 +285,10 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         String originalDN = dn;
         dn = DNUtils.normalizeDN(dn);
         String cachedID = getCacheId(dn);
+        if (cosType || aciChange || !isUser(cachedID)) {
+            // Group and role changes may change the memberships of other identities
+            membershipGeneration.incrementAndGet();
+        }
         switch (eventType) {
         case AMEvent.OBJECT_ADDED:
             cb = getFromCache(dn);
@@ -265,7 +300,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
             }
             break;
         case AMEvent.OBJECT_REMOVED:
-            cb = (IdCacheBlock) idRepoCache.remove(cachedID);
+            cb = idRepoCache.remove(cachedID);
             if (cb != null) {
                 cb.clear(); // Clear anyway & help the GC process
             }
@@ -276,7 +311,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         case AMEvent.OBJECT_RENAMED:
             // Better to remove the renamed entry, or else it will be just
             // hanging in the cache, until LRU kicks in.
-            cb = (IdCacheBlock) idRepoCache.remove(cachedID);
+            cb = idRepoCache.remove(cachedID);
             if (cb != null) {
                 cb.clear(); // Clear anyway & help the GC process
             }
@@ -313,7 +348,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     private void updateCache(SSOToken token, String dn, Map stringAttributes,
         Map byteAttributes) throws IdRepoException, SSOException {
         String key = dn; // This is already normalized
-        IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(key);
+        IdCacheBlock cb = idRepoCache.get(key);
         if (cb != null && !cb.hasExpiredAndUpdated() && cb.isExists()) {
             AMIdentity tokenId = IdUtils.getIdentity(token);
             String pDN = tokenId.getUniversalId();
@@ -322,6 +357,9 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     }
 
     private void dirtyCache(String dn) {
+        if (!isUser(dn)) {
+            membershipGeneration.incrementAndGet();
+        }
         String key = DNUtils.normalizeDN(dn);
         IdCacheBlock cb = getFromCache(key);
         if (cb != null) {
@@ -369,7 +407,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         AMHashMap attributes;
 
         // Check in the cache
-        IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(dn);
+        IdCacheBlock cb = getCacheBlock(dn);
         if (cb == null) { // Entry not present in cache
             if (DEBUG.messageEnabled()) {
                 DEBUG.message("IdCachedServicesImpl.getAttributes(): "
@@ -381,8 +419,13 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
             // If the attributes returned here have an empty set as value, then
             // such attributes do not have a value or invalid attributes.
             // Internally keep track of these attributes.
-            attributes = (AMHashMap) super.getAttributes(token, type, name,
-                    attrNames, amOrgName, amsdkDN, isStringValues);
+            try {
+                attributes = (AMHashMap) super.getAttributes(token, type, name,
+                        attrNames, amOrgName, amsdkDN, isStringValues);
+            } catch (IdRepoException ide) {
+                cacheNotFound(dn, ide);
+                throw ide;
+            }
 
             // Find the missing attributes and add to cache
             Set missAttrNames = attributes.getMissingAndEmptyKeys(attrNames);
@@ -416,6 +459,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                         .getMissingAndEmptyKeys(missAttrNames);
                 cb.putAttributes(principalDN, dsAttributes, newMissAttrNames,
                         false, !isStringValues);
+                reweigh(dn, cb);
             } else { // All attributes found in cache
                 cacheStats.updateGetHitCount(getSize());
                 if (MonitoringUtil.isRunning() &&
@@ -452,7 +496,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         String principalDN = IdUtils.getUniversalId(tokenId);
 
         // Get the cache entry
-        IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(dn);
+        IdCacheBlock cb = getCacheBlock(dn);
         AMHashMap attributes;
         if ((cb != null) && cb.hasCompleteSet(principalDN)) {
             cacheStats.updateGetHitCount(getSize());
@@ -475,13 +519,19 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                     + " complete attribute"
                     + " set NOT found in cache. Getting from DS.");
             }
-            attributes = (AMHashMap) super.getAttributes(token, type, name,
-                amOrgName, amsdkDN);
+            try {
+                attributes = (AMHashMap) super.getAttributes(token, type, name,
+                    amOrgName, amsdkDN);
+            } catch (IdRepoException ide) {
+                cacheNotFound(dn, ide);
+                throw ide;
+            }
             if (cb == null) {
                 cb = new IdCacheBlock(dn, true);
                 idRepoCache.put(dn, cb);
             }
             cb.putAttributes(principalDN, attributes, null, true, false);
+            reweigh(dn, cb);
             if (DEBUG.messageEnabled()) {
                 DEBUG.message("IdCachedServicesImpl.getAttributes(): "
                         + "attributes NOT found in cache. Fetched from DS.");
@@ -534,6 +584,94 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         AMIdentity id = new AMIdentity(token, name, type, orgName, amsdkDN);
         String dn = id.getUniversalId().toLowerCase();
         idRepoCache.remove(dn);
+        if (!type.equals(IdType.USER)) {
+            membershipGeneration.incrementAndGet();
+        }
+    }
+
+    @Override
+    public AMIdentity create(SSOToken token, IdType type, String name,
+        Map attrMap, String amOrgName) throws IdRepoException, SSOException {
+        AMIdentity id = super.create(token, type, name, attrMap, amOrgName);
+
+        // Forget the identity if it was cached as not found
+        String dn = id.getUniversalId().toLowerCase();
+        idRepoCache.remove(dn);
+        idRepoCache.remove(getCacheId(dn));
+        return id;
+    }
+
+    @Override
+    public Set getMemberships(SSOToken token, IdType type, String name,
+        IdType membershipType, String amOrgName, String amsdkDN)
+        throws IdRepoException, SSOException {
+
+        if (!membershipCacheEnabled || !IdCacheBlock.isMembershipCachingEnabled()) {
+            return super.getMemberships(token, type, name, membershipType,
+                amOrgName, amsdkDN);
+        }
+        cacheStats.incrementMembershipRequestCount(getSize());
+
+        // Get the identity dn
+        AMIdentity id = new AMIdentity(token, name, type, amOrgName, amsdkDN);
+        String dn = id.getUniversalId().toLowerCase();
+
+        // Get the principal dn
+        AMIdentity tokenId = IdUtils.getIdentity(token);
+        String principalDN = IdUtils.getUniversalId(tokenId);
+
+        // Read the generation first, so memberships read from a data store
+        // while it changes are never cached as current
+        long generation = membershipGeneration.get();
+        IdCacheBlock cb = getCacheBlock(dn);
+        if (cb != null && !cb.hasExpiredAndUpdated() && cb.isExists()) {
+            Set memberships = cb.getMemberships(principalDN, membershipType,
+                generation);
+            if (memberships != null) {
+                cacheStats.updateMembershipHitCount(getSize());
+                if (DEBUG.messageEnabled()) {
+                    DEBUG.message("IdCachedServicesImpl.getMemberships(): "
+                        + membershipType.getName() + " memberships of " + dn
+                        + " found in Cache.");
+                }
+                return memberships;
+            }
+        }
+
+        Set memberships;
+        try {
+            memberships = super.getMemberships(token, type, name,
+                membershipType, amOrgName, amsdkDN);
+        } catch (IdRepoException ide) {
+            cacheNotFound(dn, ide);
+            throw ide;
+        }
+        if (cb == null) {
+            cb = new IdCacheBlock(dn, true);
+            IdCacheBlock existing = idRepoCache.putIfAbsent(dn, cb);
+            if (existing != null) {
+                cb = existing;
+            }
+        }
+        if (cb.isExists()) {
+            cb.putMemberships(principalDN, membershipType, memberships,
+                generation);
+            reweigh(dn, cb);
+        }
+        return memberships;
+    }
+
+    @Override
+    public void modifyMemberShip(SSOToken token, IdType type, String name,
+        Set members, IdType membersType, int operation, String amOrgName)
+        throws IdRepoException, SSOException {
+        try {
+            super.modifyMemberShip(token, type, name, members, membersType,
+                operation, amOrgName);
+        } finally {
+            // Invalidate memberships even if only some data stores were updated
+            membershipGeneration.incrementAndGet();
+        }
     }
 
     public void removeAttributes(SSOToken token, IdType type, String name,
@@ -545,7 +683,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         // Update the cache
         AMIdentity id = new AMIdentity(token, name, type, orgName, amsdkDN);
         String dn = id.getUniversalId().toLowerCase();
-        IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(dn);
+        IdCacheBlock cb = idRepoCache.get(dn);
         if ((cb != null) && !cb.hasExpiredAndUpdated() && cb.isExists()) {
             // Remove the attributes
             cb.removeAttributes(attrNames);
@@ -584,7 +722,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                 // If not search in server.
                 AMIdentity uvid = new AMIdentity(token, pattern, type, orgName, null);
                 String universalID = uvid.getUniversalId().toLowerCase();
-                IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(universalID);
+                IdCacheBlock cb = idRepoCache.get(universalID);
                 if ((cb != null) && !cb.hasExpiredAndUpdated() && cb.isExists() &&
                                                                             (ctrl.getSearchModifierMap() == null)) {
                     // Check if search is for a specific identity
@@ -634,7 +772,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
 
         // Get the cache entry
         Set answer = null;
-        IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(dn);
+        IdCacheBlock cb = idRepoCache.get(dn);
         if (cb != null) {
             // Get the fully qualified names
             answer = cb.getFullyQualifiedNames();
@@ -650,9 +788,68 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         return (answer);
     }
 
+    /**
+     * Returns the cache block of the identity, or null if it is not cached.
+     *
+     * @throws IdRepoException the exception cached for an identity which was not found, until it expires.
+     */
+    private IdCacheBlock getCacheBlock(String dn) throws IdRepoException {
+        IdCacheBlock cb = idRepoCache.get(dn);
+        if (cb != null && !cb.isExists()) {
+            IdRepoException notFound = cb.getNotFoundException();
+            if (notFound != null) {
+                cacheStats.updateNotFoundHitCount(getSize());
+                if (DEBUG.messageEnabled()) {
+                    DEBUG.message("IdCachedServicesImpl.getCacheBlock(): "
+                        + dn + " cached as not found.");
+                }
+                throw notFound;
+            }
+            // Expired, read the identity from the data stores again
+            idRepoCache.remove(dn, cb);
+            cb = null;
+        }
+        return cb;
+    }
+
+    // Cache the identity as not found if the data stores could not find it
+    private void cacheNotFound(String dn, IdRepoException ide) {
+        if (IdCacheBlock.isNotFoundCachingEnabled()
+            && (IdRepoErrorCode.UNABLE_FIND_ENTRY.equals(ide.getErrorCode())
+            || IdRepoErrorCode.TYPE_NOT_FOUND.equals(ide.getErrorCode()))) {
+            idRepoCache.put(dn, IdCacheBlock.notFound(dn, ide));
+        }
+    }
+
+    // Update the weight of a cache block which has changed, without
+    // adding it back to the cache if it has been removed meanwhile
+    @SuppressWarnings("unchecked")
+    private void reweigh(String dn, IdCacheBlock cb) {
+        if (idRepoCache instanceof ConcurrentCache) {
+            ConcurrentCache<String, IdCacheBlock> cache =
+                (ConcurrentCache<String, IdCacheBlock>) idRepoCache;
+            if (cache.getMaxWeight() != Long.MAX_VALUE) {
+                cache.replace(dn, cb, cb);
+                if (stats.isEnabled()) {
+                    cacheStats.updateEstimatedCacheBytes(cache.getWeight());
+                }
+            }
+        }
+    }
+
+    // Whether the universal identifier is that of a user
+    private static boolean isUser(String universalId) {
+        try {
+            return IdType.USER.equals(
+                new AMIdentity((SSOToken) null, universalId).getType());
+        } catch (IdRepoException | RuntimeException e) {
+            return false;
+        }
+    }
+
     // Return cache block for the universal identifier
     private IdCacheBlock getFromCache(String dn) {
-        IdCacheBlock cb = (IdCacheBlock) idRepoCache.get(dn);
+        IdCacheBlock cb = idRepoCache.get(dn);
         if (cb == null) {
             int ind = dn.toLowerCase().indexOf(",amsdkdn=");
             if (ind > -1) {
@@ -660,7 +857,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                 // TODO: Should return entries which might have amsdkDN but
                 // notifications have not told us about it (like
                 // notifications from plugins other than AMSDKRepo
-                cb = (IdCacheBlock) idRepoCache.get(tmp);
+                cb = idRepoCache.get(tmp);
             }
         }
         return cb;
@@ -679,9 +876,11 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     @Override
     public synchronized void notifyChanges() {
         final int value = SystemProperties.getAsInt(CACHE_MAX_SIZE_KEY, CACHE_MAX_SIZE_INT);
+        final long bytes = Math.max(SystemProperties.getAsLong(CACHE_MAX_BYTES_KEY, 0), 0);
+        membershipCacheEnabled = SystemProperties.getAsBoolean(MEMBERSHIP_CACHE_ENABLED_KEY, true);
 
-        if (value != maxSize) {
-            resetCache(value);
+        if (value != maxSize || bytes != maxBytes) {
+            resetCache(value, bytes);
         }
 
     }
@@ -0,0 +1,719 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.log.handlers;
+
+import static org.forgerock.openam.utils.Time.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.forgerock.openam.utils.collections.MpscRingBuffer;
+import org.forgerock.util.thread.listener.ShutdownListener;
+import org.forgerock.util.thread.listener.ShutdownPriority;
+
+import com.iplanet.am.util.SystemProperties;
+import com.sun.identity.common.ShutdownManager;
+import com.sun.identity.log.LogConstants;
+import com.sun.identity.log.LogManager;
+import com.sun.identity.log.LogManagerUtil;
+import com.sun.identity.log.Logger;
+import com.sun.identity.log.spi.Debug;
+import com.sun.identity.monitoring.Agent;
+import com.sun.identity.monitoring.MonitoringUtil;
+import com.sun.identity.monitoring.SsoServerLoggingHdlrEntryImpl;
+import com.sun.identity.monitoring.SsoServerLoggingSvcImpl;
+
+/**
+ * Asynchronous alternative to {@link FileHandler}, selected by setting the file handler class of the logging
+ * service to this class.
+ *
+ * <p>Request threads format their records and add them to a bounded lock-free ring buffer. A single writer thread
+ * per log file takes the records in batches of up to the configured buffer size and writes each batch with one
+ * {@link FileChannel} write, so logging never waits on the handler monitor or on the disk. When fsync is enabled
+ * the writer forces each batch to disk once, committing all records of the batch together.</p>
+ *
+ * <p>When the ring buffer is full the configured {@link FullPolicy} applies. Size and time based rotation,
+ * history files, file name prefix and suffix and time buffering are configured as for {@link FileHandler}.</p>
+ */
+public class AsyncFileHandler extends Handler {
+
+    /**
+     * The system property defining the number of records the ring buffer holds, rounded up to a power of two.
+     */
+    public static final String QUEUE_SIZE = "org.forgerock.openam.logging.async.queueSize";
+
+    /**
+     * The system property defining the {@link FullPolicy} applied when the ring buffer is full.
+     */
+    public static final String FULL_POLICY = "org.forgerock.openam.logging.async.fullPolicy";
+
+    /**
+     * The system property enabling an fsync after each written batch of records.
+     */
+    public static final String FSYNC = "org.forgerock.openam.logging.async.fsync";
+
+    private static final int DEFAULT_QUEUE_SIZE = 8192;
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_WAIT = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long FLUSH_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    private static final String DEFAULT_LOG_SUFFIX_FORMAT = "-MM.dd.yy-kk.mm";
+
+    /**
+     * What to do with a record published while the ring buffer is full.
+     */
+    public enum FullPolicy {
+        /** The record is dropped and counted as such. */
+        DROP,
+        /** The publishing thread waits until the writer has made room. */
+        BLOCK,
+        /** The record is appended to an overflow file, which the writer copies to the log file later. */
+        OVERFLOW
+    }
+
+    private final LogManager lmanager;
+    private final AtomicLong droppedCount = new AtomicLong();
+    // Records handed to the writer, through the ring buffer or the overflow file
+    private final AtomicLong publishedCount = new AtomicLong();
+    // Records the writer has finished with, written or not
+    private final AtomicLong writtenCount = new AtomicLong();
+    // The published count a flush is waiting for, the writer ignores time buffering until it is reached
+    private final AtomicLong flushTarget = new AtomicLong();
+    private final Object flushLock = new Object();
+    private volatile int flushWaiters;
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong batchNanos = new AtomicLong();
+    private final Object overflowLock = new Object();
+    private MpscRingBuffer<String> buffer;
+    private FullPolicy fullPolicy = FullPolicy.BLOCK;
+    private boolean fsync;
+    private String fileName;
+    private String location;
+    private int batchSize = 1;
+    private long bufferTime;
+    private int count;
+    private long maxFileSize;
+    private boolean rotateEnabled = true;
+    private boolean rotatingBySize = true;
+    private int rotationInterval = -1;
+    private long lastRotation;
+    private String headerString;
+    private Charset charset;
+    private File files[];
+    private FileChannel channel;
+    private boolean headerWritten;
+    private File overflowFile;
+    private FileChannel overflowChannel;
+    private long overflowRecords;
+    private volatile boolean overflowPending;
+    private volatile boolean running;
+    private volatile boolean writerWaiting;
+    private Thread writerThread;
+    private ShutdownListener shutdownListener;
+    private SsoServerLoggingHdlrEntryImpl fileLogHandlerForMonitoring;
+
+    /**
+     * Creates a new handler and starts its writer thread.
+     *
+     * @param fileName The filename associated with the handler.
+     */
+    public AsyncFileHandler(String fileName) {
+        lmanager = LogManagerUtil.getLogManager();
+        if ((fileName == null) || (fileName.length() == 0)) {
+            return;
+        }
+        this.fileName = fileName;
+        try {
+            configure();
+        } catch (FormatterInitException fie) {
+            Debug.error(fileName + ":AsyncFileHandler: could not instantiate Formatter", fie);
+        }
+        if (location == null) {
+            Debug.error(fileName + ":AsyncFileHandler: Location not specified");
+            return;
+        }
+        String path = location + (rotateEnabled && !rotatingBySize ? wrapFilename(fileName) : fileName);
+        Logger logger = (Logger) Logger.getLogger(fileName);
+        if (logger.getLevel() != Level.OFF) {
+            try {
+                openFiles(path);
+            } catch (IOException ioe) {
+                Debug.error(fileName + ":AsyncFileHandler: Unable to open Files", ioe);
+            }
+        }
+        logger.setCurrentFile(fileName);
+
+        if (MonitoringUtil.isRunning()) {
+            SsoServerLoggingSvcImpl logServiceImplForMonitoring = Agent.getLoggingSvcMBean();
+            fileLogHandlerForMonitoring =
+                    logServiceImplForMonitoring.getHandler(SsoServerLoggingSvcImpl.FILE_HANDLER_NAME);
+        }
+        startWriter();
+    }
+
+    /**
+     * Creates a handler writing to a single file without rotation, configured directly rather than by the logging
+     * service.
+     *
+     * @param file The log file.
+     * @param formatter The formatter of the records.
+     * @param batchSize The maximum number of records written at once.
+     * @param bufferTime The time in milliseconds records may wait for a full batch, or 0 to write them at once.
+     * @throws IOException If the file could not be opened.
+     */
+    AsyncFileHandler(File file, Formatter formatter, int batchSize, long bufferTime) throws IOException {
+        lmanager = null;
+        fileName = file.getName();
+        this.batchSize = batchSize;
+        this.bufferTime = bufferTime;
+        maxFileSize = Long.MAX_VALUE;
+        rotateEnabled = false;
+        buffer = new MpscRingBuffer<>(Math.max(DEFAULT_QUEUE_SIZE, batchSize));
+        setFormatter(formatter);
+        openFiles(file.getPath());
+        startWriter();
+    }
+
+    private void configure() throws FormatterInitException {
+        String bufferSize = lmanager.getProperty(LogConstants.BUFFER_SIZE);
+        try {
+            batchSize = Math.max(1, Integer.parseInt(bufferSize));
+        } catch (NumberFormatException nfe) {
+            Debug.warning(fileName + ":AsyncFileHandler: Invalid buffer size: " + bufferSize);
+        }
+        if ("ON".equalsIgnoreCase(lmanager.getProperty(LogConstants.TIME_BUFFERING_STATUS))) {
+            String period = lmanager.getProperty(LogConstants.BUFFER_TIME);
+            long seconds = (period != null && period.length() != 0)
+                    ? Long.parseLong(period) : LogConstants.BUFFER_TIME_DEFAULT;
+            bufferTime = TimeUnit.SECONDS.toMillis(seconds);
+        }
+        String strCount = lmanager.getProperty(LogConstants.NUM_HISTORY_FILES);
+        count = (strCount == null || strCount.length() == 0) ? 0 : Integer.parseInt(strCount);
+        if (count < 0) {
+            Debug.error(fileName + ":AsyncFileHandler: no. of history files negative " + count);
+            count = 0;
+        }
+        String strMaxFileSize = lmanager.getProperty(LogConstants.MAX_FILE_SIZE);
+        maxFileSize = (strMaxFileSize == null || strMaxFileSize.length() == 0) ? 0L : Long.parseLong(strMaxFileSize);
+
+        location = lmanager.getProperty(LogConstants.LOG_LOCATION);
+        if (location == null || location.length() == 0) {
+            location = null;
+        } else if (!location.endsWith(File.separator)) {
+            location += File.separator;
+        }
+
+        String strRotateEnabled = lmanager.getProperty(LogConstants.ENABLE_ROTATION);
+        if (strRotateEnabled != null && !strRotateEnabled.isEmpty()) {
+            rotateEnabled = Boolean.parseBoolean(strRotateEnabled);
+        }
+        if (rotateEnabled) {
+            try {
+                String rotation = lmanager.getProperty(LogConstants.LOGFILE_ROTATION);
+                if (rotation != null) {
+                    rotationInterval = Integer.parseInt(rotation);
+                }
+            } catch (NumberFormatException nfe) {
+                rotationInterval = -1;
+            }
+            if (rotationInterval > 0) {
+                lastRotation = currentTimeMillis();
+                rotatingBySize = false;
+            }
+        }
+
+        int queueSize = SystemProperties.getAsInt(QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+        buffer = new MpscRingBuffer<>(Math.max(queueSize, batchSize));
+        String policy = SystemProperties.get(FULL_POLICY, FullPolicy.BLOCK.name());
+        try {
+            fullPolicy = FullPolicy.valueOf(policy.toUpperCase());
+        } catch (IllegalArgumentException iae) {
+            Debug.error(fileName + ":AsyncFileHandler: Invalid full policy " + policy + ", blocking instead");
+        }
+        fsync = SystemProperties.getAsBoolean(FSYNC, false);
+
+        String strFormatter = lmanager.getProperty(LogConstants.ELF_FORMATTER);
+        try {
+            setFormatter((Formatter) Class.forName(strFormatter).newInstance());
+        } catch (Exception e) {
+            throw new FormatterInitException("Unable to initialize Formatter Class" + e);
+        }
+    }
+
+    private void openFiles(String path) throws IOException {
+        files = new File[count + 1];
+        files[0] = new File(path);
+        for (int i = 1; i < count + 1; i++) {
+            files[i] = new File(path + "-" + i);
+        }
+        open(files[0]);
+        overflowFile = new File(path + ".overflow");
+        if (overflowFile.length() > 0) {
+            // Records which had not been copied before the server stopped
+            overflowPending = true;
+        }
+    }
+
+    private void open(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        String encoding = getEncoding();
+        charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        headerWritten = channel.size() > 0;
+    }
+
+    private String wrapFilename(String fileName) {
+        String prefix = lmanager.getProperty(LogConstants.LOGFILE_PREFIX);
+        String suffixFormat = lmanager.getProperty(LogConstants.LOGFILE_SUFFIX);
+        StringBuilder newFileName = new StringBuilder();
+        if (prefix != null) {
+            newFileName.append(prefix);
+        }
+        newFileName.append(fileName);
+        SimpleDateFormat suffixDateFormat = null;
+        if (suffixFormat != null && suffixFormat.trim().length() > 0) {
+            try {
+                suffixDateFormat = new SimpleDateFormat(suffixFormat);
+            } catch (IllegalArgumentException iae) {
+                Debug.error("Date format invalid; " + suffixFormat, iae);
+            }
+        }
+        if (rotationInterval > 0 && suffixDateFormat == null) {
+            suffixDateFormat = new SimpleDateFormat(DEFAULT_LOG_SUFFIX_FORMAT);
+        }
+        if (suffixDateFormat != null) {
+            newFileName.append(suffixDateFormat.format(newDate()));
+        }
+        return newFileName.toString();
+    }
+
+    /**
+     * Formats the record and hands it to the writer thread.
+     *
+     * @param lrecord the log record to be published.
+     */
+    @Override
+    public void publish(LogRecord lrecord) {
+        if (fileLogHandlerForMonitoring != null) {
+            fileLogHandlerForMonitoring.incHandlerRequestCount(1);
+        }
+        if (maxFileSize <= 0 || !isLoggable(lrecord)) {
+            return;
+        }
+        String message = getFormatter().format(lrecord);
+        if (!running) {
+            dropped(1);
+            return;
+        }
+        if (!buffer.offer(message)) {
+            switch (fullPolicy) {
+            case DROP:
+                dropped(1);
+                break;
+            case OVERFLOW:
+                overflow(message);
+                break;
+            default:
+                while (!buffer.offer(message)) {
+                    if (!running) {
+                        dropped(1);
+                        return;
+                    }
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(BLOCK_WAIT);
+                }
+                publishedCount.incrementAndGet();
+            }
+        } else {
+            publishedCount.incrementAndGet();
+        }
+        if (writerWaiting && (bufferTime == 0 || buffer.size() >= batchSize)) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void overflow(String message) {
+        if (overflowFile == null) {
+            dropped(1);
+            return;
+        }
+        synchronized (overflowLock) {
+            try {
+                if (overflowChannel == null) {
+                    overflowChannel = FileChannel.open(overflowFile.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                ByteBuffer bytes = charset.encode(message);
+                while (bytes.hasRemaining()) {
+                    overflowChannel.write(bytes);
+                }
+                overflowRecords++;
+                publishedCount.incrementAndGet();
+                overflowPending = true;
+            } catch (IOException e) {
+                Debug.error(fileName + ":AsyncFileHandler: could not write to overflow file", e);
+                dropped(1);
+            }
+        }
+    }
+
+    private void dropped(int records) {
+        droppedCount.addAndGet(records);
+        if (fileLogHandlerForMonitoring != null) {
+            fileLogHandlerForMonitoring.incHandlerDroppedCount(records);
+        }
+    }
+
+    private void startWriter() {
+        running = true;
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeRecords();
+            }
+        }, "AsyncFileHandler-" + fileName);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        shutdownListener = new ShutdownListener() {
+            @Override
+            public void shutdown() {
+                close();
+            }
+        };
+        ShutdownManager.getInstance().addShutdownListener(shutdownListener, ShutdownPriority.LOWEST);
+    }
+
+    /**
+     * The writer thread loop, which writes the records in batches until the handler is closed and all records
+     * are written.
+     */
+    private void writeRecords() {
+        List<String> batch = new ArrayList<>(batchSize);
+        long lastWrite = currentTimeMillis();
+        while (running || !buffer.isEmpty()) {
+            if (running && bufferTime > 0 && buffer.size() < batchSize && !isFlushRequested()
+                    && currentTimeMillis() - lastWrite < bufferTime) {
+                waitForRecords();
+                continue;
+            }
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                copyOverflow();
+                if (running) {
+                    waitForRecords();
+                }
+                continue;
+            }
+            write(batch);
+            written(batch.size());
+            batch.clear();
+            lastWrite = currentTimeMillis();
+        }
+        copyOverflow();
+        closeChannels();
+        synchronized (flushLock) {
+            flushLock.notifyAll();
+        }
+    }
+
+    private boolean isFlushRequested() {
+        return flushTarget.get() > writtenCount.get();
+    }
+
+    /**
+     * Records that the writer has finished with some records, and wakes up any flush waiting for them.
+     */
+    private void written(long records) {
+        writtenCount.addAndGet(records);
+        if (flushWaiters > 0) {
+            synchronized (flushLock) {
+                flushLock.notifyAll();
+            }
+        }
+    }
+
+    private void waitForRecords() {
+        writerWaiting = true;
+        if (buffer.size() < batchSize || bufferTime == 0 && buffer.isEmpty()) {
+            LockSupport.parkNanos(this, IDLE_WAIT);
+        }
+        writerWaiting = false;
+    }
+
+    private void write(List<String> batch) {
+        if (channel == null) {
+            Debug.error(fileName + ":AsyncFileHandler: File is not open");
+            dropped(batch.size());
+            return;
+        }
+        long start = System.nanoTime();
+        int written = 0;
+        try {
+            if (!rotatingBySize && needsTimeRotation()) {
+                rotate();
+            }
+            List<ByteBuffer> pending = new ArrayList<>(batch.size() + 1);
+            long pendingBytes = 0;
+            int pendingRecords = 0;
+            for (String message : batch) {
+                ByteBuffer bytes = charset.encode(message);
+                if (rotateEnabled && rotatingBySize
+                        && channel.size() + pendingBytes + bytes.remaining() >= maxFileSize) {
+                    writeFully(pending);
+                    written += pendingRecords;
+                    pending.clear();
+                    pendingBytes = 0;
+                    pendingRecords = 0;
+                    rotate();
+                }
+                if (!headerWritten) {
+                    ByteBuffer header = charset.encode(getHeaderString());
+                    pending.add(header);
+                    pendingBytes += header.remaining();
+                    headerWritten = true;
+                }
+                pending.add(bytes);
+                pendingBytes += bytes.remaining();
+                pendingRecords++;
+            }
+            writeFully(pending);
+            written += pendingRecords;
+            if (fsync) {
+                channel.force(false);
+            }
+            if (fileLogHandlerForMonitoring != null) {
+                fileLogHandlerForMonitoring.incHandlerSuccessCount(written);
+            }
+        } catch (IOException ex) {
+            Debug.error(fileName + ":AsyncFileHandler: could not write to file: ", ex);
+            if (fileLogHandlerForMonitoring != null) {
+                fileLogHandlerForMonitoring.incHandlerFailureCount(batch.size() - written);
+            }
+        }
+        batchCount.incrementAndGet();
+        batchNanos.addAndGet(System.nanoTime() - start);
+        if (fileLogHandlerForMonitoring != null) {
+            fileLogHandlerForMonitoring.setHandlerQueueDepth(buffer.size());
+            fileLogHandlerForMonitoring.setHandlerWriteLatency(getAverageWriteLatency());
+        }
+    }
+
+    /**
+     * Writes the buffers with gathering writes.
+     */
+    private void writeFully(List<ByteBuffer> pending) throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = pending.toArray(new ByteBuffer[pending.size()]);
+        int offset = 0;
+        while (offset < buffers.length) {
+            channel.write(buffers, offset, buffers.length - offset);
+            while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+                offset++;
+            }
+        }
+    }
+
+    /**
+     * Appends the records written to the overflow file to the log file, after the records of the ring buffer.
+     */
+    private void copyOverflow() {
+        if (!overflowPending || channel == null) {
+            return;
+        }
+        synchronized (overflowLock) {
+            try (FileChannel in = FileChannel.open(overflowFile.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, channel);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                in.truncate(0);
+                overflowPending = false;
+                written(overflowRecords);
+                overflowRecords = 0;
+            } catch (IOException e) {
+                Debug.error(fileName + ":AsyncFileHandler: could not copy overflow file", e);
+            }
+        }
+    }
+
+    private boolean needsTimeRotation() {
+        return rotateEnabled && currentTimeMillis() - lastRotation >= TimeUnit.MINUTES.toMillis(rotationInterval);
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        if (rotatingBySize) {
+            // delete file<n>; file<n-1> becomes file<n>; and so on.
+            for (int i = count - 1; i >= 0; i--) {
+                File f1 = files[i];
+                File f2 = files[i + 1];
+                if (f1.exists()) {
+                    if (f2.exists() && !f2.delete()) {
+                        Debug.error(fileName + ":AsyncFileHandler: could not delete file " + f2);
+                    }
+                    if (!f1.renameTo(f2)) {
+                        Debug.error(fileName + ":AsyncFileHandler: could not rename file " + f1);
+                    }
+                }
+            }
+        } else {
+            lastRotation = currentTimeMillis();
+            if (files[count].exists() && !files[count].delete()) {
+                Debug.error(fileName + ":AsyncFileHandler: could not delete file " + files[count]);
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                files[i + 1] = files[i];
+            }
+            File newLogFile = new File(location, wrapFilename(fileName));
+            if (newLogFile.exists()) {
+                Debug.error(newLogFile.getName() + ":AsyncFileHandler: could not rotate file. msg = "
+                        + "file already exists!");
+            } else {
+                files[0] = newLogFile;
+            }
+        }
+        if (Debug.messageEnabled()) {
+            Debug.message(fileName + ":AsyncFileHandler: rotate to file " + files[0].getName());
+        }
+        open(files[0]);
+    }
+
+    private String getHeaderString() {
+        if (headerString == null) {
+            headerString = getFormatter().getHead(this);
+        }
+        return headerString;
+    }
+
+    private void closeChannels() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            Debug.error(fileName + ":AsyncFileHandler: Error closing file", e);
+        }
+        synchronized (overflowLock) {
+            try {
+                if (overflowChannel != null) {
+                    overflowChannel.close();
+                    overflowChannel = null;
+                }
+            } catch (IOException e) {
+                Debug.error(fileName + ":AsyncFileHandler: Error closing overflow file", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until the writer thread has written the records published so far, regardless of time buffering, for
+     * at most ten seconds.
+     */
+    @Override
+    public void flush() {
+        if (writerThread == null || Thread.currentThread() == writerThread) {
+            return;
+        }
+        long target = publishedCount.get();
+        if (writtenCount.get() >= target) {
+            return;
+        }
+        long current;
+        while ((current = flushTarget.get()) < target && !flushTarget.compareAndSet(current, target)) {
+            // Retry, another flush raised the target
+        }
+        LockSupport.unpark(writerThread);
+        long deadline = currentTimeMillis() + FLUSH_TIMEOUT;
+        synchronized (flushLock) {
+            flushWaiters++;
+            try {
+                long remaining;
+                while (writtenCount.get() < target && writerThread.isAlive()
+                        && (remaining = deadline - currentTimeMillis()) > 0) {
+                    flushLock.wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                flushWaiters--;
+            }
+        }
+    }
+
+    /**
+     * Stops the writer thread once it has written all published records, and closes the files.
+     */
+    @Override
+    public void close() {
+        if (writerThread == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(FLUSH_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            ShutdownManager.getInstance().removeShutdownListener(shutdownListener);
+        } catch (IllegalMonitorStateException e) {
+            // Called by the shutdown manager itself
+        }
+    }
+
+    /**
+     * @return The number of records waiting to be written.
+     */
+    public int getQueueDepth() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    /**
+     * @return The number of records dropped because the ring buffer was full or the handler closed.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return The average time in microseconds taken to write a batch of records.
+     */
+    public long getAverageWriteLatency() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(batchNanos.get() / batches);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.log.handlers;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.sun.identity.log.spi.Debug;
+
+/**
+ * Inserts rows of log values with JDBC batches, reusing one prepared statement per connection.
+ *
+ * <p>Each batch is committed in its own transaction. When a batch fails because of one of its rows, it is rolled
+ * back and split in halves which are retried separately, until the failing rows are isolated and rejected. Errors
+ * which are not caused by the rows, such as a lost connection or a missing table, are rethrown instead so that the
+ * caller can repair the cause and retry the rows which have not been processed yet.</p>
+ */
+final class DBBatchWriter {
+
+    private final String tableName;
+    private final boolean isMySQL;
+    private final int batchSize;
+    private Connection connection;
+    private String sql;
+    private PreparedStatement statement;
+
+    /**
+     * Creates a batch writer.
+     *
+     * @param tableName The table name, for debug messages.
+     * @param isMySQL Whether the database is MySQL, which binds the data column as a string rather than a CLOB.
+     * @param batchSize The maximum number of rows sent in one batch.
+     */
+    DBBatchWriter(String tableName, boolean isMySQL, int batchSize) {
+        this.tableName = tableName;
+        this.isMySQL = isMySQL;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Inserts the rows in order. The first value of a row is the record time in milliseconds, the second the data
+     * column and the remaining values are strings.
+     *
+     * @param conn The database connection.
+     * @param insertSql The INSERT statement with one placeholder per value.
+     * @param rows The rows to insert.
+     * @param result Counts the written and rejected rows, which are always a prefix of the rows.
+     * @throws SQLException If the rows could not be written for a reason other than their content.
+     */
+    synchronized void write(Connection conn, String insertSql, List<List<String>> rows, BatchResult result)
+            throws SQLException {
+        PreparedStatement insert = getStatement(conn, insertSql);
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) {
+            conn.setAutoCommit(false);
+        }
+        try {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                write(conn, insert, rows.subList(from, Math.min(rows.size(), from + batchSize)), result);
+            }
+        } finally {
+            if (autoCommit) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    Debug.warning(tableName + ":DBBatchWriter: could not restore auto commit", e);
+                }
+            }
+        }
+    }
+
+    private void write(Connection conn, PreparedStatement insert, List<List<String>> rows, BatchResult result)
+            throws SQLException {
+        try {
+            for (List<String> values : rows) {
+                bind(insert, values);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            conn.commit();
+            result.written += rows.size();
+        } catch (SQLException e) {
+            rollback(conn, insert);
+            if (isConnectionLost(conn, e) || isMissingTable(e)) {
+                throw e;
+            }
+            if (rows.size() == 1) {
+                Debug.error(tableName + ":DBBatchWriter: rejecting record (" + e.getErrorCode() + "): "
+                        + e.getMessage());
+                result.rejected++;
+                return;
+            }
+            if (Debug.messageEnabled()) {
+                Debug.message(tableName + ":DBBatchWriter: batch of " + rows.size() + " records failed ("
+                        + e.getErrorCode() + "), retrying in halves");
+            }
+            int half = rows.size() / 2;
+            write(conn, insert, rows.subList(0, half), result);
+            write(conn, insert, rows.subList(half, rows.size()), result);
+        }
+    }
+
+    private void bind(PreparedStatement insert, List<String> values) throws SQLException {
+        // Column numbers in PreparedStatements start at 1 not 0.
+        insert.setTimestamp(1, new Timestamp(Long.parseLong(values.get(0))));
+        if (isMySQL) {
+            insert.setString(2, values.get(1));
+        } else {
+            insert.setClob(2, new StringReader(values.get(1)));
+        }
+        for (int i = 2; i < values.size(); i++) {
+            insert.setString(i + 1, values.get(i));
+        }
+    }
+
+    private void rollback(Connection conn, PreparedStatement insert) {
+        try {
+            insert.clearBatch();
+            conn.rollback();
+        } catch (SQLException e) {
+            if (Debug.messageEnabled()) {
+                Debug.message(tableName + ":DBBatchWriter: rollback failed (" + e.getErrorCode() + "): "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    private PreparedStatement getStatement(Connection conn, String insertSql) throws SQLException {
+        if (statement == null || conn != connection || !insertSql.equals(sql)) {
+            reset();
+            statement = conn.prepareStatement(insertSql);
+            connection = conn;
+            sql = insertSql;
+        }
+        return statement;
+    }
+
+    /**
+     * Closes the cached prepared statement, to be called when the connection is closed or replaced.
+     */
+    synchronized void reset() {
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                if (Debug.messageEnabled()) {
+                    Debug.message(tableName + ":DBBatchWriter: error closing statement: " + e.getMessage());
+                }
+            }
+        }
+        statement = null;
+        connection = null;
+        sql = null;
+    }
+
+    /**
+     * Whether the error means the connection to the database is lost.
+     *
+     * @param conn The connection the error occurred on.
+     * @param e The error.
+     * @return {@code true} if the connection should be reopened.
+     */
+    boolean isConnectionLost(Connection conn, SQLException e) {
+        String state = e.getSQLState();
+        return isClosed(conn)
+                || e instanceof SQLRecoverableException
+                || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLTransientConnectionException
+                || (state != null && state.startsWith("08"))
+                || (isMySQL && e.getErrorCode() == 0 && state == null)
+                || (!isMySQL && (e.getErrorCode() == 17002 || e.getErrorCode() == 17410));
+    }
+
+    /**
+     * Whether the error means the log table does not exist.
+     *
+     * @param e The error.
+     * @return {@code true} if the table should be created.
+     */
+    boolean isMissingTable(SQLException e) {
+        return "42S02".equals(e.getSQLState())
+                || (isMySQL && e.getErrorCode() == 1146) || (!isMySQL && e.getErrorCode() == 942);
+    }
+
+    private boolean isClosed(Connection conn) {
+        try {
+            return conn == null || conn.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * The number of rows processed by {@link DBBatchWriter#write(Connection, String, List, BatchResult)}.
+     */
+    static final class BatchResult {
+
+        int written;
+        int rejected;
+
+        /**
+         * @return The number of rows written or rejected, which are the first rows passed to the writer.
+         */
+        int processed() {
+            return written + rejected;
+        }
+    }
+}
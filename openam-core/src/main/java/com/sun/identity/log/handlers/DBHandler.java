@@ -52,6 +52,7 @@ import java.util.logging.Formatter;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 
+import com.iplanet.am.util.SystemProperties;
 import com.iplanet.am.util.ThreadPoolException;
 import com.iplanet.log.ConnectionException;
 import com.iplanet.log.DriverLoadException;
@@ -79,6 +80,26 @@ import com.sun.identity.monitoring.SsoServerLoggingSvcImpl;
  */
 public class DBHandler extends Handler {
 
+    /**
+     * The system property enabling the batch mode, in which buffered records are inserted with JDBC batches
+     * through a reused prepared statement.
+     */
+    public static final String BATCH_ENABLED = "org.forgerock.openam.logging.db.batch.enabled";
+
+    /**
+     * The system property defining the number of records inserted in one batch, and buffered before a write is
+     * started in the batch mode.
+     */
+    public static final String BATCH_SIZE = "org.forgerock.openam.logging.db.batch.size";
+
+    /**
+     * The system property defining the maximum time in milliseconds records stay buffered in the batch mode.
+     */
+    public static final String BATCH_LINGER_TIME = "org.forgerock.openam.logging.db.batch.lingerTime";
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_BATCH_LINGER_TIME = 1000;
+
     private LogManager lmanager = LogManagerUtil.getLogManager();
     private String driver;
     private String databaseURL;
@@ -91,6 +112,8 @@ public class DBHandler extends Handler {
     private LinkedList<LogRecord> recordBuffer;
     private TimeBufferingTask bufferTask;
     private boolean timeBufferingEnabled = false;
+    private DBBatchWriter batchWriter;
+    private long batchLingerTime;
     private SsoServerLoggingSvcImpl logServiceImplForMonitoring = null;
     private SsoServerLoggingHdlrEntryImpl dbLogHandlerForMonitoring = null;
     //
@@ -161,6 +184,13 @@ public class DBHandler extends Handler {
             recMaxDBMem = recCountLimit;
         }
 
+        if (SystemProperties.getAsBoolean(BATCH_ENABLED, false)) {
+            int batchSize = Math.max(1, SystemProperties.getAsInt(BATCH_SIZE, DEFAULT_BATCH_SIZE));
+            batchLingerTime = SystemProperties.getAsLong(BATCH_LINGER_TIME, DEFAULT_BATCH_LINGER_TIME);
+            recCountLimit = batchSize;
+            recMaxDBMem = Math.max(recMaxDBMem, 2 * batchSize);
+        }
+
         String status = lmanager.getProperty(LogConstants.TIME_BUFFERING_STATUS);
 
         if ( status != null && status.equalsIgnoreCase("ON")) {
@@ -202,6 +232,9 @@ public class DBHandler extends Handler {
             isMySQL = false;
             Debug.warning(tableName + ":DBHandler:configure:assuming driver: '" + driver + "' is Oracle-compatible.");
         }
+        if (SystemProperties.getAsBoolean(BATCH_ENABLED, false)) {
+            batchWriter = new DBBatchWriter(tableName, isMySQL, recCountLimit);
+        }
 
         try {
             Class clz = Class.forName(strFormatter);
@@ -268,6 +301,9 @@ public class DBHandler extends Handler {
     //  the table exists (creating it if it doesn't).
     //
     private void reconnectToDatabase() throws ConnectionException, DriverLoadException {
+        if (batchWriter != null) {
+            batchWriter.reset();
+        }
         //Monit start
         if (MonitoringUtil.isRunning() && dbLogHandlerForMonitoring != null) {
             dbLogHandlerForMonitoring.incHandlerConnectionRequests(1);
@@ -350,7 +386,7 @@ public class DBHandler extends Handler {
         }
 
         recordBuffer = new LinkedList<LogRecord>();
-        if (timeBufferingEnabled) {
+        if (timeBufferingEnabled || (batchWriter != null && batchLingerTime > 0)) {
             startTimeBufferingThread();
         }
 
@@ -399,6 +435,31 @@ public class DBHandler extends Handler {
      */
     private PreparedStatement getInsertPreparedStatement(List<String> values) throws SQLException {
 
+        PreparedStatement preparedStatement = conn.prepareStatement(getInsertStatementString(values.size()));
+
+        // Column numbers in PreparedStatements start at 1 not 0.
+        // Set the time and data values directly, these are always the first two columns.
+        preparedStatement.setTimestamp(1, new Timestamp(Long.parseLong(values.get(0))));
+        if (isMySQL) {
+            preparedStatement.setString(2, values.get(1));
+        } else {
+            preparedStatement.setClob(2, new StringReader(values.get(1)));
+        }
+        // The remaining values are all strings
+        for (int i = 2; i < values.size(); i++) {
+            preparedStatement.setString(i + 1, values.get(i));
+        }
+
+        return preparedStatement;
+    }
+
+    /**
+     * Construct the INSERT statement for the table that this DBHandler represents.
+     * @param valueCount The number of values to be inserted.
+     * @return The INSERT statement with a placeholder for every value.
+     */
+    private String getInsertStatementString(int valueCount) {
+
         StringBuilder insertStringBuffer = new StringBuilder(2000);
         insertStringBuffer.append("INSERT INTO ").append(tableName);
         // This returns a comma separated String representing the column names
@@ -409,7 +470,7 @@ public class DBHandler extends Handler {
         insertStringBuffer.append(" VALUES (");
 
         // Inset a placeholder for every value we have.
-        for (int i = 0; i < (values.size() - 1); i++) {
+        for (int i = 0; i < (valueCount - 1); i++) {
            insertStringBuffer.append("?,");
         }
         // Finish with remaining value placeholder less the ,
@@ -418,25 +479,9 @@ public class DBHandler extends Handler {
         String preparedStatementString = insertStringBuffer.toString();
         if (Debug.messageEnabled()) {
             Debug.message(tableName +
-                ":DBHandler:getInsertPreparedStatement preparedStatementString is " + preparedStatementString);
+                ":DBHandler:getInsertStatementString preparedStatementString is " + preparedStatementString);
         }
-
-        PreparedStatement preparedStatement = conn.prepareStatement(preparedStatementString);
-
-        // Column numbers in PreparedStatements start at 1 not 0.
-        // Set the time and data values directly, these are always the first two columns.
-        preparedStatement.setTimestamp(1, new Timestamp(Long.parseLong(values.get(0))));
-        if (isMySQL) {
-            preparedStatement.setString(2, values.get(1));
-        } else {
-            preparedStatement.setClob(2, new StringReader(values.get(1)));
-        }
-        // The remaining values are all strings
-        for (int i = 2; i < values.size(); i++) {
-            preparedStatement.setString(i + 1, values.get(i));
-        }
-
-        return preparedStatement;
+        return preparedStatementString;
     }
 
     /**
@@ -568,6 +613,9 @@ public class DBHandler extends Handler {
         } catch (AMLogException ale) {
             Debug.error(tableName + ":DBHandler:close/flush error: " + ale.getMessage());
         }
+        if (batchWriter != null) {
+            batchWriter.reset();
+        }
         if(conn != null) {
             try {
                 conn.close();
@@ -1009,6 +1057,11 @@ public class DBHandler extends Handler {
             closeStatement(testConnectionStatement);
         }
 
+        if (batchWriter != null) {
+            logRecordsInBatches(records);
+            return;
+        }
+
         PreparedStatement insertStatement = null;
         for (LogRecord record : records) {
             List<String> values = getValues(record);
@@ -1190,6 +1243,72 @@ public class DBHandler extends Handler {
         }
     }
 
+    /**
+     * Inserts the records with JDBC batches. Records are only dropped when the database rejects them; when the
+     * connection is lost or the table is missing the cause is repaired and the remaining records are written again.
+     * If that fails too, the remaining records are put back in the buffer for the next flush.
+     */
+    private void logRecordsInBatches(LinkedList<LogRecord> records) {
+        List<List<String>> rows = new ArrayList<List<String>>(records.size());
+        for (LogRecord record : records) {
+            rows.add(getValues(record));
+        }
+        String insertSql = getInsertStatementString(rows.get(0).size());
+        boolean retried = false;
+        while (true) {
+            DBBatchWriter.BatchResult result = new DBBatchWriter.BatchResult();
+            try {
+                batchWriter.write(conn, insertSql, rows, result);
+                updateBatchMonitoring(result);
+                return;
+            } catch (SQLException sqle) {
+                updateBatchMonitoring(result);
+                for (int i = 0; i < result.processed(); i++) {
+                    records.removeFirst();
+                }
+                rows = rows.subList(result.processed(), rows.size());
+                Debug.error(tableName + ":DBHandler:logRecordsInBatches:SQLE (" + sqle.getErrorCode() + "): "
+                        + sqle.getMessage());
+                if (retried) {
+                    clearBuffer(records);
+                    throw new AMLogException(AMLogException.LOG_DB_EXECUPDATE);
+                }
+                retried = true;
+                if (batchWriter.isConnectionLost(conn, sqle)) {
+                    try {
+                        conn.close();
+                    } catch (SQLException ex) {
+                        if (Debug.messageEnabled()) {
+                            Debug.message(tableName + ":DBHandler:logRecordsInBatches:close:SQLE ("
+                                    + ex.getErrorCode() + "): " + ex.getMessage());
+                        }
+                    }
+                    connectionToDBLost = true;
+                    try {
+                        reconnectToDatabase();
+                    } catch (DriverLoadException | ConnectionException e) {
+                        Debug.error(tableName + ":DBHandler:logRecordsInBatches:reconnect: " + e.getMessage());
+                        clearBuffer(records);
+                        throw new AMLogException(AMLogException.LOG_DB_RECONNECT_FAILED);
+                    }
+                    connectionToDBLost = false;
+                }
+                try {
+                    createTable(tableName);
+                } catch (SQLException | UnsupportedEncodingException e) {
+                    Debug.error(tableName + ":DBHandler:logRecordsInBatches:cTable: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void updateBatchMonitoring(DBBatchWriter.BatchResult result) {
+        if (MonitoringUtil.isRunning() && dbLogHandlerForMonitoring != null) {
+            dbLogHandlerForMonitoring.incHandlerSuccessCount(result.written);
+            dbLogHandlerForMonitoring.incHandlerFailureCount(result.rejected);
+        }
+    }
+
     private void closeResultSet(ResultSet resultSet) {
 
         if (resultSet != null) {
@@ -1272,14 +1391,20 @@ public class DBHandler extends Handler {
     }
 
     private void startTimeBufferingThread() {
-        String period = lmanager.getProperty(LogConstants.BUFFER_TIME);
-        long interval;
-        if ((period != null) && (period.length() != 0)) {
-            interval = Long.parseLong(period);
-        } else {
-            interval = LogConstants.BUFFER_TIME_DEFAULT;
+        long interval = Long.MAX_VALUE;
+        if (timeBufferingEnabled) {
+            String period = lmanager.getProperty(LogConstants.BUFFER_TIME);
+            if ((period != null) && (period.length() != 0)) {
+                interval = Long.parseLong(period);
+            } else {
+                interval = LogConstants.BUFFER_TIME_DEFAULT;
+            }
+            interval *= 1000;
+        }
+        if (batchWriter != null && batchLingerTime > 0) {
+            // Records stay buffered for the linger time at most
+            interval = Math.min(interval, batchLingerTime);
         }
-        interval *= 1000;
         if(bufferTask == null){
             bufferTask = new TimeBufferingTask(interval);
             try {
@@ -25,6 +25,7 @@
  * $Id: Agent.java,v 1.9 2009/11/10 01:33:22 bigfatrat Exp $
  *
  * Portions Copyrighted 2011-2016 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.sun.identity.monitoring;
@@ -44,6 +45,7 @@ import com.sun.management.comm.SnmpAdaptorServer;
 import com.sun.management.snmp.SnmpStatusException;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
@@ -544,7 +546,11 @@ public class Agent {
             server = servers.get(0);
         } else {
             try {
-                server = MBeanServerFactory.createMBeanServer();
+                /*
+                 * the platform MBeanServer also holds the thread pool
+                 * MBeans, which are then available through the connectors
+                 */
+                server = ManagementFactory.getPlatformMBeanServer();
             } catch (SecurityException ex) {
                 if (debug.warningEnabled()) {
                     debug.warning(classMethod +
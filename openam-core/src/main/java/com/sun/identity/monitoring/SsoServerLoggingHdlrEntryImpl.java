@@ -159,4 +159,20 @@ public class SsoServerLoggingHdlrEntryImpl extends SsoServerLoggingHdlrEntry {
         LoggingHdlrConnMade = Long.valueOf(li);
     }
 
+    /*
+     * Set the number of log records waiting to be written by an
+     * asynchronous handler.
+     */
+    public void setHandlerQueueDepth(long n) {
+        LoggingHdlrQueueDepth = Long.valueOf(n);
+    }
+
+    /*
+     * Set the average time in microseconds an asynchronous handler takes
+     * to write a batch of log records.
+     */
+    public void setHandlerWriteLatency(long n) {
+        LoggingHdlrWriteLatency = Long.valueOf(n);
+    }
+
 }
@@ -25,16 +25,20 @@
  * $Id: SsoServerSessSvcImpl.java,v 1.3 2009/11/02 20:10:45 hvijay Exp $
  *
  * Portions Copyrighted 2011-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package com.sun.identity.monitoring;
 
 import com.sun.identity.shared.debug.Debug;
+import java.util.concurrent.TimeUnit;
 import com.sun.management.snmp.agent.SnmpMib;
 import javax.management.MBeanServer;
+import com.iplanet.dpro.session.service.SessionNotificationSender;
 import com.iplanet.dpro.session.service.SessionService;
 import com.sun.management.snmp.SnmpStatusException;
 import org.forgerock.guice.core.InjectorHolder;
+import org.forgerock.openam.session.stateless.cache.StatelessJWTCache;
 
 /**
  * This class extends the "SsoServerSessSvc" class.
@@ -110,4 +114,74 @@ public class SsoServerSessSvcImpl extends SsoServerSessSvc {
         return Long.valueOf(InjectorHolder.getInstance(SessionService.class).getNotificationQueueSize());
     }
 
+    /**
+     * Getter for the "SessionNotifBatchSize" variable.
+     */
+    public Long getSessionNotifBatchSize() throws SnmpStatusException {
+        return InjectorHolder.getInstance(SessionNotificationSender.class).getNotificationBatchSize();
+    }
+
+    /**
+     * Getter for the "SessionNotifLatency" variable.
+     */
+    public Long getSessionNotifLatency() throws SnmpStatusException {
+        return InjectorHolder.getInstance(SessionNotificationSender.class).getNotificationLatency();
+    }
+
+    /**
+     * Getter for the "SessionNotifDropped" variable.
+     */
+    public Long getSessionNotifDropped() throws SnmpStatusException {
+        return InjectorHolder.getInstance(SessionNotificationSender.class).getDroppedNotificationCount();
+    }
+
+    /**
+     * Getter for the "SessionNotifOpenCircuits" variable.
+     */
+    public Long getSessionNotifOpenCircuits() throws SnmpStatusException {
+        return Long.valueOf(InjectorHolder.getInstance(SessionNotificationSender.class).getSuspendedListenerCount());
+    }
+
+    /**
+     * Getter for the "SessionExpiryBacklog" variable.
+     */
+    public Long getSessionExpiryBacklog() throws SnmpStatusException {
+        return Long.valueOf(InjectorHolder.getInstance(SessionService.class).getExpiryBacklog());
+    }
+
+    /**
+     * Getter for the "SessionExpiryLag" variable.
+     */
+    public Long getSessionExpiryLag() throws SnmpStatusException {
+        return InjectorHolder.getInstance(SessionService.class).getExpiryLag();
+    }
+
+    /**
+     * Getter for the "SessionJwtCacheHits" variable.
+     */
+    public Long getSessionJwtCacheHits() throws SnmpStatusException {
+        return InjectorHolder.getInstance(StatelessJWTCache.class).getHitCount();
+    }
+
+    /**
+     * Getter for the "SessionJwtCacheMisses" variable.
+     */
+    public Long getSessionJwtCacheMisses() throws SnmpStatusException {
+        return InjectorHolder.getInstance(StatelessJWTCache.class).getMissCount();
+    }
+
+    /**
+     * Getter for the "SessionJwtCacheInvalidHits" variable.
+     */
+    public Long getSessionJwtCacheInvalidHits() throws SnmpStatusException {
+        return InjectorHolder.getInstance(StatelessJWTCache.class).getInvalidHitCount();
+    }
+
+    /**
+     * Getter for the "SessionJwtVerifyTime" variable.
+     */
+    public Long getSessionJwtVerifyTime() throws SnmpStatusException {
+        return InjectorHolder.getInstance(StatelessJWTCache.class).getAverageVerificationTime(TimeUnit.MICROSECONDS);
+    }
+
 }
@@ -25,6 +25,7 @@
  * $Id: CachedSMSEntry.java,v 1.16 2009/10/08 20:33:54 hengming Exp $
  *
  * Portions Copyrighted 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package com.sun.identity.sm;
@@ -35,17 +36,17 @@ import com.iplanet.am.util.SystemProperties;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.shared.Constants;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.opendj.ldap.DN;
 
@@ -53,6 +54,12 @@ import org.forgerock.opendj.ldap.DN;
  * The class <code>CachedSchemaManagerImpl</code> provides interfaces to
  * manage the SMSEntry. It caches SMSEntries which is used by ServiceSchema and
  * ServiceConfig classes.
+ * <p>
+ * The cached <code>SMSEntry</code> is a snapshot which is never modified once
+ * published: a refresh reads the attributes into a copy which then replaces
+ * the snapshot, so readers never block and always see a consistent set of
+ * attributes. Each published snapshot increments the snapshot version, which
+ * callers can compare to detect changes without reading the attributes.
  */
 public class CachedSMSEntry {
 
@@ -60,19 +67,20 @@ public class CachedSMSEntry {
     protected static final String UPDATE_METHOD = "update";
 
     // Cache of CachedSMSEntries (static)
-    protected static Map smsEntries = Collections.synchronizedMap(
-        new HashMap(1000));
+    protected static ConcurrentMap smsEntries = new ConcurrentHashMap(1000);
+
+    // Incremented whenever any snapshot is published or the cache is cleared
+    private static final AtomicLong snapshotVersion = new AtomicLong();
 
     // Instance variables
     
     // Set of ServiceSchemaManagerImpls and ServiceConfigImpls
     // that must be updated where entry changes
-    protected Set serviceObjects = Collections.synchronizedSet(
-        new HashSet());
+    protected Set serviceObjects = new CopyOnWriteArraySet();
     protected String notificationID;
 
-    protected Set principals = Collections.synchronizedSet(
-        new HashSet(10)); // Principals who have read access
+    protected Set principals = Collections.newSetFromMap(
+        new ConcurrentHashMap(10)); // Principals who have read access
 
     protected SSOToken token; // Valid SSOToken used for read
 
@@ -80,17 +88,22 @@ public class CachedSMSEntry {
 
     protected String dnRFCStr;
 
-    protected SMSEntry smsEntry;
+    // Read only snapshot, replaced as a whole when refreshed
+    protected volatile SMSEntry smsEntry;
+
+    // Version of the snapshot, see getVersion()
+    private volatile long version;
 
     // Flag that determines if this object can be used
-    private boolean valid;
+    private volatile boolean valid;
     
     // Flag to determine if the cached entry is dirty and 
     // must be refreshed along with the last update time & TTL
-    private boolean dirty;
-    private Object dirtyLock = new Object();
+    private volatile boolean dirty;
+    // Serializes refreshes, readers do not acquire it
+    private final Object refreshLock = new Object();
     static boolean ttlEnabled;
-    static long lastUpdate;
+    static volatile long lastUpdate;
     static long ttl = 1800000;  // 30 minutes
     
     
@@ -103,6 +116,7 @@ public class CachedSMSEntry {
         token = e.getSSOToken();
         addPrincipal(token);
         valid = true;
+        version = snapshotVersion.incrementAndGet();
 
         // Set the SMSEntry as read only
         smsEntry.setReadOnly();
@@ -129,13 +143,29 @@ public class CachedSMSEntry {
     public boolean isDirty() {
         if (ttlEnabled && !dirty &&
             ((currentTimeMillis() - lastUpdate) > ttl)) {
-            synchronized (dirtyLock) {
-                dirty = true;
-            }
+            dirty = true;
         }
         return dirty;
     }
 
+    /**
+     * Returns the version of the snapshot returned by
+     * <code>getSMSEntry()</code>. A different version means the snapshot has
+     * been replaced since it was last read.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the version of the most recently published snapshot of any
+     * cached entry. Callers caching values derived from SMS entries can
+     * compare it to detect that configuration may have changed.
+     */
+    static long getSnapshotVersion() {
+        return snapshotVersion.get();
+    }
+
     /**
      * Invoked by SMSEventListenerManager when entry has been changed.
      * Mark the entry as dirty and return. The method refresh() must be
@@ -146,9 +176,7 @@ public class CachedSMSEntry {
             SMSEntry.debug.message("CachedSMSEntry: update "
                     + "method called: " + dn2Str );
         }
-        synchronized (dirtyLock) {
-            dirty = true;
-        }
+        dirty = true;
     }
     
     /**
@@ -156,7 +184,7 @@ public class CachedSMSEntry {
      * objects caching this entry. Used by JAXRPCObjectImpl
      */
     public void refresh() {
-        synchronized (dirtyLock) {
+        synchronized (refreshLock) {
             if (SMSEntry.debug.messageEnabled()) {
                 SMSEntry.debug.message("CachedSMSEntry: refresh "
                     + "method called: " + dn2Str );
@@ -168,7 +196,9 @@ public class CachedSMSEntry {
             try {
                 SSOToken t = getValidSSOToken();
                 if (t != null) {
-                    smsEntry.read(t);
+                    SMSEntry snapshot = copySMSEntry();
+                    snapshot.read(t);
+                    publish(snapshot);
                     lastUpdate = currentTimeMillis();
                     updated = true;
                 } else if (SMSEntry.debug.warningEnabled()) {
@@ -205,12 +235,35 @@ public class CachedSMSEntry {
      * @throws com.sun.identity.sm.SMSException
      */
     void refresh(SMSEntry e) throws SMSException {
-        synchronized (dirtyLock) {
-            smsEntry.refresh(e);
+        synchronized (refreshLock) {
+            SMSEntry snapshot = copySMSEntry();
+            snapshot.refresh(e);
+            publish(snapshot);
             updateServiceListeners(UPDATE_METHOD);
             dirty = false;
         }
     }
+
+    /**
+     * Returns a copy of the current snapshot to be refreshed and published.
+     * Must be called while holding the refresh lock.
+     */
+    private SMSEntry copySMSEntry() throws SMSException {
+        try {
+            return (SMSEntry) smsEntry.clone();
+        } catch (CloneNotSupportedException c) {
+            throw new SMSException(c, "sms-INVALID_PARAMETERS");
+        }
+    }
+
+    /**
+     * Replaces the snapshot read by other threads.
+     */
+    private void publish(SMSEntry snapshot) {
+        snapshot.setReadOnly();
+        smsEntry = snapshot;
+        version = snapshotVersion.incrementAndGet();
+    }
     
     /**
      * Clears the local variables and marks the entry as invalid
@@ -230,12 +283,10 @@ public class CachedSMSEntry {
         SMSEventListenerManager.removeNotification(notificationID);
         notificationID = null;
         valid = false;
-        synchronized(dirtyLock) {
-            dirty = true;
-        }
-        // Remove from cache
+        dirty = true;
+        // Remove from cache, unless already replaced by a new instance
         if (removeFromCache) {
-            smsEntries.remove(dnRFCStr);
+            smsEntries.remove(dnRFCStr, this);
         }
     }
     
@@ -244,18 +295,16 @@ public class CachedSMSEntry {
         // Check if the cached SSOToken is valid
         if (!SMSEntry.tm.isValidToken(token)) {
             // Get a valid ssoToken from cached TokenIDs
-            synchronized (principals) {
-                for (Iterator items = principals.iterator(); items.hasNext();) {
-                    String tokenID = (String) items.next();
-                    try {
-                        token = SMSEntry.tm.createSSOToken(tokenID);
-                        if (SMSEntry.tm.isValidToken(token)) {
-                            break;
-                        }
-                    } catch (SSOException ssoe) {
-                        // SSOToken has expired, remove from list
-                        items.remove();
+            for (Iterator items = principals.iterator(); items.hasNext();) {
+                String tokenID = (String) items.next();
+                try {
+                    token = SMSEntry.tm.createSSOToken(tokenID);
+                    if (SMSEntry.tm.isValidToken(token)) {
+                        break;
                     }
+                } catch (SSOException ssoe) {
+                    // SSOToken has expired, remove from list
+                    items.remove();
                 }
             }
         }
@@ -279,15 +328,9 @@ public class CachedSMSEntry {
             SMSEntry.debug.message("CachedSMSEntry::updateServiceListeners "
                     + "method called: " + dn2Str);
         }
-        // Inform the ServiceSchemaManager's of changes to attributes
-        ArrayList tmpServiceObjects = new ArrayList();
-        synchronized (serviceObjects) {
-            for(Iterator objs = serviceObjects.iterator(); objs.hasNext();) {
-                tmpServiceObjects.add(objs.next());
-            }
-        }
-
-        for(Iterator objs = tmpServiceObjects.iterator(); objs.hasNext();){
+        // Inform the ServiceSchemaManager's of changes to attributes,
+        // the copy on write set iterates over a snapshot of the listeners
+        for(Iterator objs = serviceObjects.iterator(); objs.hasNext();){
             try {
                 Object obj = objs.next();
                 Method m = obj.getClass().getDeclaredMethod(
@@ -318,8 +361,7 @@ public class CachedSMSEntry {
         }
     }
 
-    synchronized void addPrincipal(SSOToken t) {
-        // Making a local copy to avoid synchronization problems
+    void addPrincipal(SSOToken t) {
         principals.add(t.getTokenID().toString());
     }
 
@@ -379,16 +421,25 @@ public class CachedSMSEntry {
         String cacheEntry = DN.valueOf(dn).toString().toLowerCase();
         CachedSMSEntry answer = (CachedSMSEntry) smsEntries.get(cacheEntry);
         if ((answer == null) || !answer.isValid()) {
-            // Construct the SMS entry. Should be outside the synchronized
-            // block since SMSEntry call delegation which in turn calls
-            // policy, idrepo, special repo and SMS again
+            // Construct the SMS entry without holding any lock, since
+            // SMSEntry call delegation which in turn calls policy, idrepo,
+            // special repo and SMS again
             CachedSMSEntry tmp = new CachedSMSEntry(new SMSEntry(t, dn));
-            synchronized (smsEntries) {
-                if (((answer = (CachedSMSEntry) smsEntries.get(cacheEntry))
-                    == null) || !answer.isValid()) {
-                    // Add it to cache
-                    answer = tmp;
-                    smsEntries.put(cacheEntry, answer);
+            answer = tmp;
+            while (true) {
+                CachedSMSEntry current = (CachedSMSEntry)
+                    smsEntries.putIfAbsent(cacheEntry, tmp);
+                if (current == null) {
+                    break;
+                }
+                if (current.isValid()) {
+                    // Another thread has cached the entry first
+                    tmp.clear(false);
+                    answer = current;
+                    break;
+                }
+                if (smsEntries.replace(cacheEntry, current, tmp)) {
+                    break;
                 }
             }
         }
@@ -433,16 +484,15 @@ public class CachedSMSEntry {
 
     // Clears the cache
     static void clearCache() {
-        synchronized (smsEntries) {
-            for (Iterator items = smsEntries.values().iterator();
-                items.hasNext();) {
-                CachedSMSEntry cEntry = (CachedSMSEntry) items.next();
-                // this entry is no long valid
-                cEntry.clear(false);
-            }
-            // Remove all entries from cache
-            smsEntries.clear();
+        for (Iterator items = smsEntries.values().iterator();
+            items.hasNext();) {
+            CachedSMSEntry cEntry = (CachedSMSEntry) items.next();
+            // this entry is no long valid
+            cEntry.clear(false);
+            // Remove from cache
+            items.remove();
         }
+        snapshotVersion.incrementAndGet();
     }
 
     // ----------------------------------------------
@@ -29,7 +29,6 @@
 
 package com.sun.identity.sm;
 
-import com.iplanet.am.util.Cache;
 import com.iplanet.am.util.SystemProperties;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
@@ -64,6 +63,7 @@ import javax.naming.directory.BasicAttribute;
 import javax.naming.directory.DirContext;
 import javax.naming.directory.ModificationItem;
 import org.forgerock.openam.ldap.LDAPUtils;
+import org.forgerock.openam.utils.collections.CacheFactory;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.opendj.ldap.ResultCode;
@@ -100,7 +100,7 @@ public class SMSEntry implements Cloneable {
     public static SSOTokenManager tm;
 
     // Variable for caching parse organization names
-    private static Cache cache = new Cache(500);
+    private static Map<String, String[]> cache = CacheFactory.newCache(500);
 
     /**
      * Flat File Configuration Data Store
@@ -1390,7 +1390,7 @@ public class SMSEntry implements Cloneable {
 
     static String[] parseOrgDN(String dnName) {
         // Check in cache first.
-        String[] answer = (String[]) cache.get(dnName);
+        String[] answer = cache.get(dnName);
         if (answer != null) {
             return (answer);
         }
@@ -24,6 +24,7 @@
  *
  * $Id: SMSThreadPool.java,v 1.5 2008/08/28 19:08:22 arviranga Exp $
  *
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package com.sun.identity.sm;
@@ -31,9 +32,10 @@ package com.sun.identity.sm;
 import com.sun.identity.shared.Constants;
 import com.sun.identity.shared.debug.Debug;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import com.iplanet.am.util.SystemProperties;
-import com.iplanet.am.util.ThreadPool;
-import com.iplanet.am.util.ThreadPoolException;
+import org.forgerock.openam.shared.concurrency.MonitoredThreadPool;
 import org.forgerock.util.thread.listener.ShutdownListener;
 import org.forgerock.util.thread.listener.ShutdownManager;
 
@@ -45,16 +47,13 @@ import org.forgerock.util.thread.listener.ShutdownManager;
  */
 public class SMSThreadPool {
     
-    private static ThreadPool thrdPool;
-    private static ShutdownListener shutdownListener;
+    private static volatile MonitoredThreadPool thrdPool;
     private static int poolSize;
     
     private static Debug debug = Debug.getInstance("amSMS");
 
     private static final int DEFAULT_POOL_SIZE = 10;
 
-    private static final int DEFAULT_TRESHOLD= 0;
-
     private static volatile boolean initialized = false;
 
     static synchronized void initialize(boolean reinit) {
@@ -86,33 +85,20 @@ public class SMSThreadPool {
         if (debug.messageEnabled()) {
             debug.message("SMSThreadPool: poolSize=" + poolSize);
         }
-        ShutdownManager shutdownMan = com.sun.identity.common.ShutdownManager.getInstance();
-        if (thrdPool != null) {
-            // Create a new thread pool
-            thrdPool = new ThreadPool("smIdmThreadPool",
-                poolSize, DEFAULT_TRESHOLD, false, debug);
-            // Create the shutdown hook
-            ShutdownListener newShutdownListener = new ShutdownListener() {
-                public void shutdown() {
-                    thrdPool.shutdown();
-                }
-            };
-            // Register to shutdown hook
-            shutdownMan.replaceShutdownListener(shutdownListener, newShutdownListener, null);
+        if (thrdPool != null && !thrdPool.isShutdown()) {
+            // Resize the running thread pool
+            thrdPool.setThreads(Math.max(1, poolSize));
         } else {
-
             // Create a new thread pool
-            thrdPool = new ThreadPool("smIdmThreadPool",
-                poolSize, DEFAULT_TRESHOLD, false, debug);
-            // Create the shutdown hook
-            shutdownListener = new ShutdownListener() {
+            thrdPool = MonitoredThreadPool.builder("smIdmThreadPool")
+                .threads(Math.max(1, poolSize)).daemon(false).build();
+            // Register to shutdown hook
+            ShutdownManager shutdownMan = com.sun.identity.common.ShutdownManager.getInstance();
+            shutdownMan.addShutdownListener(new ShutdownListener() {
                 public void shutdown() {
                     thrdPool.shutdown();
                 }
-            };
-            // Register to shutdown hook
-            shutdownMan.addShutdownListener(shutdownListener);
-
+            });
         }
         initialized = true;
     }
@@ -132,8 +118,8 @@ public class SMSThreadPool {
             initialize(false); 
         }
         try {
-            thrdPool.run(task);
-        } catch (ThreadPoolException e) {
+            thrdPool.execute(task);
+        } catch (RejectedExecutionException e) {
             debug.error("SMSThreadPool: unable to schedule task" + e);
             success = false;
         }
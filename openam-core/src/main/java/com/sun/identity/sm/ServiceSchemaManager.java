@@ -25,6 +25,7 @@
  * $Id: ServiceSchemaManager.java,v 1.12 2009/07/25 05:11:55 qcheng Exp $
  *
  * Portions Copyrighted 2012-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.sm;
 
@@ -934,7 +935,8 @@ public class ServiceSchemaManager {
         if (cEntry.isDirty()) {
             cEntry.refresh();
         }
-        smsEntry = cEntry.getSMSEntry();
+        // Modify a copy, the cached snapshot is read without locking
+        smsEntry = cEntry.getClonedSMSEntry();
         String[] schema = new String[1];
         if ((smsEntry.getAttributeValues(SMSEntry.ATTR_SCHEMA) == null)
         || ((smsEntry.getAttributeValues(SMSEntry.ATTR_SCHEMA))[0]
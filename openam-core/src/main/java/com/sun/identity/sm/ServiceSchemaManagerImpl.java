@@ -25,6 +25,7 @@
  * $Id: ServiceSchemaManagerImpl.java,v 1.8 2008/08/28 18:36:30 arviranga Exp $
  *
  * Portions Copyrighted 2012-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.sm;
 
@@ -101,6 +102,9 @@ public class ServiceSchemaManagerImpl implements SMSObjectListener {
     private Map pluginInterfaces;
     private String resourceName;
 
+    // Version of the CachedSMSEntry snapshot the schema was last parsed from
+    private long parsedVersion = -1;
+
     // Private constructor, an instance can obtained only via getInstance
     private ServiceSchemaManagerImpl(SSOToken t, String serviceName,
             String version) throws SMSException, SSOException {
@@ -459,6 +463,12 @@ public class ServiceSchemaManagerImpl implements SMSObjectListener {
             clear();
             return;
         }
+        // Read the version before the snapshot, so a newer snapshot is parsed again
+        long snapshotVersion = smsEntry.getVersion();
+        if (snapshotVersion == parsedVersion) {
+            // Already parsed, e.g. when the entry is refreshed while being constructed
+            return;
+        }
         xmlSchema = smsEntry.getXMLSchema();
         if (xmlSchema == null) {
             // This could mean the service schema has been deleted
@@ -533,6 +543,7 @@ public class ServiceSchemaManagerImpl implements SMSObjectListener {
             PluginInterface pi = new PluginInterface((Node) pins.next());
             pluginInterfaces.put(pi.getName(), pi);
         }
+        parsedVersion = snapshotVersion;
     }
 
     void updateGenericSchema(String schemaName) {
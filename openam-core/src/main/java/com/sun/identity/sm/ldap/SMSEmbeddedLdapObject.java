@@ -28,11 +28,15 @@
 */
 package com.sun.identity.sm.ldap;
 
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
+import com.iplanet.am.util.SystemProperties;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.iplanet.ums.IUMSConstants;
 import com.sun.identity.security.AdminTokenAction;
 import com.sun.identity.setup.AMSetupServlet;
+import com.sun.identity.shared.Constants;
 import com.sun.identity.shared.debug.Debug;
 import com.sun.identity.shared.locale.AMResourceBundleCache;
 import com.sun.identity.sm.SMSDataEntry;
@@ -41,6 +45,7 @@ import com.sun.identity.sm.SMSException;
 import com.sun.identity.sm.SMSNotificationManager;
 import com.sun.identity.sm.SMSObjectDB;
 import com.sun.identity.sm.SMSObjectListener;
+import com.sun.identity.sm.ldap.SMSPreloadCache.PreloadedEntry;
 
 import java.security.AccessController;
 import java.text.MessageFormat;
@@ -118,6 +123,8 @@ public class SMSEmbeddedLdapObject extends SMSObjectDB
     static LinkedHashSet<String> smsAttributes;
     static final String SMS_EMBEDDED_LDAP_OBJECT_SEARCH_LIMIT =
         "com.sun.identity.sm.sms_embedded_ldap_object_search_limit";
+    // Entries loaded in bulk on first read, null if the preload is disabled
+    static SMSPreloadCache preloadCache;
     private ConfigAuditorFactory auditorFactory;
 
     /**
@@ -171,6 +178,10 @@ public class SMSEmbeddedLdapObject extends SMSObjectDB
         for(int i=0; i<smsAttrs.length; i++) {
             smsAttributes.add(smsAttrs[i]);
         }
+        // The embedded store is local, a snapshot would not be any faster
+        if (SystemProperties.getAsBoolean(Constants.SMS_PRELOAD_ENABLED, false)) {
+            preloadCache = new SMSPreloadCache(debug, null);
+        }
         initialized = true;
     }
 
@@ -216,6 +227,17 @@ public class SMSEmbeddedLdapObject extends SMSObjectDB
             return (null);
         }
 
+        if (preloadCache != null) {
+            preload();
+            Map<String, Set<String>> preloaded = preloadCache.take(dn);
+            if (preloaded != null) {
+                if (debug.messageEnabled()) {
+                    debug.message("SMSEmbeddedLdapObject.read: preloaded entry: " + dn);
+                }
+                return preloaded;
+            }
+        }
+
         try {
             SearchRequest request = Requests.newSearchRequest(dn, SearchScope.BASE_OBJECT, "(objectclass=*)",
                     smsAttributes.toArray(new String[smsAttributes.size()]));
@@ -734,6 +756,9 @@ public class SMSEmbeddedLdapObject extends SMSObjectDB
 
     public void objectChanged(String dn, int type) {
         dn = DN.valueOf(dn).toString().toLowerCase();
+        if (preloadCache != null) {
+            preloadCache.changed(dn);
+        }
         if (type == DELETE) {
             // Remove from entriesPresent Set
             entriesPresent.remove(dn);
@@ -753,6 +778,51 @@ public class SMSEmbeddedLdapObject extends SMSObjectDB
         }
         entriesPresent.clear();
         entriesNotPresent.clear();
+        if (preloadCache != null) {
+            preloadCache.clear();
+        }
+    }
+
+    /**
+     * Loads the whole service configuration subtree with one search, once, so
+     * the entries do not have to be read one by one while the services
+     * initialize.
+     */
+    private void preload() {
+        if (!preloadCache.startLoading()) {
+            return;
+        }
+        // Preloaded entries are only safe to use while changes are notified
+        initializeNotification();
+        if (!SMSNotificationManager.isCacheEnabled()) {
+            return;
+        }
+        long start = currentTimeMillis();
+        long changeCount = preloadCache.getChangeCount();
+        String baseDN = SMSEntry.SERVICES_RDN + SMSEntry.COMMA + getRootSuffix();
+        try {
+            SearchRequest request = Requests.newSearchRequest(baseDN, SearchScope.WHOLE_SUBTREE, "(objectclass=*)",
+                    smsAttributes.toArray(new String[smsAttributes.size()]));
+            InternalSearchOperation iso = icConn.processSearch(request);
+            if (iso.getResultCode() != ResultCode.SUCCESS) {
+                debug.warning("SMSEmbeddedLdapObject.preload: unable to preload " + baseDN
+                        + ", error code = " + iso.getResultCode());
+                return;
+            }
+            List<PreloadedEntry> entries = new ArrayList<>();
+            for (Object result : iso.getSearchEntries()) {
+                SearchResultEntry entry = (SearchResultEntry) result;
+                entries.add(new PreloadedEntry(entry.getName().toString(), null,
+                        EmbeddedSearchResultIterator.convertLDAPAttributeSetToMap(entry.getAttributes())));
+            }
+            boolean loaded = preloadCache.load(entries, changeCount);
+            if (debug.messageEnabled()) {
+                debug.message("SMSEmbeddedLdapObject.preload: " + (loaded ? "preloaded " : "discarded ")
+                        + entries.size() + " entries of " + baseDN + " in " + (currentTimeMillis() - start) + "ms");
+            }
+        } catch (DirectoryException dex) {
+            debug.warning("SMSEmbeddedLdapObject.preload: unable to preload " + baseDN, dex);
+        }
     }
 
     /**
@@ -29,6 +29,8 @@
 
 package com.sun.identity.sm.ldap;
 
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
 import com.iplanet.am.util.SystemProperties;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
@@ -36,6 +38,7 @@ import com.iplanet.ums.DataLayer;
 import com.iplanet.ums.IUMSConstants;
 import com.sun.identity.authentication.internal.AuthPrincipal;
 import com.sun.identity.security.AdminDNAction;
+import com.sun.identity.shared.Constants;
 import com.sun.identity.shared.debug.Debug;
 import com.sun.identity.shared.locale.AMResourceBundleCache;
 import com.sun.identity.sm.SMSDataEntry;
@@ -45,15 +48,21 @@ import com.sun.identity.sm.SMSNotificationManager;
 import com.sun.identity.sm.SMSObjectDB;
 import com.sun.identity.sm.SMSObjectListener;
 import com.sun.identity.sm.SMSUtils;
+import com.sun.identity.sm.ldap.SMSPreloadCache.PreloadedEntry;
+import com.sun.identity.sm.ldap.SMSPreloadCache.Snapshot;
 
+import java.io.File;
 import java.security.AccessController;
 import java.security.Principal;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
@@ -65,8 +74,11 @@ import javax.naming.directory.ModificationItem;
 
 import org.forgerock.openam.ldap.LDAPRequests;
 import org.forgerock.openam.ldap.LDAPUtils;
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.Connection;
 import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.DecodeOptions;
 import org.forgerock.opendj.ldap.DereferenceAliasesPolicy;
 import org.forgerock.opendj.ldap.Entry;
 import org.forgerock.opendj.ldap.EntryNotFoundException;
@@ -80,6 +92,7 @@ import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.SortKey;
 import org.forgerock.opendj.ldap.controls.ServerSideSortRequestControl;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
 import org.forgerock.opendj.ldap.responses.SearchResultEntry;
@@ -142,6 +155,17 @@ public class SMSLdapObject extends SMSObjectDB implements SMSObjectListener {
     // Admin SSOToken
     static Principal adminPrincipal;
 
+    // Entries loaded in bulk on first read, null if the preload is disabled
+    static SMSPreloadCache preloadCache;
+
+    private static final int PRELOAD_PAGE_SIZE = 1000;
+
+    private static final String MODIFY_TIMESTAMP = "modifyTimestamp";
+
+    private static final String CREATE_TIMESTAMP = "createTimestamp";
+
+    private static final String ENTRY_CSN = "entryCSN";
+
     /**
      * Public constructor for SMSLdapObject
      */
@@ -207,6 +231,13 @@ public class SMSLdapObject extends SMSObjectDB implements SMSObjectListener {
             connRetryInterval = DataLayer.getConnRetryInterval();
             retryErrorCodes = DataLayer.getRetryErrorCodes();
 
+            // Proxied reads depend on the user, which a bulk load cannot honour
+            if (!enableProxy && SystemProperties.getAsBoolean(Constants.SMS_PRELOAD_ENABLED, false)) {
+                String snapshot = SystemProperties.get(Constants.SMS_PRELOAD_SNAPSHOT);
+                preloadCache = new SMSPreloadCache(debug, snapshot == null || snapshot.isEmpty()
+                        ? null : new File(snapshot));
+            }
+
             // Need to check if the root nodes exists. If not, create them
             String serviceDN =
                     SMSEntry.SERVICES_RDN + SMSEntry.COMMA + getRootSuffix();
@@ -265,6 +296,15 @@ public class SMSLdapObject extends SMSObjectDB implements SMSObjectListener {
             return null;
         }
 
+        if (preloadCache != null) {
+            preload();
+            Map<String, Set<String>> preloaded = preloadCache.take(dn);
+            if (preloaded != null) {
+                debug.message("SMSLdapObject.read(): preloaded entry: {}", dn);
+                return preloaded;
+            }
+        }
+
         Entry ldapEntry = null;
         int retry = 0;
         while (retry <= connNumRetry) {
@@ -838,6 +878,9 @@ public class SMSLdapObject extends SMSObjectDB implements SMSObjectListener {
 
     public void objectChanged(String dn, int type) {
         dn = DN.valueOf(dn).toString().toLowerCase();
+        if (preloadCache != null) {
+            preloadCache.changed(dn);
+        }
         if (type == DELETE) {
             // Remove from entriesPresent Set
             entriesPresent.remove(dn);
@@ -857,6 +900,130 @@ public class SMSLdapObject extends SMSObjectDB implements SMSObjectListener {
         }
         entriesPresent.clear();
         entriesNotPresent.clear();
+        if (preloadCache != null) {
+            preloadCache.clear();
+        }
+    }
+
+    /**
+     * Loads the whole service configuration subtree, once, so the entries do
+     * not have to be read one by one while the services initialize. If a
+     * snapshot of the subtree is available, only the DNs and timestamps are
+     * searched and the unchanged entries are taken from the snapshot, which is
+     * then updated in the background. Entries which could not be preloaded
+     * are read individually.
+     */
+    private void preload() {
+        if (!preloadCache.startLoading()) {
+            return;
+        }
+        // Preloaded entries are only safe to use while changes are notified
+        initializeNotification();
+        if (!SMSNotificationManager.isCacheEnabled()) {
+            return;
+        }
+        long start = currentTimeMillis();
+        long changeCount = preloadCache.getChangeCount();
+        final String baseDN = SMSEntry.SERVICES_RDN + SMSEntry.COMMA + getRootSuffix();
+        try {
+            Collection<PreloadedEntry> entries;
+            Snapshot snapshot = preloadCache.readSnapshot(baseDN);
+            if (snapshot != null) {
+                List<PreloadedEntry> current = searchSubtree(baseDN, false);
+                entries = SMSPreloadCache.reconcile(snapshot, current);
+                if (entries.size() != current.size() || entries.size() != snapshot.entries.size()) {
+                    updateSnapshot(baseDN);
+                }
+            } else {
+                long readTime = currentTimeMillis();
+                entries = searchSubtree(baseDN, true);
+                preloadCache.writeSnapshot(baseDN, readTime, entries);
+            }
+            boolean loaded = preloadCache.load(entries, changeCount);
+            if (debug.messageEnabled()) {
+                debug.message("SMSLdapObject.preload: " + (loaded ? "preloaded " : "discarded ") + entries.size()
+                        + " entries of " + baseDN + (snapshot != null ? " from snapshot" : "") + " in "
+                        + (currentTimeMillis() - start) + "ms");
+            }
+        } catch (SMSException e) {
+            debug.warning("SMSLdapObject.preload: unable to preload {}, entries are read individually", baseDN, e);
+        }
+    }
+
+    /**
+     * Reloads the service configuration subtree into the snapshot, without
+     * delaying the startup.
+     */
+    private void updateSnapshot(final String baseDN) {
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    long readTime = currentTimeMillis();
+                    preloadCache.writeSnapshot(baseDN, readTime, searchSubtree(baseDN, true));
+                } catch (SMSException e) {
+                    debug.warning("SMSLdapObject.updateSnapshot: unable to read {}", baseDN, e);
+                }
+            }
+        }, "SMSLdapObject-SnapshotWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reads all entries of the subtree with paged searches.
+     *
+     * @param baseDN The DN of the subtree.
+     * @param withAttributes Whether to read the SMS attributes, or only the
+     *                       DNs, timestamps and change sequence numbers.
+     */
+    private List<PreloadedEntry> searchSubtree(String baseDN, boolean withAttributes) throws SMSException {
+        List<String> attributes = new ArrayList<>();
+        if (withAttributes) {
+            Collections.addAll(attributes, getAttributeNames());
+        }
+        attributes.add(MODIFY_TIMESTAMP);
+        attributes.add(CREATE_TIMESTAMP);
+        attributes.add(ENTRY_CSN);
+        List<PreloadedEntry> entries = new ArrayList<>();
+        try (Connection conn = getConnection(adminPrincipal)) {
+            ByteString cookie = ByteString.empty();
+            do {
+                SearchRequest request = getSearchRequest(baseDN, "(objectclass=*)", SearchScope.WHOLE_SUBTREE, 0, 0,
+                        attributes.toArray(new String[attributes.size()]));
+                request.addControl(SimplePagedResultsControl.newControl(true, PRELOAD_PAGE_SIZE, cookie));
+                ConnectionEntryReader results = conn.search(request);
+                while (results.hasNext()) {
+                    if (results.isEntry()) {
+                        entries.add(toPreloadedEntry(results.readEntry(), withAttributes));
+                    } else {
+                        debug.warning("SMSLdapObject.searchSubtree(): ignoring reference", results.readReference());
+                    }
+                }
+                SimplePagedResultsControl control = results.readResult()
+                        .getControl(SimplePagedResultsControl.DECODER, new DecodeOptions());
+                cookie = control == null ? ByteString.empty() : control.getCookie();
+            } while (!cookie.isEmpty());
+        } catch (LdapException | SearchResultReferenceIOException | DecodeException e) {
+            throw new SMSException(e, "sms-error-in-searching");
+        }
+        return entries;
+    }
+
+    private static PreloadedEntry toPreloadedEntry(SearchResultEntry entry, boolean withAttributes) {
+        String timestamp = entry.parseAttribute(MODIFY_TIMESTAMP).asString();
+        if (timestamp == null) {
+            timestamp = entry.parseAttribute(CREATE_TIMESTAMP).asString();
+        }
+        String changeMarker = entry.parseAttribute(ENTRY_CSN).asString();
+        Map<String, Set<String>> attributes = null;
+        if (withAttributes) {
+            entry.removeAttribute(MODIFY_TIMESTAMP);
+            entry.removeAttribute(CREATE_TIMESTAMP);
+            entry.removeAttribute(ENTRY_CSN);
+            attributes = SMSUtils.convertEntryToAttributesMap(entry);
+        }
+        return new PreloadedEntry(entry.getName().toString(), timestamp, changeMarker, attributes);
     }
 
     /**
@@ -0,0 +1,375 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.sm.ldap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.forgerock.i18n.LocalizedIllegalArgumentException;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.GeneralizedTime;
+
+import com.sun.identity.common.CaseInsensitiveHashMap;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Holds the SMS entries loaded in bulk from the configuration store at startup, until they are first read.
+ *
+ * <p>Each preloaded entry is handed out once by {@link #take(String)}, after which the SMS caches hold it and keep
+ * it up to date through notifications. Entries changed in the meantime are discarded, so a read never returns
+ * attributes older than the last change notification.</p>
+ *
+ * <p>The loaded entries can also be saved to a local binary snapshot file. On the next start the snapshot is
+ * reconciled against the entry timestamps and change sequence numbers in the configuration store, so only the entries
+ * created or modified since have to be read again.</p>
+ */
+final class SMSPreloadCache {
+
+    private static final int SNAPSHOT_MAGIC = 0x534d5353;
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final Debug debug;
+    private final File snapshotFile;
+    private final Map<String, Map<String, Set<String>>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicLong changeCount = new AtomicLong();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param debug The debug instance of the SMS object.
+     * @param snapshotFile The snapshot file, or {@code null} to not use a snapshot.
+     */
+    SMSPreloadCache(Debug debug, File snapshotFile) {
+        this.debug = debug;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Returns {@code true} exactly once, to the caller which should load the entries.
+     */
+    boolean startLoading() {
+        return loading.compareAndSet(false, true);
+    }
+
+    /**
+     * Returns the current change count, to be passed to {@link #load(Collection, long)} once the entries are loaded.
+     */
+    long getChangeCount() {
+        return changeCount.get();
+    }
+
+    /**
+     * Makes the loaded entries available, unless any entry has been changed since the given change count was
+     * obtained.
+     *
+     * @param loaded The loaded entries.
+     * @param expectedChangeCount The change count obtained before the entries were loaded.
+     * @return Whether the entries have been made available.
+     */
+    boolean load(Collection<PreloadedEntry> loaded, long expectedChangeCount) {
+        for (PreloadedEntry entry : loaded) {
+            if (entry.attributes != null) {
+                entries.put(normalize(entry.dn), entry.attributes);
+            }
+        }
+        if (changeCount.get() != expectedChangeCount) {
+            // A change may have been notified before the changed entry was put
+            entries.clear();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns the attributes of a preloaded entry.
+     *
+     * @param dn The DN of the entry.
+     * @return The attributes, or {@code null} if the entry is not preloaded.
+     */
+    Map<String, Set<String>> take(String dn) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return entries.remove(normalize(dn));
+    }
+
+    /**
+     * Discards the preloaded entry.
+     *
+     * @param normalizedDN The normalized DN of the changed entry.
+     */
+    void changed(String normalizedDN) {
+        changeCount.incrementAndGet();
+        entries.remove(normalizedDN);
+    }
+
+    /**
+     * Discards all preloaded entries.
+     */
+    void clear() {
+        changeCount.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * @return Whether a snapshot file is configured.
+     */
+    boolean isSnapshotEnabled() {
+        return snapshotFile != null;
+    }
+
+    /**
+     * Reads the snapshot file.
+     *
+     * @param baseDN The DN of the configuration subtree.
+     * @return The snapshot, or {@code null} if there is no usable snapshot of the subtree.
+     */
+    Snapshot readSnapshot(String baseDN) {
+        if (snapshotFile == null || !snapshotFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(snapshotFile))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION
+                    || !normalize(baseDN).equals(readString(in))) {
+                debug.warning("SMSPreloadCache.readSnapshot: ignoring snapshot {} of another configuration",
+                        snapshotFile);
+                return null;
+            }
+            long readTime = in.readLong();
+            int count = in.readInt();
+            Map<String, PreloadedEntry> snapshot = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String dn = readString(in);
+                String timestamp = readString(in);
+                String changeMarker = readString(in);
+                int attributeCount = in.readInt();
+                Map<String, Set<String>> attributes = new CaseInsensitiveHashMap<>(attributeCount);
+                for (int a = 0; a < attributeCount; a++) {
+                    String name = readString(in);
+                    int valueCount = in.readInt();
+                    Set<String> values = new HashSet<>(valueCount * 4 / 3 + 1);
+                    for (int v = 0; v < valueCount; v++) {
+                        values.add(readString(in));
+                    }
+                    attributes.put(name, values);
+                }
+                snapshot.put(normalize(dn), new PreloadedEntry(dn, timestamp, changeMarker, attributes));
+            }
+            return new Snapshot(readTime, snapshot);
+        } catch (IOException | RuntimeException e) {
+            debug.warning("SMSPreloadCache.readSnapshot: unable to read snapshot {}", snapshotFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the snapshot file. The file is written next to the snapshot and then renamed, so a failed write
+     * never leaves a truncated snapshot behind.
+     *
+     * @param baseDN The DN of the configuration subtree.
+     * @param readTime The time at which the entries started to be read from the configuration store.
+     * @param snapshot The entries of the configuration subtree.
+     */
+    void writeSnapshot(String baseDN, long readTime, Collection<PreloadedEntry> snapshot) {
+        if (snapshotFile == null) {
+            return;
+        }
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try {
+            File parent = snapshotFile.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Unable to create directory " + parent);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(tmp))))) {
+                // The configuration contains secrets, readable by the server only
+                tmp.setReadable(false, false);
+                tmp.setReadable(true, true);
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                writeString(out, normalize(baseDN));
+                out.writeLong(readTime);
+                List<PreloadedEntry> complete = new ArrayList<>(snapshot.size());
+                for (PreloadedEntry entry : snapshot) {
+                    // Entries without a timestamp could never be reconciled
+                    if (entry.timestamp != null && entry.attributes != null) {
+                        complete.add(entry);
+                    }
+                }
+                out.writeInt(complete.size());
+                for (PreloadedEntry entry : complete) {
+                    writeString(out, entry.dn);
+                    writeString(out, entry.timestamp);
+                    writeString(out, entry.changeMarker);
+                    out.writeInt(entry.attributes.size());
+                    for (Map.Entry<String, Set<String>> attribute : entry.attributes.entrySet()) {
+                        writeString(out, attribute.getKey());
+                        out.writeInt(attribute.getValue().size());
+                        for (String value : attribute.getValue()) {
+                            writeString(out, value);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (debug.messageEnabled()) {
+                debug.message("SMSPreloadCache.writeSnapshot: wrote " + snapshot.size() + " entries to "
+                        + snapshotFile);
+            }
+        } catch (IOException e) {
+            debug.warning("SMSPreloadCache.writeSnapshot: unable to write snapshot {}", snapshotFile, e);
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Returns the snapshot entries which are unchanged in the configuration store.
+     *
+     * @param snapshot The snapshot.
+     * @param current The DNs, timestamps and change markers of the entries in the configuration store, without
+     *                attributes.
+     * @return The unchanged snapshot entries.
+     */
+    static List<PreloadedEntry> reconcile(Snapshot snapshot, Collection<PreloadedEntry> current) {
+        List<PreloadedEntry> unchanged = new ArrayList<>(current.size());
+        for (PreloadedEntry entry : current) {
+            PreloadedEntry saved = snapshot.entries.get(normalize(entry.dn));
+            if (saved != null && isUnchanged(saved, entry, snapshot.readTime)) {
+                unchanged.add(saved);
+            }
+        }
+        return unchanged;
+    }
+
+    /**
+     * Compares the change markers of the entry where the store has them. Otherwise the timestamps are compared,
+     * which only have a granularity of one second, so an entry with a timestamp at or after the time the snapshot
+     * started to be read may have been changed again after it was read, and is treated as changed.
+     */
+    private static boolean isUnchanged(PreloadedEntry saved, PreloadedEntry current, long readTime) {
+        if (current.timestamp == null || !current.timestamp.equals(saved.timestamp)) {
+            return false;
+        }
+        if (current.changeMarker != null || saved.changeMarker != null) {
+            return Objects.equals(current.changeMarker, saved.changeMarker);
+        }
+        try {
+            return GeneralizedTime.valueOf(current.timestamp).getTimeInMillis() < readTime - readTime % 1000;
+        } catch (LocalizedIllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static String normalize(String dn) {
+        return DN.valueOf(dn).toString().toLowerCase();
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            // Not writeUTF, which is limited to 64k and XML schemas can be larger
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * The entries of a snapshot file.
+     */
+    static final class Snapshot {
+
+        final long readTime;
+        final Map<String, PreloadedEntry> entries;
+
+        /**
+         * @param readTime The time at which the entries started to be read from the configuration store.
+         * @param entries The entries keyed by normalized DN.
+         */
+        Snapshot(long readTime, Map<String, PreloadedEntry> entries) {
+            this.readTime = readTime;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * An SMS entry read from the configuration store or the snapshot.
+     */
+    static final class PreloadedEntry {
+
+        final String dn;
+        final String timestamp;
+        final String changeMarker;
+        final Map<String, Set<String>> attributes;
+
+        /**
+         * @param dn The DN of the entry.
+         * @param timestamp The modify timestamp of the entry, or its create timestamp if it has never been modified.
+         * @param attributes The SMS attributes of the entry, or {@code null} if not read.
+         */
+        PreloadedEntry(String dn, String timestamp, Map<String, Set<String>> attributes) {
+            this(dn, timestamp, null, attributes);
+        }
+
+        /**
+         * @param dn The DN of the entry.
+         * @param timestamp The modify timestamp of the entry, or its create timestamp if it has never been modified.
+         * @param changeMarker The change sequence number of the entry, or {@code null} if the store has none.
+         * @param attributes The SMS attributes of the entry, or {@code null} if not read.
+         */
+        PreloadedEntry(String dn, String timestamp, String changeMarker, Map<String, Set<String>> attributes) {
+            this.dn = dn;
+            this.timestamp = timestamp;
+            this.changeMarker = changeMarker;
+            this.attributes = attributes;
+        }
+    }
+}
@@ -108,6 +108,7 @@ import org.forgerock.openam.cts.api.tokens.SAMLToken;
 import org.forgerock.openam.cts.impl.query.reaper.ReaperConnection;
 import org.forgerock.openam.cts.impl.query.reaper.ReaperQuery;
 import org.forgerock.openam.cts.impl.queue.ResultHandlerFactory;
+import org.forgerock.openam.cts.monitoring.CTSCacheMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSConnectionMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSReaperMonitoringStore;
@@ -222,6 +223,7 @@ public class CoreGuiceModule extends AbstractModule {
         bind(CTSOperationsMonitoringStore.class).to(CTSMonitoringStoreImpl.class);
         bind(CTSReaperMonitoringStore.class).to(CTSMonitoringStoreImpl.class);
         bind(CTSConnectionMonitoringStore.class).to(CTSMonitoringStoreImpl.class);
+        bind(CTSCacheMonitoringStore.class).to(CTSMonitoringStoreImpl.class);
         // Enable monitoring of all CTS operations
         bind(ResultHandlerFactory.class).to(MonitoredResultHandlerFactory.class);
 
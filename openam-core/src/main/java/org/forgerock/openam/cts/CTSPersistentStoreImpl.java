@@ -19,6 +19,7 @@ import com.google.inject.name.Named;
 import com.sun.identity.shared.debug.Debug;
 import org.apache.commons.lang.StringUtils;
 import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.cts.cache.CTSTokenCache;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.tokens.CoreTokenField;
 import org.forgerock.openam.cts.api.filter.TokenFilter;
@@ -43,6 +44,9 @@ import java.util.Map;
  * related tasks.
  * This is detailed in the {@link CoreTokenAdapter} in more detail.
  *
+ * When enabled, Tokens read are held in a local {@link CTSTokenCache}, which is invalidated whenever this
+ * server writes or deletes a Token.
+ *
  * @see Token
  * @see CoreTokenAdapter
  */
@@ -51,21 +55,26 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     // Injected
     private final CoreTokenAdapter adapter;
+    private final CTSTokenCache cache;
     private final Debug debug;
 
     /**
      * Creates a default implementation of the CTSPersistentStoreImpl.
      * @param adapter Required for CTS operations.
+     * @param cache Required for caching Tokens read.
      * @param debug Required for debugging.
      */
     @Inject
-    public CTSPersistentStoreImpl(CoreTokenAdapter adapter, @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
+    public CTSPersistentStoreImpl(CoreTokenAdapter adapter, CTSTokenCache cache,
+            @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
         this.adapter = adapter;
+        this.cache = cache;
         this.debug = debug;
     }
 
     @Override
     public void create(Token token) throws CoreTokenException {
+        cache.invalidate(token.getTokenId());
         final ResultHandler<Token, CoreTokenException> createHandler = adapter.create(token);
         //block until we get the results, and ignore non-exception results
         createHandler.getResults();
@@ -74,17 +83,26 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void createAsync(Token token) throws CoreTokenException {
+        cache.invalidate(token.getTokenId());
         adapter.create(token);
         debug("Token {0} queued for creation", token.getTokenId());
     }
 
     @Override
     public Token read(String tokenId) throws CoreTokenException {
-        Token token = adapter.read(tokenId);
+        Token token = cache.get(tokenId);
+        if (token != null) {
+            debug("Token {0} read from cache", tokenId);
+            return token;
+        }
+
+        long version = cache.getVersion(tokenId);
+        token = adapter.read(tokenId);
         if (token == null) {
             debug("Token {0} did not exist", tokenId);
             return null;
         }
+        cache.put(token, version);
 
         debug("Token {0} read", tokenId);
         return token;
@@ -92,6 +110,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void update(Token token) throws CoreTokenException {
+        cache.invalidate(token.getTokenId());
         final ResultHandler<Token, CoreTokenException> updateHandler = adapter.updateOrCreate(token);
         //block until we get the results, and ignore non-exception results
         updateHandler.getResults();
@@ -100,6 +119,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void updateAsync(Token token) throws CoreTokenException {
+        cache.invalidate(token.getTokenId());
         adapter.updateOrCreate(token);
         debug("Token {0} queued for update", token.getTokenId());
     }
@@ -116,6 +136,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void delete(String tokenId) throws CoreTokenException {
+        cache.invalidate(tokenId);
         final ResultHandler<String, CoreTokenException> deleteHandler = adapter.delete(tokenId);
         //block until we get the results, and ignore non-exception results
         deleteHandler.getResults();
@@ -124,6 +145,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void deleteAsync(String tokenId) throws CoreTokenException {
+        cache.invalidate(tokenId);
         adapter.delete(tokenId);
         debug("Token {0} queued for deletion", tokenId);
     }
@@ -181,6 +203,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
     @Override
     public void deleteOnQueryAsync(TokenFilter tokenFilter) throws CoreTokenException {
         debug("DeleteOnQuery: with query {0}", tokenFilter.toString());
+        cache.invalidateAll();
         adapter.deleteOnQuery(tokenFilter);
     }
 
@@ -20,9 +20,13 @@ import com.iplanet.dpro.session.service.InternalSession;
 import com.sun.identity.shared.Constants;
 import com.sun.identity.shared.configuration.SystemPropertiesManager;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.tokens.TokenType;
 
 /**
  * Represents any configuration required for the Core Token Service.
@@ -37,6 +41,9 @@ public class CoreTokenConfig {
     private final int healthCheckPeriod;
     private final int runPeriod;
     private final int cleanupPageSize;
+    private final int reaperLanes;
+    private final int reaperMaxRate;
+    private final long reaperLatencyThreshold;
 
     private final int sleepInterval;
 
@@ -44,6 +51,14 @@ public class CoreTokenConfig {
     private final boolean tokensEncrypted;
     private final boolean tokensCompressed;
     private final boolean attributeNamesCompressed;
+    private final boolean fastCompression;
+    private final boolean binaryBlobFormat;
+
+    // Local token cache
+    private final boolean tokenCacheEnabled;
+    private final int tokenCacheSize;
+    private final long tokenCacheTTL;
+    private final Set<TokenType> strictTokenTypes;
 
     /**
      * Create a new default instance of the CoreTokenConfig which will establish the various configuration
@@ -74,8 +89,44 @@ public class CoreTokenConfig {
         // Control Attribute Name Compression.
         attributeNamesCompressed = SystemProperties.getAsBoolean(Constants.SESSION_REPOSITORY_ATTRIBUTE_NAME_COMPRESSION);
 
+        // Control the Token Compression algorithm.
+        fastCompression = SystemProperties.getAsBoolean(CoreTokenConstants.CTS_COMPRESSION_FAST, false);
+
+        // Control the serialisation format of Token blobs.
+        binaryBlobFormat = SystemProperties.getAsBoolean(CoreTokenConstants.CTS_BLOB_BINARY_FORMAT, false);
+
         // Controls the size of pages requested for CTS Reaper
         cleanupPageSize = 1000;
+
+        // Controls how quickly the CTS Reaper deletes expired tokens
+        reaperLanes = SystemProperties.getAsInt(CoreTokenConstants.CTS_REAPER_LANES, 4);
+        reaperMaxRate = SystemProperties.getAsInt(CoreTokenConstants.CTS_REAPER_MAX_RATE, 0);
+        reaperLatencyThreshold = SystemProperties.getAsLong(CoreTokenConstants.CTS_REAPER_LATENCY_THRESHOLD, 0);
+
+        // Local token cache, disabled by default
+        tokenCacheEnabled = SystemProperties.getAsBoolean(CoreTokenConstants.CTS_CACHE_ENABLED, false);
+        tokenCacheSize = SystemProperties.getAsInt(CoreTokenConstants.CTS_CACHE_SIZE, 10000);
+        tokenCacheTTL = SystemProperties.getAsLong(CoreTokenConstants.CTS_CACHE_TTL, 30 * 1000);
+        strictTokenTypes = parseTokenTypes(SystemProperties.getAsSet(CoreTokenConstants.CTS_CACHE_STRICT_TOKEN_TYPES,
+                ","));
+    }
+
+    /**
+     * Parse the token type names, ignoring any which are not recognised.
+     *
+     * @param names Non null, possibly empty, set of token type names.
+     * @return Non null set of token types.
+     */
+    private static Set<TokenType> parseTokenTypes(Set<String> names) {
+        Set<TokenType> types = EnumSet.noneOf(TokenType.class);
+        for (String name : names) {
+            try {
+                types.add(TokenType.valueOf(name.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                // Unrecognised token type, nothing to exclude
+            }
+        }
+        return Collections.unmodifiableSet(types);
     }
 
     /**
@@ -179,10 +230,76 @@ public class CoreTokenConfig {
         return attributeNamesCompressed;
     }
 
+    /**
+     * @return True if compressed Tokens should use the fast Deflate compression rather than GZip. False by default.
+     */
+    public boolean isFastCompression() {
+        return fastCompression;
+    }
+
+    /**
+     * @return True if session and OAuth2 Token blobs should be written in the compact binary form. False, the
+     * default, writes JSON. Both forms can always be read.
+     */
+    public boolean isBinaryBlobFormat() {
+        return binaryBlobFormat;
+    }
+
     /**
      * @return The LDAP Query Page size in Tokens that will be deleted by the CTS Reaper.
      */
     public int getCleanupPageSize() {
         return cleanupPageSize;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return The maximum number of pages of Tokens the CTS Reaper will have queued for deletion at once.
+     */
+    public int getReaperLanes() {
+        return Math.max(reaperLanes, 1);
+    }
+
+    /**
+     * @return The maximum number of Tokens per second the CTS Reaper will queue for deletion. Zero, the default,
+     * if the rate is not limited.
+     */
+    public int getReaperMaxRate() {
+        return Math.max(reaperMaxRate, 0);
+    }
+
+    /**
+     * @return The time in milliseconds to delete a page of Tokens above which the CTS Reaper will back off.
+     * Zero, the default, if the CTS Reaper should not back off.
+     */
+    public long getReaperLatencyThreshold() {
+        return Math.max(reaperLatencyThreshold, 0);
+    }
+
+    /**
+     * @return True if tokens read from the Core Token Service should be kept in a local cache. False by default.
+     */
+    public boolean isTokenCacheEnabled() {
+        return tokenCacheEnabled && tokenCacheSize > 0 && tokenCacheTTL > 0;
+    }
+
+    /**
+     * @return The maximum number of tokens held in the local token cache.
+     */
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    /**
+     * @return The maximum duration in milliseconds a token is held in the local token cache.
+     */
+    public long getTokenCacheTTL() {
+        return tokenCacheTTL;
+    }
+
+    /**
+     * @return The token types which must always be read from the token store. Empty by default.
+     */
+    public Set<TokenType> getStrictTokenTypes() {
+        return strictTokenTypes;
+    }
+}
@@ -22,9 +22,11 @@ import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
 import org.forgerock.json.JsonValue;
+import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.cts.api.fields.OAuthTokenField;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.api.tokens.TokenIdFactory;
+import org.forgerock.openam.cts.utils.BinarySerialisation;
 import org.forgerock.openam.cts.utils.JSONSerialisation;
 import org.forgerock.openam.cts.utils.blob.TokenBlobUtils;
 import org.forgerock.openam.tokens.TokenType;
@@ -40,12 +42,17 @@ import org.forgerock.openam.tokens.TokenType;
  * the implication of the way it was being used previously by the OAuth sections
  * of the CTS.
  *
+ * Note: The map is stored as JSON, or in the binary form if {@link CoreTokenConfig#isBinaryBlobFormat()}
+ * is enabled. Tokens stored in either form can be read.
+ *
  * @author robert.wapshott@forgerock.com
  */
 public class OAuthAdapter implements TokenAdapter<JsonValue> {
     // Injected
     private final TokenIdFactory tokenIdFactory;
     private final JSONSerialisation serialisation;
+    private final BinarySerialisation binarySerialisation;
+    private final CoreTokenConfig config;
     private final OAuthValues oAuthValues;
     private final TokenBlobUtils blobUtils;
 
@@ -59,14 +66,19 @@ public class OAuthAdapter implements TokenAdapter<JsonValue> {
      *
      * @param tokenIdFactory Non null.
      * @param serialisation
+     * @param binarySerialisation Required for the binary blob form.
+     * @param config Required to determine the blob form to write.
      * @param oAuthValues
      * @param blobUtils
      */
     @Inject
     public OAuthAdapter(TokenIdFactory tokenIdFactory, JSONSerialisation serialisation,
+                        BinarySerialisation binarySerialisation, CoreTokenConfig config,
                         OAuthValues oAuthValues, TokenBlobUtils blobUtils) {
         this.tokenIdFactory = tokenIdFactory;
         this.serialisation = serialisation;
+        this.binarySerialisation = binarySerialisation;
+        this.config = config;
         this.oAuthValues = oAuthValues;
         this.blobUtils = blobUtils;
     }
@@ -144,8 +156,12 @@ public class OAuthAdapter implements TokenAdapter<JsonValue> {
          * the object contained within the JsonValue which we know to be a map.
          */
         Object objectToStore = request.getObject();
-        String serialisedObject = serialisation.serialise(objectToStore);
-        blobUtils.setBlobFromString(token, serialisedObject);
+        if (config.isBinaryBlobFormat()) {
+            token.setBlob(binarySerialisation.serialise(objectToStore));
+        } else {
+            String serialisedObject = serialisation.serialise(objectToStore);
+            blobUtils.setBlobFromString(token, serialisedObject);
+        }
 
         return token;
     }
@@ -155,7 +171,7 @@ public class OAuthAdapter implements TokenAdapter<JsonValue> {
     }
 
     /**
-     * Convert from a Token using the serialised JSON blob to generate the JsonValue.
+     * Convert from a Token using the serialised JSON or binary blob to generate the JsonValue.
      *
      * @param token Token to be converted back to its original format.
      * @return Non null JsonValue.
@@ -166,14 +182,18 @@ public class OAuthAdapter implements TokenAdapter<JsonValue> {
         if (token == null){
             return null;
         }
-        String data = blobUtils.getBlobAsString(token);
-        if (data == null) {
+        byte[] blob = token.getBlob();
+        if (blob == null) {
             return null;
         }
 
         JsonValue r;
         try {
-            r = new JsonValue(serialisation.deserialise(data, Map.class));
+            if (BinarySerialisation.isBinary(blob)) {
+                r = new JsonValue(binarySerialisation.deserialise(blob, Map.class));
+            } else {
+                r = new JsonValue(serialisation.deserialise(blobUtils.getBlobAsString(token), Map.class));
+            }
             Set<String> keys = new HashSet<String>(r.keys());
             for (String key : keys){
                 if (r.get(key).isList()) {
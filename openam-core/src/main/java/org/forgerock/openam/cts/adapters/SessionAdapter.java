@@ -15,12 +15,15 @@
  */
 package org.forgerock.openam.cts.adapters;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.iplanet.dpro.session.service.InternalSession;
 import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.cts.api.fields.SessionTokenField;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.api.tokens.TokenIdFactory;
+import org.forgerock.openam.cts.utils.BinarySerialisation;
 import org.forgerock.openam.cts.utils.JSONSerialisation;
 import org.forgerock.openam.cts.utils.blob.TokenBlobUtils;
 import org.forgerock.openam.cts.utils.blob.strategies.AttributeCompressionStrategy;
@@ -36,6 +39,9 @@ import java.util.regex.Pattern;
 /**
  * SessionAdapter is responsible for providing conversions to and from InternalSession
  * and managing the details around data conversion for this class.
+ *
+ * The InternalSession is stored as JSON, or in the binary form if {@link CoreTokenConfig#isBinaryBlobFormat()}
+ * is enabled. Tokens stored in either form can be read.
  */
 public class SessionAdapter implements TokenAdapter<InternalSession> {
 
@@ -43,6 +49,7 @@ public class SessionAdapter implements TokenAdapter<InternalSession> {
     private final TokenIdFactory tokenIdFactory;
     private final CoreTokenConfig config;
     private final JSONSerialisation serialisation;
+    private final BinarySerialisation binarySerialisation;
     private final TokenBlobUtils blobUtils;
 
     /**
@@ -56,14 +63,17 @@ public class SessionAdapter implements TokenAdapter<InternalSession> {
      * @param tokenIdFactory Non null.
      * @param config Non null.
      * @param serialisation Non null.
+     * @param binarySerialisation Non null.
      * @param blobUtils A collection of Binary Object utilities.
      */
     @Inject
     public SessionAdapter(TokenIdFactory tokenIdFactory, CoreTokenConfig config,
-                          JSONSerialisation serialisation, TokenBlobUtils blobUtils) {
+                          JSONSerialisation serialisation, BinarySerialisation binarySerialisation,
+                          TokenBlobUtils blobUtils) {
         this.tokenIdFactory = tokenIdFactory;
         this.config = config;
         this.serialisation = serialisation;
+        this.binarySerialisation = binarySerialisation;
         this.blobUtils = blobUtils;
     }
 
@@ -96,10 +106,14 @@ public class SessionAdapter implements TokenAdapter<InternalSession> {
         token.setAttribute(SessionTokenField.SESSION_ID.getField(), session.getID().toString());
 
         // Binary data
-        String jsonBlob = serialisation.serialise(session);
-        blobUtils.setBlobFromString(token, jsonBlob);
-
-        String latestAccessTime = filterLatestAccessTime(token);
+        String latestAccessTime;
+        if (config.isBinaryBlobFormat()) {
+            latestAccessTime = setBinaryBlob(token, session);
+        } else {
+            String jsonBlob = serialisation.serialise(session);
+            blobUtils.setBlobFromString(token, jsonBlob);
+            latestAccessTime = filterLatestAccessTime(token);
+        }
         if (latestAccessTime != null) {
             token.setAttribute(SessionTokenField.LATEST_ACCESS_TIME.getField(), latestAccessTime);
         }
@@ -119,11 +133,27 @@ public class SessionAdapter implements TokenAdapter<InternalSession> {
      * @return Non null InternalSession.
      */
     public InternalSession fromToken(Token token) {
-        String jsonBlob = blobUtils.getBlobAsString(token);
+        String latestAccessTime = token.getValue(SessionTokenField.LATEST_ACCESS_TIME.getField());
+
+        InternalSession session;
+        if (BinarySerialisation.isBinary(token.getBlob())) {
+            session = fromBinaryBlob(token.getBlob(), latestAccessTime);
+        } else {
+            session = fromJsonBlob(blobUtils.getBlobAsString(token), latestAccessTime);
+        }
+        if (session.getSessionHandle() == null) {
+            //Originally the sessionHandle was stored in the serialize token, so if after the deserialization the
+            //sessionHandle field is not set, then we should attempt to retrieve the value directly from the token.
+            session.setSessionHandle(token.<String>getValue(SessionTokenField.SESSION_HANDLE.getField()));
+        }
+
+        return session;
+    }
+
+    private InternalSession fromJsonBlob(String jsonBlob, String latestAccessTime) {
         int index = findIndexOfValidField(jsonBlob);
 
         // Do we need to insert the LatestAccessTime Into the Blob?
-        String latestAccessTime = token.getValue(SessionTokenField.LATEST_ACCESS_TIME.getField());
         if (latestAccessTime != null && index != -1) {
             // Assemble the Sting to insert
             // latestAccessTime
@@ -137,14 +167,36 @@ public class SessionAdapter implements TokenAdapter<InternalSession> {
             jsonBlob = jsonBlob.substring(0, index) + addition + jsonBlob.substring(index, jsonBlob.length());
         }
 
-        InternalSession session = serialisation.deserialise(jsonBlob, InternalSession.class);
-        if (session.getSessionHandle() == null) {
-            //Originally the sessionHandle was stored in the serialize token, so if after the deserialization the
-            //sessionHandle field is not set, then we should attempt to retrieve the value directly from the token.
-            session.setSessionHandle(token.<String>getValue(SessionTokenField.SESSION_HANDLE.getField()));
+        return serialisation.deserialise(jsonBlob, InternalSession.class);
+    }
+
+    /**
+     * The binary form is decoded to a tree, so the latest access time can be restored without
+     * searching and rewriting the serialised text.
+     */
+    private InternalSession fromBinaryBlob(byte[] blob, String latestAccessTime) {
+        JsonNode tree = binarySerialisation.decode(blob);
+        if (latestAccessTime != null && tree instanceof ObjectNode) {
+            ((ObjectNode) tree).put(SessionTokenField.LATEST_ACCESS_TIME.getInternalSessionFieldName(),
+                    Long.parseLong(latestAccessTime));
         }
+        return binarySerialisation.fromTree(tree, InternalSession.class);
+    }
 
-        return session;
+    /**
+     * Assign the session to the Token in the binary form, without its latest access time.
+     *
+     * @return The latest access time removed from the session, or null if it was not present.
+     */
+    private String setBinaryBlob(Token token, InternalSession session) {
+        JsonNode tree = binarySerialisation.toTree(session);
+        JsonNode latestAccessTime = null;
+        if (tree instanceof ObjectNode) {
+            latestAccessTime = ((ObjectNode) tree).remove(
+                    SessionTokenField.LATEST_ACCESS_TIME.getInternalSessionFieldName());
+        }
+        token.setBlob(binarySerialisation.encode(tree));
+        return latestAccessTime == null ? null : latestAccessTime.asText();
     }
 
     /**
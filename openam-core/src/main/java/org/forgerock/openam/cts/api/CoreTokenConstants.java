@@ -136,6 +136,68 @@ public class CoreTokenConstants {
      */
     public static final String CTS_ASYNC_QUEUE_SIZE = "org.forgerock.services.cts.async.queue.size";
 
+    /**
+     * Whether an update to a token which is still waiting on the asynchronous work queue should absorb
+     * subsequent updates to the same token, rather than each update being written separately.
+     */
+    public static final String CTS_ASYNC_QUEUE_COALESCE_UPDATES = "org.forgerock.services.cts.async.queue.coalesce.updates";
+
+    /**
+     * The maximum number of create and delete operations pipelined together on one connection.
+     */
+    public static final String CTS_ASYNC_BATCH_SIZE = "org.forgerock.services.cts.async.batch.size";
+
+    /**
+     * The maximum duration in milliseconds to wait for further operations before sending a batch.
+     */
+    public static final String CTS_ASYNC_BATCH_LINGER = "org.forgerock.services.cts.async.batch.linger";
+
+    /**
+     * Whether tokens read from the Core Token Service are kept in a local cache.
+     */
+    public static final String CTS_CACHE_ENABLED = "org.forgerock.services.cts.cache.enabled";
+
+    /**
+     * The maximum number of tokens held in the local token cache.
+     */
+    public static final String CTS_CACHE_SIZE = "org.forgerock.services.cts.cache.size";
+
+    /**
+     * The maximum duration in milliseconds a token is held in the local token cache.
+     */
+    public static final String CTS_CACHE_TTL = "org.forgerock.services.cts.cache.ttl";
+
+    /**
+     * Comma separated token types which must always be read from the token store, and are never cached locally.
+     */
+    public static final String CTS_CACHE_STRICT_TOKEN_TYPES = "org.forgerock.services.cts.cache.strict.token.types";
+
+    /**
+     * The maximum number of pages of expired tokens the CTS Reaper will have queued for deletion at once.
+     */
+    public static final String CTS_REAPER_LANES = "org.forgerock.services.cts.reaper.lanes";
+
+    /**
+     * The maximum number of expired tokens per second the CTS Reaper will queue for deletion, zero for no limit.
+     */
+    public static final String CTS_REAPER_MAX_RATE = "org.forgerock.services.cts.reaper.rate";
+
+    /**
+     * The time in milliseconds to delete a page of expired tokens above which the CTS Reaper will reduce the
+     * number of pages it deletes at once, zero to disable.
+     */
+    public static final String CTS_REAPER_LATENCY_THRESHOLD = "org.forgerock.services.cts.reaper.latency.threshold";
+
+    /**
+     * Whether session and OAuth2 Token blobs are written in the compact binary form rather than as JSON.
+     */
+    public static final String CTS_BLOB_BINARY_FORMAT = "org.forgerock.services.cts.blob.binary";
+
+    /**
+     * Whether compressed Token blobs use the fast Deflate compression rather than GZip.
+     */
+    public static final String CTS_COMPRESSION_FAST = "org.forgerock.services.cts.compression.fast";
+
     /**
      * Where to broadcast session logout/destroy to.
      */
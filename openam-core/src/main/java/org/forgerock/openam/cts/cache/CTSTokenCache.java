@@ -0,0 +1,220 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.cache;
+
+import static org.forgerock.openam.utils.Time.*;
+
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.forgerock.openam.cts.CoreTokenConfig;
+import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.monitoring.CTSCacheMonitoringStore;
+import org.forgerock.openam.utils.collections.ConcurrentCache;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * A bounded, local cache of Tokens read from the Core Token Service.
+ *
+ * Tokens are held for at most the configured time to live, and never beyond their own expiry time. Tokens
+ * are removed from the cache when they are written or deleted by this server, and when the
+ * {@link CTSTokenCacheInvalidator} is notified by the token store that another server has changed them.
+ * Tokens of the configured strict token types are never cached.
+ *
+ * To prevent a read which raced with a write from caching the previous state of a Token, a caller must
+ * obtain a version with {@link #getVersion(String)} before reading from the token store, and pass it to
+ * {@link #put(Token, long)}. The Token is only cached if it has not been invalidated in the meantime.
+ *
+ * Tokens are copied on the way in and out of the cache so that callers cannot modify the cached state.
+ *
+ * @see CoreTokenConfig#isTokenCacheEnabled()
+ */
+@Singleton
+public class CTSTokenCache {
+    private static final int VERSION_STRIPES = 64;
+
+    private final CoreTokenConfig config;
+    private final CTSCacheMonitoringStore monitoringStore;
+    private final CTSTokenCacheInvalidator invalidator;
+    private final Debug debug;
+    private final ConcurrentCache<String, CachedToken> tokens;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicBoolean listening = new AtomicBoolean(false);
+
+    /**
+     * @param config Required to determine whether the cache is enabled and its size and time to live.
+     * @param monitoringStore Required to record cache hits, misses and invalidations.
+     * @param invalidator Required to invalidate Tokens changed by other servers.
+     * @param debug Required for debugging.
+     */
+    @Inject
+    public CTSTokenCache(CoreTokenConfig config, CTSCacheMonitoringStore monitoringStore,
+            CTSTokenCacheInvalidator invalidator, @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
+        this.config = config;
+        this.monitoringStore = monitoringStore;
+        this.invalidator = invalidator;
+        this.debug = debug;
+        this.tokens = new ConcurrentCache<String, CachedToken>(Math.max(config.getTokenCacheSize(), 1));
+    }
+
+    /**
+     * @return True if the cache has been enabled.
+     */
+    public boolean isEnabled() {
+        return config.isTokenCacheEnabled();
+    }
+
+    /**
+     * Get a copy of the cached Token.
+     *
+     * @param tokenId Non null Token ID.
+     * @return A copy of the Token, or null if the Token was not cached or has expired.
+     */
+    public Token get(String tokenId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        startListening();
+
+        CachedToken cached = tokens.get(tokenId);
+        if (cached != null && cached.hasExpired(currentTimeMillis())) {
+            if (tokens.remove(tokenId, cached)) {
+                monitoringStore.addCacheInvalidation();
+            }
+            cached = null;
+        }
+        monitoringStore.addCacheRead(cached != null);
+        return cached == null ? null : new Token(cached.token);
+    }
+
+    /**
+     * Get the current version of the cache entry for the Token ID. Must be called before the Token
+     * is read from the token store.
+     *
+     * @param tokenId Non null Token ID.
+     * @return The version to pass to {@link #put(Token, long)}.
+     */
+    public long getVersion(String tokenId) {
+        return versions.get(stripe(tokenId));
+    }
+
+    /**
+     * Cache a copy of a Token read from the token store, unless it has been invalidated since the
+     * given version was obtained, or its token type must never be cached.
+     *
+     * @param token Non null Token.
+     * @param version The version obtained before the Token was read.
+     */
+    public void put(Token token, long version) {
+        if (!isEnabled() || config.getStrictTokenTypes().contains(token.getType())) {
+            return;
+        }
+
+        long now = currentTimeMillis();
+        long expiry = now + config.getTokenCacheTTL();
+        Calendar tokenExpiry = token.getExpiryTimestamp();
+        if (tokenExpiry != null) {
+            expiry = Math.min(expiry, tokenExpiry.getTimeInMillis());
+        }
+        if (expiry <= now) {
+            return;
+        }
+
+        String tokenId = token.getTokenId();
+        int stripe = stripe(tokenId);
+        if (versions.get(stripe) != version) {
+            return;
+        }
+        CachedToken cached = new CachedToken(new Token(token), expiry);
+        tokens.put(tokenId, cached);
+        // An invalidation which raced with the put has either already changed the version, or will
+        // remove the entry after it has been put.
+        if (versions.get(stripe) != version) {
+            tokens.remove(tokenId, cached);
+        }
+    }
+
+    /**
+     * Remove the Token from the cache, and prevent any read which started before this call
+     * from caching it.
+     *
+     * @param tokenId Non null Token ID.
+     */
+    public void invalidate(String tokenId) {
+        if (!isEnabled()) {
+            return;
+        }
+        versions.incrementAndGet(stripe(tokenId));
+        if (tokens.remove(tokenId) != null) {
+            monitoringStore.addCacheInvalidation();
+        }
+    }
+
+    /**
+     * Remove all Tokens from the cache, and prevent any read which started before this call
+     * from caching its Token.
+     */
+    public void invalidateAll() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        tokens.clear();
+        debug("Token cache cleared");
+    }
+
+    private void startListening() {
+        if (listening.compareAndSet(false, true)) {
+            invalidator.start(this);
+        }
+    }
+
+    private static int stripe(String tokenId) {
+        return (tokenId.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    private void debug(String message) {
+        if (debug.messageEnabled()) {
+            debug.message(CoreTokenConstants.DEBUG_HEADER + message);
+        }
+    }
+
+    /**
+     * A cached Token and the time after which it must not be used.
+     */
+    private static final class CachedToken {
+        private final Token token;
+        private final long expiry;
+
+        private CachedToken(Token token, long expiry) {
+            this.token = token;
+            this.expiry = expiry;
+        }
+
+        private boolean hasExpired(long now) {
+            return now >= expiry;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.cache;
+
+import java.text.MessageFormat;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.ldap.LDAPUtils;
+import org.forgerock.openam.sm.ConnectionConfig;
+import org.forgerock.openam.sm.ConnectionConfigFactory;
+import org.forgerock.openam.sm.datalayer.api.ConnectionType;
+import org.forgerock.openam.sm.datalayer.api.DataLayer;
+import org.forgerock.openam.sm.datalayer.impl.ldap.LdapDataLayerConfiguration;
+import org.forgerock.openam.sm.exceptions.InvalidConfigurationException;
+import org.forgerock.openam.tokens.CoreTokenField;
+import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.Filter;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.controls.PersistentSearchChangeType;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.util.Options;
+import org.forgerock.util.thread.listener.ShutdownListener;
+import org.forgerock.util.thread.listener.ShutdownManager;
+
+import com.iplanet.services.ldap.event.LDAPv3PersistentSearch;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Keeps the {@link CTSTokenCache} consistent with changes made to the token store by other servers.
+ *
+ * A persistent search is started against the token store root suffix, and each Token which is added,
+ * modified, renamed or deleted is invalidated in the cache. Whenever the persistent search is
+ * (re)started, for example after the connection to the token store has been lost, the whole cache
+ * is invalidated because changes may have been missed in the interim.
+ *
+ * If the token store does not support persistent search, Tokens are only removed from the cache
+ * when their time to live expires.
+ */
+@Singleton
+public class CTSTokenCacheInvalidator implements ShutdownListener {
+    private static final int RETRY_INTERVAL = 3000;
+
+    private final ConnectionConfigFactory connectionConfigFactory;
+    private final LdapDataLayerConfiguration dataLayerConfiguration;
+    private final Debug debug;
+    private TokenChangeSearch search;
+    private boolean shutdown;
+
+    /**
+     * @param connectionConfigFactory Required to connect to the token store.
+     * @param dataLayerConfiguration Required to determine the token store root suffix.
+     * @param shutdownManager Required to stop the persistent search on shutdown.
+     * @param debug Required for debugging.
+     */
+    @Inject
+    public CTSTokenCacheInvalidator(ConnectionConfigFactory connectionConfigFactory,
+            @DataLayer(ConnectionType.CTS_ASYNC) LdapDataLayerConfiguration dataLayerConfiguration,
+            ShutdownManager shutdownManager, @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
+        this.connectionConfigFactory = connectionConfigFactory;
+        this.dataLayerConfiguration = dataLayerConfiguration;
+        this.debug = debug;
+        shutdownManager.addShutdownListener(this);
+    }
+
+    /**
+     * Start notifying the cache of Tokens changed in the token store. Tokens are only removed from the
+     * cache when their time to live expires if the persistent search cannot be configured.
+     *
+     * @param cache Non null cache to invalidate.
+     */
+    public synchronized void start(CTSTokenCache cache) {
+        if (shutdown || search != null) {
+            return;
+        }
+
+        ConnectionFactory factory;
+        try {
+            ConnectionConfig config = connectionConfigFactory.getConfig(ConnectionType.CTS_ASYNC);
+            factory = LDAPUtils.newFailoverConnectionFactory(
+                    config.getLDAPURLs(),
+                    config.getBindDN(),
+                    config.getBindPassword(),
+                    config.getLdapHeartbeat(),
+                    "SECONDS",
+                    Options.defaultOptions());
+        } catch (InvalidConfigurationException e) {
+            debug.error(CoreTokenConstants.DEBUG_HEADER
+                    + "Unable to listen for token changes, cached tokens will expire after their time to live", e);
+            return;
+        }
+
+        DN rootSuffix = dataLayerConfiguration.getTokenStoreRootSuffix();
+        debug("Starting token cache invalidation against {0}", rootSuffix);
+        search = new TokenChangeSearch(cache, rootSuffix, factory);
+        search.startSearch();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (search != null) {
+            search.stopSearch();
+            search = null;
+        }
+    }
+
+    private void debug(String format, Object... args) {
+        if (debug.messageEnabled()) {
+            debug.message(MessageFormat.format(CoreTokenConstants.DEBUG_HEADER + format, args));
+        }
+    }
+
+    /**
+     * Persistent search over the Tokens directly below the token store root suffix. This search has a
+     * single, fixed consumer so no listeners are registered with it.
+     */
+    private static final class TokenChangeSearch extends LDAPv3PersistentSearch<Object, Object> {
+        private final CTSTokenCache cache;
+        private final SearchResultEntryHandler handler = new SearchResultEntryHandler() {
+            @Override
+            public boolean handle(SearchResultEntry entry, String dn, DN previousDn, PersistentSearchChangeType type) {
+                String tokenId = entry.parseAttribute(CoreTokenField.TOKEN_ID.toString()).asString();
+                if (tokenId != null) {
+                    cache.invalidate(tokenId);
+                }
+                return true;
+            }
+        };
+
+        private TokenChangeSearch(CTSTokenCache cache, DN rootSuffix, ConnectionFactory factory) {
+            super(RETRY_INTERVAL, rootSuffix, Filter.objectClassPresent(), SearchScope.SINGLE_LEVEL, factory,
+                    CoreTokenField.TOKEN_ID.toString());
+            this.cache = cache;
+        }
+
+        @Override
+        protected void clearCaches() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        protected SearchResultEntryHandler getSearchResultEntryHandler() {
+            return handler;
+        }
+    }
+}
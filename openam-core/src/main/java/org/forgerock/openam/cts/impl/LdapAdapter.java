@@ -29,6 +29,7 @@ import org.forgerock.openam.ldap.LDAPRequests;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.DataLayerRuntimeException;
 import org.forgerock.openam.sm.datalayer.api.LdapOperationFailedException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
 import org.forgerock.openam.sm.datalayer.impl.ldap.LdapQueryFactory;
@@ -38,6 +39,7 @@ import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.Entries;
 import org.forgerock.opendj.ldap.Entry;
 import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.LdapPromise;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.responses.Result;
@@ -85,6 +87,20 @@ public class LdapAdapter implements TokenStorageAdapter<Connection> {
         }
     }
 
+    /**
+     * Send a request to create the Token in LDAP without waiting for the response.
+     *
+     * @param connection The non null connection to perform this call against.
+     * @param token Non null Token to create.
+     * @return Non null operation which throws {@link LdapOperationFailedException} when awaited
+     * if the Token was not created.
+     */
+    @Override
+    public PendingOperation createAsync(Connection connection, Token token) {
+        Entry entry = conversion.getEntry(token);
+        return new PendingLdapOperation(connection.addAsync(LDAPRequests.newAddRequest(entry)), false);
+    }
+
     /**
      * Performs a read against the LDAP connection and converts the result into a Token.
      *
@@ -163,6 +179,20 @@ public class LdapAdapter implements TokenStorageAdapter<Connection> {
         }
     }
 
+    /**
+     * Send a request to delete the Token ID provided without waiting for the response.
+     *
+     * @param connection Non null connection to call.
+     * @param tokenId The non null Token ID to delete.
+     * @return Non null operation which throws {@link LdapOperationFailedException} when awaited
+     * if the Token could not be deleted.
+     */
+    @Override
+    public PendingOperation deleteAsync(Connection connection, String tokenId) {
+        String dn = String.valueOf(conversion.generateTokenDN(tokenId));
+        return new PendingLdapOperation(connection.deleteAsync(LDAPRequests.newDeleteRequest(dn)), true);
+    }
+
     @Override
     public Collection<Token> query(Connection connection, TokenFilter query) throws DataLayerException {
         try {
@@ -197,4 +227,33 @@ public class LdapAdapter implements TokenStorageAdapter<Connection> {
             throw new LdapOperationFailedException(result);
         }
     }
+
+    /**
+     * An LDAP request which has been sent on a connection, whose response is checked when awaited.
+     */
+    private final class PendingLdapOperation implements PendingOperation {
+        private final LdapPromise<Result> promise;
+        private final boolean ignoreNoSuchObject;
+
+        private PendingLdapOperation(LdapPromise<Result> promise, boolean ignoreNoSuchObject) {
+            this.promise = promise;
+            this.ignoreNoSuchObject = ignoreNoSuchObject;
+        }
+
+        @Override
+        public void await() throws DataLayerException {
+            try {
+                processResult(promise.getOrThrow());
+            } catch (LdapException e) {
+                Result result = e.getResult();
+                if (ignoreNoSuchObject && result != null && ResultCode.NO_SUCH_OBJECT.equals(result.getResultCode())) {
+                    return;
+                }
+                throw new LdapOperationFailedException(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataLayerException("Interrupted whilst waiting for LDAP response", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.impl.queue;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.ResultHandler;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+
+/**
+ * An update Task which can absorb later updates to the same Token while it is still waiting
+ * on its queue.
+ *
+ * Whilst the task is open, each call to {@link #merge(Token, ResultHandler)} replaces the Token
+ * that will be written and registers an additional ResultHandler. When the task is executed,
+ * only the most recent Token is written to the store and every registered ResultHandler is
+ * notified of the outcome of that single write.
+ *
+ * Once the task has been sealed, either because it has started executing or because another
+ * operation on the same Token ID has been queued behind it, no further updates can be merged.
+ * This preserves the ordering of creates, reads and deletes relative to updates.
+ *
+ * @see TaskDispatcher#update(Token, ResultHandler)
+ */
+public class CoalescingUpdateTask implements Task {
+    private final String tokenId;
+    private final ConcurrentMap<String, CoalescingUpdateTask> pending;
+    private final List<Token> tokens = new ArrayList<Token>();
+    private final List<ResultHandler<Token, ?>> handlers = new ArrayList<ResultHandler<Token, ?>>();
+    private final CountDownLatch queued = new CountDownLatch(1);
+    private boolean open = true;
+    private volatile boolean isError = false;
+
+    /**
+     * @param token Non null Token to update.
+     * @param handler Non null handler to notify.
+     * @param pending The pending update tasks this task is registered in, keyed by Token ID.
+     */
+    public CoalescingUpdateTask(Token token, ResultHandler<Token, ?> handler,
+            ConcurrentMap<String, CoalescingUpdateTask> pending) {
+        this.tokenId = token.getTokenId();
+        this.pending = pending;
+        tokens.add(token);
+        handlers.add(handler);
+    }
+
+    /**
+     * Merge a newer update to the same Token into this task.
+     *
+     * @param token Non null Token which supersedes any Token previously assigned to this task.
+     * @param handler Non null handler to notify when the write completes.
+     * @return True if the update was merged, false if the task has been sealed and the caller
+     * must queue a new task instead.
+     */
+    public synchronized boolean merge(Token token, ResultHandler<Token, ?> handler) {
+        if (!open) {
+            return false;
+        }
+        tokens.add(token);
+        handlers.add(handler);
+        return true;
+    }
+
+    /**
+     * Prevent any further updates being merged into this task and remove it from the pending
+     * updates. Calling this method more than once has no further effect.
+     */
+    public void seal() {
+        synchronized (this) {
+            open = false;
+        }
+        pending.remove(tokenId, this);
+    }
+
+    /**
+     * Signal that the attempt to place this task on its queue has finished, successfully or not.
+     */
+    public void queued() {
+        queued.countDown();
+    }
+
+    /**
+     * Wait until the attempt to place this task on its queue has finished, so that an operation
+     * on the same Token ID which is queued afterwards is processed after this task.
+     *
+     * @throws InterruptedException If the calling thread was interrupted while waiting.
+     */
+    public void awaitQueued() throws InterruptedException {
+        queued.await();
+    }
+
+    /**
+     * Writes the most recent Token merged into this task. If the Token does not exist in the store
+     * then it is created, otherwise it is updated.
+     *
+     * @param connection Non null Connection.
+     * @param adapter Non null for connection-coupled operations.
+     * @throws DataLayerException If there was an error of any kind.
+     */
+    @Override
+    public <T> void execute(T connection, TokenStorageAdapter<T> adapter) throws DataLayerException {
+        seal();
+        if (isError) {
+            return;
+        }
+
+        Token token = tokens.get(tokens.size() - 1);
+        try {
+            Token previous = adapter.read(connection, tokenId);
+            if (previous == null) {
+                adapter.create(connection, token);
+            } else {
+                adapter.update(connection, previous, token);
+            }
+        } catch (DataLayerException e) {
+            processError(e);
+            throw e;
+        }
+
+        for (int i = 0; i < handlers.size(); i++) {
+            handlers.get(i).processResults(tokens.get(i));
+        }
+    }
+
+    @Override
+    public void processError(DataLayerException error) {
+        seal();
+        isError = true;
+        for (ResultHandler<Token, ?> handler : handlers) {
+            handler.processError(error);
+        }
+    }
+
+    /**
+     * Signal an error to the handlers of the updates which were merged into this task, after
+     * the attempt to place it on its queue has failed. The handler the task was created with is
+     * not notified, as the caller which created the task is given the error directly.
+     *
+     * @param error Non null error to signal.
+     */
+    public void queueFailed(DataLayerException error) {
+        seal();
+        isError = true;
+        for (int i = 1; i < handlers.size(); i++) {
+            handlers.get(i).processError(error);
+        }
+    }
+
+    /**
+     * @return The number of update requests this task represents.
+     */
+    public synchronized int size() {
+        return handlers.size();
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format("CoalescingUpdateTask: {0} ({1} updates)", tokenId, size());
+    }
+}
@@ -16,6 +16,8 @@
 package org.forgerock.openam.cts.impl.queue;
 
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -23,6 +25,8 @@ import javax.inject.Singleton;
 import org.forgerock.openam.cts.api.filter.TokenFilter;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
 import org.forgerock.openam.sm.datalayer.api.ConnectionType;
 import org.forgerock.openam.sm.datalayer.api.DataLayer;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
@@ -44,25 +48,40 @@ import org.forgerock.util.Reject;
  * The TaskDispatcher uses a {@link SeriesTaskExecutor} to ensure token actions are
  * performed in series for each token.
  *
+ * When update coalescing is enabled, an update to a Token which is still waiting on its
+ * queue absorbs any further updates to the same Token, so that only the most recent state
+ * is written. Any other operation on the Token ID prevents later updates from being merged
+ * into an update queued before it, so creates, reads and deletes keep their ordering.
+ *
  * @see SeriesTaskExecutor
  * @see Task
+ * @see CoalescingUpdateTask
  */
 @Singleton
 public class TaskDispatcher {
     private final TaskFactory taskFactory;
     private final TaskExecutor taskExecutor;
+    private final CTSQueueConfiguration configuration;
+    private final CTSOperationsMonitoringStore monitoringStore;
+    private final ConcurrentMap<String, CoalescingUpdateTask> pendingUpdates =
+            new ConcurrentHashMap<String, CoalescingUpdateTask>();
 
     /**
      * Create a default instance of the TaskDispatcher.
      *
      * @param taskFactory Required to create Task instances.
      * @param taskExecutor Required for execution of the tasks.
+     * @param configuration Required to determine whether updates are coalesced.
+     * @param monitoringStore Required to record coalesced updates.
      */
     @Inject
     public TaskDispatcher(@DataLayer(ConnectionType.CTS_ASYNC) TaskFactory taskFactory,
-            @DataLayer(ConnectionType.CTS_ASYNC) TaskExecutor taskExecutor) {
+            @DataLayer(ConnectionType.CTS_ASYNC) TaskExecutor taskExecutor, CTSQueueConfiguration configuration,
+            CTSOperationsMonitoringStore monitoringStore) {
         this.taskFactory = taskFactory;
         this.taskExecutor = taskExecutor;
+        this.configuration = configuration;
+        this.monitoringStore = monitoringStore;
     }
 
     /**
@@ -89,6 +108,7 @@ public class TaskDispatcher {
      */
     public void create(Token token, ResultHandler<Token, ?> handler) throws CoreTokenException {
         Reject.ifNull(token);
+        sealPendingUpdate(token.getTokenId());
         try {
             taskExecutor.execute(token.getTokenId(), taskFactory.create(token, handler));
         } catch (DataLayerException e) {
@@ -113,6 +133,7 @@ public class TaskDispatcher {
      */
     public void read(String tokenId, ResultHandler<Token, ?> handler) throws CoreTokenException {
         Reject.ifNull(tokenId, handler);
+        sealPendingUpdate(tokenId);
         try {
             taskExecutor.execute(tokenId, taskFactory.read(tokenId, handler));
         } catch (DataLayerException e) {
@@ -123,6 +144,10 @@ public class TaskDispatcher {
     /**
      * The CTS Token to update in the persistent store.
      *
+     * If update coalescing is enabled and an update for the same Token ID is still waiting
+     * to be processed, the Token replaces the waiting one and the handler will be notified
+     * when that single update completes.
+     *
      * @see TaskDispatcher
      * @see org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration#getQueueTimeout()
      *
@@ -133,6 +158,11 @@ public class TaskDispatcher {
      */
     public void update(Token token, ResultHandler<Token, ?> handler) throws CoreTokenException {
         Reject.ifNull(token);
+        if (configuration.isCoalescingUpdates()) {
+            coalesceUpdate(token, handler);
+            return;
+        }
+        sealPendingUpdate(token.getTokenId());
         try {
             taskExecutor.execute(token.getTokenId(), taskFactory.update(token, handler));
         } catch (DataLayerException e) {
@@ -140,6 +170,67 @@ public class TaskDispatcher {
         }
     }
 
+    /**
+     * Merge the update into a pending update for the same Token ID, or queue a new
+     * {@link CoalescingUpdateTask} if there is none.
+     *
+     * Updates may be merged into the new task before it has been queued, as only the most
+     * recent Token is written. No monitor is held while queueing, which may block until the
+     * queue timeout; instead other operations on the Token ID wait for the task to be queued
+     * in {@link #sealPendingUpdate(String)} so that they cannot be queued ahead of it. If
+     * the task cannot be queued, the callers whose updates were merged into it are notified
+     * of the error through their handlers.
+     */
+    private void coalesceUpdate(Token token, ResultHandler<Token, ?> handler) throws CoreTokenException {
+        String tokenId = token.getTokenId();
+        while (true) {
+            CoalescingUpdateTask pending = pendingUpdates.get(tokenId);
+            if (pending != null) {
+                if (pending.merge(token, handler)) {
+                    monitoringStore.addUpdateRequest(true);
+                    return;
+                }
+                pendingUpdates.remove(tokenId, pending);
+                continue;
+            }
+
+            CoalescingUpdateTask task = new CoalescingUpdateTask(token, handler, pendingUpdates);
+            if (pendingUpdates.putIfAbsent(tokenId, task) != null) {
+                continue;
+            }
+            try {
+                taskExecutor.execute(tokenId, task);
+            } catch (DataLayerException e) {
+                task.queueFailed(e);
+                throw new CoreTokenException("Error in data layer", e);
+            } finally {
+                task.queued();
+            }
+            monitoringStore.addUpdateRequest(false);
+            return;
+        }
+    }
+
+    /**
+     * Prevent any further updates being merged into an update for the Token ID which is
+     * still waiting to be processed. Must be called before any other operation on the Token
+     * ID is queued.
+     *
+     * @throws CoreTokenException If interrupted while waiting for the pending update to be queued.
+     */
+    private void sealPendingUpdate(String tokenId) throws CoreTokenException {
+        CoalescingUpdateTask pending = pendingUpdates.get(tokenId);
+        if (pending != null) {
+            pending.seal();
+            try {
+                pending.awaitQueued();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CoreTokenException("Interrupted waiting for a pending update to be queued", e);
+            }
+        }
+    }
+
     /**
      * The Token ID to delete from the persistent store.
      *
@@ -154,6 +245,7 @@ public class TaskDispatcher {
      */
     public void delete(String tokenId, ResultHandler<String, ?> handler) throws CoreTokenException {
         Reject.ifNull(tokenId);
+        sealPendingUpdate(tokenId);
         try {
             taskExecutor.execute(tokenId, taskFactory.delete(tokenId, handler));
         } catch (DataLayerException e) {
@@ -41,6 +41,8 @@ import org.forgerock.openam.sm.exceptions.InvalidConfigurationException;
 public class CTSQueueConfiguration implements QueueConfiguration {
     public static final int DEFAULT_TIMEOUT = 120;
     public static final int DEFAULT_QUEUE_SIZE = 5000;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final long DEFAULT_BATCH_LINGER = 0;
 
     private final ConnectionConfigFactory dataLayerConfig;
     private final Debug debug;
@@ -84,6 +86,43 @@ public class CTSQueueConfiguration implements QueueConfiguration {
         return queueSize;
     }
 
+    /**
+     * @return {@inheritDoc} Default is {@link #DEFAULT_BATCH_SIZE}.
+     */
+    @Override
+    public int getBatchSize() {
+        int batchSize = SystemProperties.getAsInt(CoreTokenConstants.CTS_ASYNC_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+        if (batchSize <= 0) {
+            debug("Batch size {0} was invalid, using default {1}", batchSize, DEFAULT_BATCH_SIZE);
+            return DEFAULT_BATCH_SIZE;
+        }
+        return batchSize;
+    }
+
+    /**
+     * @return {@inheritDoc} Default is {@link #DEFAULT_BATCH_LINGER}.
+     */
+    @Override
+    public long getBatchLingerTime() {
+        long linger = SystemProperties.getAsLong(CoreTokenConstants.CTS_ASYNC_BATCH_LINGER, DEFAULT_BATCH_LINGER);
+        if (linger < 0) {
+            debug("Batch linger time {0} was invalid, using default {1}", linger, DEFAULT_BATCH_LINGER);
+            return DEFAULT_BATCH_LINGER;
+        }
+        return linger;
+    }
+
+    /**
+     * Whether successive updates to the same Token ID which are waiting on the same queue should be
+     * merged into a single write.
+     *
+     * @return True if update coalescing is enabled. Default is false.
+     * @see org.forgerock.openam.cts.impl.queue.CoalescingUpdateTask
+     */
+    public boolean isCoalescingUpdates() {
+        return SystemProperties.getAsBoolean(CoreTokenConstants.CTS_ASYNC_QUEUE_COALESCE_UPDATES, false);
+    }
+
     @Override
     public int getProcessors() throws DataLayerException {
         try {
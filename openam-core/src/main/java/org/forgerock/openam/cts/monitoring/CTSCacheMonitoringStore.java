@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.cts.monitoring;
+
+/**
+ * A data structure for storing monitoring information about the local CTS token cache.
+ * The token cache will use an instance of this data structure to record the outcome of each read, and the
+ * CTS monitoring framework will use the same instance to pull information out to send to clients as monitoring
+ * requests are made.
+ *
+ * @see org.forgerock.openam.cts.cache.CTSTokenCache
+ */
+public interface CTSCacheMonitoringStore {
+
+    /**
+     * Records a read of the token cache.
+     *
+     * @param hit Whether the token was found in the cache.
+     */
+    void addCacheRead(boolean hit);
+
+    /**
+     * Records a token being removed from the token cache because it was changed, deleted or expired.
+     */
+    void addCacheInvalidation();
+
+    /**
+     * Gets the cumulative count of token cache hits since server start up.
+     *
+     * @return The total number of reads served from the token cache.
+     */
+    long getCacheHitsCumulativeCount();
+
+    /**
+     * Gets the cumulative count of token cache misses since server start up.
+     *
+     * @return The total number of reads which had to be served by the token store.
+     */
+    long getCacheMissesCumulativeCount();
+
+    /**
+     * Gets the cumulative count of token cache invalidations since server start up.
+     *
+     * @return The total number of tokens removed from the cache because they were changed, deleted or expired.
+     */
+    long getCacheInvalidationsCumulativeCount();
+
+    /**
+     * Gets the fraction of token cache reads which were hits.
+     *
+     * @return The ratio of hits to all reads, between 0 and 1.
+     */
+    double getCacheHitRatio();
+}
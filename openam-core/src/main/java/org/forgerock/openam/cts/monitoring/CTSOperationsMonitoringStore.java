@@ -141,4 +141,35 @@ public interface CTSOperationsMonitoringStore {
      * @return the maximum observed failure rate of the given operation in the current monitoring period.
      */
     long getMaximumOperationFailuresPerPeriod(CTSOperation operation);
+
+    /**
+     * Records an update request made to the CTS asynchronous queue whilst update coalescing is enabled.
+     *
+     * @param coalesced Whether the update was merged into an update for the same token which was still
+     * waiting on the queue, rather than being queued as a separate write.
+     */
+    void addUpdateRequest(boolean coalesced);
+
+    /**
+     * Gets the cumulative count of update requests recorded by {@link #addUpdateRequest(boolean)} since
+     * server startup.
+     *
+     * @return The total number of update requests.
+     */
+    long getUpdateRequestsCumulativeCount();
+
+    /**
+     * Gets the cumulative count of update requests which were merged into a pending update since server
+     * startup, and so did not result in a separate write to the store.
+     *
+     * @return The total number of coalesced update requests.
+     */
+    long getCoalescedUpdatesCumulativeCount();
+
+    /**
+     * Gets the fraction of update requests which were merged into a pending update.
+     *
+     * @return The ratio of coalesced update requests to all update requests, between 0 and 1.
+     */
+    double getUpdateCoalescingRatio();
 }
@@ -41,4 +41,27 @@ public interface CTSReaperMonitoringStore {
      * @return The rate of session deletion by the CTS Reaper.
      */
     double getRateOfDeletedSessions();
+
+    /**
+     * Records the progress of the CTS Reaper run in progress.
+     *
+     * @param startTime The start time of the reaper run.
+     * @param numberOfDeletedSessions The number of sessions deleted so far by the run.
+     */
+    void updateReaperProgress(long startTime, long numberOfDeletedSessions);
+
+    /**
+     * Gets the number of sessions deleted by the current reaper run, or by the last run if none is in progress.
+     *
+     * @return The number of sessions deleted.
+     */
+    long getReaperRunProgress();
+
+    /**
+     * Gets the number of sessions deleted per second by the current reaper run, or by the last run if none is
+     * in progress.
+     *
+     * @return The throughput of the CTS Reaper.
+     */
+    double getReaperThroughput();
 }
@@ -21,11 +21,14 @@ import org.forgerock.openam.cts.CTSOperation;
 import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.monitoring.CTSCacheMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSConnectionMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSReaperMonitoringStore;
+import org.forgerock.openam.cts.monitoring.impl.cache.TokenCacheMonitor;
 import org.forgerock.openam.cts.monitoring.impl.connections.ConnectionStore;
 import org.forgerock.openam.cts.monitoring.impl.operations.TokenOperationsStore;
+import org.forgerock.openam.cts.monitoring.impl.queue.UpdateCoalescingMonitor;
 import org.forgerock.openam.cts.monitoring.impl.reaper.ReaperMonitor;
 
 import javax.inject.Inject;
@@ -43,7 +46,7 @@ import java.util.concurrent.RejectedExecutionException;
  */
 @Singleton
 public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTSReaperMonitoringStore,
-        CTSConnectionMonitoringStore {
+        CTSConnectionMonitoringStore, CTSCacheMonitoringStore {
 
     /**
      * Constant for binding an Executor for the CTS monitoring store to store CTS runtime data.
@@ -56,6 +59,8 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
     private final ExecutorService executorService;
     private final ReaperMonitor reaperMonitor;
     private final ConnectionStore connectionStore;
+    private final UpdateCoalescingMonitor updateCoalescingMonitor;
+    private final TokenCacheMonitor tokenCacheMonitor;
 
     /**
      * Constructs an instance of the CTSMonitoringStoreImpl.
@@ -64,18 +69,25 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
      * @param executorService An instance of an ExecutorService.
      * @param tokenOperationsStore An instance of the TokenOperationsStore.
      * @param reaperMonitor An instance of the ReaperMonitor.
+     * @param connectionStore An instance of the ConnectionStore.
+     * @param updateCoalescingMonitor An instance of the UpdateCoalescingMonitor.
+     * @param tokenCacheMonitor An instance of the TokenCacheMonitor.
      */
     @Inject
     public CTSMonitoringStoreImpl(@Named(EXECUTOR_BINDING_NAME) final ExecutorService executorService,
                                   final TokenOperationsStore tokenOperationsStore,
                                   final ReaperMonitor reaperMonitor,
                                   final ConnectionStore connectionStore,
+                                  final UpdateCoalescingMonitor updateCoalescingMonitor,
+                                  final TokenCacheMonitor tokenCacheMonitor,
                                   @Named(CoreTokenConstants.CTS_DEBUG) final Debug debug) {
         this.debug = debug;
         this.executorService = executorService;
         this.tokenOperationsStore = tokenOperationsStore;
         this.reaperMonitor = reaperMonitor;
         this.connectionStore = connectionStore;
+        this.updateCoalescingMonitor = updateCoalescingMonitor;
+        this.tokenCacheMonitor = tokenCacheMonitor;
     }
 
     /**
@@ -190,6 +202,26 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
         return tokenOperationsStore.getMaximumOperationFailuresPerPeriod(operation);
     }
 
+    @Override
+    public void addUpdateRequest(boolean coalesced) {
+        updateCoalescingMonitor.add(coalesced);
+    }
+
+    @Override
+    public long getUpdateRequestsCumulativeCount() {
+        return updateCoalescingMonitor.getUpdateCount();
+    }
+
+    @Override
+    public long getCoalescedUpdatesCumulativeCount() {
+        return updateCoalescingMonitor.getCoalescedCount();
+    }
+
+    @Override
+    public double getUpdateCoalescingRatio() {
+        return updateCoalescingMonitor.getCoalescedRatio();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -206,6 +238,21 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
         return reaperMonitor.getRateOfDeletion();
     }
 
+    @Override
+    public void updateReaperProgress(long startTime, long numberOfDeletedSessions) {
+        reaperMonitor.updateProgress(startTime, numberOfDeletedSessions);
+    }
+
+    @Override
+    public long getReaperRunProgress() {
+        return reaperMonitor.getProgress();
+    }
+
+    @Override
+    public double getReaperThroughput() {
+        return reaperMonitor.getThroughput();
+    }
+
     @Override
     public void addConnection(boolean success) {
         connectionStore.addConnection(success);
@@ -230,4 +277,34 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
     public double getConnectionsCumulativeCount(boolean success) {
         return connectionStore.getConnectionsCumulativeCount(success);
     }
+
+    @Override
+    public void addCacheRead(boolean hit) {
+        tokenCacheMonitor.addRead(hit);
+    }
+
+    @Override
+    public void addCacheInvalidation() {
+        tokenCacheMonitor.addInvalidation();
+    }
+
+    @Override
+    public long getCacheHitsCumulativeCount() {
+        return tokenCacheMonitor.getHits();
+    }
+
+    @Override
+    public long getCacheMissesCumulativeCount() {
+        return tokenCacheMonitor.getMisses();
+    }
+
+    @Override
+    public long getCacheInvalidationsCumulativeCount() {
+        return tokenCacheMonitor.getInvalidations();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        return tokenCacheMonitor.getHitRatio();
+    }
 }
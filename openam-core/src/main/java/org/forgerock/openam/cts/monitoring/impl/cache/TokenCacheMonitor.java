@@ -0,0 +1,84 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.cts.monitoring.impl.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maintains cumulative counts of reads and invalidations of the local CTS token cache since server start up.
+ *
+ * @see org.forgerock.openam.cts.cache.CTSTokenCache
+ */
+public class TokenCacheMonitor {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Records a read of the token cache.
+     *
+     * @param hit True if the token was found in the cache.
+     */
+    public void addRead(boolean hit) {
+        if (hit) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a token being removed from the token cache.
+     */
+    public void addInvalidation() {
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * @return The total number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The total number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The total number of cache invalidations.
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return The fraction of reads which were hits, between 0 and 1.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        if (total == 0) {
+            return 0D;
+        }
+        return (double) hitCount / total;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.monitoring.impl.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the update requests received by the CTS asynchronous queue when update coalescing is
+ * enabled, and how many of those were merged into an update that was already waiting.
+ *
+ * @see org.forgerock.openam.cts.impl.queue.CoalescingUpdateTask
+ */
+public class UpdateCoalescingMonitor {
+
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Records an update request.
+     *
+     * @param merged True if the update was merged into a pending update, false if it was queued.
+     */
+    public void add(boolean merged) {
+        updates.incrementAndGet();
+        if (merged) {
+            coalesced.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The total number of update requests since server start up.
+     */
+    public long getUpdateCount() {
+        return updates.get();
+    }
+
+    /**
+     * @return The total number of update requests merged into a pending update since server start up.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return The fraction of update requests which did not result in a separate write to the store,
+     * between 0 and 1.
+     */
+    public double getCoalescedRatio() {
+        long total = updates.get();
+        if (total == 0) {
+            return 0D;
+        }
+        return (double) coalesced.get() / total;
+    }
+}
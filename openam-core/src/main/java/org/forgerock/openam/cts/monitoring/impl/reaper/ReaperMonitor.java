@@ -16,6 +16,8 @@
 
 package org.forgerock.openam.cts.monitoring.impl.reaper;
 
+import static org.forgerock.openam.utils.Time.*;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,12 +29,49 @@ import java.util.List;
 public class ReaperMonitor {
 
     private final List<ReaperRun> reaperRuns = new ArrayList<ReaperRun>();
+    private volatile ReaperProgress progress = null;
 
     /**
      * {@inheritDoc}
      */
     public void add(final long startTime, final long runTime, final long numberOfDeletedSessions) {
         reaperRuns.add(new ReaperRun(startTime, runTime, numberOfDeletedSessions));
+        progress = new ReaperProgress(startTime, runTime, numberOfDeletedSessions);
+    }
+
+    /**
+     * Records the progress of the run in progress.
+     *
+     * @param startTime The start time of the reaper run.
+     * @param numberOfDeletedSessions The number of sessions deleted so far by the run.
+     */
+    public void updateProgress(final long startTime, final long numberOfDeletedSessions) {
+        progress = new ReaperProgress(startTime, -1, numberOfDeletedSessions);
+    }
+
+    /**
+     * @return The number of sessions deleted by the current run, or the last run if none is in progress.
+     */
+    public long getProgress() {
+        ReaperProgress current = progress;
+        return current == null ? 0 : current.numberOfDeletedSessions;
+    }
+
+    /**
+     * @return The number of sessions deleted per second by the current run, or the last run if none is
+     * in progress.
+     */
+    public double getThroughput() {
+        ReaperProgress current = progress;
+        if (current == null) {
+            return 0D;
+        }
+
+        long elapsed = current.runTime < 0 ? currentTimeMillis() - current.startTime : current.runTime;
+        if (elapsed <= 0) {
+            return 0D;
+        }
+        return current.numberOfDeletedSessions * 1000D / elapsed;
     }
 
     /**
@@ -51,6 +90,22 @@ public class ReaperMonitor {
         return numDeletedSessions / reaperRuns.size();
     }
 
+    /**
+     * A snapshot of the progress of a run by the CTS Reaper. A negative run time indicates the run is
+     * still in progress.
+     */
+    private static final class ReaperProgress {
+        private final long startTime;
+        private final long runTime;
+        private final long numberOfDeletedSessions;
+
+        private ReaperProgress(long startTime, long runTime, long numberOfDeletedSessions) {
+            this.startTime = startTime;
+            this.runTime = runTime;
+            this.numberOfDeletedSessions = numberOfDeletedSessions;
+        }
+    }
+
     /**
      * Models a run by the CTS Reaper and holds information about when the run started and stopped and the number of
      * sessions the run deleted.
@@ -12,12 +12,16 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.cts.reaper;
 
+import static org.forgerock.openam.utils.Time.*;
+
 import com.google.inject.name.Named;
 import com.sun.identity.shared.debug.Debug;
 import org.apache.commons.lang.time.StopWatch;
+import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.query.reaper.ReaperQuery;
@@ -26,9 +30,9 @@ import org.forgerock.openam.cts.monitoring.CTSReaperMonitoringStore;
 
 import javax.inject.Inject;
 import java.text.MessageFormat;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.List;
+import java.util.Deque;
 import java.util.concurrent.CountDownLatch;
 
 /**
@@ -42,6 +46,16 @@ import java.util.concurrent.CountDownLatch;
  * as such simplifies the implementation to one that queries the results and delegates the
  * responsibility of deletion to the SDK.
  *
+ * Pages are streamed from the query to the deletion lanes: at most
+ * {@link CoreTokenConfig#getReaperLanes()} pages are queued for deletion at once, and the next
+ * page is not requested until the oldest page has been deleted. The rate at which Tokens are
+ * queued can be capped with {@link CoreTokenConfig#getReaperMaxRate()}. If a page takes longer
+ * than {@link CoreTokenConfig#getReaperLatencyThreshold()} to delete then the number of lanes
+ * is halved, and it is grown again one lane at a time once the persistent store recovers.
+ *
+ * Each completed deletion removes the Token from the results of the expired Token query, so a
+ * run which is interrupted or fails resumes from where it stopped on the next run.
+ *
  * Once the search is complete, we need to wait for all asynchronous delete operations to
  * complete before we close the connection to the Directory. Otherwise we risk closing a
  * connection that has pending operations on it.
@@ -50,12 +64,13 @@ import java.util.concurrent.CountDownLatch;
  * to system configuration.
  *
  * Thread Policy: This runnable will respond to Thread interrupts and will exit cleanly
- * when interrupted.
+ * when interrupted, once the pages already queued for deletion have completed.
  */
 public class CTSReaper implements Runnable {
     // Injected
     private final TokenDeletion tokenDeletion;
     private final ReaperQueryFactory queryFactory;
+    private final CoreTokenConfig config;
     private final CTSReaperMonitoringStore monitoringStore;
     private final Debug debug;
 
@@ -63,16 +78,19 @@ public class CTSReaper implements Runnable {
     /**
      * Create an instance, but do not schedule the instance for execution.
      *
+     * @param queryFactory Required for querying expired tokens.
      * @param tokenDeletion Required for deleting tokens.
+     * @param config Required for the number of deletion lanes, rate and latency threshold.
      * @param monitoringStore Required for monitoring reaper runs.
      * @param debug Required for debugging.
      */
     @Inject
     public CTSReaper(final ReaperQueryFactory queryFactory, final TokenDeletion tokenDeletion,
-                     final CTSReaperMonitoringStore monitoringStore,
+                     final CoreTokenConfig config, final CTSReaperMonitoringStore monitoringStore,
                      @Named(CoreTokenConstants.CTS_REAPER_DEBUG) final Debug debug) {
         this.queryFactory = queryFactory;
         this.tokenDeletion = tokenDeletion;
+        this.config = config;
         this.monitoringStore = monitoringStore;
         this.debug = debug;
     }
@@ -90,10 +108,8 @@ public class CTSReaper implements Runnable {
         StopWatch query = new StopWatch();
         StopWatch waiting = new StopWatch();
 
-        // Latches will track deletion of each page of results
-        List<CountDownLatch> latches = new ArrayList<CountDownLatch>();
-
         ReaperQuery reaperQuery = queryFactory.getQuery();
+        DeletionLanes lanes = new DeletionLanes(currentTimeMillis());
 
         try {
             long total = 0;
@@ -109,8 +125,7 @@ public class CTSReaper implements Runnable {
                 total += ids.size();
                 debug("Queried {0} tokens", Long.toString(total));
 
-                // Latch will track the deletions of the page
-                latches.add(tokenDeletion.deleteBatch(ids));
+                lanes.delete(ids);
             }
 
             query.stop();
@@ -119,13 +134,7 @@ public class CTSReaper implements Runnable {
             debug("Expired Token Query Time: {0}ms", Long.toString(query.getTime()));
 
             // Wait stage
-            for (CountDownLatch latch : latches) {
-                try {
-                    latch.await();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+            lanes.awaitAll();
 
             waiting.stop();
             monitoringStore.addReaperRun(query.getStartTime(), query.getTime() + waiting.getTime(), total);
@@ -133,6 +142,12 @@ public class CTSReaper implements Runnable {
             debug("Worker threads Time: {0}ms", Long.toString(waiting.getTime()));
         } catch (CoreTokenException e) {
             debug.error("CTS Reaper failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            debug("Interrupted, returning");
+            return;
+        } finally {
+            lanes.awaitOutstanding();
         }
 
         debug("Reaper complete");
@@ -145,4 +160,101 @@ public class CTSReaper implements Runnable {
                     args));
         }
     }
+
+    /**
+     * Tracks the pages of Tokens queued for deletion during a single run, and limits how many
+     * pages are outstanding and how quickly Tokens are queued.
+     */
+    private final class DeletionLanes {
+        private final Deque<PageDeletion> pages = new ArrayDeque<PageDeletion>();
+        private final ReaperRateLimiter rateLimiter = new ReaperRateLimiter(config.getReaperMaxRate());
+        private final int maxLanes = config.getReaperLanes();
+        private final long latencyThreshold = config.getReaperLatencyThreshold();
+        private final long startTime;
+        private int lanes = maxLanes;
+        private long deleted = 0;
+
+        private DeletionLanes(long startTime) {
+            this.startTime = startTime;
+        }
+
+        /**
+         * Queue a page of Tokens for deletion, once a lane is free and the rate limit allows.
+         */
+        private void delete(Collection<String> ids) throws CoreTokenException, InterruptedException {
+            while (pages.size() >= lanes) {
+                awaitOldest();
+            }
+            rateLimiter.acquire(ids.size());
+            pages.add(new PageDeletion(tokenDeletion.deleteBatch(ids), ids.size(), currentTimeMillis()));
+        }
+
+        private void awaitAll() throws InterruptedException {
+            while (!pages.isEmpty()) {
+                awaitOldest();
+            }
+        }
+
+        private void awaitOldest() throws InterruptedException {
+            PageDeletion page = pages.peek();
+            page.latch.await();
+            pages.remove();
+
+            deleted += page.size;
+            monitoringStore.updateReaperProgress(startTime, deleted);
+            adjustLanes(currentTimeMillis() - page.queuedTime);
+        }
+
+        /**
+         * Wait for every page still queued when the run stops early, so that the connection is not
+         * closed with deletions pending on it. Each page is signalled once its deletions have
+         * returned, successfully or not, so the wait is not abandoned if the thread is interrupted;
+         * the interrupt status is restored afterwards.
+         */
+        private void awaitOutstanding() {
+            boolean interrupted = Thread.interrupted();
+            while (!pages.isEmpty()) {
+                try {
+                    pages.peek().latch.await();
+                    pages.remove();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Back off when the persistent store is slow to respond, and recover gradually when it is not.
+         */
+        private void adjustLanes(long latency) {
+            if (latencyThreshold <= 0) {
+                return;
+            }
+            if (latency > latencyThreshold && lanes > 1) {
+                lanes = Math.max(lanes / 2, 1);
+                debug("Page deleted in {0}ms, reducing to {1} lanes", Long.toString(latency), Integer.toString(lanes));
+            } else if (latency <= latencyThreshold / 2 && lanes < maxLanes) {
+                lanes++;
+                debug("Page deleted in {0}ms, increasing to {1} lanes", Long.toString(latency), Integer.toString(lanes));
+            }
+        }
+    }
+
+    /**
+     * A page of Tokens queued for deletion.
+     */
+    private static final class PageDeletion {
+        private final CountDownLatch latch;
+        private final int size;
+        private final long queuedTime;
+
+        private PageDeletion(CountDownLatch latch, int size, long queuedTime) {
+            this.latch = latch;
+            this.size = size;
+            this.queuedTime = queuedTime;
+        }
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.reaper;
+
+import static org.forgerock.openam.utils.Time.*;
+
+/**
+ * Limits the rate at which the CTS Reaper queues Tokens for deletion.
+ *
+ * Permits are granted in advance: a caller acquiring a page of permits is only delayed by the
+ * time owed for previously acquired permits, so the first page of a run is never delayed.
+ *
+ * This implementation is not thread safe.
+ */
+class ReaperRateLimiter {
+    private final int permitsPerSecond;
+    private long nextFreeTime = 0;
+
+    /**
+     * @param permitsPerSecond The maximum number of Tokens per second. Zero or less for no limit.
+     */
+    ReaperRateLimiter(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * Block until the previously acquired permits have been paid for, then acquire more.
+     *
+     * @param permits The number of Tokens about to be queued.
+     * @throws InterruptedException If the thread was interrupted whilst waiting.
+     */
+    void acquire(int permits) throws InterruptedException {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+
+        long now = currentTimeMillis();
+        long wait = nextFreeTime - now;
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+        nextFreeTime = Math.max(nextFreeTime, now) + permits * 1000L / permitsPerSecond;
+    }
+}
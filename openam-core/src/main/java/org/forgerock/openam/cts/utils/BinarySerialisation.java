@@ -0,0 +1,439 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.utils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.util.Reject;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+
+/**
+ * Responsible for serialising and deserialising objects to and from a compact, versioned binary form.
+ *
+ * Objects are first converted to the same Jackson tree that {@link JSONSerialisation} writes as text, so
+ * the same mapper configuration and the same caveats apply. The tree is then written as a sequence of
+ * tagged values, in which integers are variable length and each distinct object field name is written
+ * once and afterwards referred to by its index.
+ *
+ * The binary form starts with a zero byte followed by the format version. JSON text never starts with a
+ * zero byte, so {@link #isBinary(byte[])} can be used to tell the binary form apart from JSON blobs that
+ * were stored before the binary form was enabled.
+ *
+ * @see org.forgerock.openam.cts.CoreTokenConfig#isBinaryBlobFormat()
+ */
+public class BinarySerialisation {
+
+    /**
+     * The version of the binary form written by this implementation.
+     */
+    public static final int VERSION = 1;
+
+    private static final byte MAGIC = 0;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE = 4;
+    private static final int BIG_INTEGER = 5;
+    private static final int BIG_DECIMAL = 6;
+    private static final int STRING = 7;
+    private static final int BINARY = 8;
+    private static final int ARRAY = 9;
+    private static final int OBJECT = 10;
+
+    private final ObjectMapper mapper;
+
+    /**
+     * New default instance of the BinarySerialisation.
+     *
+     * @param mapper The mapper that determines how objects are converted to and from a tree.
+     */
+    @Inject
+    public BinarySerialisation(@Named(CoreTokenConstants.OBJECT_MAPPER) ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Serialise an object to the binary form.
+     *
+     * @param <T> The generic type of the passed in object.
+     * @param object Non null object to serialise.
+     * @return Non null binary data.
+     */
+    public <T> byte[] serialise(T object) {
+        return encode(toTree(object));
+    }
+
+    /**
+     * Deserialise the binary form to an object of type T.
+     *
+     * @param data Non null binary data to decode and deserialise.
+     * @param clazz Class of the value stored in the binary data, required for deserialisation.
+     * @param <T> Type to cast the created object to when deserialising.
+     * @return Non null object of type T.
+     */
+    public <T> T deserialise(byte[] data, Class<T> clazz) {
+        return fromTree(decode(data), clazz);
+    }
+
+    /**
+     * Convert an object to the tree which would be serialised.
+     *
+     * @param object Non null object to convert.
+     * @return Non null tree.
+     */
+    public JsonNode toTree(Object object) {
+        try {
+            return mapper.valueToTree(object);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    MessageFormat.format(
+                            "Failed to serialise {0}:{1}",
+                            object.getClass().getSimpleName(),
+                            object),
+                    e);
+        }
+    }
+
+    /**
+     * Convert a tree to an object of type T.
+     *
+     * @param tree Non null tree to convert.
+     * @param clazz Class of the value represented by the tree.
+     * @param <T> Type to cast the created object to.
+     * @return Non null object of type T.
+     */
+    public <T> T fromTree(JsonNode tree, Class<T> clazz) {
+        try {
+            return mapper.treeToValue(tree, clazz);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    MessageFormat.format(
+                            "Failed to deserialise {0}",
+                            clazz.getSimpleName()),
+                    e);
+        }
+    }
+
+    /**
+     * Write a tree in the binary form.
+     *
+     * @param tree Non null tree.
+     * @return Non null binary data, starting with the format header.
+     */
+    public byte[] encode(JsonNode tree) {
+        Reject.ifNull(tree);
+        Encoder encoder = new Encoder();
+        encoder.writeByte(MAGIC);
+        encoder.writeByte(VERSION);
+        encoder.writeNode(tree);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Read a tree from the binary form.
+     *
+     * @param data Non null binary data, starting with the format header.
+     * @return Non null tree.
+     * @throws IllegalStateException If the data is not in a supported version of the binary form.
+     */
+    public JsonNode decode(byte[] data) {
+        Reject.ifNull(data);
+        if (!isBinary(data)) {
+            throw new IllegalStateException("Data is not in the binary form");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalStateException("Unsupported binary form version " + data[1]);
+        }
+
+        Decoder decoder = new Decoder(data, JsonNodeFactory.instance);
+        try {
+            JsonNode tree = decoder.readNode();
+            if (decoder.position != data.length) {
+                throw new IllegalStateException("Unexpected trailing data in binary form");
+            }
+            return tree;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Truncated binary form", e);
+        }
+    }
+
+    /**
+     * @param data Possibly null Token binary data.
+     * @return True if the data starts with the header of the binary form. False for null, empty or JSON data.
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC;
+    }
+
+    /**
+     * Writes nodes to a growing buffer.
+     */
+    private final class Encoder {
+        private final Map<String, Integer> names = new HashMap<String, Integer>();
+        private byte[] buffer = new byte[256];
+        private int length = 0;
+
+        private void writeNode(JsonNode node) {
+            if (node.isObject()) {
+                writeByte(OBJECT);
+                writeVarLong(node.size());
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    writeName(field.getKey());
+                    writeNode(field.getValue());
+                }
+            } else if (node.isArray()) {
+                writeByte(ARRAY);
+                writeVarLong(node.size());
+                for (JsonNode element : node) {
+                    writeNode(element);
+                }
+            } else if (node.isTextual()) {
+                writeByte(STRING);
+                writeString(node.textValue());
+            } else if (node.isIntegralNumber()) {
+                if (node.canConvertToLong()) {
+                    writeByte(LONG);
+                    writeVarLong(zigZag(node.longValue()));
+                } else {
+                    writeByte(BIG_INTEGER);
+                    writeString(node.bigIntegerValue().toString());
+                }
+            } else if (node.isBigDecimal()) {
+                writeByte(BIG_DECIMAL);
+                writeString(node.decimalValue().toString());
+            } else if (node.isNumber()) {
+                writeByte(DOUBLE);
+                long bits = Double.doubleToLongBits(node.doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    writeByte((int) (bits >>> shift));
+                }
+            } else if (node.isBoolean()) {
+                writeByte(node.booleanValue() ? TRUE : FALSE);
+            } else if (node.isBinary()) {
+                writeByte(BINARY);
+                try {
+                    writeBytes(node.binaryValue());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to serialise binary value", e);
+                }
+            } else if (node.isPojo()) {
+                writeNode(toTree(((POJONode) node).getPojo()));
+            } else {
+                writeByte(NULL);
+            }
+        }
+
+        /**
+         * Field names are written in full the first time they are seen, and by reference thereafter.
+         */
+        private void writeName(String name) {
+            Integer index = names.get(name);
+            if (index != null) {
+                writeVarLong(index + 1);
+            } else {
+                names.put(name, names.size());
+                writeVarLong(0);
+                writeString(name);
+            }
+        }
+
+        private void writeString(String value) {
+            writeBytes(value.getBytes(UTF_8));
+        }
+
+        private void writeBytes(byte[] value) {
+            writeVarLong(value.length);
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, buffer, length, value.length);
+            length += value.length;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) value;
+        }
+
+        private void ensureCapacity(int required) {
+            if (length + required > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + required));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    /**
+     * Reads nodes from a buffer, following the header.
+     */
+    private static final class Decoder {
+        private final List<String> names = new ArrayList<String>();
+        private final byte[] data;
+        private final JsonNodeFactory factory;
+        private int position = 2;
+
+        private Decoder(byte[] data, JsonNodeFactory factory) {
+            this.data = data;
+            this.factory = factory;
+        }
+
+        private JsonNode readNode() {
+            int tag = data[position++];
+            switch (tag) {
+            case NULL:
+                return factory.nullNode();
+            case TRUE:
+                return factory.booleanNode(true);
+            case FALSE:
+                return factory.booleanNode(false);
+            case LONG:
+                long value = unZigZag(readVarLong());
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return factory.numberNode((int) value);
+                }
+                return factory.numberNode(value);
+            case DOUBLE:
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits = (bits << 8) | (data[position++] & 0xFF);
+                }
+                return factory.numberNode(Double.longBitsToDouble(bits));
+            case BIG_INTEGER:
+                return factory.numberNode(new BigInteger(readString()));
+            case BIG_DECIMAL:
+                return factory.numberNode(new BigDecimal(readString()));
+            case STRING:
+                return factory.textNode(readString());
+            case BINARY:
+                return factory.binaryNode(readBytes());
+            case ARRAY:
+                int elements = readLength();
+                ArrayNode array = factory.arrayNode();
+                for (int i = 0; i < elements; i++) {
+                    array.add(readNode());
+                }
+                return array;
+            case OBJECT:
+                int fields = readLength();
+                ObjectNode object = factory.objectNode();
+                for (int i = 0; i < fields; i++) {
+                    String name = readName();
+                    object.set(name, readNode());
+                }
+                return object;
+            default:
+                throw new IllegalStateException("Unknown tag " + tag + " in binary form");
+            }
+        }
+
+        private String readName() {
+            int index = readLength();
+            if (index == 0) {
+                String name = readString();
+                names.add(name);
+                return name;
+            }
+            if (index > names.size()) {
+                throw new IllegalStateException("Unknown field name reference in binary form");
+            }
+            return names.get(index - 1);
+        }
+
+        private String readString() {
+            int length = readLength();
+            checkAvailable(length);
+            String value = new String(data, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+
+        private byte[] readBytes() {
+            int length = readLength();
+            checkAvailable(length);
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        private void checkAvailable(int length) {
+            if (position + length > data.length) {
+                throw new IllegalStateException("Truncated binary form");
+            }
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > data.length) {
+                throw new IllegalStateException("Invalid length in binary form");
+            }
+            return (int) length;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Invalid variable length integer in binary form");
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
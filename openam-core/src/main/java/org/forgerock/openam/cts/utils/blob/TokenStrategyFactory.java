@@ -20,6 +20,7 @@ import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.cts.utils.blob.strategies.AttributeCompressionStrategy;
 import org.forgerock.openam.cts.utils.blob.strategies.CompressionStrategy;
 import org.forgerock.openam.cts.utils.blob.strategies.EncryptionStrategy;
+import org.forgerock.openam.cts.utils.blob.strategies.FastCompressionStrategy;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -32,13 +33,15 @@ import java.util.List;
  */
 public class TokenStrategyFactory {
     private final CompressionStrategy compression;
+    private final FastCompressionStrategy fastCompression;
     private final EncryptionStrategy encryption;
     private final AttributeCompressionStrategy attributeCompression;
 
     @Inject
-    public TokenStrategyFactory(CompressionStrategy compression, EncryptionStrategy encryption,
-                                AttributeCompressionStrategy attributeCompression) {
+    public TokenStrategyFactory(CompressionStrategy compression, FastCompressionStrategy fastCompression,
+                                EncryptionStrategy encryption, AttributeCompressionStrategy attributeCompression) {
         this.compression = compression;
+        this.fastCompression = fastCompression;
         this.encryption = encryption;
         this.attributeCompression = attributeCompression;
     }
@@ -56,7 +59,7 @@ public class TokenStrategyFactory {
             strategies.add(attributeCompression);
         }
         if (config.isTokenCompressed()) {
-            strategies.add(compression);
+            strategies.add(config.isFastCompression() ? fastCompression : compression);
         }
         if (config.isTokenEncrypted()) {
             strategies.add(encryption);
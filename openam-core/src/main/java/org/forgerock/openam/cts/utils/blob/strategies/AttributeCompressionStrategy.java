@@ -18,6 +18,7 @@ package org.forgerock.openam.cts.utils.blob.strategies;
 import com.iplanet.dpro.session.service.InternalSession;
 import org.apache.commons.collections.BidiMap;
 import org.apache.commons.collections.bidimap.DualHashBidiMap;
+import org.forgerock.openam.cts.utils.BinarySerialisation;
 import org.forgerock.openam.cts.utils.JSONSerialisation;
 import org.forgerock.openam.cts.utils.blob.BlobStrategy;
 import org.forgerock.openam.cts.utils.blob.TokenBlobUtils;
@@ -99,7 +100,7 @@ public class AttributeCompressionStrategy implements BlobStrategy {
      */
     @SuppressWarnings("unchecked")
     private boolean isTokenValidForCompression(byte[] blob) {
-        if (blob == null) {
+        if (blob == null || BinarySerialisation.isBinary(blob)) {
             return false;
         }
 
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2014 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.cts.utils.blob.strategies;
 
@@ -28,6 +29,9 @@ import java.util.zip.GZIPOutputStream;
 
 /**
  * Responsible for compressing the binary object of Tokens using a GZip compression.
+ *
+ * Tokens compressed by {@link FastCompressionStrategy} are recognised by their format header and are
+ * decompressed accordingly, so that Tokens remain readable after fast compression is disabled.
  */
 public class CompressionStrategy implements BlobStrategy {
 
@@ -63,6 +67,9 @@ public class CompressionStrategy implements BlobStrategy {
     @Override
     public byte[] reverse(byte[] blob) throws TokenStrategyFailedException {
         Reject.ifNull(blob);
+        if (FastCompressionStrategy.hasHeader(blob)) {
+            return FastCompressionStrategy.inflate(blob);
+        }
         final int lengthGuess = blob.length * 2;
         final ByteArrayOutputStream bout = new ByteArrayOutputStream(lengthGuess);
         try {
@@ -0,0 +1,180 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.utils.blob.strategies;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.inject.Inject;
+
+import org.forgerock.openam.cts.utils.blob.BlobStrategy;
+import org.forgerock.openam.cts.utils.blob.TokenStrategyFailedException;
+import org.forgerock.util.Reject;
+
+/**
+ * Responsible for compressing the binary object of Tokens using raw Deflate at its fastest setting.
+ *
+ * Compared to {@link CompressionStrategy} this trades a little compression ratio for a much lower CPU
+ * cost: there is no GZip header or checksum, and the Deflater and Inflater of each thread are reused
+ * rather than allocated per Token. The compressed data is prefixed with a format header and the
+ * uncompressed length, so that decompression can allocate its output exactly once.
+ *
+ * Tokens compressed by {@link CompressionStrategy} are recognised by their GZip header and can still be
+ * decompressed, so this strategy can be enabled on a token store which already contains compressed Tokens.
+ * Likewise {@link CompressionStrategy} recognises the format header of this strategy, so the strategy can
+ * be disabled again without losing the Tokens written while it was enabled.
+ */
+public class FastCompressionStrategy implements BlobStrategy {
+    private static final byte[] HEADER = {(byte) 0xFC, 0x01};
+    private static final int PREFIX_LENGTH = HEADER.length + 4;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    /** Upper bound of the Deflate compression ratio, used to reject corrupt uncompressed lengths. */
+    private static final int MAX_RATIO = 1032;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(Deflater.BEST_SPEED, true);
+        }
+    };
+
+    private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+    };
+
+    // Injected
+    private final CompressionStrategy gzip;
+
+    /**
+     * @param gzip Required for decompressing Tokens that were compressed with GZip.
+     */
+    @Inject
+    public FastCompressionStrategy(CompressionStrategy gzip) {
+        this.gzip = gzip;
+    }
+
+    /**
+     * Compress the Tokens binary object.
+     *
+     * @param blob Non null Token to modify.
+     *
+     * @throws TokenStrategyFailedException {@inheritDoc}
+     */
+    @Override
+    public byte[] perform(byte[] blob) throws TokenStrategyFailedException {
+        Reject.ifNull(blob);
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(blob);
+        deflater.finish();
+
+        byte[] out = new byte[PREFIX_LENGTH + blob.length / 2 + 64];
+        System.arraycopy(HEADER, 0, out, 0, HEADER.length);
+        writeLength(out, blob.length);
+        int length = PREFIX_LENGTH;
+        while (!deflater.finished()) {
+            if (length == out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            length += deflater.deflate(out, length, out.length - length);
+        }
+        return Arrays.copyOf(out, length);
+    }
+
+    /**
+     * Decompress the Tokens binary object.
+     *
+     * @param blob Non null Token to modify.
+     *
+     * @throws TokenStrategyFailedException {@inheritDoc}
+     */
+    @Override
+    public byte[] reverse(byte[] blob) throws TokenStrategyFailedException {
+        Reject.ifNull(blob);
+        if (isGzip(blob)) {
+            return gzip.reverse(blob);
+        }
+        if (!hasHeader(blob)) {
+            throw new TokenStrategyFailedException("Unrecognised compression format", null);
+        }
+        return inflate(blob);
+    }
+
+    /**
+     * Decompress a Token binary object which starts with the format header of this strategy.
+     *
+     * @param blob Non null Token for which {@link #hasHeader(byte[])} is true.
+     * @return The uncompressed Token.
+     * @throws TokenStrategyFailedException If the Token is corrupt or truncated.
+     */
+    static byte[] inflate(byte[] blob) throws TokenStrategyFailedException {
+        byte[] out = new byte[readLength(blob)];
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(blob, PREFIX_LENGTH, blob.length - PREFIX_LENGTH);
+        try {
+            int length = 0;
+            while (length < out.length) {
+                int inflated = inflater.inflate(out, length, out.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != out.length) {
+                throw new TokenStrategyFailedException("Compressed Token was truncated", null);
+            }
+        } catch (DataFormatException e) {
+            throw new TokenStrategyFailedException(e);
+        }
+        return out;
+    }
+
+    private static boolean isGzip(byte[] blob) {
+        return blob.length >= 2 && ((blob[0] & 0xFF) | ((blob[1] & 0xFF) << 8)) == GZIP_MAGIC;
+    }
+
+    /**
+     * @param blob Non null Token binary object.
+     * @return True if the Token was compressed by this strategy.
+     */
+    static boolean hasHeader(byte[] blob) {
+        return blob.length >= PREFIX_LENGTH && blob[0] == HEADER[0] && blob[1] == HEADER[1];
+    }
+
+    private static void writeLength(byte[] out, int length) {
+        for (int i = 0; i < 4; i++) {
+            out[HEADER.length + i] = (byte) (length >>> (24 - i * 8));
+        }
+    }
+
+    private static int readLength(byte[] blob) throws TokenStrategyFailedException {
+        int length = 0;
+        for (int i = 0; i < 4; i++) {
+            length = (length << 8) | (blob[HEADER.length + i] & 0xFF);
+        }
+        long maxLength = (long) (blob.length - PREFIX_LENGTH) * MAX_RATIO + 64;
+        if (length < 0 || length > maxLength) {
+            throw new TokenStrategyFailedException("Invalid compressed Token length", null);
+        }
+        return length;
+    }
+}
@@ -39,10 +39,23 @@ public class CachingEntitlementCondition implements EntitlementCondition {
 
     private static final Debug DEBUG = Debug.getInstance("Entitlement");
     private final EntitlementCondition backingCondition;
+    private final String cacheKey;
 
     public CachingEntitlementCondition(EntitlementCondition backingCondition) {
+        this(backingCondition, null);
+    }
+
+    /**
+     * Creates a caching condition with a precomputed cache key, which saves serialising the backing condition to
+     * JSON on every evaluation.
+     *
+     * @param backingCondition The condition to evaluate.
+     * @param cacheKey The key to cache the decision under, or null to derive it from the state of the condition.
+     */
+    public CachingEntitlementCondition(EntitlementCondition backingCondition, String cacheKey) {
         Reject.ifNull(backingCondition);
         this.backingCondition = backingCondition;
+        this.cacheKey = cacheKey;
     }
 
     /**
@@ -104,7 +117,8 @@ public class CachingEntitlementCondition implements EntitlementCondition {
 
         //context is shared across evaluator threads, so we can synchronize on it. Different privilege evaluations have
         //different contexts as well.
-        final String cacheKey = backingCondition.getClass().getName() + getState();
+        final String cacheKey = this.cacheKey != null
+                ? this.cacheKey : backingCondition.getClass().getName() + getState();
 
         synchronized (context) {
             ConditionDecision cachedResult = context.getConditionDecisionCache()
@@ -26,6 +26,7 @@
 package org.forgerock.openam.entitlement;
 
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.SubjectDecision;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -47,6 +48,12 @@ public class PrivilegeEvaluatorContext implements Serializable {
      * representation.
      */
     private Map<String, ConditionDecision> conditionDecisionCache = new HashMap<String, ConditionDecision>();
+    /**
+     * An entitlement subject decision cache, where the subject decisions are cached per resource name based on the
+     * subject's JSON representation.
+     */
+    private Map<String, Map<String, SubjectDecision>> subjectDecisionCache =
+            new HashMap<String, Map<String, SubjectDecision>>();
     private static ThreadLocal <PrivilegeEvaluatorContext> currentCtx = new ThreadLocal();
 
     /**
@@ -135,4 +142,19 @@ public class PrivilegeEvaluatorContext implements Serializable {
     public Map<String, ConditionDecision> getConditionDecisionCache() {
         return conditionDecisionCache;
     }
+
+    /**
+     * Return the subject decision cache of a resource name. Callers must synchronize on this context.
+     *
+     * @param resourceName The resource name the subjects are evaluated against.
+     * @return the subject decision cache.
+     */
+    public Map<String, SubjectDecision> getSubjectDecisionCache(String resourceName) {
+        Map<String, SubjectDecision> decisions = subjectDecisionCache.get(resourceName);
+        if (decisions == null) {
+            decisions = new HashMap<String, SubjectDecision>();
+            subjectDecisionCache.put(resourceName, decisions);
+        }
+        return decisions;
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.session;
@@ -57,12 +58,16 @@ public class SessionPLLSender {
 
             String cookies = sessionCookies.getCookieName() + "=" + sreq.getSessionID();
 
-            if (!SystemProperties.isServerMode()) {
-                SessionID sessionID = new SessionID(sreq.getSessionID());
-                cookies = cookies + ";" + sessionCookies.getLBCookie(sessionID);
+            final Request req = new Request(sreq.toXMLString());
+
+            if (SystemProperties.isServerMode()) {
+                // Server to server requests do not depend on their cookies and can share a RequestSet
+                return SessionResponse.parseXML(PLLClient.sendQueued(svcurl, cookies, SESSION_SERVICE, req)
+                        .getContent());
             }
 
-            final Request req = new Request(sreq.toXMLString());
+            SessionID sessionID = new SessionID(sreq.getSessionID());
+            cookies = cookies + ";" + sessionCookies.getLBCookie(sessionID);
 
             final RequestSet set = new RequestSet(SESSION_SERVICE);
             set.addRequest(req);
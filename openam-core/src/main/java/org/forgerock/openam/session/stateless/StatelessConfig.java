@@ -37,4 +37,20 @@ public class StatelessConfig {
     public int getJWTCacheSize() {
         return properties.getAsInt(StatelessConstants.STATELESS_JWT_CACHE_MAX_SIZE, 10000);
     }
+
+    /**
+     * @see org.forgerock.openam.session.stateless.StatelessConstants#STATELESS_JWT_NEGATIVE_CACHE_TTL
+     * @return The time in milliseconds to remember invalid JWTs for, 0 to disable negative caching.
+     */
+    public int getJWTNegativeCacheTTL() {
+        return properties.getAsInt(StatelessConstants.STATELESS_JWT_NEGATIVE_CACHE_TTL, 30000);
+    }
+
+    /**
+     * @see org.forgerock.openam.session.stateless.StatelessConstants#STATELESS_JWT_NEGATIVE_CACHE_MAX_SIZE
+     * @return The maximum number of invalid JWTs to remember.
+     */
+    public int getJWTNegativeCacheSize() {
+        return properties.getAsInt(StatelessConstants.STATELESS_JWT_NEGATIVE_CACHE_MAX_SIZE, 1000);
+    }
 }
@@ -23,4 +23,17 @@ public class StatelessConstants {
      * System Property for Stateless JWT Cache sizing.
      */
     public static final String STATELESS_JWT_CACHE_MAX_SIZE = "org.forgerock.session.stateless.jwtcache.size";
+
+    /**
+     * System Property for the time in milliseconds that an invalid or blacklisted JWT is remembered by the
+     * Stateless JWT Cache.
+     */
+    public static final String STATELESS_JWT_NEGATIVE_CACHE_TTL =
+            "org.forgerock.session.stateless.jwtcache.negative.ttl";
+
+    /**
+     * System Property for the maximum number of invalid or blacklisted JWTs remembered by the Stateless JWT Cache.
+     */
+    public static final String STATELESS_JWT_NEGATIVE_CACHE_MAX_SIZE =
+            "org.forgerock.session.stateless.jwtcache.negative.size";
 }
@@ -15,8 +15,16 @@
  */
 package org.forgerock.openam.session.stateless.cache;
 
-import java.util.Collections;
-import java.util.Map;
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -39,18 +47,45 @@ import com.iplanet.services.naming.ServiceListeners;
  * This cache is intentionally unable to perform the reverse lookup of SessionInfo to
  * JWT, as we expect the JWT to change each time the SessionInfo changes.
  *
+ * JWTs are keyed by their SHA-256 digest rather than the full JWT, which keeps the memory cost of each
+ * entry fixed. JWTs which failed verification, or which have been blacklisted, are remembered for a short
+ * time so that repeated use of the same JWT does not repeat the verification.
+ *
  * Assumption: There is only one representation of a JWT to the SessionInfo it contains.
  *
- * Thread Safety: This class uses a synchronized data structure and so is thread safe.
+ * Thread Safety: The cache is split into segments by digest, each of which is an independently locked
+ * LRU map, so the cache is thread safe and eviction is approximately least recently used.
  */
 @Singleton
 public class StatelessJWTCache {
-    private final Map<String, SessionInfo> sessionInfoCache;
+    private static final int MAX_SEGMENTS = 16;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final ThreadLocal<MessageDigest> DIGESTS = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final List<LeastRecentlyUsed<Digest, SessionInfo>> sessionInfoCache;
+    private final List<LeastRecentlyUsed<Digest, Long>> invalidCache;
+    private final long invalidTTL;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidHits = new AtomicLong();
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong verificationTime = new AtomicLong();
 
     @Inject
     public StatelessJWTCache(StatelessConfig config, ServiceListeners listeners) {
-        sessionInfoCache = Collections.synchronizedMap(
-                new LeastRecentlyUsed<String, SessionInfo>(config.getJWTCacheSize()));
+        sessionInfoCache = createSegments(config.getJWTCacheSize());
+        invalidCache = createSegments(config.getJWTNegativeCacheSize());
+        invalidTTL = config.getJWTNegativeCacheTTL();
 
         // Responds to configuration changes, preventing possibly invalid keys from remaining in the cache
         final ServiceListeners.Action action = new ServiceListeners.Action() {
@@ -70,7 +105,11 @@ public class StatelessJWTCache {
      */
     public void cache(SessionInfo info, String jwtToken) {
         Reject.ifNull(info, jwtToken, "Arguments cannot be null.");
-        sessionInfoCache.put(jwtToken, info);
+        Digest digest = new Digest(jwtToken);
+        LeastRecentlyUsed<Digest, SessionInfo> segment = segment(sessionInfoCache, digest);
+        synchronized (segment) {
+            segment.put(digest, info);
+        }
     }
 
     /**
@@ -78,7 +117,21 @@ public class StatelessJWTCache {
      * @return Possibly null. Cached SessionInfo that corresponds to the given JWT token.
      */
     public SessionInfo getSessionInfo(String jwt) {
-        return sessionInfoCache.get(jwt);
+        if (jwt == null) {
+            return null;
+        }
+        Digest digest = new Digest(jwt);
+        LeastRecentlyUsed<Digest, SessionInfo> segment = segment(sessionInfoCache, digest);
+        SessionInfo info;
+        synchronized (segment) {
+            info = segment.get(digest);
+        }
+        if (info == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return info;
     }
 
     /**
@@ -86,7 +139,14 @@ public class StatelessJWTCache {
      * @return True if there is a JWT representation for this SessionInfo.
      */
     public boolean contains(SessionInfo info) {
-        return sessionInfoCache.containsValue(info);
+        for (LeastRecentlyUsed<Digest, SessionInfo> segment : sessionInfoCache) {
+            synchronized (segment) {
+                if (segment.containsValue(info)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -94,7 +154,99 @@ public class StatelessJWTCache {
      * @return True if this JWT has been stored in the cache previously.
      */
     public boolean contains(String jwtToken) {
-        return sessionInfoCache.containsKey(jwtToken);
+        if (jwtToken == null) {
+            return false;
+        }
+        Digest digest = new Digest(jwtToken);
+        LeastRecentlyUsed<Digest, SessionInfo> segment = segment(sessionInfoCache, digest);
+        synchronized (segment) {
+            return segment.containsKey(digest);
+        }
+    }
+
+    /**
+     * Remembers that the JWT failed verification or has been blacklisted, and removes any SessionInfo
+     * cached for it.
+     *
+     * @param jwtToken Non null JWT token.
+     */
+    public void cacheInvalid(String jwtToken) {
+        Reject.ifNull(jwtToken);
+        Digest digest = new Digest(jwtToken);
+        LeastRecentlyUsed<Digest, SessionInfo> segment = segment(sessionInfoCache, digest);
+        synchronized (segment) {
+            segment.remove(digest);
+        }
+        if (invalidTTL > 0) {
+            LeastRecentlyUsed<Digest, Long> invalidSegment = segment(invalidCache, digest);
+            synchronized (invalidSegment) {
+                invalidSegment.put(digest, currentTimeMillis() + invalidTTL);
+            }
+        }
+    }
+
+    /**
+     * @param jwtToken Possibly null JWT token.
+     * @return True if the JWT has recently failed verification or been blacklisted.
+     */
+    public boolean isInvalid(String jwtToken) {
+        if (jwtToken == null || invalidTTL <= 0) {
+            return false;
+        }
+        Digest digest = new Digest(jwtToken);
+        LeastRecentlyUsed<Digest, Long> segment = segment(invalidCache, digest);
+        synchronized (segment) {
+            Long expiry = segment.get(digest);
+            if (expiry == null) {
+                return false;
+            }
+            if (expiry <= currentTimeMillis()) {
+                segment.remove(digest);
+                return false;
+            }
+        }
+        invalidHits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Records the time taken to verify and decode a JWT which was not found in the cache.
+     *
+     * @param nanos Duration of the verification in nanoseconds.
+     */
+    public void recordVerification(long nanos) {
+        verifications.incrementAndGet();
+        verificationTime.addAndGet(nanos);
+    }
+
+    /**
+     * @return The number of lookups which found a cached SessionInfo.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of lookups which did not find a cached SessionInfo.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of lookups which found that the JWT was recently invalid.
+     */
+    public long getInvalidHitCount() {
+        return invalidHits.get();
+    }
+
+    /**
+     * @param unit The desired time unit.
+     * @return The average time taken to verify and decode a JWT which was not found in the cache.
+     */
+    public long getAverageVerificationTime(TimeUnit unit) {
+        long count = verifications.get();
+        return count == 0 ? 0 : unit.convert(verificationTime.get() / count, TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -105,6 +257,55 @@ public class StatelessJWTCache {
      */
     @VisibleForTesting
     void clear() {
-        sessionInfoCache.clear();
+        clear(sessionInfoCache);
+        clear(invalidCache);
+    }
+
+    private static <V> void clear(List<LeastRecentlyUsed<Digest, V>> segments) {
+        for (LeastRecentlyUsed<Digest, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static <V> List<LeastRecentlyUsed<Digest, V>> createSegments(int maxSize) {
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, maxSize));
+        int segmentSize = (maxSize + count - 1) / count;
+        List<LeastRecentlyUsed<Digest, V>> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(new LeastRecentlyUsed<Digest, V>(segmentSize));
+        }
+        return segments;
+    }
+
+    private static <V> LeastRecentlyUsed<Digest, V> segment(List<LeastRecentlyUsed<Digest, V>> segments,
+            Digest digest) {
+        return segments.get((digest.hashCode() & Integer.MAX_VALUE) % segments.size());
+    }
+
+    /**
+     * The SHA-256 digest of a JWT.
+     */
+    private static final class Digest {
+        private final byte[] bytes;
+        private final int hashCode;
+
+        private Digest(String jwt) {
+            MessageDigest digest = DIGESTS.get();
+            digest.reset();
+            bytes = digest.digest(jwt.getBytes(UTF8));
+            hashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Digest && Arrays.equals(bytes, ((Digest) o).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
-}
\ No newline at end of file
+}
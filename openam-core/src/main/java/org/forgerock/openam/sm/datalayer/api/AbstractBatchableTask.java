@@ -0,0 +1,84 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.sm.datalayer.api;
+
+/**
+ * Abstract task which can also be pipelined with other tasks on the same connection.
+ * @param <T> Connection to use.
+ */
+public abstract class AbstractBatchableTask<T> extends AbstractTask<T> implements BatchableTask {
+
+    private static final PendingOperation COMPLETED = new PendingOperation() {
+        @Override
+        public void await() {
+        }
+    };
+
+    /**
+     * @param handler Non null handler to notify.
+     */
+    public AbstractBatchableTask(ResultHandler<T, ?> handler) {
+        super(handler);
+    }
+
+    /**
+     * Sends the operation of this task to the store without waiting for its result.
+     *
+     * If the returned operation fails, the error is signalled to the handler in the same way as
+     * for {@link #execute(Object, TokenStorageAdapter)}.
+     *
+     * @param connection Non null connection to use.
+     * @param adapter Required for LDAP operations.
+     * @return Non null operation to wait on.
+     * @throws DataLayerException If there was any problem sending the operation.
+     */
+    @Override
+    public <T> PendingOperation submit(T connection, TokenStorageAdapter<T> adapter) throws DataLayerException {
+        if (isError()) {
+            return COMPLETED;
+        }
+
+        try {
+            final PendingOperation operation = submitTask(connection, adapter);
+            return new PendingOperation() {
+                @Override
+                public void await() throws DataLayerException {
+                    try {
+                        operation.await();
+                    } catch (DataLayerException e) {
+                        processError(e);
+                        throw e;
+                    }
+                }
+            };
+        } catch (DataLayerException e) {
+            processError(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the operation of the task without waiting for its result. The returned operation must
+     * notify the handler once the result has been received.
+     *
+     * @param connection Non null connection to use.
+     * @param adapter Required for LDAP operations.
+     * @return Non null operation to wait on.
+     * @throws DataLayerException If there was any problem sending the operation.
+     */
+    protected abstract <T> PendingOperation submitTask(T connection, TokenStorageAdapter<T> adapter)
+            throws DataLayerException;
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.sm.datalayer.api;
 
@@ -52,6 +53,13 @@ public abstract class AbstractTask<T> implements Task {
         }
     }
 
+    /**
+     * @return True if an error has been signalled to the handler of this task.
+     */
+    protected boolean isError() {
+        return isError;
+    }
+
     /**
      * Performs a task
      *
@@ -0,0 +1,45 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.sm.datalayer.api;
+
+/**
+ * A Task whose operation can be sent to the store without waiting for its result, so that it can
+ * be pipelined with other tasks on the same connection.
+ *
+ * Tasks which are not batchable are performed with {@link Task#execute(Object, TokenStorageAdapter)}
+ * once all pending operations on the connection have completed.
+ *
+ * @see org.forgerock.openam.sm.datalayer.impl.SimpleTaskExecutor#execute(java.util.List)
+ */
+public interface BatchableTask extends Task {
+    /**
+     * @return The non null Token ID this task operates on. Two operations on the same Token ID are
+     * never pending on the same connection at the same time.
+     */
+    String getTokenId();
+
+    /**
+     * Send the operation to the store without waiting for its result. The handler of the task is
+     * notified when {@link PendingOperation#await()} is called.
+     *
+     * @param connection Connection to use.
+     * @param adapter Connection-coupled utility functions to perform the task with.
+     * @param <T> The type of connection.
+     * @return A non null operation to wait on.
+     * @throws DataLayerException If the operation could not be sent.
+     */
+    <T> PendingOperation submit(T connection, TokenStorageAdapter<T> adapter) throws DataLayerException;
+}
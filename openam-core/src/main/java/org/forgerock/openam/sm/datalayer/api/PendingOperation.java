@@ -0,0 +1,35 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.sm.datalayer.api;
+
+/**
+ * An operation which has been sent to the store but whose result has not yet been received.
+ *
+ * Several pending operations may be outstanding on the same connection at once, which allows
+ * requests to be pipelined rather than waiting for each response in turn.
+ *
+ * @see BatchableTask
+ * @see TokenStorageAdapter#createAsync(Object, org.forgerock.openam.cts.api.tokens.Token)
+ * @see TokenStorageAdapter#deleteAsync(Object, String)
+ */
+public interface PendingOperation {
+    /**
+     * Wait for the result of the operation.
+     *
+     * @throws DataLayerException If the operation failed.
+     */
+    void await() throws DataLayerException;
+}
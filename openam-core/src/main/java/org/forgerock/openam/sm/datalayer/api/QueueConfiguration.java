@@ -47,4 +47,20 @@ public interface QueueConfiguration {
      * @return A positive number of processors to initialise.
      */
     int getProcessors() throws DataLayerException;
+
+    /**
+     * The maximum number of queued tasks a Task Processor will execute together, pipelining their
+     * operations on its connection.
+     *
+     * @return A positive integer. A value of one disables batching.
+     */
+    int getBatchSize();
+
+    /**
+     * The maximum duration a Task Processor will wait for further tasks to arrive before executing
+     * a batch which is not yet full.
+     *
+     * @return Zero or a positive number of milliseconds.
+     */
+    long getBatchLingerTime();
 }
@@ -37,6 +37,16 @@ public interface TokenStorageAdapter<T> {
      */
     void create(T connection, Token token) throws DataLayerException;
 
+    /**
+     * Send a request to create the Token in the database without waiting for the result.
+     *
+     * @param connection The non null connection to perform this call against.
+     * @param token Non null Token to create.
+     * @return Non null operation which signals whether the Token was created.
+     * @throws org.forgerock.openam.sm.datalayer.api.DataLayerException If the request could not be sent.
+     */
+    PendingOperation createAsync(T connection, Token token) throws DataLayerException;
+
     /**
      * Performs a read against the database connection and converts the result into a Token.
      *
@@ -66,6 +76,17 @@ public interface TokenStorageAdapter<T> {
      */
     void delete(T connection, String tokenId) throws DataLayerException;
 
+    /**
+     * Send a request to delete the Token ID provided without waiting for the result.
+     *
+     * @param connection Non null connection to call.
+     * @param tokenId The non null Token ID to delete.
+     * @return Non null operation which signals whether the Token was deleted. A Token which
+     * did not exist is not considered a failure.
+     * @throws DataLayerException If the request could not be sent.
+     */
+    PendingOperation deleteAsync(T connection, String tokenId) throws DataLayerException;
+
     /**
      * Performs a full-token query using the provided filter.
      *
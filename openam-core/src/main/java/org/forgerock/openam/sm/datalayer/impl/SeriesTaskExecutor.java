@@ -32,8 +32,10 @@ import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
 import org.forgerock.openam.audit.context.AbstractAuditRequestContextPropagatingDecorator;
 import org.forgerock.openam.shared.concurrency.ThreadMonitor;
 import org.forgerock.openam.audit.context.AuditRequestContext;
+import org.forgerock.openam.sm.datalayer.api.BatchableTask;
 import org.forgerock.openam.sm.datalayer.api.DataLayerConstants;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.QueueTimeoutException;
 import org.forgerock.openam.sm.datalayer.api.Task;
 import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
@@ -192,6 +194,9 @@ public class SeriesTaskExecutor implements TaskExecutor {
     }
 
     Task wrap(Task task) {
+        if (task instanceof BatchableTask) {
+            return new AuditRequestContextPropagatingBatchableTask((BatchableTask) task);
+        }
         return new AuditRequestContextPropagatingTask(task);
     }
 
@@ -226,4 +231,46 @@ public class SeriesTaskExecutor implements TaskExecutor {
         }
     }
 
+    /**
+     * <code>BatchableTask</code> Decorator that propagates thread local {@link AuditRequestContext} to worker thread
+     * whilst the operation is sent and when its result is awaited.
+     */
+    static class AuditRequestContextPropagatingBatchableTask extends AuditRequestContextPropagatingTask
+            implements BatchableTask {
+
+        private final BatchableTask delegate;
+
+        AuditRequestContextPropagatingBatchableTask(BatchableTask delegate) {
+            super(delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getTokenId() {
+            return delegate.getTokenId();
+        }
+
+        @Override
+        public <T> PendingOperation submit(T connection, TokenStorageAdapter<T> adapter) throws DataLayerException {
+            setContext();
+            final PendingOperation operation;
+            try {
+                operation = delegate.submit(connection, adapter);
+            } finally {
+                revertContext();
+            }
+            return new PendingOperation() {
+                @Override
+                public void await() throws DataLayerException {
+                    setContext();
+                    try {
+                        operation.await();
+                    } finally {
+                        revertContext();
+                    }
+                }
+            };
+        }
+    }
+
 }
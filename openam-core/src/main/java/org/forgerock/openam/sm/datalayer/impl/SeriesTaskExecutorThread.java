@@ -16,13 +16,18 @@
 package org.forgerock.openam.sm.datalayer.impl;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.sm.datalayer.api.BatchableTask;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.QueueConfiguration;
 import org.forgerock.openam.sm.datalayer.api.Task;
 
 import com.sun.identity.shared.debug.Debug;
@@ -37,6 +42,11 @@ import com.sun.identity.shared.debug.Debug;
  * This decoupled design is intended to ensure that each TaskProcessor can be
  * run as part of a thread pool, and process tasks in a continuous fashion.
  *
+ * When batching is configured, a {@link BatchableTask} drawn from the queue is
+ * executed together with the tasks queued behind it, up to the configured batch
+ * size, waiting at most the configured linger time for further tasks to arrive.
+ * This allows their operations to be pipelined on the connection of this processor.
+ *
  * Thread Policy: This runnable will respond to Thread interrupts and will
  * exit cleanly in the event of an interrupt.
  *
@@ -47,16 +57,21 @@ public class SeriesTaskExecutorThread implements Runnable {
     private final SimpleTaskExecutor taskExecutor;
     private BlockingQueue<Task> queue;
     private final Debug debug;
+    private final QueueConfiguration configuration;
 
     /**
      * Generate a default instance of the Task Processor.
      *
      * @param debug Required for debugging.
+     * @param taskExecutor Required to execute the tasks.
+     * @param configuration Required to determine the batch size and linger time.
      */
     @Inject
-    public SeriesTaskExecutorThread(@Named(CoreTokenConstants.CTS_DEBUG) Debug debug, SimpleTaskExecutor taskExecutor) {
+    public SeriesTaskExecutorThread(@Named(CoreTokenConstants.CTS_DEBUG) Debug debug, SimpleTaskExecutor taskExecutor,
+            QueueConfiguration configuration) {
         this.debug = debug;
         this.taskExecutor = taskExecutor;
+        this.configuration = configuration;
     }
 
     /**
@@ -89,8 +104,15 @@ public class SeriesTaskExecutorThread implements Runnable {
         while (!Thread.currentThread().isInterrupted()) {
             try {
                 Task task = queue.take();
-                debug("process Task {0}", task);
-                taskExecutor.execute(null, task);
+                int batchSize = configuration.getBatchSize();
+                if (batchSize > 1 && task instanceof BatchableTask) {
+                    List<Task> batch = collectBatch(task, batchSize);
+                    debug("process batch of {0} Tasks", batch.size());
+                    taskExecutor.execute(batch);
+                } else {
+                    debug("process Task {0}", task);
+                    taskExecutor.execute(null, task);
+                }
             } catch (InterruptedException e) {
                 error("interrupt detected", e);
                 Thread.currentThread().interrupt();
@@ -100,6 +122,44 @@ public class SeriesTaskExecutorThread implements Runnable {
         debug("Processor thread shutdown.");
     }
 
+    /**
+     * Draw further tasks from the queue to process with the given task. Collection stops when the
+     * batch is full, when a task which is not batchable is drawn, or when the linger time has
+     * passed without a further task arriving.
+     *
+     * @param first The task already drawn from the queue.
+     * @param batchSize The maximum number of tasks to collect.
+     * @return A non empty list of tasks, in queue order.
+     */
+    private List<Task> collectBatch(Task first, int batchSize) {
+        List<Task> batch = new ArrayList<Task>(batchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(configuration.getBatchLingerTime());
+        try {
+            while (batch.size() < batchSize) {
+                Task next = queue.poll();
+                if (next == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                }
+                batch.add(next);
+                if (!(next instanceof BatchableTask)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Process the tasks already drawn from the queue before shutting down
+            Thread.currentThread().interrupt();
+        }
+        return batch;
+    }
+
     private void debug(String format, Object... args) {
         if (debug.messageEnabled()) {
             debug.message(MessageFormat.format(
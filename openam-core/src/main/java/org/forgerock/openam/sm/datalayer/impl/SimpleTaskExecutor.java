@@ -19,14 +19,20 @@ package org.forgerock.openam.sm.datalayer.impl;
 import java.io.Closeable;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.sm.datalayer.api.BatchableTask;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.DataLayerConstants;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.Task;
 import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
@@ -91,6 +97,68 @@ public class SimpleTaskExecutor<T> implements TaskExecutor {
         }
     }
 
+    /**
+     * Executes a batch of tasks on the connection, in order.
+     *
+     * Consecutive {@link BatchableTask}s are sent without waiting for each response, so that
+     * they are pipelined on the connection. All pending operations are completed before any
+     * other task is executed, or before a second operation on the same Token ID is sent, so
+     * that the ordering of operations on each Token is preserved.
+     *
+     * @param tasks The non null tasks to be executed.
+     */
+    public void execute(List<Task> tasks) {
+        try {
+            if (!connectionFactory.isValid(connection)) {
+                close();
+                start();
+            }
+        } catch (DataLayerException e) {
+            error("acquiring connection", e);
+            for (Task task : tasks) {
+                task.processError(e);
+            }
+            return;
+        }
+
+        List<PendingOperation> pending = new ArrayList<PendingOperation>();
+        Set<String> pendingTokenIds = new HashSet<String>();
+        for (Task task : tasks) {
+            if (task instanceof BatchableTask) {
+                BatchableTask batchable = (BatchableTask) task;
+                if (!pendingTokenIds.add(batchable.getTokenId())) {
+                    await(pending, pendingTokenIds);
+                    pendingTokenIds.add(batchable.getTokenId());
+                }
+                try {
+                    pending.add(batchable.submit(connection, adapter));
+                } catch (DataLayerException e) {
+                    error("submitting task", e);
+                }
+            } else {
+                await(pending, pendingTokenIds);
+                try {
+                    task.execute(connection, adapter);
+                } catch (DataLayerException e) {
+                    error("processing task", e);
+                }
+            }
+        }
+        await(pending, pendingTokenIds);
+    }
+
+    private void await(List<PendingOperation> pending, Set<String> pendingTokenIds) {
+        for (PendingOperation operation : pending) {
+            try {
+                operation.await();
+            } catch (DataLayerException e) {
+                error("processing pipelined task", e);
+            }
+        }
+        pending.clear();
+        pendingTokenIds.clear();
+    }
+
     /**
      * Close the connection if it was not null.
      */
@@ -16,8 +16,9 @@
 package org.forgerock.openam.sm.datalayer.impl.tasks;
 
 import org.forgerock.openam.cts.api.tokens.Token;
-import org.forgerock.openam.sm.datalayer.api.AbstractTask;
+import org.forgerock.openam.sm.datalayer.api.AbstractBatchableTask;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
 
@@ -26,7 +27,7 @@ import java.text.MessageFormat;
 /**
  * Responsible for creating a Token in LDAP Store.
  */
-public class CreateTask extends AbstractTask {
+public class CreateTask extends AbstractBatchableTask {
     private final Token token;
 
     /**
@@ -53,6 +54,32 @@ public class CreateTask extends AbstractTask {
         handler.processResults(token);
     }
 
+    /**
+     * Sends the create request without waiting for the response, so that it can be pipelined
+     * with other requests on the same connection.
+     *
+     * @param connection Non null connection to use.
+     * @param adapter Required for LDAP operations.
+     * @return Non null operation which notifies the handler when awaited.
+     * @throws DataLayerException If there was any problem sending the request.
+     */
+    @Override
+    protected PendingOperation submitTask(Object connection, TokenStorageAdapter adapter) throws DataLayerException {
+        final PendingOperation operation = adapter.createAsync(connection, token);
+        return new PendingOperation() {
+            @Override
+            public void await() throws DataLayerException {
+                operation.await();
+                handler.processResults(token);
+            }
+        };
+    }
+
+    @Override
+    public String getTokenId() {
+        return token.getTokenId();
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format("CreateTask: {0}", token.getTokenId());
@@ -15,8 +15,9 @@
  */
 package org.forgerock.openam.sm.datalayer.impl.tasks;
 
-import org.forgerock.openam.sm.datalayer.api.AbstractTask;
+import org.forgerock.openam.sm.datalayer.api.AbstractBatchableTask;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
 
@@ -25,7 +26,7 @@ import java.text.MessageFormat;
 /**
  * Deletes a given Token from the persistence layer.
  */
-public class DeleteTask extends AbstractTask {
+public class DeleteTask extends AbstractBatchableTask {
 
     private final String tokenId;
 
@@ -52,6 +53,32 @@ public class DeleteTask extends AbstractTask {
         handler.processResults(tokenId);
     }
 
+    /**
+     * Sends the delete request without waiting for the response, so that it can be pipelined
+     * with other requests on the same connection.
+     *
+     * @param connection Non null connection to use.
+     * @param adapter Required for LDAP operations.
+     * @return Non null operation which notifies the handler when awaited.
+     * @throws DataLayerException If there was any problem sending the request.
+     */
+    @Override
+    protected PendingOperation submitTask(Object connection, TokenStorageAdapter adapter) throws DataLayerException {
+        final PendingOperation operation = adapter.deleteAsync(connection, tokenId);
+        return new PendingOperation() {
+            @Override
+            public void await() throws DataLayerException {
+                operation.await();
+                handler.processResults(tokenId);
+            }
+        };
+    }
+
+    @Override
+    public String getTokenId() {
+        return tokenId;
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format("DeleteTask: {0}", tokenId);
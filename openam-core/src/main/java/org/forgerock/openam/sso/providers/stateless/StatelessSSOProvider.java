@@ -169,8 +169,15 @@ public class StatelessSSOProvider implements SSOProvider, ServiceListener {
         }
 
         try {
-            return isStatelessEnabled(token.getProperty(com.sun.identity.shared.Constants.ORGANIZATION)) &&
-                    statelessSSOToken.isValid(refresh) && !sessionBlacklist.isBlacklisted(session);
+            if (!isStatelessEnabled(token.getProperty(com.sun.identity.shared.Constants.ORGANIZATION))
+                    || !statelessSSOToken.isValid(refresh)) {
+                return false;
+            }
+            if (sessionBlacklist.isBlacklisted(session)) {
+                statelessSessionFactory.markInvalid(session.getID());
+                return false;
+            }
+            return true;
         } catch (BlacklistException | SMSException | SSOException e) {
             debug.error("Unable to check session blacklist: {}", e);
             return false;
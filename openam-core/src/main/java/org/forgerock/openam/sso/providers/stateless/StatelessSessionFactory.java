@@ -128,20 +128,42 @@ public class StatelessSessionFactory {
      */
     public SessionInfo getSessionInfo(SessionID sessionID) throws SessionException {
         String jwt = getJWTFromSessionID(sessionID, true);
-        if (cache.contains(jwt)) {
-            return cache.getSessionInfo(jwt);
+        SessionInfo sessionInfo = cache.getSessionInfo(jwt);
+        if (sessionInfo != null) {
+            return sessionInfo;
+        }
+        if (cache.isInvalid(jwt)) {
+            throw new SessionException("JWT has recently failed verification or been blacklisted");
         }
 
-        SessionInfo sessionInfo;
+        long start = System.nanoTime();
         try {
             sessionInfo = getJwtSessionMapper().fromJwt(jwt);
         } catch (JwtRuntimeException e) {
+            if (jwt != null) {
+                cache.cacheInvalid(jwt);
+            }
             throw new SessionException(e);
+        } finally {
+            cache.recordVerification(System.nanoTime() - start);
         }
         cache.cache(sessionInfo, jwt);
         return sessionInfo;
     }
 
+    /**
+     * Records that the JWT contained within the SessionID is no longer valid, for example because the session
+     * has been blacklisted, so that it is rejected without being verified again for a short time.
+     *
+     * @param sessionID Possibly null SessionID.
+     */
+    public void markInvalid(SessionID sessionID) {
+        String jwt = getJWTFromSessionID(sessionID, true);
+        if (jwt != null) {
+            cache.cacheInvalid(jwt);
+        }
+    }
+
     /**
      * Generates a StatelessSession by converting the SessionInfo into a JWT token
      * which can then be used to build up the StatelessSession.
@@ -198,7 +220,8 @@ public class StatelessSessionFactory {
         }
         try {
             StatelessSession statelessSession;
-            if (cache.contains(tokenId)) {
+            SessionInfo cachedInfo = cache.getSessionInfo(tokenId);
+            if (cachedInfo != null) {
                 /**
                  * NB: We cannot use the JWTCache to map in the reverse direction (SessionInfo-JWT)
                  * because the SessionInfo object can change contents, but remain the same reference
@@ -207,7 +230,7 @@ public class StatelessSessionFactory {
                  *
                  * We can re-evaluate this if it becomes a hot-spot.
                  */
-                statelessSession = generate(cache.getSessionInfo(tokenId));
+                statelessSession = generate(cachedInfo);
             } else {
                 SessionID sessionID = new SessionID(tokenId);
                 if (!containsJwt(sessionID)) {
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.iplanet.dpro.session.service;
 
@@ -19,8 +20,15 @@ import com.iplanet.dpro.session.SessionID;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -136,4 +144,157 @@ public class InternalSessionCacheTest {
         assertThat(cache.getByRestrictedID(oldRestriction)).isNull();
         assertThat(cache.getByRestrictedID(newRestriction)).isEqualTo(session);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldKeepRestrictedSessionRetainedByNewVersion() {
+        // Given
+        SessionID kept = mock(SessionID.class);
+        SessionID dropped = mock(SessionID.class);
+        given(session.getRestrictedTokens()).willReturn(new HashSet<SessionID>(Arrays.asList(kept, dropped)));
+        cache.put(session);
+
+        given(session.getRestrictedTokens()).willReturn(new HashSet<SessionID>(Arrays.asList(kept)));
+
+        // When
+        cache.put(session);
+
+        // Then
+        assertThat(cache.getByRestrictedID(kept)).isEqualTo(session);
+        assertThat(cache.getByRestrictedID(dropped)).isNull();
+    }
+
+    @Test
+    public void shouldReturnCachedSessions() {
+        // Given
+        InternalSession other = mock(InternalSession.class);
+        given(other.getID()).willReturn(mock(SessionID.class));
+        cache.put(session);
+        cache.put(other);
+
+        // When / Then
+        assertThat(cache.getAllSessions()).containsOnly(session, other);
+    }
+
+    @Test
+    public void shouldNotLeaveOrphanedIndexEntriesUnderConcurrentUpdates() throws Exception {
+        // Given
+        final int sessions = 16;
+        final int threads = 8;
+        final int iterations = 5000;
+        final InternalSession[][] variants = new InternalSession[sessions][];
+        for (int i = 0; i < sessions; i++) {
+            SessionID id = mock(SessionID.class);
+            SessionID shared = mock(SessionID.class);
+            variants[i] = new InternalSession[] {
+                    mockSession(id, "handle-" + i + "-a", shared, mock(SessionID.class)),
+                    mockSession(id, "handle-" + i + "-b", shared, mock(SessionID.class))
+            };
+        }
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = 0; i < iterations; i++) {
+                        InternalSession[] variant = variants[random.nextInt(sessions)];
+                        int action = random.nextInt(3);
+                        if (action == 2) {
+                            cache.remove(variant[0].getID());
+                        } else {
+                            cache.put(variant[action]);
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        executor.shutdown();
+        for (Future<Void> result : results) {
+            result.get();
+        }
+
+        // Then
+        for (InternalSession[] variant : variants) {
+            InternalSession cached = cache.getBySessionID(variant[0].getID());
+            for (InternalSession candidate : variant) {
+                InternalSession expected = candidate == cached ? cached : null;
+                assertThat(cache.getByHandle(candidate.getSessionHandle())).isEqualTo(expected);
+                for (SessionID restrictedID : candidate.getRestrictedTokens()) {
+                    if (cached != null && cached.getRestrictedTokens().contains(restrictedID)) {
+                        assertThat(cache.getByRestrictedID(restrictedID)).isEqualTo(cached);
+                    } else {
+                        assertThat(cache.getByRestrictedID(restrictedID)).isNull();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Measures contended put and remove throughput. Disabled by default to avoid slowing down the build.
+     */
+    @Test
+    public void shouldKeepIndexesConsistentUnderConcurrentUpdates() throws Exception {
+        // Given
+        final int threads = 8;
+        final int sessionsPerThread = 64;
+        final int iterations = 2000;
+        final InternalSession[] sessions = new InternalSession[threads * sessionsPerThread];
+        final SessionID[] restricted = new SessionID[sessions.length];
+        for (int i = 0; i < sessions.length; i++) {
+            restricted[i] = mock(SessionID.class);
+            sessions[i] = mockSession(mock(SessionID.class), "handle-" + i, restricted[i]);
+        }
+        final boolean[] present = new boolean[sessions.length];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            final int first = t * sessionsPerThread;
+            final Random random = new Random(t);
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = 0; i < iterations; i++) {
+                        int index = first + random.nextInt(sessionsPerThread);
+                        present[index] = random.nextBoolean();
+                        if (present[index]) {
+                            cache.put(sessions[index]);
+                        } else {
+                            cache.remove(sessions[index]);
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // Then
+        int expectedSize = 0;
+        for (int i = 0; i < sessions.length; i++) {
+            InternalSession expected = present[i] ? sessions[i] : null;
+            assertThat(cache.getBySessionID(sessions[i].getID())).isEqualTo(expected);
+            assertThat(cache.getByHandle("handle-" + i)).isEqualTo(expected);
+            assertThat(cache.getByRestrictedID(restricted[i])).isEqualTo(expected);
+            expectedSize += present[i] ? 1 : 0;
+        }
+        assertThat(cache.size()).isEqualTo(expectedSize);
+    }
+
+    private static InternalSession mockSession(SessionID id, String handle, SessionID... restricted) {
+        InternalSession mock = mock(InternalSession.class);
+        given(mock.getID()).willReturn(id);
+        given(mock.getSessionHandle()).willReturn(handle);
+        given(mock.getRestrictedTokens()).willReturn(new HashSet<SessionID>(Arrays.asList(restricted)));
+        return mock;
+    }
+}
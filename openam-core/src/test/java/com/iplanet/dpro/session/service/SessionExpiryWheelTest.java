@@ -0,0 +1,211 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.dpro.session.service;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.shared.debug.Debug;
+
+public class SessionExpiryWheelTest {
+    private static final long TICK = 1000;
+
+    private Queue<Runnable> tasks;
+    private SessionExpiryWheel wheel;
+
+    @BeforeMethod
+    public void setup() {
+        tasks = new LinkedList<Runnable>();
+        wheel = newWheel(100, 1);
+    }
+
+    @Test
+    public void shouldNotRunSessionBeforeItsTime() {
+        // Given
+        InternalSession session = mock(InternalSession.class);
+        wheel.schedule(session, 5500);
+
+        // When
+        wheel.advance(5999);
+        runTasks();
+
+        // Then
+        verify(session, never()).run();
+        assertThat(wheel.scheduledExecutionTime(session)).isEqualTo(5500);
+    }
+
+    @Test
+    public void shouldRunSessionOnceItsTimeHasPassed() {
+        // Given
+        InternalSession session = mock(InternalSession.class);
+        wheel.schedule(session, 5500);
+
+        // When
+        wheel.advance(6000);
+        runTasks();
+        wheel.advance(7000);
+        runTasks();
+
+        // Then
+        verify(session, times(1)).run();
+        assertThat(wheel.scheduledExecutionTime(session)).isEqualTo(-1);
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotRunCancelledSession() {
+        // Given
+        InternalSession session = mock(InternalSession.class);
+        wheel.schedule(session, 5000);
+
+        // When
+        wheel.cancel(session);
+        wheel.advance(10000);
+        runTasks();
+
+        // Then
+        verify(session, never()).run();
+        assertThat(wheel.scheduledExecutionTime(session)).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldOnlyRunSessionAtRescheduledTime() {
+        // Given
+        InternalSession session = mock(InternalSession.class);
+        wheel.schedule(session, 5000);
+
+        // When
+        wheel.schedule(session, TimeUnit.MINUTES.toMillis(30));
+        wheel.advance(TimeUnit.MINUTES.toMillis(30) - 1);
+        runTasks();
+
+        // Then
+        verify(session, never()).run();
+
+        // When
+        wheel.advance(TimeUnit.MINUTES.toMillis(30));
+        runTasks();
+
+        // Then
+        verify(session, times(1)).run();
+    }
+
+    @Test
+    public void shouldCascadeSessionsScheduledFarInTheFuture() {
+        // Given
+        InternalSession soon = mock(InternalSession.class);
+        InternalSession later = mock(InternalSession.class);
+        long laterTime = TimeUnit.DAYS.toMillis(3) + 123456;
+        wheel.schedule(soon, TimeUnit.HOURS.toMillis(2));
+        wheel.schedule(later, laterTime);
+
+        // When
+        wheel.advance(laterTime - TICK);
+        runTasks();
+
+        // Then
+        verify(soon, times(1)).run();
+        verify(later, never()).run();
+
+        // When
+        wheel.advance(laterTime + TICK);
+        runTasks();
+
+        // Then
+        verify(later, times(1)).run();
+    }
+
+    @Test
+    public void shouldRunSessionScheduledInThePast() {
+        // Given
+        InternalSession session = mock(InternalSession.class);
+        wheel.advance(10000);
+
+        // When
+        wheel.schedule(session, 2000);
+        wheel.advance(10000);
+        runTasks();
+
+        // Then
+        verify(session, times(1)).run();
+    }
+
+    @Test
+    public void shouldDispatchExpiredSessionsInBoundedBatches() {
+        // Given
+        wheel = newWheel(2, 1);
+        InternalSession[] sessions = new InternalSession[5];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = mock(InternalSession.class);
+            wheel.schedule(sessions[i], 3000);
+        }
+
+        // When
+        wheel.advance(3000);
+
+        // Then
+        assertThat(tasks).hasSize(1);
+        assertThat(wheel.getBacklog()).isEqualTo(5);
+        assertThat(wheel.getLag()).isGreaterThan(0);
+
+        // When
+        tasks.poll().run();
+
+        // Then
+        assertThat(tasks).hasSize(1);
+        assertThat(wheel.getBacklog()).isEqualTo(3);
+
+        // When
+        runTasks();
+
+        // Then
+        for (InternalSession session : sessions) {
+            verify(session, times(1)).run();
+        }
+        assertThat(wheel.getBacklog()).isEqualTo(0);
+        assertThat(wheel.getLag()).isEqualTo(0);
+    }
+
+    private SessionExpiryWheel newWheel(int batchSize, int maxBatches) {
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        return new SessionExpiryWheel(TICK, batchSize, maxBatches, executor, mock(ScheduledExecutorService.class),
+                mock(Debug.class), 0);
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.dpro.session.service;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.iplanet.dpro.session.SessionEvent;
+import com.iplanet.dpro.session.share.SessionInfo;
+import com.iplanet.dpro.session.share.SessionNotification;
+import com.iplanet.services.comm.server.SendNotificationException;
+import com.iplanet.services.comm.share.NotificationSet;
+import com.sun.identity.shared.debug.Debug;
+
+public class SessionNotificationDispatcherTest {
+    private static final String AGENT_ONE = "http://agent1.example.com:8080/agent/notification";
+    private static final String AGENT_TWO = "http://agent2.example.com:8080/agent/notification";
+    private static final long LINGER_TIME = 50;
+    private static final long RETRY_DELAY = 30000;
+
+    private Queue<Runnable> tasks;
+    private List<Long> delays;
+    private ScheduledExecutorService scheduler;
+    private Map<String, List<NotificationSet>> sent;
+    private boolean failing;
+
+    @BeforeMethod
+    public void setup() {
+        tasks = new LinkedList<Runnable>();
+        delays = new ArrayList<Long>();
+        sent = new LinkedHashMap<String, List<NotificationSet>>();
+        failing = false;
+        scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(
+                new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) {
+                        tasks.add((Runnable) invocation.getArguments()[0]);
+                        delays.add((Long) invocation.getArguments()[1]);
+                        return null;
+                    }
+                });
+    }
+
+    @Test
+    public void shouldSendNotificationsToEachDestinationInOneBatch() throws Exception {
+        // Given
+        SessionNotificationDispatcher dispatcher = newDispatcher(100, 10);
+        dispatcher.send(AGENT_ONE, notification("sid1", SessionEvent.LOGOUT));
+        dispatcher.send(AGENT_ONE, notification("sid2", SessionEvent.LOGOUT));
+        dispatcher.send(AGENT_ONE, notification("sid3", SessionEvent.LOGOUT));
+        dispatcher.send(AGENT_TWO, notification("sid1", SessionEvent.LOGOUT));
+
+        // When
+        runTasks();
+
+        // Then
+        assertThat(delays).containsOnly(LINGER_TIME);
+        assertThat(sent.get(AGENT_ONE)).hasSize(1);
+        assertThat(sent.get(AGENT_ONE).get(0).getNotifications()).hasSize(3);
+        assertThat(sent.get(AGENT_TWO)).hasSize(1);
+        assertThat(sent.get(AGENT_TWO).get(0).getNotifications()).hasSize(1);
+        assertThat(dispatcher.getQueueDepth()).isEqualTo(0);
+        assertThat(dispatcher.getAverageBatchSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSplitBacklogIntoBatchesWithoutLingering() throws Exception {
+        // Given
+        SessionNotificationDispatcher dispatcher = newDispatcher(2, 10);
+        for (int i = 0; i < 5; i++) {
+            dispatcher.send(AGENT_ONE, notification("sid" + i, SessionEvent.DESTROY));
+        }
+
+        // When
+        runTasks();
+
+        // Then
+        assertThat(sent.get(AGENT_ONE)).hasSize(3);
+        assertThat(sent.get(AGENT_ONE).get(2).getNotifications()).hasSize(1);
+        assertThat(delays).containsExactly(LINGER_TIME, 0L, 0L);
+    }
+
+    @Test
+    public void shouldCoalesceNotificationsOfSameSessionAndEvent() throws Exception {
+        // Given
+        SessionNotificationDispatcher dispatcher = newDispatcher(100, 10);
+        dispatcher.send(AGENT_ONE, notification("sid1", SessionEvent.PROPERTY_CHANGED));
+        dispatcher.send(AGENT_ONE, notification("sid1", SessionEvent.PROPERTY_CHANGED));
+        dispatcher.send(AGENT_ONE, notification("sid1", SessionEvent.LOGOUT));
+
+        // When
+        runTasks();
+
+        // Then
+        assertThat(sent.get(AGENT_ONE).get(0).getNotifications()).hasSize(2);
+    }
+
+    @Test
+    public void shouldDropNotificationsWhenQueueIsFull() throws Exception {
+        // Given
+        SessionNotificationDispatcher dispatcher = newDispatcher(100, 2);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            dispatcher.send(AGENT_ONE, notification("sid" + i, SessionEvent.LOGOUT));
+        }
+
+        // Then
+        assertThat(dispatcher.getQueueDepth()).isEqualTo(2);
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSuspendDestinationAfterRepeatedFailures() throws Exception {
+        // Given
+        SessionNotificationDispatcher dispatcher = newDispatcher(100, 10);
+        failing = true;
+        for (int i = 0; i < 2; i++) {
+            dispatcher.send(AGENT_ONE, notification("sid" + i, SessionEvent.LOGOUT));
+            runTasks();
+        }
+
+        // When
+        dispatcher.send(AGENT_ONE, notification("sid3", SessionEvent.LOGOUT));
+
+        // Then
+        assertThat(dispatcher.getSuspendedDestinationCount()).isEqualTo(1);
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(2);
+        assertThat(delays.get(2)).isGreaterThan(RETRY_DELAY - 1000);
+
+        // When
+        failing = false;
+        runTasks();
+
+        // Then
+        assertThat(dispatcher.getSuspendedDestinationCount()).isEqualTo(0);
+        assertThat(sent.get(AGENT_ONE)).hasSize(1);
+    }
+
+    private SessionNotificationDispatcher newDispatcher(int batchSize, int queueSize) {
+        SessionNotificationDispatcher.Transport transport = new SessionNotificationDispatcher.Transport() {
+            @Override
+            public void send(URL url, NotificationSet notificationSet) throws SendNotificationException {
+                if (failing) {
+                    throw new SendNotificationException("Connection refused");
+                }
+                String destination = url.toString();
+                if (!sent.containsKey(destination)) {
+                    sent.put(destination, new ArrayList<NotificationSet>());
+                }
+                sent.get(destination).add(notificationSet);
+            }
+        };
+        return new SessionNotificationDispatcher(scheduler, transport, mock(Debug.class), LINGER_TIME, batchSize,
+                queueSize, 2, RETRY_DELAY);
+    }
+
+    private SessionNotification notification(String sid, int eventType) {
+        SessionInfo info = new SessionInfo();
+        info.setSessionID(sid);
+        info.setClientID("id=demo,ou=user,dc=example,dc=com");
+        info.setClientDomain("dc=example,dc=com");
+        return new SessionNotification(info, eventType, System.currentTimeMillis());
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+        }
+    }
+}
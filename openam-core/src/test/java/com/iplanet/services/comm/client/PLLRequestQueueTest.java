@@ -0,0 +1,254 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.iplanet.services.comm.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.iplanet.services.comm.share.Request;
+import com.iplanet.services.comm.share.RequestSet;
+import com.iplanet.services.comm.share.Response;
+
+public class PLLRequestQueueTest {
+    private static final String SERVICE = "session";
+
+    private URL url;
+    private List<RequestSet> sent;
+    private ExecutorService callers;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        url = new URL("http://openam.example.com:8080/openam/sessionservice");
+        sent = Collections.synchronizedList(new ArrayList<RequestSet>());
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void shouldSendSingleRequestImmediately() throws Exception {
+        // Given
+        PLLRequestQueue queue = new PLLRequestQueue(new EchoSender(null), 10, 16384);
+
+        // When
+        Response response = queue.send(url, null, SERVICE, new Request("one"));
+
+        // Then
+        assertThat(response.getContent()).isEqualTo("one");
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    public void shouldCombineRequestsQueuedWhileRequestSetIsInFlight() throws Exception {
+        // Given
+        CountDownLatch inFlight = new CountDownLatch(1);
+        PLLRequestQueue queue = new PLLRequestQueue(new EchoSender(inFlight), 10, 16384);
+        Future<Response> first = sendAsync(queue, "first");
+        waitForRequestSets(1);
+        List<Future<Response>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(sendAsync(queue, "queued" + i));
+        }
+        Thread.sleep(100);
+
+        // When
+        inFlight.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS).getContent()).isEqualTo("first");
+        for (int i = 0; i < 5; i++) {
+            assertThat(queued.get(i).get(5, TimeUnit.SECONDS).getContent()).isEqualTo("queued" + i);
+        }
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).getRequests()).hasSize(5);
+    }
+
+    @Test
+    public void shouldLimitNumberOfRequestsInRequestSet() throws Exception {
+        // Given
+        CountDownLatch inFlight = new CountDownLatch(1);
+        PLLRequestQueue queue = new PLLRequestQueue(new EchoSender(inFlight), 2, 16384);
+        sendAsync(queue, "first");
+        waitForRequestSets(1);
+        List<Future<Response>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(sendAsync(queue, "queued" + i));
+        }
+        Thread.sleep(100);
+
+        // When
+        inFlight.countDown();
+        for (Future<Response> response : queued) {
+            response.get(5, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertThat(sent).hasSize(4);
+        for (RequestSet set : sent) {
+            assertThat(set.getRequests().size()).isLessThanOrEqualTo(2);
+        }
+    }
+
+    @Test(expectedExceptions = SendRequestException.class)
+    public void shouldFailRequestsWhenResponseCountDoesNotMatch() throws Exception {
+        // Given
+        PLLRequestQueue queue = new PLLRequestQueue(new PLLRequestQueue.Sender() {
+            @Override
+            public Vector send(URL url, String cookies, RequestSet set) {
+                return new Vector();
+            }
+        }, 10, 16384);
+
+        // When
+        queue.send(url, null, SERVICE, new Request("one"));
+    }
+
+    @Test
+    public void shouldWriteAndParseRequestSetFromStream() throws Exception {
+        // Given
+        RequestSet set = new RequestSet(SERVICE);
+        set.addRequest(new Request("<SessionRequest vers=\"1.0\"/>"));
+        set.addRequest(new Request("second"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(out, "UTF-8");
+        set.writeXML(writer);
+        writer.close();
+
+        // When
+        RequestSet parsed = RequestSet.parseXML(new ByteArrayInputStream(out.toByteArray()));
+
+        // Then
+        assertThat(new String(out.toByteArray(), "UTF-8")).isEqualTo(set.toXMLString());
+        assertThat(parsed.getRequestSetID()).isEqualTo(set.getRequestSetID());
+        assertThat(parsed.getRequests()).hasSize(2);
+        assertThat(parsed.getRequests().get(0).getContent()).isEqualTo("<SessionRequest vers=\"1.0\"/>");
+    }
+
+    @Test
+    public void shouldShareRoundTripsBetweenConcurrentCallers() throws Exception {
+        // Given
+        final EchoSender echo = new EchoSender(null);
+        final PLLRequestQueue queue = new PLLRequestQueue(new PLLRequestQueue.Sender() {
+            @Override
+            public Vector send(URL url, String cookies, RequestSet set) throws SendRequestException {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new SendRequestException(e);
+                }
+                return echo.send(url, cookies, set);
+            }
+        }, 20, 16384);
+        int threads = 20;
+        final int requestsPerThread = 10;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final String caller = "caller" + i;
+            results.add(callers.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        String content = caller + "-" + j;
+                        assertThat(queue.send(url, null, SERVICE, new Request(content)).getContent())
+                                .isEqualTo(content);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<Void> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+
+        // Then
+        int requests = 0;
+        for (RequestSet set : sent) {
+            requests += set.getRequests().size();
+        }
+        assertThat(requests).isEqualTo(threads * requestsPerThread);
+        assertThat(sent.size()).isLessThan(threads * requestsPerThread);
+    }
+
+    private Future<Response> sendAsync(final PLLRequestQueue queue, final String content) {
+        return callers.submit(new Callable<Response>() {
+            @Override
+            public Response call() throws Exception {
+                return queue.send(url, null, SERVICE, new Request(content));
+            }
+        });
+    }
+
+    private void waitForRequestSets(int count) throws InterruptedException {
+        while (sent.size() < count) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Answers each request with its own content, optionally blocking until released.
+     */
+    private final class EchoSender implements PLLRequestQueue.Sender {
+        private final CountDownLatch release;
+
+        private EchoSender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public Vector send(URL url, String cookies, RequestSet set) throws SendRequestException {
+            sent.add(set);
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new SendRequestException(e);
+                }
+            }
+            Vector responses = new Vector();
+            for (Request request : set.getRequests()) {
+                responses.add(new Response(request.getContent()));
+            }
+            return responses;
+        }
+    }
+}
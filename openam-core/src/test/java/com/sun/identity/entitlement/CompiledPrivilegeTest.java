@@ -0,0 +1,271 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.entitlement;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.security.auth.Subject;
+
+import org.forgerock.openam.entitlement.PrivilegeEvaluatorContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.entitlement.CostedCondition.Cost;
+
+public class CompiledPrivilegeTest {
+
+    private static final Map<String, Set<String>> ENVIRONMENT = Collections.emptyMap();
+
+    private List<String> evaluated;
+
+    @BeforeMethod
+    public void setUp() {
+        evaluated = new ArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        PrivilegeEvaluatorContext.setCurrent(null);
+    }
+
+    @Test
+    public void shouldOrderAndConditionMembersByCost() throws Exception {
+        // Given
+        AndCondition condition = new AndCondition(conditions(new ScriptCondition(true), new SessionCondition(true),
+                new SimpleTimeCondition(true)));
+
+        // When
+        CompiledPrivilege plan = CompiledPrivilege.compile(null, condition);
+        plan.getCondition().evaluate("/", null, "http://example.com", ENVIRONMENT);
+
+        // Then
+        assertThat(evaluated).containsExactly("SimpleTimeCondition", "SessionCondition", "ScriptCondition");
+    }
+
+    @Test
+    public void shouldShortCircuitBeforeExpensiveConditions() throws Exception {
+        // Given
+        OrCondition nested = new OrCondition(conditions(new ScriptCondition(true), new IPv4Condition(true)));
+        AndCondition condition = new AndCondition(conditions(new LDAPFilterCondition(true), nested,
+                new SimpleTimeCondition(false)));
+
+        // When
+        CompiledPrivilege plan = CompiledPrivilege.compile(null, condition);
+        ConditionDecision decision = plan.getCondition().evaluate("/", null, "http://example.com", ENVIRONMENT);
+
+        // Then
+        assertThat(decision.isSatisfied()).isFalse();
+        assertThat(evaluated).containsExactly("SimpleTimeCondition");
+    }
+
+    @Test
+    public void shouldNotModifyOriginalCondition() throws Exception {
+        // Given
+        Set<EntitlementCondition> members = conditions(new ScriptCondition(true), new SimpleTimeCondition(true));
+        AndCondition condition = new AndCondition(members);
+        condition.setDisplayType("badger");
+
+        // When
+        CompiledPrivilege plan = CompiledPrivilege.compile(null, condition);
+
+        // Then
+        assertThat(plan.getCondition()).isNotSameAs(condition).isEqualTo(condition);
+        assertThat(new ArrayList<>(condition.getEConditions())).isEqualTo(new ArrayList<>(members));
+        assertThat(plan.getConditionKey()).isEqualTo(AndCondition.class.getName() + condition.getState());
+    }
+
+    @Test
+    public void shouldShareConditionsThatAreNotLogical() throws Exception {
+        // Given
+        EntitlementCondition condition = new ScriptCondition(true);
+
+        // When
+        CompiledPrivilege plan = CompiledPrivilege.compile(null, condition);
+
+        // Then
+        assertThat(plan.getCondition()).isSameAs(condition);
+    }
+
+    @Test
+    public void shouldEstimateCostFromConditionTypes() {
+        assertThat(CompiledPrivilege.getCost(new ScriptCondition(true))).isEqualTo(Cost.REMOTE);
+        assertThat(CompiledPrivilege.getCost(new NotCondition(new IPv4Condition(true)))).isEqualTo(Cost.ENVIRONMENT);
+        assertThat(CompiledPrivilege.getCost(new OrCondition(conditions(new IPv4Condition(true),
+                new SessionCondition(true))))).isEqualTo(Cost.SESSION);
+        assertThat(CompiledPrivilege.getCost(mock(EntitlementCondition.class))).isEqualTo(Cost.UNKNOWN);
+    }
+
+    @Test
+    public void shouldShareSubjectDecisionBetweenEquivalentSubjects() throws Exception {
+        // Given
+        PrivilegeEvaluatorContext.setCurrent(new PrivilegeEvaluatorContext("/", "http://example.com", "app"));
+        EntitlementSubject first = subject("{\"id\":\"badger\"}", true);
+        EntitlementSubject second = subject("{\"id\":\"badger\"}", true);
+
+        // When
+        SubjectDecision firstDecision = CompiledPrivilege.compile(first, null)
+                .evaluateSubject(null, "/", null, "http://example.com", ENVIRONMENT);
+        SubjectDecision secondDecision = CompiledPrivilege.compile(second, null)
+                .evaluateSubject(null, "/", null, "http://example.com", ENVIRONMENT);
+
+        // Then
+        assertThat(secondDecision).isSameAs(firstDecision);
+        verify(first, times(1)).evaluate(anyString(), any(SubjectAttributesManager.class), any(Subject.class),
+                anyString(), anyMap());
+        verify(second, never()).evaluate(anyString(), any(SubjectAttributesManager.class), any(Subject.class),
+                anyString(), anyMap());
+    }
+
+    @Test
+    public void shouldNotShareSubjectDecisionBetweenDifferentSubjects() throws Exception {
+        // Given
+        PrivilegeEvaluatorContext.setCurrent(new PrivilegeEvaluatorContext("/", "http://example.com", "app"));
+        CompiledPrivilege first = CompiledPrivilege.compile(subject("{\"id\":\"badger\"}", true), null);
+        CompiledPrivilege second = CompiledPrivilege.compile(subject("{\"id\":\"weasel\"}", false), null);
+
+        // When
+        SubjectDecision firstDecision = first.evaluateSubject(null, "/", null, "http://example.com", ENVIRONMENT);
+        SubjectDecision secondDecision = second.evaluateSubject(null, "/", null, "http://example.com", ENVIRONMENT);
+
+        // Then
+        assertThat(firstDecision.isSatisfied()).isTrue();
+        assertThat(secondDecision.isSatisfied()).isFalse();
+    }
+
+    @Test
+    public void shouldReachSameDecisionsAsUncompiledConditionsWithFewerEvaluations() throws Exception {
+        // Given
+        List<EntitlementCondition> conditions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            conditions.add(new AndCondition(conditions(new ScriptCondition(true), new SessionCondition(true),
+                    new SimpleTimeCondition(i % 2 == 0))));
+        }
+        List<Boolean> interpreted = new ArrayList<>();
+        List<Boolean> compiled = new ArrayList<>();
+
+        // When
+        for (EntitlementCondition condition : conditions) {
+            interpreted.add(condition.evaluate("/", null, "http://example.com", ENVIRONMENT).isSatisfied());
+        }
+        int interpretedEvaluations = evaluated.size();
+        evaluated.clear();
+        for (EntitlementCondition condition : conditions) {
+            compiled.add(CompiledPrivilege.compile(null, condition).getCondition()
+                    .evaluate("/", null, "http://example.com", ENVIRONMENT).isSatisfied());
+        }
+
+        // Then
+        assertThat(compiled).isEqualTo(interpreted);
+        assertThat(evaluated.size()).isLessThan(interpretedEvaluations);
+    }
+
+    private Set<EntitlementCondition> conditions(EntitlementCondition... conditions) {
+        return new LinkedHashSet<>(Arrays.asList(conditions));
+    }
+
+    private EntitlementSubject subject(String state, boolean satisfied) throws EntitlementException {
+        EntitlementSubject subject = mock(EntitlementSubject.class);
+        given(subject.getState()).willReturn(state);
+        given(subject.evaluate(anyString(), any(SubjectAttributesManager.class), any(Subject.class), anyString(),
+                anyMap()))
+                .willReturn(new SubjectDecision(satisfied, Collections.<String, Set<String>>emptyMap()));
+        return subject;
+    }
+
+    private abstract class StubCondition extends EntitlementConditionAdaptor implements CostedCondition {
+        private final boolean satisfied;
+        private final Cost cost;
+
+        StubCondition(boolean satisfied, Cost cost) {
+            this.satisfied = satisfied;
+            this.cost = cost;
+        }
+
+        @Override
+        public Cost getEvaluationCost() {
+            return cost;
+        }
+
+        @Override
+        public void setState(String state) {
+        }
+
+        @Override
+        public String getState() {
+            return "{\"name\":\"" + getClass().getSimpleName() + "\"}";
+        }
+
+        @Override
+        public void validate() throws EntitlementException {
+        }
+
+        @Override
+        public ConditionDecision evaluate(String realm, Subject subject, String resourceName,
+                Map<String, Set<String>> environment) throws EntitlementException {
+            evaluated.add(getClass().getSimpleName());
+            return satisfied
+                    ? ConditionDecision.newSuccessBuilder().build()
+                    : ConditionDecision.newFailureBuilder().build();
+        }
+    }
+
+    private class ScriptCondition extends StubCondition {
+        ScriptCondition(boolean satisfied) {
+            super(satisfied, Cost.REMOTE);
+        }
+    }
+
+    private class LDAPFilterCondition extends StubCondition {
+        LDAPFilterCondition(boolean satisfied) {
+            super(satisfied, Cost.REMOTE);
+        }
+    }
+
+    private class SessionCondition extends StubCondition {
+        SessionCondition(boolean satisfied) {
+            super(satisfied, Cost.SESSION);
+        }
+    }
+
+    private class SimpleTimeCondition extends StubCondition {
+        SimpleTimeCondition(boolean satisfied) {
+            super(satisfied, Cost.ENVIRONMENT);
+        }
+    }
+
+    private class IPv4Condition extends StubCondition {
+        IPv4Condition(boolean satisfied) {
+            super(satisfied, Cost.ENVIRONMENT);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.entitlement;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ForkJoinEntitlementThreadPoolTest {
+
+    private ForkJoinEntitlementThreadPool pool;
+
+    @BeforeClass
+    public void setUp() {
+        pool = new ForkJoinEntitlementThreadPool(4);
+    }
+
+    @Test
+    public void shouldHandleEveryItemOnce() throws Exception {
+        // Given
+        List<Integer> items = range(1000);
+        final Set<Integer> handled = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch complete = new CountDownLatch(1);
+
+        // When
+        boolean scheduled = pool.forEach(items, 5, new ForkJoinEntitlementThreadPool.ItemHandler<Integer>() {
+            @Override
+            public boolean handle(Integer item) {
+                calls.incrementAndGet();
+                handled.add(item);
+                return true;
+            }
+        }, countDown(complete));
+
+        // Then
+        assertThat(scheduled).isTrue();
+        assertThat(complete.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls.get()).isEqualTo(1000);
+        assertThat(handled).hasSize(1000);
+    }
+
+    @Test
+    public void shouldSkipRemainingItemsWhenHandlerStops() throws Exception {
+        // Given
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch complete = new CountDownLatch(1);
+
+        // When
+        pool.forEach(range(10), 10, new ForkJoinEntitlementThreadPool.ItemHandler<Integer>() {
+            @Override
+            public boolean handle(Integer item) {
+                calls.incrementAndGet();
+                return item < 3;
+            }
+        }, countDown(complete));
+
+        // Then
+        assertThat(complete.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldCompleteWhenHandlerFails() throws Exception {
+        // Given
+        final CountDownLatch complete = new CountDownLatch(1);
+
+        // When
+        pool.forEach(range(100), 5, new ForkJoinEntitlementThreadPool.ItemHandler<Integer>() {
+            @Override
+            public boolean handle(Integer item) {
+                throw new IllegalStateException();
+            }
+        }, countDown(complete));
+
+        // Then
+        assertThat(complete.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldRunSubmittedTasks() throws Exception {
+        // Given
+        CountDownLatch complete = new CountDownLatch(1);
+
+        // When
+        pool.submit(countDown(complete));
+
+        // Then
+        assertThat(complete.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldCompleteConcurrentEvaluationsOfMixedSizes() throws Exception {
+        // Given
+        int requests = 200;
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> handled = new ArrayList<>(requests);
+
+        // When
+        try {
+            for (int i = 0; i < requests; i++) {
+                final int privileges = i % 10 == 0 ? 500 : i % 3 == 0 ? 50 : 5;
+                handled.add(clients.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return evaluate(privileges);
+                    }
+                }));
+            }
+
+            // Then
+            for (int i = 0; i < requests; i++) {
+                int privileges = i % 10 == 0 ? 500 : i % 3 == 0 ? 50 : 5;
+                assertThat(handled.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(privileges);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private int evaluate(int privileges) throws InterruptedException {
+        final AtomicInteger calls = new AtomicInteger();
+        CountDownLatch complete = new CountDownLatch(1);
+        boolean scheduled = pool.forEach(range(privileges), 5,
+                new ForkJoinEntitlementThreadPool.ItemHandler<Integer>() {
+                    @Override
+                    public boolean handle(Integer item) {
+                        calls.incrementAndGet();
+                        return true;
+                    }
+                }, countDown(complete));
+        assertThat(scheduled).isTrue();
+        assertThat(complete.await(10, TimeUnit.SECONDS)).isTrue();
+        return calls.get();
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+}
@@ -15,16 +15,22 @@
  */
 package com.sun.identity.idm.common;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.forgerock.openam.utils.TimeTravelUtil;
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.iplanet.am.sdk.AMHashMap;
+import com.sun.identity.idm.IdRepoBundle;
+import com.sun.identity.idm.IdRepoErrorCode;
+import com.sun.identity.idm.IdRepoException;
+import com.sun.identity.idm.IdType;
 
 /**
  * Unit test for {@link IdCacheBlock}.
@@ -44,6 +50,13 @@ public class IdCacheBlockTest {
         attributes.put("Test", values);
     }
 
+    @AfterMethod
+    public void resetExpirationTimes() {
+        IdCacheBlock.ATTRIBUTE_SET_EXPIRE_TIME = 0;
+        IdCacheBlock.NOT_FOUND_EXPIRE_TIME = 0;
+        IdCacheBlock.MEMBERSHIP_EXPIRE_TIME = IdCacheBlock.DEFAULT_MEMBERSHIP_EXPIRE_SECONDS * 1000L;
+    }
+
     @Test
     public void entryCachedTest() throws Exception {
 
@@ -88,4 +101,103 @@ public class IdCacheBlockTest {
         Map cachedAttributes = cb.getAttributes(PRINCIPAL_DN, false);
         Assert.assertTrue(cachedAttributes.isEmpty());
     }
+
+    @Test
+    public void expiredAttributeSetTest() throws Exception {
+        IdCacheBlock.ATTRIBUTE_SET_EXPIRE_TIME = 60000;
+        IdCacheBlock cb = new IdCacheBlock(ENTRY_DN, true);
+
+        cb.putAttributes(PRINCIPAL_DN, attributes, null, true, false);
+        TimeTravelUtil.fastForward(30000);
+        Assert.assertTrue(cb.hasCompleteSet(PRINCIPAL_DN));
+
+        // Go past the attribute set expiry, expect the attributes to be read again.
+        TimeTravelUtil.fastForward(60000);
+        Assert.assertFalse(cb.hasCache(PRINCIPAL_DN));
+        Assert.assertTrue(cb.getAttributes(PRINCIPAL_DN, false).isEmpty());
+
+        cb.putAttributes(PRINCIPAL_DN, attributes, null, true, false);
+        Assert.assertTrue(cb.hasCompleteSet(PRINCIPAL_DN));
+    }
+
+    @Test
+    public void notFoundEntryTest() throws Exception {
+        IdCacheBlock.NOT_FOUND_EXPIRE_TIME = 60000;
+        IdRepoException cause = new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.TYPE_NOT_FOUND,
+                new Object[] {"test", "user"});
+
+        IdCacheBlock cb = IdCacheBlock.notFound(ENTRY_DN, cause);
+
+        Assert.assertFalse(cb.isExists());
+        IdRepoException notFound = cb.getNotFoundException();
+        Assert.assertNotNull(notFound);
+        Assert.assertNotSame(notFound, cause);
+        Assert.assertEquals(notFound.getErrorCode(), IdRepoErrorCode.TYPE_NOT_FOUND);
+
+        // Go past the not found expiry, expect the identity to be read again.
+        TimeTravelUtil.fastForward(120000);
+        Assert.assertNull(cb.getNotFoundException());
+    }
+
+    @Test
+    public void addedEntryIsNoLongerNotFoundTest() throws Exception {
+        IdCacheBlock.NOT_FOUND_EXPIRE_TIME = 60000;
+        IdCacheBlock cb = IdCacheBlock.notFound(ENTRY_DN,
+                new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.UNABLE_FIND_ENTRY, null));
+
+        cb.setExists(true);
+
+        Assert.assertNull(cb.getNotFoundException());
+        cb.putAttributes(PRINCIPAL_DN, attributes, null, true, false);
+        Assert.assertTrue(cb.hasCompleteSet(PRINCIPAL_DN));
+    }
+
+    @Test
+    public void cachedMembershipsTest() throws Exception {
+        IdCacheBlock cb = new IdCacheBlock(ENTRY_DN, true);
+        Set<String> groups = Collections.singleton("cn=group,dc=example,dc=com");
+
+        cb.putMemberships(PRINCIPAL_DN, IdType.GROUP, groups, 1);
+
+        Assert.assertEquals(cb.getMemberships(PRINCIPAL_DN, IdType.GROUP, 1), groups);
+        Assert.assertNull(cb.getMemberships(PRINCIPAL_DN, IdType.ROLE, 1));
+        Assert.assertNull(cb.getMemberships("uid=other,ou=People,dc=example,dc=com", IdType.GROUP, 1));
+        // A later generation invalidates the memberships.
+        Assert.assertNull(cb.getMemberships(PRINCIPAL_DN, IdType.GROUP, 2));
+
+        cb.clear();
+        Assert.assertNull(cb.getMemberships(PRINCIPAL_DN, IdType.GROUP, 1));
+    }
+
+    @Test
+    public void expiredMembershipsTest() throws Exception {
+        IdCacheBlock cb = new IdCacheBlock(ENTRY_DN, true);
+        Set<String> groups = Collections.singleton("cn=group,dc=example,dc=com");
+
+        Assert.assertTrue(IdCacheBlock.isMembershipCachingEnabled());
+        cb.putMemberships(PRINCIPAL_DN, IdType.GROUP, groups, 1);
+        TimeTravelUtil.fastForward(IdCacheBlock.MEMBERSHIP_EXPIRE_TIME / 2);
+        Assert.assertEquals(cb.getMemberships(PRINCIPAL_DN, IdType.GROUP, 1), groups);
+
+        // Go past the membership expiry without any notification, expect the memberships to be read again.
+        TimeTravelUtil.fastForward(IdCacheBlock.MEMBERSHIP_EXPIRE_TIME);
+        Assert.assertNull(cb.getMemberships(PRINCIPAL_DN, IdType.GROUP, 1));
+    }
+
+    @Test
+    public void membershipCachingDisabledWithoutExpiryTest() throws Exception {
+        IdCacheBlock.MEMBERSHIP_EXPIRE_TIME = 0;
+
+        Assert.assertFalse(IdCacheBlock.isMembershipCachingEnabled());
+    }
+
+    @Test
+    public void estimatedSizeGrowsWithAttributesTest() throws Exception {
+        IdCacheBlock cb = new IdCacheBlock(ENTRY_DN, true);
+        int emptySize = cb.getEstimatedSize();
+
+        cb.putAttributes(PRINCIPAL_DN, attributes, null, true, false);
+
+        Assert.assertTrue(cb.getEstimatedSize() > emptySize);
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.log.handlers;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AsyncFileHandlerTest {
+
+    private File logFile;
+    private AsyncFileHandler handler;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        logFile = File.createTempFile("amAuthentication", ".access");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (handler != null) {
+            handler.close();
+        }
+        logFile.delete();
+        new File(logFile.getPath() + ".overflow").delete();
+    }
+
+    @Test
+    public void shouldWriteBufferedRecordsPromptlyOnFlush() throws IOException {
+        // Given
+        handler = new AsyncFileHandler(logFile, new MessageFormatter(), 100, TimeUnit.MINUTES.toMillis(1));
+        for (int i = 0; i < 3; i++) {
+            handler.publish(new LogRecord(Level.INFO, "record" + i));
+        }
+
+        // When
+        long start = System.nanoTime();
+        handler.flush();
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(Files.readAllLines(logFile.toPath(), Charset.defaultCharset()))
+                .containsExactly("record0", "record1", "record2");
+    }
+
+    @Test
+    public void shouldReturnAtOnceWhenNothingIsWaitingToBeWritten() throws IOException {
+        // Given
+        handler = new AsyncFileHandler(logFile, new MessageFormatter(), 100, TimeUnit.MINUTES.toMillis(1));
+
+        // When
+        long start = System.nanoTime();
+        handler.flush();
+
+        // Then
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static final class MessageFormatter extends Formatter {
+        @Override
+        public String format(LogRecord record) {
+            return record.getMessage() + System.lineSeparator();
+        }
+    }
+}
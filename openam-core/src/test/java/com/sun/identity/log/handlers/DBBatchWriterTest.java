@@ -0,0 +1,157 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.log.handlers;
+
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DBBatchWriterTest {
+
+    private static final String INSERT = "INSERT INTO amAuthentication_access (TIME, DATA, LOGINID) VALUES (?,?,?)";
+
+    private Connection conn;
+    private DBBatchWriter writer;
+
+    @BeforeMethod
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:DBBatchWriterTest");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE amAuthentication_access (TIME TIMESTAMP, DATA CLOB, LOGINID VARCHAR(16))");
+        }
+        writer = new DBBatchWriter("amAuthentication_access", false, 4);
+    }
+
+    @AfterMethod
+    public void tearDown() throws SQLException {
+        writer.reset();
+        if (!conn.isClosed()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS amAuthentication_access");
+            }
+            conn.close();
+        }
+    }
+
+    @Test
+    public void shouldWriteAllRowsInBatches() throws SQLException {
+        DBBatchWriter.BatchResult result = new DBBatchWriter.BatchResult();
+
+        writer.write(conn, INSERT, rows(10), result);
+        writer.write(conn, INSERT, rows(3), result);
+
+        assertThat(result.written).isEqualTo(13);
+        assertThat(result.rejected).isEqualTo(0);
+        assertThat(countRows()).isEqualTo(13);
+        assertThat(conn.getAutoCommit()).isTrue();
+    }
+
+    @Test
+    public void shouldRejectOnlyFailingRows() throws SQLException {
+        List<List<String>> rows = rows(9);
+        rows.set(5, asList("0", "data", "a login id longer than the column"));
+        DBBatchWriter.BatchResult result = new DBBatchWriter.BatchResult();
+
+        writer.write(conn, INSERT, rows, result);
+
+        assertThat(result.written).isEqualTo(8);
+        assertThat(result.rejected).isEqualTo(1);
+        assertThat(countRows()).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldRethrowMissingTableWithoutRejectingRows() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE amAuthentication_access");
+        }
+        DBBatchWriter.BatchResult result = new DBBatchWriter.BatchResult();
+
+        try {
+            writer.write(conn, INSERT, rows(5), result);
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat(writer.isMissingTable(e)).isTrue();
+        }
+        assertThat(result.processed()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRethrowLostConnectionAfterWrittenRows() throws SQLException {
+        DBBatchWriter.BatchResult result = new DBBatchWriter.BatchResult();
+        writer.write(conn, INSERT, rows(4), result);
+        conn.close();
+
+        try {
+            writer.write(conn, INSERT, rows(4), result);
+            fail("Expected SQLException");
+        } catch (SQLException e) {
+            assertThat(writer.isConnectionLost(conn, e)).isTrue();
+        }
+        assertThat(result.processed()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldReuseStatementAndSendRowsInBatches() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement insert = mock(PreparedStatement.class);
+        given(connection.prepareStatement(INSERT)).willReturn(insert);
+        given(connection.getAutoCommit()).willReturn(true);
+        DBBatchWriter.BatchResult result = new DBBatchWriter.BatchResult();
+
+        writer.write(connection, INSERT, rows(10), result);
+        writer.write(connection, INSERT, rows(3), result);
+
+        verify(connection, times(1)).prepareStatement(INSERT);
+        verify(insert, times(13)).addBatch();
+        // 4 + 4 + 2 rows, then 3 rows
+        verify(insert, times(4)).executeBatch();
+        verify(connection, times(4)).commit();
+        assertThat(result.written).isEqualTo(13);
+    }
+
+    private List<List<String>> rows(int count) {
+        List<List<String>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(asList(String.valueOf(1767225600000L + i), "Login Success", "user" + i));
+        }
+        return rows;
+    }
+
+    private int countRows() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM amAuthentication_access")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package com.sun.identity.sm.ldap;
+
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.openam.utils.CollectionUtils.asSet;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.forgerock.opendj.ldap.GeneralizedTime;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.common.CaseInsensitiveHashMap;
+import com.sun.identity.shared.debug.Debug;
+import com.sun.identity.sm.ldap.SMSPreloadCache.PreloadedEntry;
+import com.sun.identity.sm.ldap.SMSPreloadCache.Snapshot;
+
+public class SMSPreloadCacheTest {
+
+    private static final String BASE_DN = "ou=services,dc=openam,dc=forgerock,dc=org";
+    private static final String SERVICE_DN = "ou=iPlanetAMAuthService,ou=services,dc=openam,dc=forgerock,dc=org";
+    private static final long READ_TIME = GeneralizedTime.valueOf("20260103000000Z").getTimeInMillis();
+
+    private File snapshotFile;
+    private SMSPreloadCache cache;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        snapshotFile = File.createTempFile("sms", ".snapshot");
+        snapshotFile.delete();
+        cache = new SMSPreloadCache(mock(Debug.class), snapshotFile);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        snapshotFile.delete();
+    }
+
+    @Test
+    public void shouldHandOutPreloadedEntriesOnce() {
+        cache.load(asList(entry(SERVICE_DN, "20260101000000Z", "ou", "iPlanetAMAuthService")), cache.getChangeCount());
+
+        assertThat(cache.take(SERVICE_DN.toUpperCase()).get("ou")).containsOnly("iPlanetAMAuthService");
+        assertThat(cache.take(SERVICE_DN)).isNull();
+    }
+
+    @Test
+    public void shouldDiscardChangedEntries() {
+        cache.load(asList(entry(SERVICE_DN, "20260101000000Z", "ou", "iPlanetAMAuthService")), cache.getChangeCount());
+
+        cache.changed(SMSPreloadCache.normalize(SERVICE_DN));
+
+        assertThat(cache.take(SERVICE_DN)).isNull();
+    }
+
+    @Test
+    public void shouldDiscardLoadIfEntriesChangedWhileLoading() {
+        long changeCount = cache.getChangeCount();
+        cache.changed(SMSPreloadCache.normalize(SERVICE_DN));
+
+        assertThat(cache.load(asList(entry(SERVICE_DN, "20260101000000Z", "ou", "iPlanetAMAuthService")),
+                changeCount)).isFalse();
+        assertThat(cache.take(SERVICE_DN)).isNull();
+    }
+
+    @Test
+    public void shouldStartLoadingOnlyOnce() {
+        assertThat(cache.startLoading()).isTrue();
+        assertThat(cache.startLoading()).isFalse();
+    }
+
+    @Test
+    public void shouldRoundTripSnapshot() {
+        StringBuilder schema = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            schema.append("<Schema>é</Schema>");
+        }
+        cache.writeSnapshot(BASE_DN, READ_TIME, asList(
+                entry(BASE_DN, "20260101000000Z", "objectclass", "top", "organizationalUnit"),
+                entry(SERVICE_DN, "20260102000000Z", "sunServiceSchema", schema.toString()),
+                entry("ou=notimestamp," + BASE_DN, null, "ou", "notimestamp")));
+
+        Snapshot read = cache.readSnapshot(BASE_DN);
+
+        assertThat(read.readTime).isEqualTo(READ_TIME);
+        Map<String, PreloadedEntry> snapshot = read.entries;
+        assertThat(snapshot).hasSize(2);
+        PreloadedEntry service = snapshot.get(SMSPreloadCache.normalize(SERVICE_DN));
+        assertThat(service.dn).isEqualTo(SERVICE_DN);
+        assertThat(service.timestamp).isEqualTo("20260102000000Z");
+        assertThat(service.attributes.get("SUNSERVICESCHEMA")).containsOnly(schema.toString());
+        assertThat(snapshot.get(SMSPreloadCache.normalize(BASE_DN)).attributes.get("objectClass"))
+                .containsOnly("top", "organizationalUnit");
+    }
+
+    @Test
+    public void shouldIgnoreSnapshotOfAnotherConfiguration() {
+        cache.writeSnapshot(BASE_DN, READ_TIME, asList(entry(BASE_DN, "20260101000000Z", "ou", "services")));
+
+        assertThat(cache.readSnapshot("ou=services,dc=example,dc=com")).isNull();
+    }
+
+    @Test
+    public void shouldKeepOnlyUnchangedEntriesWhenReconciling() {
+        String addedDN = "ou=added," + BASE_DN;
+        String deletedDN = "ou=deleted," + BASE_DN;
+        cache.writeSnapshot(BASE_DN, READ_TIME, asList(
+                entry(BASE_DN, "20260101000000Z", "ou", "services"),
+                entry(SERVICE_DN, "20260101000000Z", "ou", "iPlanetAMAuthService"),
+                entry(deletedDN, "20260101000000Z", "ou", "deleted")));
+
+        List<PreloadedEntry> unchanged = SMSPreloadCache.reconcile(cache.readSnapshot(BASE_DN), asList(
+                new PreloadedEntry(BASE_DN, "20260101000000Z", null),
+                new PreloadedEntry(SERVICE_DN, "20260105000000Z", null),
+                new PreloadedEntry(addedDN, "20260105000000Z", null)));
+
+        assertThat(unchanged).hasSize(1);
+        assertThat(unchanged.get(0).dn).isEqualTo(BASE_DN);
+        assertThat(unchanged.get(0).attributes.get("ou")).containsOnly("services");
+    }
+
+    @Test
+    public void shouldTreatEntriesModifiedInTheSecondTheSnapshotWasReadAsChanged() {
+        long readTime = GeneralizedTime.valueOf("20260103000000Z").getTimeInMillis() + 500;
+        cache.writeSnapshot(BASE_DN, readTime, asList(
+                entry(BASE_DN, "20260102235959Z", "ou", "services"),
+                entry(SERVICE_DN, "20260103000000Z", "ou", "iPlanetAMAuthService")));
+
+        List<PreloadedEntry> unchanged = SMSPreloadCache.reconcile(cache.readSnapshot(BASE_DN), asList(
+                new PreloadedEntry(BASE_DN, "20260102235959Z", null),
+                new PreloadedEntry(SERVICE_DN, "20260103000000Z", null)));
+
+        assertThat(unchanged).hasSize(1);
+        assertThat(unchanged.get(0).dn).isEqualTo(BASE_DN);
+    }
+
+    @Test
+    public void shouldCompareChangeMarkersWhenReconciling() {
+        cache.writeSnapshot(BASE_DN, READ_TIME, asList(
+                new PreloadedEntry(BASE_DN, "20260103000000Z", "000001", attributes("ou", "services")),
+                new PreloadedEntry(SERVICE_DN, "20260103000000Z", "000002",
+                        attributes("ou", "iPlanetAMAuthService"))));
+
+        List<PreloadedEntry> unchanged = SMSPreloadCache.reconcile(cache.readSnapshot(BASE_DN), asList(
+                new PreloadedEntry(BASE_DN, "20260103000000Z", "000001", null),
+                new PreloadedEntry(SERVICE_DN, "20260103000000Z", "000003", null)));
+
+        assertThat(unchanged).hasSize(1);
+        assertThat(unchanged.get(0).dn).isEqualTo(BASE_DN);
+    }
+
+    private PreloadedEntry entry(String dn, String timestamp, String attribute, String... values) {
+        return new PreloadedEntry(dn, timestamp, attributes(attribute, values));
+    }
+
+    private Map<String, Set<String>> attributes(String attribute, String... values) {
+        Map<String, Set<String>> attributes = new CaseInsensitiveHashMap<>();
+        attributes.put(attribute, asSet(values));
+        return attributes;
+    }
+}
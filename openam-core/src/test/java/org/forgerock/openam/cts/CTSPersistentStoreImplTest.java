@@ -16,6 +16,8 @@
 package org.forgerock.openam.cts;
 
 import com.sun.identity.shared.debug.Debug;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.cache.CTSTokenCache;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.CoreTokenAdapter;
 import org.forgerock.openam.cts.utils.blob.TokenBlobStrategy;
@@ -27,17 +29,20 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 public class CTSPersistentStoreImplTest {
 
     private CoreTokenAdapter mockAdapter;
+    private CTSTokenCache mockCache;
     private CTSPersistentStoreImpl impl;
 
     @BeforeMethod
     public void setup() {
         mockAdapter = mock(CoreTokenAdapter.class);
-        impl = new CTSPersistentStoreImpl(mockAdapter, mock(Debug.class));
+        mockCache = mock(CTSTokenCache.class);
+        impl = new CTSPersistentStoreImpl(mockAdapter, mockCache, mock(Debug.class));
     }
 
     @Test
@@ -52,4 +57,29 @@ public class CTSPersistentStoreImplTest {
         given(mockAdapter.read(anyString())).willReturn(null);
         assertThat(impl.read("")).isNull();
     }
+
+    @Test
+    public void shouldNotUseAdapterForCachedRead() throws CoreTokenException {
+        Token token = mock(Token.class);
+        given(mockCache.get("badger")).willReturn(token);
+        assertThat(impl.read("badger")).isSameAs(token);
+        verify(mockAdapter, never()).read(anyString());
+    }
+
+    @Test
+    public void shouldCacheTokenReadWithVersionObtainedBeforeRead() throws CoreTokenException {
+        Token token = mock(Token.class);
+        given(mockCache.getVersion("badger")).willReturn(42L);
+        given(mockAdapter.read("badger")).willReturn(token);
+        impl.read("badger");
+        verify(mockCache).put(token, 42L);
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnUpdate() throws CoreTokenException {
+        Token token = mock(Token.class);
+        given(token.getTokenId()).willReturn("badger");
+        impl.updateAsync(token);
+        verify(mockCache).invalidate("badger");
+    }
 }
\ No newline at end of file
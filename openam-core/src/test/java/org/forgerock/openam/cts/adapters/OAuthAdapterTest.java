@@ -16,10 +16,12 @@
 package org.forgerock.openam.cts.adapters;
 
 import org.forgerock.json.JsonValue;
+import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.cts.api.fields.OAuthTokenField;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.api.tokens.TokenIdFactory;
+import org.forgerock.openam.cts.utils.BinarySerialisation;
 import org.forgerock.openam.cts.utils.JSONSerialisation;
 import org.forgerock.openam.cts.utils.KeyConversion;
 import org.forgerock.openam.cts.utils.blob.TokenBlobUtils;
@@ -192,16 +194,42 @@ public class OAuthAdapterTest {
         assertThat(fromToken).isNull();
     }
 
+    @Test
+    public void shouldDeserialiseTokenSerialisedInBinaryForm() {
+        // Given
+        CoreTokenConfig config = mock(CoreTokenConfig.class);
+        given(config.isBinaryBlobFormat()).willReturn(true);
+        OAuthAdapter adapter = generateOAuthAdapter(config);
+
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put(OAuthTokenField.ID.getOAuthField(), Arrays.asList("badger"));
+        values.put(OAuthTokenField.SCOPE.getOAuthField(), Arrays.asList("weasel", "ferret"));
+
+        // When
+        Token token = adapter.toToken(makeDefaultJsonValue(values));
+        JsonValue result = adapter.fromToken(token);
+
+        // Then
+        assertThat(BinarySerialisation.isBinary(token.getBlob())).isTrue();
+        assertThat(result.get(OAuthTokenField.SCOPE.getOAuthField()).asSet(String.class))
+                .containsOnly("weasel", "ferret");
+    }
 
     /**
      * @return Makes a standard OAuthAdapter with real dependencies.
      */
     private OAuthAdapter generateOAuthAdapter() {
+        return generateOAuthAdapter(mock(CoreTokenConfig.class));
+    }
+
+    private OAuthAdapter generateOAuthAdapter(CoreTokenConfig config) {
         JSONSerialisation serialisation = new JSONSerialisation(new ObjectMapper());
+        BinarySerialisation binarySerialisation = new BinarySerialisation(new ObjectMapper());
         KeyConversion keyConversion = new KeyConversion();
         OAuthValues oAuthValues = new OAuthValues();
         TokenBlobUtils blobUtils = new TokenBlobUtils();
-        return new OAuthAdapter(new TokenIdFactory(keyConversion), serialisation, oAuthValues, blobUtils);
+        return new OAuthAdapter(new TokenIdFactory(keyConversion), serialisation, binarySerialisation, config,
+                oAuthValues, blobUtils);
     }
 
     /**
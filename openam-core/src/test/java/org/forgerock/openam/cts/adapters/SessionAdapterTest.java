@@ -27,6 +27,7 @@ import org.forgerock.openam.cts.api.fields.SessionTokenField;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.api.tokens.TokenIdFactory;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.utils.BinarySerialisation;
 import org.forgerock.openam.cts.utils.JSONSerialisation;
 import org.forgerock.openam.cts.utils.blob.TokenBlobUtils;
 import org.forgerock.openam.utils.TimeUtils;
@@ -48,6 +49,7 @@ public class SessionAdapterTest {
     private TokenIdFactory tokenIdFactory;
     private CoreTokenConfig coreTokenConfig;
     private JSONSerialisation jsonSerialisation;
+    private BinarySerialisation binarySerialisation;
     private TokenBlobUtils blobUtils;
 
     @BeforeMethod
@@ -55,8 +57,10 @@ public class SessionAdapterTest {
         tokenIdFactory = mock(TokenIdFactory.class);
         coreTokenConfig = mock(CoreTokenConfig.class);
         jsonSerialisation = mock(JSONSerialisation.class);
+        binarySerialisation = mock(BinarySerialisation.class);
         blobUtils = new TokenBlobUtils();
-        adapter = new SessionAdapter(tokenIdFactory, coreTokenConfig, jsonSerialisation, blobUtils);
+        adapter = new SessionAdapter(tokenIdFactory, coreTokenConfig, jsonSerialisation, binarySerialisation,
+                blobUtils);
     }
 
     @Test
@@ -93,7 +97,7 @@ public class SessionAdapterTest {
         adapter = new SessionAdapter(
                 tokenIdFactory,
                 coreTokenConfig ,
-                jsonSerialisation, blobUtils);
+                jsonSerialisation, binarySerialisation, blobUtils);
 
         Token token = new Token(sessionId, TokenType.SESSION);
         token.setUserId(userId);
@@ -129,7 +133,7 @@ public class SessionAdapterTest {
                 .withSetterVisibility(JsonAutoDetect.Visibility.NONE)
                 .withCreatorVisibility(JsonAutoDetect.Visibility.NONE));
         JSONSerialisation serialisation = new JSONSerialisation(mapper);
-        adapter = new SessionAdapter(tokenIdFactory, coreTokenConfig, serialisation, blobUtils);
+        adapter = new SessionAdapter(tokenIdFactory, coreTokenConfig, serialisation, binarySerialisation, blobUtils);
 
         // When
         InternalSession session = adapter.fromToken(token);
@@ -142,6 +146,40 @@ public class SessionAdapterTest {
 
     }
 
+    @Test
+    public void shouldRestoreLatestAccessTimeFromAttributeForBinaryBlob() {
+        // Given
+        String latestAccessTime = "12345";
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibilityChecker(mapper.getSerializationConfig().getDefaultVisibilityChecker()
+                .withFieldVisibility(JsonAutoDetect.Visibility.ANY)
+                .withGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withIsGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withSetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withCreatorVisibility(JsonAutoDetect.Visibility.NONE));
+        BinarySerialisation serialisation = new BinarySerialisation(mapper);
+        adapter = new SessionAdapter(tokenIdFactory, coreTokenConfig, jsonSerialisation, serialisation, blobUtils);
+
+        Token token = new Token("badger", TokenType.SESSION);
+        token.setAttribute(SessionTokenField.LATEST_ACCESS_TIME.getField(), latestAccessTime);
+
+        // blob contents are missing the latestAccessTime value
+        token.setBlob(serialisation.encode(mapper.createObjectNode()
+                .put("clientDomain", (String) null)
+                .put("creationTime", 1376307674)
+                .put("isISStored", true)
+                .put("maxCachingTime", 3)));
+
+        // When
+        InternalSession session = adapter.fromToken(token);
+
+        // Then
+        long epochedSeconds = currentTimeMillis() / 1000;
+        long idleTime = session.getIdleTime();
+        assertTrue(idleTime < epochedSeconds);
+    }
+
     @Test
     public void shouldAssignAttributeFromSessionLatestAccessTime() {
         // Given
@@ -0,0 +1,140 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.forgerock.openam.cts.CoreTokenConfig;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.monitoring.CTSCacheMonitoringStore;
+import org.forgerock.openam.tokens.TokenType;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.shared.debug.Debug;
+
+public class CTSTokenCacheTest {
+
+    private CoreTokenConfig config;
+    private CTSCacheMonitoringStore monitoringStore;
+    private CTSTokenCacheInvalidator invalidator;
+    private CTSTokenCache cache;
+
+    @BeforeMethod
+    public void setup() {
+        config = mock(CoreTokenConfig.class);
+        given(config.isTokenCacheEnabled()).willReturn(true);
+        given(config.getTokenCacheSize()).willReturn(10);
+        given(config.getTokenCacheTTL()).willReturn(60000L);
+        given(config.getStrictTokenTypes()).willReturn(Collections.<TokenType>emptySet());
+        monitoringStore = mock(CTSCacheMonitoringStore.class);
+        invalidator = mock(CTSTokenCacheInvalidator.class);
+        cache = new CTSTokenCache(config, monitoringStore, invalidator, mock(Debug.class));
+    }
+
+    @Test
+    public void shouldReturnCopyOfCachedToken() {
+        // Given
+        Token token = new Token("badger", TokenType.SESSION);
+        cache.put(token, cache.getVersion("badger"));
+
+        // When
+        Token result = cache.get("badger");
+
+        // Then
+        assertThat(result).isNotSameAs(token);
+        assertThat(result.getTokenId()).isEqualTo("badger");
+        verify(monitoringStore).addCacheRead(true);
+        verify(invalidator).start(cache);
+    }
+
+    @Test
+    public void shouldNotCacheTokenReadBeforeInvalidation() {
+        // Given
+        long version = cache.getVersion("badger");
+        cache.invalidate("badger");
+
+        // When
+        cache.put(new Token("badger", TokenType.SESSION), version);
+
+        // Then
+        assertThat(cache.get("badger")).isNull();
+        verify(monitoringStore).addCacheRead(false);
+    }
+
+    @Test
+    public void shouldRemoveInvalidatedToken() {
+        // Given
+        cache.put(new Token("badger", TokenType.SESSION), cache.getVersion("badger"));
+
+        // When
+        cache.invalidate("badger");
+
+        // Then
+        assertThat(cache.get("badger")).isNull();
+        verify(monitoringStore).addCacheInvalidation();
+    }
+
+    @Test
+    public void shouldNotCacheStrictTokenTypes() {
+        // Given
+        given(config.getStrictTokenTypes()).willReturn(EnumSet.of(TokenType.OAUTH));
+
+        // When
+        cache.put(new Token("badger", TokenType.OAUTH), cache.getVersion("badger"));
+
+        // Then
+        assertThat(cache.get("badger")).isNull();
+    }
+
+    @Test
+    public void shouldNotCacheExpiredToken() {
+        // Given
+        Token token = new Token("badger", TokenType.SESSION);
+        Calendar expiry = Calendar.getInstance();
+        expiry.add(Calendar.MINUTE, -1);
+        token.setExpiryTimestamp(expiry);
+
+        // When
+        cache.put(token, cache.getVersion("badger"));
+
+        // Then
+        assertThat(cache.get("badger")).isNull();
+    }
+
+    @Test
+    public void shouldClearAllTokens() {
+        // Given
+        cache.put(new Token("badger", TokenType.SESSION), cache.getVersion("badger"));
+        cache.put(new Token("weasel", TokenType.SESSION), cache.getVersion("weasel"));
+
+        // When
+        cache.invalidateAll();
+
+        // Then
+        assertThat(cache.get("badger")).isNull();
+        assertThat(cache.get("weasel")).isNull();
+        verify(monitoringStore, times(2)).addCacheRead(false);
+    }
+}
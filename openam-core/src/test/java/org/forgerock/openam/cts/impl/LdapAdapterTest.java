@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.cts.impl;
@@ -30,7 +31,9 @@ import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.utils.LDAPDataConversion;
 import org.forgerock.openam.cts.utils.LdapTokenAttributeConversion;
 import org.forgerock.openam.ldap.LDAPRequests;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.LdapOperationFailedException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
 import org.forgerock.openam.sm.datalayer.api.query.QueryBuilder;
 import org.forgerock.openam.sm.datalayer.impl.ldap.LdapDataLayerConfiguration;
@@ -43,7 +46,10 @@ import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.Entry;
 import org.forgerock.opendj.ldap.Filter;
 import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.LdapPromise;
+import org.forgerock.opendj.ldap.LinkedHashMapEntry;
 import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.requests.AddRequest;
 import org.forgerock.opendj.ldap.requests.DeleteRequest;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
@@ -180,6 +186,100 @@ public class LdapAdapterTest {
         } catch (LdapOperationFailedException e) {}
     }
 
+    @Test
+    public void shouldSendCreateWithoutWaitingForResult() throws Exception {
+        // Given
+        LdapPromise<Result> promise = mockPromise();
+        given(promise.getOrThrow()).willReturn(mockSuccessfulResult());
+        given(mockConnection.addAsync(any(AddRequest.class))).willReturn(promise);
+        given(mockConversion.getEntry(any(Token.class))).willReturn(new LinkedHashMapEntry(DN.rootDN()));
+
+        // When
+        PendingOperation operation = adapter.createAsync(mockConnection, new Token("badger", TokenType.SESSION));
+
+        // Then
+        verify(mockConnection).addAsync(any(AddRequest.class));
+        verify(promise, never()).getOrThrow();
+        operation.await();
+        verify(promise).getOrThrow();
+    }
+
+    @Test (expectedExceptions = LdapOperationFailedException.class)
+    public void shouldThrowWhenAwaitingFailedCreate() throws Exception {
+        // Given
+        LdapPromise<Result> promise = mockPromise();
+        given(promise.getOrThrow()).willThrow(LdapException.newLdapException(ResultCode.ENTRY_ALREADY_EXISTS));
+        given(mockConnection.addAsync(any(AddRequest.class))).willReturn(promise);
+        given(mockConversion.getEntry(any(Token.class))).willReturn(new LinkedHashMapEntry(DN.rootDN()));
+
+        // When / Then
+        adapter.createAsync(mockConnection, new Token("badger", TokenType.SESSION)).await();
+    }
+
+    @Test
+    public void shouldSendDeleteWithoutWaitingForResult() throws Exception {
+        // Given
+        DN testDN = DN.rootDN();
+        LdapPromise<Result> promise = mockPromise();
+        given(promise.getOrThrow()).willReturn(mockSuccessfulResult());
+        given(mockConnection.deleteAsync(any(DeleteRequest.class))).willReturn(promise);
+        given(mockConversion.generateTokenDN(anyString())).willReturn(testDN);
+
+        // When
+        PendingOperation operation = adapter.deleteAsync(mockConnection, "badger");
+
+        // Then
+        ArgumentCaptor<DeleteRequest> captor = ArgumentCaptor.forClass(DeleteRequest.class);
+        verify(mockConnection).deleteAsync(captor.capture());
+        assertEquals(testDN, captor.getValue().getName());
+        verify(promise, never()).getOrThrow();
+        operation.await();
+        verify(promise).getOrThrow();
+    }
+
+    @Test
+    public void shouldDoNothingIfObjectNotFoundWhenAwaitingDelete() throws Exception {
+        // Given
+        LdapPromise<Result> promise = mockPromise();
+        given(promise.getOrThrow()).willThrow(LdapException.newLdapException(ResultCode.NO_SUCH_OBJECT));
+        given(mockConnection.deleteAsync(any(DeleteRequest.class))).willReturn(promise);
+        given(mockConversion.generateTokenDN(anyString())).willReturn(DN.rootDN());
+
+        // When / Then
+        adapter.deleteAsync(mockConnection, "badger").await();
+    }
+
+    @Test (expectedExceptions = LdapOperationFailedException.class)
+    public void shouldThrowAllOtherExceptionsWhenAwaitingDelete() throws Exception {
+        // Given
+        LdapPromise<Result> promise = mockPromise();
+        given(promise.getOrThrow()).willThrow(LdapException.newLdapException(ResultCode.OTHER));
+        given(mockConnection.deleteAsync(any(DeleteRequest.class))).willReturn(promise);
+        given(mockConversion.generateTokenDN(anyString())).willReturn(DN.rootDN());
+
+        // When / Then
+        adapter.deleteAsync(mockConnection, "badger").await();
+    }
+
+    @Test
+    public void shouldRestoreInterruptWhenInterruptedAwaitingOperation() throws Exception {
+        // Given
+        LdapPromise<Result> promise = mockPromise();
+        given(promise.getOrThrow()).willThrow(new InterruptedException());
+        given(mockConnection.deleteAsync(any(DeleteRequest.class))).willReturn(promise);
+        given(mockConversion.generateTokenDN(anyString())).willReturn(DN.rootDN());
+
+        // When
+        try {
+            adapter.deleteAsync(mockConnection, "badger").await();
+            fail();
+        } catch (DataLayerException e) {
+            // Then
+            assertThat(e.getClass()).isEqualTo(DataLayerException.class);
+            assertThat(Thread.interrupted()).isTrue();
+        }
+    }
+
     @Test
     public void shouldNoNothingIfNoModificaitonsOnUpdate() throws Exception {
         // Given
@@ -292,6 +392,11 @@ public class LdapAdapterTest {
         assertThat(result).containsOnly(partialToken);
     }
 
+    @SuppressWarnings("unchecked")
+    private static LdapPromise<Result> mockPromise() {
+        return mock(LdapPromise.class);
+    }
+
     private static Result mockSuccessfulResult() {
         Result result = mock(Result.class);
         ResultCode resultCode = ResultCode.SUCCESS;
@@ -0,0 +1,124 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.impl.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.impl.LdapAdapter;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.ResultHandler;
+import org.forgerock.opendj.ldap.Connection;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CoalescingUpdateTaskTest {
+    private CoalescingUpdateTask task;
+    private ConcurrentMap<String, CoalescingUpdateTask> pending;
+    private Connection mockConnection;
+    private LdapAdapter mockAdapter;
+    private Token first;
+    private Token second;
+    private ResultHandler<Token, ?> firstHandler;
+    private ResultHandler<Token, ?> secondHandler;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        first = mock(Token.class);
+        given(first.getTokenId()).willReturn("badger");
+        second = mock(Token.class);
+        given(second.getTokenId()).willReturn("badger");
+        mockAdapter = mock(LdapAdapter.class);
+        mockConnection = mock(Connection.class);
+        firstHandler = mock(ResultHandler.class);
+        secondHandler = mock(ResultHandler.class);
+        pending = new ConcurrentHashMap<String, CoalescingUpdateTask>();
+
+        task = new CoalescingUpdateTask(first, firstHandler, pending);
+        pending.put("badger", task);
+        given(mockAdapter.read(any(Connection.class), anyString())).willReturn(first);
+    }
+
+    @Test
+    public void shouldWriteOnlyLatestMergedToken() throws Exception {
+        assertThat(task.merge(second, secondHandler)).isTrue();
+
+        task.execute(mockConnection, mockAdapter);
+
+        verify(mockAdapter, times(1)).update(any(Connection.class), any(Token.class), eq(second));
+        verify(mockAdapter, never()).update(any(Connection.class), any(Token.class), eq(first));
+    }
+
+    @Test
+    public void shouldNotifyEveryMergedHandler() throws Exception {
+        task.merge(second, secondHandler);
+
+        task.execute(mockConnection, mockAdapter);
+
+        verify(firstHandler).processResults(first);
+        verify(secondHandler).processResults(second);
+    }
+
+    @Test
+    public void shouldCreateWhenNotPresent() throws Exception {
+        given(mockAdapter.read(any(Connection.class), anyString())).willReturn(null);
+        task.execute(mockConnection, mockAdapter);
+        verify(mockAdapter).create(any(Connection.class), eq(first));
+    }
+
+    @Test
+    public void shouldRejectMergeOnceSealed() {
+        task.seal();
+
+        assertThat(task.merge(second, secondHandler)).isFalse();
+        assertThat(pending).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectMergeOnceStarted() throws Exception {
+        task.execute(mockConnection, mockAdapter);
+
+        assertThat(task.merge(second, secondHandler)).isFalse();
+        assertThat(pending).isEmpty();
+    }
+
+    @Test
+    public void shouldNotifyEveryMergedHandlerOfError() throws Exception {
+        task.merge(second, secondHandler);
+        doThrow(DataLayerException.class).when(mockAdapter).read(any(Connection.class), anyString());
+
+        try {
+            task.execute(mockConnection, mockAdapter);
+        } catch (DataLayerException e) {
+            // expected
+        }
+
+        verify(firstHandler).processError(any(DataLayerException.class));
+        verify(secondHandler).processError(any(DataLayerException.class));
+    }
+}
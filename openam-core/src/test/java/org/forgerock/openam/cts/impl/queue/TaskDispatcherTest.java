@@ -12,20 +12,34 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.cts.impl.queue;
 
 import static org.mockito.BDDMockito.*;
 import static org.mockito.BDDMockito.mock;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.forgerock.openam.cts.api.filter.TokenFilter;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.Task;
 import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutor;
 import org.forgerock.openam.sm.datalayer.impl.tasks.TaskFactory;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -36,19 +50,25 @@ public class TaskDispatcherTest {
     private Token mockToken;
     private ResultHandler mockHandler;
     private SeriesTaskExecutor mockExecutor;
+    private CTSQueueConfiguration mockConfiguration;
+    private CTSOperationsMonitoringStore mockMonitoringStore;
 
     @BeforeMethod
     public void setup() {
         mockTaskFactory = mock(TaskFactory.class);
         mockExecutor = mock(SeriesTaskExecutor.class);
         mockHandler = mock(ResultHandler.class);
+        mockConfiguration = mock(CTSQueueConfiguration.class);
+        mockMonitoringStore = mock(CTSOperationsMonitoringStore.class);
 
         mockToken = mock(Token.class);
         given(mockToken.getTokenId()).willReturn("badger");
 
         queue = new TaskDispatcher(
                 mockTaskFactory,
-                mockExecutor);
+                mockExecutor,
+                mockConfiguration,
+                mockMonitoringStore);
     }
 
     @Test
@@ -171,4 +191,138 @@ public class TaskDispatcherTest {
         verify(mockExecutor).execute(null, task);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldMergeUpdatesToTheSameTokenWhenCoalescing() throws Exception {
+        // Given
+        given(mockConfiguration.isCoalescingUpdates()).willReturn(true);
+        Token token = mock(Token.class);
+        given(token.getTokenId()).willReturn("123");
+
+        // When
+        queue.update(token, mockHandler);
+        queue.update(token, mockHandler);
+
+        // Then
+        verify(mockExecutor, times(1)).execute(eq("123"), isA(CoalescingUpdateTask.class));
+        verify(mockMonitoringStore).addUpdateRequest(false);
+        verify(mockMonitoringStore).addUpdateRequest(true);
+    }
+
+    @Test
+    public void shouldNotMergeUpdateQueuedAfterDeleteWhenCoalescing() throws Exception {
+        // Given
+        given(mockConfiguration.isCoalescingUpdates()).willReturn(true);
+        Token token = mock(Token.class);
+        given(token.getTokenId()).willReturn("123");
+
+        // When
+        queue.update(token, mockHandler);
+        queue.delete("123", mockHandler);
+        queue.update(token, mockHandler);
+
+        // Then
+        verify(mockExecutor, times(2)).execute(eq("123"), isA(CoalescingUpdateTask.class));
+        verify(mockMonitoringStore, times(2)).addUpdateRequest(false);
+    }
+
+    @Test
+    public void shouldMergeWithoutBlockingWhileUpdateIsBeingQueuedWhenCoalescing() throws Exception {
+        // Given
+        given(mockConfiguration.isCoalescingUpdates()).willReturn(true);
+        final Token token = mock(Token.class);
+        given(token.getTokenId()).willReturn("123");
+        final CountDownLatch queueing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                queueing.countDown();
+                release.await();
+                return null;
+            }
+        }).given(mockExecutor).execute(eq("123"), isA(CoalescingUpdateTask.class));
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.update(token, mockHandler);
+                } catch (CoreTokenException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        final AtomicBoolean deleted = new AtomicBoolean();
+        Thread delete = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.delete("123", mockHandler);
+                    deleted.set(true);
+                } catch (CoreTokenException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        // When
+        first.start();
+        assertThat(queueing.await(10, TimeUnit.SECONDS)).isTrue();
+        queue.update(token, mockHandler);
+        delete.start();
+        delete.join(200);
+
+        // Then
+        verify(mockMonitoringStore).addUpdateRequest(true);
+        assertThat(deleted.get()).isFalse();
+        release.countDown();
+        first.join(10000);
+        delete.join(10000);
+        assertThat(deleted.get()).isTrue();
+        verify(mockExecutor, times(1)).execute(eq("123"), isA(CoalescingUpdateTask.class));
+    }
+
+    @Test
+    public void shouldNotifyMergedHandlersWhenUpdateCannotBeQueuedWhenCoalescing() throws Exception {
+        // Given
+        given(mockConfiguration.isCoalescingUpdates()).willReturn(true);
+        final Token token = mock(Token.class);
+        given(token.getTokenId()).willReturn("123");
+        ResultHandler mergedHandler = mock(ResultHandler.class);
+        final DataLayerException error = new DataLayerException("queue full");
+        final CountDownLatch queueing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        willAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                queueing.countDown();
+                release.await();
+                throw error;
+            }
+        }).given(mockExecutor).execute(eq("123"), isA(CoalescingUpdateTask.class));
+        final AtomicReference<CoreTokenException> thrown = new AtomicReference<CoreTokenException>();
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.update(token, mockHandler);
+                } catch (CoreTokenException e) {
+                    thrown.set(e);
+                }
+            }
+        });
+
+        // When
+        first.start();
+        assertThat(queueing.await(10, TimeUnit.SECONDS)).isTrue();
+        queue.update(token, mergedHandler);
+        release.countDown();
+        first.join(10000);
+
+        // Then
+        assertThat(thrown.get()).isNotNull();
+        assertThat(thrown.get().getCause()).isSameAs(error);
+        verify(mergedHandler).processError(error);
+        verify(mockHandler, never()).processError(any(DataLayerException.class));
+    }
+
+}
@@ -21,8 +21,10 @@ import org.forgerock.openam.cts.CTSOperation;
 import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.monitoring.impl.CTSMonitoringStoreImpl;
+import org.forgerock.openam.cts.monitoring.impl.cache.TokenCacheMonitor;
 import org.forgerock.openam.cts.monitoring.impl.connections.ConnectionStore;
 import org.forgerock.openam.cts.monitoring.impl.operations.TokenOperationsStore;
+import org.forgerock.openam.cts.monitoring.impl.queue.UpdateCoalescingMonitor;
 import org.forgerock.openam.cts.monitoring.impl.reaper.ReaperMonitor;
 import org.mockito.Matchers;
 import org.mockito.invocation.InvocationOnMock;
@@ -61,6 +63,8 @@ public class CTSMonitoringStoreImplTest {
                 tokenOperationsStore,
                 reaperMonitor,
                 connectionStore,
+                new UpdateCoalescingMonitor(),
+                new TokenCacheMonitor(),
                 debug);
         ctsReaperMonitoringStore = (CTSReaperMonitoringStore) ctsOperationsMonitoringStore;
 
@@ -283,4 +287,41 @@ public class CTSMonitoringStoreImplTest {
         //Then
         assertEquals(result, 2.0D);
     }
+
+    @Test
+    public void shouldReportUpdateCoalescingRatio() {
+
+        //Given
+        ctsOperationsMonitoringStore.addUpdateRequest(false);
+        ctsOperationsMonitoringStore.addUpdateRequest(true);
+        ctsOperationsMonitoringStore.addUpdateRequest(true);
+        ctsOperationsMonitoringStore.addUpdateRequest(false);
+
+        //When
+        double result = ctsOperationsMonitoringStore.getUpdateCoalescingRatio();
+
+        //Then
+        assertEquals(result, 0.5D);
+        assertEquals(ctsOperationsMonitoringStore.getUpdateRequestsCumulativeCount(), 4L);
+        assertEquals(ctsOperationsMonitoringStore.getCoalescedUpdatesCumulativeCount(), 2L);
+    }
+
+    @Test
+    public void shouldReportCacheHitRatio() {
+
+        //Given
+        CTSCacheMonitoringStore cacheMonitoringStore = (CTSCacheMonitoringStore) ctsOperationsMonitoringStore;
+        cacheMonitoringStore.addCacheRead(true);
+        cacheMonitoringStore.addCacheRead(true);
+        cacheMonitoringStore.addCacheRead(true);
+        cacheMonitoringStore.addCacheRead(false);
+
+        //When
+        double result = cacheMonitoringStore.getCacheHitRatio();
+
+        //Then
+        assertEquals(result, 0.75D);
+        assertEquals(cacheMonitoringStore.getCacheHitsCumulativeCount(), 3L);
+        assertEquals(cacheMonitoringStore.getCacheMissesCumulativeCount(), 1L);
+    }
 }
@@ -73,4 +73,19 @@ public class ReaperMonitorTest {
         //Then
         assertEquals(result, 12.5D);
     }
+
+    @Test
+    public void shouldReportThroughputOfLastRun() {
+
+        //Given
+        reaperMonitor.updateProgress(1000, 100);
+        reaperMonitor.add(1000, 2000, 500);
+
+        //When
+        double result = reaperMonitor.getThroughput();
+
+        //Then
+        assertEquals(reaperMonitor.getProgress(), 500L);
+        assertEquals(result, 250D);
+    }
 }
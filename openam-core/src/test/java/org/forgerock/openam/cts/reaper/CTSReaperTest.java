@@ -12,14 +12,19 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2014 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.cts.reaper;
 
 import com.sun.identity.shared.debug.Debug;
+import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.query.reaper.ReaperQuery;
 import org.forgerock.openam.cts.impl.query.reaper.ReaperQueryFactory;
 import org.forgerock.openam.cts.monitoring.CTSReaperMonitoringStore;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -28,10 +33,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.verify;
 import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 
@@ -41,6 +52,7 @@ public class CTSReaperTest {
     private CTSReaperMonitoringStore monitoringStore;
     private ReaperQueryFactory mockQueryFactory;
     private ReaperQuery mockQuery;
+    private CoreTokenConfig mockConfig;
 
     @BeforeMethod
     public void setUp() throws Exception {
@@ -51,7 +63,10 @@ public class CTSReaperTest {
         mockQueryFactory = mock(ReaperQueryFactory.class);
         given(mockQueryFactory.getQuery()).willReturn(mockQuery);
 
-        reaper = new CTSReaper(mockQueryFactory, mockTokenDeletion, monitoringStore, mock(Debug.class));
+        mockConfig = mock(CoreTokenConfig.class);
+        given(mockConfig.getReaperLanes()).willReturn(4);
+
+        reaper = new CTSReaper(mockQueryFactory, mockTokenDeletion, mockConfig, monitoringStore, mock(Debug.class));
     }
 
     @AfterMethod
@@ -102,6 +117,45 @@ public class CTSReaperTest {
         verify(three).await();
     }
 
+    @Test
+    public void shouldWaitForOldestPageWhenAllLanesAreBusy() throws Exception {
+        // Given
+        given(mockConfig.getReaperLanes()).willReturn(1);
+        CountDownLatch one = mock(CountDownLatch.class);
+        CountDownLatch two = mock(CountDownLatch.class);
+
+        Collection<String> first = Arrays.asList("badger", "weasel");
+        Collection<String> second = Arrays.asList("ferret");
+        given(mockQuery.nextPage()).willReturn(first).willReturn(second).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection())).willReturn(one).willReturn(two);
+
+        // When
+        reaper.run();
+
+        // Then
+        InOrder inOrder = inOrder(mockTokenDeletion, one, two);
+        inOrder.verify(mockTokenDeletion).deleteBatch(eq(first));
+        inOrder.verify(one).await();
+        inOrder.verify(mockTokenDeletion).deleteBatch(eq(second));
+        inOrder.verify(two).await();
+    }
+
+    @Test
+    public void shouldReportProgressAsPagesAreDeleted() throws CoreTokenException {
+        // Given
+        Collection<String> tokens = Arrays.asList("badger", "weasel", "ferret");
+        given(mockQuery.nextPage()).willReturn(tokens).willReturn(tokens).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection())).willReturn(new CountDownLatch(0));
+
+        // When
+        reaper.run();
+
+        // Then
+        verify(monitoringStore).updateReaperProgress(anyLong(), eq(3L));
+        verify(monitoringStore).updateReaperProgress(anyLong(), eq(6L));
+        verify(monitoringStore).addReaperRun(anyLong(), anyLong(), eq(6L));
+    }
+
     @Test
     public void shouldRespondToInterruptSignal() throws CoreTokenException {
         // Given
@@ -116,4 +170,112 @@ public class CTSReaperTest {
         // Then
         verify(mockTokenDeletion, times(0)).deleteBatch(eq(tokens));
     }
+
+    @Test
+    public void shouldWaitForQueuedPagesWhenInterrupted() throws Exception {
+        // Given
+        final CountDownLatch one = mock(CountDownLatch.class);
+        Collection<String> tokens = Arrays.asList("badger", "weasel", "ferret");
+        given(mockQuery.nextPage()).willReturn(tokens).willReturn(tokens).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection())).willAnswer(new Answer<CountDownLatch>() {
+            @Override
+            public CountDownLatch answer(InvocationOnMock invocation) {
+                Thread.currentThread().interrupt();
+                return one;
+            }
+        });
+
+        // When
+        reaper.run();
+
+        // Then
+        verify(mockTokenDeletion, times(1)).deleteBatch(eq(tokens));
+        verify(one).await();
+        assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        verify(monitoringStore, times(0)).addReaperRun(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldFinishWaitingForPageWhenInterruptedWhileWaiting() throws Exception {
+        // Given
+        given(mockConfig.getReaperLanes()).willReturn(1);
+        CountDownLatch one = mock(CountDownLatch.class);
+        doThrow(new InterruptedException()).doNothing().when(one).await();
+        Collection<String> tokens = Arrays.asList("badger", "weasel", "ferret");
+        given(mockQuery.nextPage()).willReturn(tokens).willReturn(tokens).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection())).willReturn(one);
+
+        // When
+        reaper.run();
+
+        // Then
+        verify(mockTokenDeletion, times(1)).deleteBatch(eq(tokens));
+        verify(one, times(2)).await();
+        assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    }
+
+    @Test
+    public void shouldReduceLanesWhenPagesAreSlowToDelete() throws Exception {
+        // Given
+        given(mockConfig.getReaperLanes()).willReturn(2);
+        given(mockConfig.getReaperLatencyThreshold()).willReturn(50L);
+        CountDownLatch one = mock(CountDownLatch.class);
+        CountDownLatch two = mock(CountDownLatch.class);
+        CountDownLatch three = mock(CountDownLatch.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(100);
+                return null;
+            }
+        }).when(one).await();
+        doNothing().when(two).await();
+
+        Collection<String> first = Arrays.asList("badger");
+        Collection<String> second = Arrays.asList("weasel");
+        Collection<String> third = Arrays.asList("ferret");
+        given(mockQuery.nextPage()).willReturn(first).willReturn(second).willReturn(third).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection())).willReturn(one).willReturn(two).willReturn(three);
+
+        // When
+        reaper.run();
+
+        // Then
+        InOrder inOrder = inOrder(mockTokenDeletion, one, two);
+        inOrder.verify(mockTokenDeletion).deleteBatch(eq(second));
+        inOrder.verify(one).await();
+        inOrder.verify(two).await();
+        inOrder.verify(mockTokenDeletion).deleteBatch(eq(third));
+    }
+
+    @Test
+    public void shouldNotReduceLanesWithoutLatencyThreshold() throws Exception {
+        // Given
+        given(mockConfig.getReaperLanes()).willReturn(2);
+        CountDownLatch one = mock(CountDownLatch.class);
+        CountDownLatch two = mock(CountDownLatch.class);
+        CountDownLatch three = mock(CountDownLatch.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(100);
+                return null;
+            }
+        }).when(one).await();
+
+        Collection<String> first = Arrays.asList("badger");
+        Collection<String> second = Arrays.asList("weasel");
+        Collection<String> third = Arrays.asList("ferret");
+        given(mockQuery.nextPage()).willReturn(first).willReturn(second).willReturn(third).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection())).willReturn(one).willReturn(two).willReturn(three);
+
+        // When
+        reaper.run();
+
+        // Then
+        InOrder inOrder = inOrder(mockTokenDeletion, one, two);
+        inOrder.verify(one).await();
+        inOrder.verify(mockTokenDeletion).deleteBatch(eq(third));
+        inOrder.verify(two).await();
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.reaper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class ReaperRateLimiterTest {
+
+    @AfterMethod
+    public void tearDown() {
+        // Clear the interrupt status.
+        Thread.interrupted();
+    }
+
+    @Test
+    public void shouldNotDelayWithoutLimit() throws Exception {
+        // Given
+        ReaperRateLimiter limiter = new ReaperRateLimiter(0);
+        long start = System.nanoTime();
+
+        // When
+        limiter.acquire(1000000);
+        limiter.acquire(1000000);
+
+        // Then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(100L);
+    }
+
+    @Test
+    public void shouldNotDelayFirstAcquire() throws Exception {
+        // Given
+        ReaperRateLimiter limiter = new ReaperRateLimiter(10);
+        long start = System.nanoTime();
+
+        // When
+        limiter.acquire(1000);
+
+        // Then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(100L);
+    }
+
+    @Test
+    public void shouldDelayByTimeOwedForPreviousPermits() throws Exception {
+        // Given
+        ReaperRateLimiter limiter = new ReaperRateLimiter(1000);
+        limiter.acquire(200);
+        long start = System.nanoTime();
+
+        // When
+        limiter.acquire(1);
+
+        // Then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(150L);
+    }
+
+    @Test (expectedExceptions = InterruptedException.class)
+    public void shouldRespondToInterruptWhilstDelayed() throws Exception {
+        // Given
+        ReaperRateLimiter limiter = new ReaperRateLimiter(1);
+        limiter.acquire(60);
+        Thread.currentThread().interrupt();
+
+        // When / Then
+        limiter.acquire(1);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.utils;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.forgerock.guice.core.GuiceModules;
+import org.forgerock.guice.core.GuiceTestCase;
+import org.forgerock.guice.core.InjectorHolder;
+import org.forgerock.openam.core.guice.CoreGuiceModule;
+import org.forgerock.openam.core.guice.DataLayerGuiceModule;
+import org.forgerock.openam.cts.utils.blob.BlobStrategy;
+import org.forgerock.openam.cts.utils.blob.strategies.CompressionStrategy;
+import org.forgerock.openam.cts.utils.blob.strategies.FastCompressionStrategy;
+import org.forgerock.openam.shared.guice.SharedGuiceModule;
+import org.forgerock.openam.utils.IOUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.iplanet.dpro.session.service.InternalSession;
+
+@GuiceModules({CoreGuiceModule.class, SharedGuiceModule.class, DataLayerGuiceModule.class,
+        JSONSerialisationTest.DummyAuditConfigModule.class})
+public class BinarySerialisationTest extends GuiceTestCase {
+
+    private static final String COMPLEX_SESSION = "/json/complex-session-with-restriction-v12.json";
+
+    private BinarySerialisation serialisation;
+    private JSONSerialisation jsonSerialisation;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        serialisation = InjectorHolder.getInstance(BinarySerialisation.class);
+        jsonSerialisation = InjectorHolder.getInstance(JSONSerialisation.class);
+    }
+
+    @Test
+    public void shouldSerialiseAMap() {
+        // Given
+        Map<String, Object> test = new HashMap<String, Object>();
+        test.put("badger", 1234);
+        test.put("ferret", -4321L * Integer.MAX_VALUE);
+        test.put("weasel", Arrays.asList("stoat", null, true, 1.5D));
+        test.put("otter", Collections.singletonMap("badger", "mink"));
+
+        // When
+        byte[] data = serialisation.serialise(test);
+        Map<String, Object> result = serialisation.deserialise(data, Map.class);
+
+        // Then
+        assertThat(BinarySerialisation.isBinary(data)).isTrue();
+        assertThat(result).isEqualTo(test);
+    }
+
+    @Test
+    public void shouldSerialiseInternalSessionMoreCompactlyThanJSON() throws Exception {
+        // Given
+        InternalSession session = jsonSerialisation.deserialise(getJSON(COMPLEX_SESSION), InternalSession.class);
+
+        // When
+        byte[] data = serialisation.serialise(session);
+        InternalSession result = serialisation.deserialise(data, InternalSession.class);
+
+        // Then
+        assertThat(data.length).isLessThan(jsonSerialisation.serialise(session).getBytes("UTF-8").length);
+        assertThat(result.getID()).isEqualTo(session.getID());
+        assertThat(Collections.list(result.getPropertyNames())).hasSize(23);
+        assertThat(result.getSessionHandle()).isEqualTo(session.getSessionHandle());
+    }
+
+    @Test
+    public void shouldNotTreatJSONAsBinary() {
+        assertThat(BinarySerialisation.isBinary(jsonSerialisation.serialise("badger").getBytes())).isFalse();
+        assertThat(BinarySerialisation.isBinary(new byte[0])).isFalse();
+        assertThat(BinarySerialisation.isBinary(null)).isFalse();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldRejectUnsupportedVersion() {
+        // Given
+        byte[] data = serialisation.serialise("badger");
+        data[1] = BinarySerialisation.VERSION + 1;
+
+        // When / Then
+        serialisation.deserialise(data, String.class);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldRejectTruncatedData() {
+        // Given
+        byte[] data = serialisation.serialise("badger");
+
+        // When / Then
+        serialisation.deserialise(Arrays.copyOf(data, data.length - 1), String.class);
+    }
+
+    @Test
+    public void shouldRoundTripSessionThroughFastCompressionAsJSONAndGzipDoes() throws Exception {
+        // Given
+        final Charset utf8 = Charset.forName("UTF-8");
+        InternalSession session = jsonSerialisation.deserialise(getJSON(COMPLEX_SESSION), InternalSession.class);
+        BlobStrategy gzip = new CompressionStrategy();
+        BlobStrategy fast = new FastCompressionStrategy(new CompressionStrategy());
+
+        // When
+        byte[] json = gzip.perform(jsonSerialisation.serialise(session).getBytes(utf8));
+        byte[] binary = fast.perform(serialisation.serialise(session));
+        InternalSession fromJson = jsonSerialisation.deserialise(new String(gzip.reverse(json), utf8),
+                InternalSession.class);
+        InternalSession fromBinary = serialisation.deserialise(fast.reverse(binary), InternalSession.class);
+
+        // Then
+        assertThat(gzip.reverse(binary)).isEqualTo(fast.reverse(binary));
+        assertThat(fromBinary.getID()).isEqualTo(fromJson.getID());
+        assertThat(fromBinary.getSessionHandle()).isEqualTo(fromJson.getSessionHandle());
+        assertThat(fromBinary.getMaxIdleTime()).isEqualTo(fromJson.getMaxIdleTime());
+        assertThat(Collections.list(fromBinary.getPropertyNames()))
+                .containsOnly(Collections.list(fromJson.getPropertyNames()).toArray());
+    }
+
+    private static String getJSON(String path) throws Exception {
+        return IOUtils.getFileContentFromClassPath(BinarySerialisationTest.class, path).replaceAll("\\s", "");
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.cts.utils.blob;
 
@@ -20,6 +21,7 @@ import org.forgerock.openam.cts.CoreTokenConfig;
 import org.forgerock.openam.cts.utils.blob.strategies.AttributeCompressionStrategy;
 import org.forgerock.openam.cts.utils.blob.strategies.CompressionStrategy;
 import org.forgerock.openam.cts.utils.blob.strategies.EncryptionStrategy;
+import org.forgerock.openam.cts.utils.blob.strategies.FastCompressionStrategy;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -35,15 +37,17 @@ public class TokenStrategyFactoryTest {
 
     private TokenStrategyFactory factory;
     private CompressionStrategy compression;
+    private FastCompressionStrategy fastCompression;
     private EncryptionStrategy encryption;
     private AttributeCompressionStrategy attributeCompression;
 
     @BeforeMethod
     public void setup() {
         compression = new CompressionStrategy();
+        fastCompression = new FastCompressionStrategy(compression);
         encryption = new EncryptionStrategy(mock(Debug.class));
         attributeCompression = new AttributeCompressionStrategy(new TokenBlobUtils());
-        factory = new TokenStrategyFactory(compression, encryption, attributeCompression);
+        factory = new TokenStrategyFactory(compression, fastCompression, encryption, attributeCompression);
 
     }
 
@@ -60,6 +64,41 @@ public class TokenStrategyFactoryTest {
         assertThat(strategies).contains(compression);
     }
 
+    @Test
+    public void shouldReturnFastCompression() {
+        // Given
+        CoreTokenConfig config = mock(CoreTokenConfig.class);
+        given(config.isTokenCompressed()).willReturn(true);
+        given(config.isFastCompression()).willReturn(true);
+
+        // When
+        Collection<BlobStrategy> strategies = factory.getStrategies(config);
+
+        // Then
+        assertThat(strategies).containsOnly(fastCompression);
+    }
+
+    @Test
+    public void shouldReadTokensCompressedWhileFastCompressionWasToggled() throws Exception {
+        // Given
+        CoreTokenConfig gzipConfig = mock(CoreTokenConfig.class);
+        given(gzipConfig.isTokenCompressed()).willReturn(true);
+        CoreTokenConfig fastConfig = mock(CoreTokenConfig.class);
+        given(fastConfig.isTokenCompressed()).willReturn(true);
+        given(fastConfig.isFastCompression()).willReturn(true);
+        BlobStrategy gzipStrategy = factory.getStrategies(gzipConfig).iterator().next();
+        BlobStrategy fastStrategy = factory.getStrategies(fastConfig).iterator().next();
+        byte[] data = "{\"tokenId\":\"badger\",\"userId\":\"weasel\"}".getBytes("UTF-8");
+
+        // When
+        byte[] writtenWithFast = fastStrategy.perform(data);
+        byte[] writtenWithGzip = gzipStrategy.perform(data);
+
+        // Then
+        assertThat(gzipStrategy.reverse(writtenWithFast)).isEqualTo(data);
+        assertThat(fastStrategy.reverse(writtenWithGzip)).isEqualTo(data);
+    }
+
     @Test
     public void shouldReturnEncryption() {
         // Given
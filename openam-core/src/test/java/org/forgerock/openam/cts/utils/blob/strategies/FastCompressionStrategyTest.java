@@ -0,0 +1,96 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.cts.utils.blob.strategies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.forgerock.openam.cts.utils.blob.TokenStrategyFailedException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class FastCompressionStrategyTest {
+    private static final String JSON_SAMPLE = "{\"clientDomain\":\"dc=openam,dc=forgerock,dc=org\",\"clientID\":"
+            + "\"id=amadmin,ou=user,dc=openam,dc=forgerock,dc=org\",\"cookieMode\":null,\"cookieStr\":null,"
+            + "\"creationTime\":1375353841,\"isISStored\":true,\"maxCachingTime\":3,\"maxIdleTime\":30,"
+            + "\"sessionProperties\":{\"CharSet\":\"UTF-8\",\"UserId\":\"amadmin\",\"Organization\":"
+            + "\"dc=openam,dc=forgerock,dc=org\",\"Principal\":\"id=amadmin,ou=user,dc=openam,dc=forgerock,dc=org\"},"
+            + "\"uuid\":\"id=amadmin,ou=user,dc=openam,dc=forgerock,dc=org\",\"version\":0,\"willExpireFlag\":true}";
+
+    private CompressionStrategy gzip;
+    private FastCompressionStrategy compression;
+    private byte[] data;
+
+    @BeforeMethod
+    public void setUp() {
+        data = JSON_SAMPLE.getBytes();
+        gzip = new CompressionStrategy();
+        compression = new FastCompressionStrategy(gzip);
+    }
+
+    @Test (expectedExceptions = NullPointerException.class)
+    public void shouldRejectIfNullBlobOnPerform() throws TokenStrategyFailedException {
+        compression.perform(null);
+    }
+
+    @Test
+    public void shouldCompressContents() throws TokenStrategyFailedException {
+        assertThat(compression.perform(data).length).isLessThan(data.length);
+    }
+
+    @Test
+    public void shouldDecompressCompressedContents() throws TokenStrategyFailedException {
+        assertThat(compression.reverse(compression.perform(data))).isEqualTo(data);
+        assertThat(compression.reverse(compression.perform(new byte[0]))).isEmpty();
+    }
+
+    @Test
+    public void shouldDecompressGzipCompressedContents() throws TokenStrategyFailedException {
+        assertThat(compression.reverse(gzip.perform(data))).isEqualTo(data);
+    }
+
+    @Test (expectedExceptions = TokenStrategyFailedException.class)
+    public void shouldRejectTruncatedContents() throws TokenStrategyFailedException {
+        byte[] compressed = compression.perform(data);
+        compression.reverse(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    @Test
+    public void shouldDecompressWithGzipStrategy() throws TokenStrategyFailedException {
+        assertThat(gzip.reverse(compression.perform(data))).isEqualTo(data);
+    }
+
+    @Test (expectedExceptions = TokenStrategyFailedException.class)
+    public void shouldRejectNegativeLength() throws TokenStrategyFailedException {
+        byte[] compressed = compression.perform(data);
+        compressed[2] = (byte) 0x80;
+        compression.reverse(compressed);
+    }
+
+    @Test (expectedExceptions = TokenStrategyFailedException.class)
+    public void shouldRejectLengthBeyondCompressionRatio() throws TokenStrategyFailedException {
+        byte[] compressed = compression.perform(data);
+        compressed[2] = 0x7F;
+        compressed[3] = (byte) 0xFF;
+        compression.reverse(compressed);
+    }
+
+    @Test (expectedExceptions = TokenStrategyFailedException.class)
+    public void shouldRejectUncompressedContents() throws TokenStrategyFailedException {
+        compression.reverse(data);
+    }
+}
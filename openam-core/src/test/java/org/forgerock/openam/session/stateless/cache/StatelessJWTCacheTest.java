@@ -23,6 +23,7 @@ import static org.mockito.Mockito.mock;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.forgerock.openam.session.stateless.StatelessConfig;
 import org.mockito.invocation.InvocationOnMock;
@@ -144,4 +145,65 @@ public class StatelessJWTCacheTest {
         // Then
         assertThat(cache.contains(mockSessionInfo)).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRememberInvalidJWT() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        given(mockConfig.getJWTNegativeCacheSize()).willReturn(1);
+        given(mockConfig.getJWTNegativeCacheTTL()).willReturn(60000);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        cache.cache(mock(SessionInfo.class), "badger");
+
+        // When
+        cache.cacheInvalid("badger");
+
+        // Then
+        assertThat(cache.isInvalid("badger")).isTrue();
+        assertThat(cache.isInvalid("ferret")).isFalse();
+        assertThat(cache.contains("badger")).isFalse();
+        assertThat(cache.getInvalidHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRememberInvalidJWTIfNegativeCachingDisabled() {
+        // Given
+        given(mockConfig.getJWTNegativeCacheSize()).willReturn(1);
+        given(mockConfig.getJWTNegativeCacheTTL()).willReturn(0);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+
+        // When
+        cache.cacheInvalid("badger");
+
+        // Then
+        assertThat(cache.isInvalid("badger")).isFalse();
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        cache.cache(mock(SessionInfo.class), "badger");
+
+        // When
+        cache.getSessionInfo("badger");
+        cache.getSessionInfo("ferret");
+
+        // Then
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldAverageVerificationTime() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        cache.recordVerification(TimeUnit.MICROSECONDS.toNanos(100));
+        cache.recordVerification(TimeUnit.MICROSECONDS.toNanos(300));
+
+        // When / Then
+        assertThat(cache.getAverageVerificationTime(TimeUnit.MICROSECONDS)).isEqualTo(200);
+    }
+}
@@ -15,11 +15,17 @@
  */
 package org.forgerock.openam.sm.datalayer.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.*;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import org.forgerock.openam.sm.datalayer.api.BatchableTask;
+import org.forgerock.openam.sm.datalayer.api.QueueConfiguration;
 import org.forgerock.openam.sm.datalayer.api.Task;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.testng.annotations.AfterMethod;
@@ -32,12 +38,15 @@ public class SeriesTaskExecutorThreadTest {
 
     private SeriesTaskExecutorThread processor;
     private SimpleTaskExecutor mockExecutor;
+    private QueueConfiguration mockConfiguration;
 
     @BeforeMethod
     public void setup() {
         Thread.interrupted();
         mockExecutor = mock(SimpleTaskExecutor.class);
-        processor = new SeriesTaskExecutorThread(mock(Debug.class), mockExecutor);
+        mockConfiguration = mock(QueueConfiguration.class);
+        given(mockConfiguration.getBatchSize()).willReturn(1);
+        processor = new SeriesTaskExecutorThread(mock(Debug.class), mockExecutor, mockConfiguration);
     }
 
     // NB: TaskProcessor has a threading policy around interrupted. This tear down clears the interrupted state.
@@ -76,6 +85,46 @@ public class SeriesTaskExecutorThreadTest {
         verify(mockExecutor).execute(null, mockTask);
     }
 
+    @Test
+    public void shouldExecuteBatchableTasksTogether() throws Exception {
+        // Given
+        given(mockConfiguration.getBatchSize()).willReturn(10);
+        given(mockConfiguration.getBatchLingerTime()).willReturn(0L);
+        BatchableTask first = mock(BatchableTask.class);
+        BatchableTask second = mock(BatchableTask.class);
+        Task third = mock(Task.class);
+        BlockingQueue<Task> queue = generateTestQueue(first);
+        given(queue.poll()).willReturn(second, third);
+        processor.setQueue(queue);
+
+        // When
+        processor.run();
+
+        // Then
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockExecutor).execute(captor.capture());
+        assertThat(captor.getValue()).containsExactly(first, second, third);
+    }
+
+    @Test
+    public void shouldStopCollectingBatchWhenLingerTimeExpires() throws Exception {
+        // Given
+        given(mockConfiguration.getBatchSize()).willReturn(10);
+        given(mockConfiguration.getBatchLingerTime()).willReturn(5L);
+        BatchableTask first = mock(BatchableTask.class);
+        BlockingQueue<Task> queue = generateTestQueue(first);
+        given(queue.poll(anyLong(), any(TimeUnit.class))).willReturn(null);
+        processor.setQueue(queue);
+
+        // When
+        processor.run();
+
+        // Then
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(mockExecutor).execute(captor.capture());
+        assertThat(captor.getValue()).containsExactly(first);
+    }
+
     private BlockingQueue<Task> generateTestQueue(final Task first) throws InterruptedException {
         BlockingQueue<Task> queue = mock(BlockingQueue.class);
         given(queue.take()).willAnswer(new Answer<Object>() {
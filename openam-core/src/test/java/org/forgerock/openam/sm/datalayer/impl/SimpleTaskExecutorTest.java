@@ -23,10 +23,14 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.Closeable;
+import java.util.Arrays;
 
+import org.forgerock.openam.sm.datalayer.api.BatchableTask;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.Task;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+import org.mockito.InOrder;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -93,4 +97,59 @@ public class SimpleTaskExecutorTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldPipelineBatchableTasksBeforeOtherTasks() throws Exception {
+        // Given
+        Closeable connection = mock(Closeable.class);
+        given(connectionFactory.create()).willReturn(connection);
+        given(connectionFactory.isValid(connection)).willReturn(true);
+        executor.start();
+
+        PendingOperation firstOperation = mock(PendingOperation.class);
+        PendingOperation secondOperation = mock(PendingOperation.class);
+        BatchableTask first = mockBatchableTask("one", firstOperation);
+        BatchableTask second = mockBatchableTask("two", secondOperation);
+        Task read = mock(Task.class);
+
+        // When
+        executor.execute(Arrays.<Task>asList(first, second, read));
+
+        // Then
+        InOrder inOrder = inOrder(first, second, firstOperation, secondOperation, read);
+        inOrder.verify(first).submit(connection, adapter);
+        inOrder.verify(second).submit(connection, adapter);
+        inOrder.verify(firstOperation).await();
+        inOrder.verify(secondOperation).await();
+        inOrder.verify(read).execute(connection, adapter);
+    }
+
+    @Test
+    public void shouldWaitForPendingOperationOnSameToken() throws Exception {
+        // Given
+        Closeable connection = mock(Closeable.class);
+        given(connectionFactory.create()).willReturn(connection);
+        given(connectionFactory.isValid(connection)).willReturn(true);
+        executor.start();
+
+        PendingOperation createOperation = mock(PendingOperation.class);
+        BatchableTask create = mockBatchableTask("one", createOperation);
+        BatchableTask delete = mockBatchableTask("one", mock(PendingOperation.class));
+
+        // When
+        executor.execute(Arrays.<Task>asList(create, delete));
+
+        // Then
+        InOrder inOrder = inOrder(create, delete, createOperation);
+        inOrder.verify(create).submit(connection, adapter);
+        inOrder.verify(createOperation).await();
+        inOrder.verify(delete).submit(connection, adapter);
+    }
+
+    private BatchableTask mockBatchableTask(String tokenId, PendingOperation operation) throws Exception {
+        BatchableTask task = mock(BatchableTask.class);
+        given(task.getTokenId()).willReturn(tokenId);
+        given(task.submit(any(Closeable.class), eq(adapter))).willReturn(operation);
+        return task;
+    }
+
+}
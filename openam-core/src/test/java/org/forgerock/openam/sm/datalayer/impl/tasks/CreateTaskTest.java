@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.sm.datalayer.impl.tasks;
 
@@ -24,6 +25,7 @@ import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.LdapAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.LdapOperationFailedException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.opendj.ldap.Connection;
 import org.testng.annotations.BeforeMethod;
@@ -66,4 +68,43 @@ public class CreateTaskTest {
         task.execute(mockConnection, mockAdapter);
         verify(mockHandler).processResults(mockToken);
     }
+
+    @Test
+    public void shouldUpdateHandlerOnlyOnceSubmittedCreateIsAwaited() throws Exception {
+        PendingOperation operation = mock(PendingOperation.class);
+        when(mockAdapter.createAsync(mockConnection, mockToken)).thenReturn(operation);
+
+        PendingOperation pending = task.submit(mockConnection, mockAdapter);
+        verify(mockHandler, never()).processResults(any(Token.class));
+
+        pending.await();
+        verify(operation).await();
+        verify(mockHandler).processResults(mockToken);
+    }
+
+    @Test
+    public void shouldSignalErrorWhenSubmittedCreateFails() throws Exception {
+        PendingOperation operation = mock(PendingOperation.class);
+        LdapOperationFailedException error = new LdapOperationFailedException("test");
+        doThrow(error).when(operation).await();
+        when(mockAdapter.createAsync(mockConnection, mockToken)).thenReturn(operation);
+
+        try {
+            task.submit(mockConnection, mockAdapter).await();
+        } catch (DataLayerException e) {
+            // expected
+        }
+
+        verify(mockHandler).processError(error);
+        verify(mockHandler, never()).processResults(any(Token.class));
+    }
+
+    @Test
+    public void shouldNotSubmitOnceInError() throws Exception {
+        task.processError(new LdapOperationFailedException("test"));
+
+        task.submit(mockConnection, mockAdapter).await();
+
+        verify(mockAdapter, never()).createAsync(any(Connection.class), any(Token.class));
+    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.sm.datalayer.impl.tasks;
 
@@ -21,6 +22,7 @@ import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.LdapAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.LdapOperationFailedException;
+import org.forgerock.openam.sm.datalayer.api.PendingOperation;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.opendj.ldap.Connection;
 import org.testng.annotations.BeforeMethod;
@@ -62,4 +64,28 @@ public class DeleteTaskTest {
         task.execute(mockConnection, mockAdapter);
         verify(mockResultHandler).processResults(eq(tokenId));
     }
+
+    @Test
+    public void shouldNotifyResultHandlerOnlyOnceSubmittedDeleteIsAwaited() throws Exception {
+        PendingOperation operation = mock(PendingOperation.class);
+        given(mockAdapter.deleteAsync(mockConnection, tokenId)).willReturn(operation);
+
+        PendingOperation pending = task.submit(mockConnection, mockAdapter);
+        verify(mockResultHandler, never()).processResults(anyString());
+
+        pending.await();
+        verify(operation).await();
+        verify(mockResultHandler).processResults(eq(tokenId));
+    }
+
+    @Test (expectedExceptions = DataLayerException.class)
+    public void shouldSignalErrorWhenDeleteCannotBeSubmitted() throws Exception {
+        LdapOperationFailedException error = new LdapOperationFailedException("test");
+        given(mockAdapter.deleteAsync(mockConnection, tokenId)).willThrow(error);
+        try {
+            task.submit(mockConnection, mockAdapter);
+        } finally {
+            verify(mockResultHandler).processError(error);
+        }
+    }
 }
\ No newline at end of file
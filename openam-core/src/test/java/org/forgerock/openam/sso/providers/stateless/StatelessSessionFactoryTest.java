@@ -15,6 +15,7 @@
  */
 package org.forgerock.openam.sso.providers.stateless;
 
+import com.iplanet.dpro.session.SessionException;
 import com.iplanet.dpro.session.SessionID;
 import com.iplanet.dpro.session.service.SessionServerConfig;
 import com.iplanet.dpro.session.service.SessionServiceConfig;
@@ -25,6 +26,7 @@ import org.testng.annotations.Test;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * Limited amount of testing present here due to static code usage.
@@ -49,6 +51,22 @@ public class StatelessSessionFactoryTest {
         assertThat(factory.containsJwt(mockSession)).isTrue();
     }
 
+    @Test(expectedExceptions = SessionException.class)
+    public void shouldRejectRecentlyInvalidJWTWithoutVerifyingIt() throws SessionException {
+        SessionID mockSession = mock(SessionID.class);
+        given(mockSession.getTail()).willReturn("badger");
+        given(mockCache.isInvalid("badger")).willReturn(true);
+        factory.getSessionInfo(mockSession);
+    }
+
+    @Test
+    public void shouldMarkJWTInvalid() {
+        SessionID mockSession = mock(SessionID.class);
+        given(mockSession.getTail()).willReturn("badger");
+        factory.markInvalid(mockSession);
+        verify(mockCache).cacheInvalid("badger");
+    }
+
     @Test
     public void shouldExtractJWTFromSessionID() {
         SessionID id = mock(SessionID.class);
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.idrepo.ldap;
 
@@ -19,7 +20,6 @@ import static org.forgerock.openam.ldap.LDAPConstants.*;
 import static org.forgerock.openam.utils.CollectionUtils.asSet;
 import static org.forgerock.opendj.ldap.LDAPConnectionFactory.*;
 
-import com.iplanet.am.util.Cache;
 import com.iplanet.services.naming.ServerEntryNotFoundException;
 import com.iplanet.services.naming.WebtopNaming;
 import com.iplanet.sso.SSOToken;
@@ -51,14 +51,22 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.security.auth.callback.Callback;
 import javax.security.auth.callback.NameCallback;
 import javax.security.auth.callback.PasswordCallback;
 
+import org.forgerock.i18n.LocalizedIllegalArgumentException;
 import org.forgerock.openam.idrepo.ldap.helpers.ADAMHelper;
 import org.forgerock.openam.idrepo.ldap.helpers.ADHelper;
 import org.forgerock.openam.idrepo.ldap.helpers.DirectoryHelper;
@@ -70,23 +78,30 @@ import org.forgerock.openam.ldap.LdapFromJsonQueryFilterVisitor;
 import org.forgerock.openam.utils.CrestQuery;
 import org.forgerock.openam.utils.IOUtils;
 import org.forgerock.openam.utils.StringUtils;
+import org.forgerock.openam.utils.collections.CacheFactory;
 import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ConditionResult;
 import org.forgerock.opendj.ldap.Connection;
 import org.forgerock.opendj.ldap.ConnectionFactory;
 import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.DecodeOptions;
 import org.forgerock.opendj.ldap.Entry;
 import org.forgerock.opendj.ldap.Filter;
 import org.forgerock.opendj.ldap.LDAPUrl;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.opendj.ldap.LinkedAttribute;
 import org.forgerock.opendj.ldap.LinkedHashMapEntry;
+import org.forgerock.opendj.ldap.Matcher;
 import org.forgerock.opendj.ldap.Modification;
 import org.forgerock.opendj.ldap.ModificationType;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SSLContextBuilder;
 import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
 import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.controls.PersistentSearchChangeType;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
 import org.forgerock.opendj.ldap.requests.BindRequest;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
@@ -106,10 +121,12 @@ import org.forgerock.util.time.Duration;
 /**
  * This is an IdRepo implementation that utilizes the LDAP protocol via OpenDJ LDAP SDK to access directory servers.
  */
-public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListener {
+public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListener, EntryChangeListener {
 
     private static final String CLASS_NAME = DJLDAPv3Repo.class.getName();
     private static final Debug DEBUG = Debug.getInstance("DJLDAPv3Repo");
+    private static final int GROUP_INDEX_PAGE_SIZE = 1000;
+    private static final int GROUP_INDEX_MAX_PENDING_CHANGES = 10000;
     /**
      * Maps psearchids to persistent search connections, so different datastore instances can share the same psearch
      * connection when appropriate.
@@ -173,9 +190,21 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
     //holds the directory schema
     private volatile Schema schema;
     //provides a cache for DNs (if enabled), because an entry tends to be requested in bursts.
-    private Cache dnCache;
+    private Map<String, String> dnCache;
     // provides a switch to enable/disable the dnCache
     private boolean dnCacheEnabled = false;
+    // resolves nested group memberships in memory (if enabled), kept up to date by persistent search results.
+    private volatile GroupMembershipIndex groupIndex;
+    private boolean groupIndexEnabled = false;
+    private final AtomicBoolean groupIndexBuilding = new AtomicBoolean();
+    private Matcher groupFilterMatcher;
+    // applies persistent search results to the index, so the directory is not read on the persistent search thread
+    private volatile ExecutorService groupIndexExecutor;
+    private volatile boolean groupIndexStale = false;
+    // the DNs of the changed entries not yet applied to the index, mapped to whether the entry has been deleted
+    private final Map<DN, Boolean> groupIndexChanges = new LinkedHashMap<DN, Boolean>();
+    private boolean groupIndexChangesScheduled = false;
+    private final Object groupIndexLock = new Object();
 
     private boolean isSecure = false;
     private boolean useStartTLS = false;
@@ -209,8 +238,11 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         }
         dnCacheEnabled = CollectionHelper.getBooleanMapAttr(configMap, LDAP_DNCACHE_ENABLED, true);
         if (dnCacheEnabled) {
-            dnCache = new Cache(CollectionHelper.getIntMapAttr(configParams, LDAP_DNCACHE_SIZE, 1500, DEBUG));
+            dnCache = CacheFactory.newCache(
+                    CollectionHelper.getIntMapAttr(configParams, LDAP_DNCACHE_SIZE, 1500, DEBUG));
         }
+        groupIndexEnabled =
+                CollectionHelper.getBooleanMapAttr(configParams, LDAP_GROUP_MEMBERSHIP_INDEX_ENABLED, false);
         ldapServers = LDAPUtils.prioritizeServers(configParams.get(LDAP_SERVER_LIST), hostServerId, hostSiteId);
 
         defaultSizeLimit = CollectionHelper.getIntMapAttr(configParams, LDAP_MAX_RESULTS, 100, DEBUG);
@@ -285,6 +317,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                 CollectionHelper.getMapAttr(configParams, LDAP_USER_SEARCH_FILTER), Filter.objectClassPresent());
         groupSearchFilter = LDAPUtils.parseFilter(
                 CollectionHelper.getMapAttr(configParams, LDAP_GROUP_SEARCH_FILTER), Filter.objectClassPresent());
+        groupFilterMatcher = groupSearchFilter.matcher();
         roleSearchFilter = LDAPUtils.parseFilter(
                 CollectionHelper.getMapAttr(configParams, LDAP_ROLE_SEARCH_FILTER), DEFAULT_ROLE_SEARCH_FILTER);
         filteredRoleSearchFilter = LDAPUtils.parseFilter(
@@ -1294,8 +1327,10 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
     }
 
     /**
-     * Returns the DNs of the members of this group. If the MemberURL attribute has been configured, then this
-     * will also try to retrieve dynamic group members using the memberURL.
+     * Returns the DNs of the members of this group. If the group membership index is enabled and loaded, and the
+     * group has static members, the members are the users found in the index either directly or through nested
+     * groups. If the MemberURL attribute has been configured, then this will also try to retrieve dynamic group
+     * members using the memberURL.
      *
      * @param dn The DN of the group to query.
      * @return The DNs of the members.
@@ -1303,6 +1338,19 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
      */
     private Set<String> getGroupMembers(String dn) throws IdRepoException {
         Set<String> results = new HashSet<String>();
+        GroupMembershipIndex index = groupIndex;
+        if (index != null) {
+            Set<DN> members = index.getMembers(DN.valueOf(dn));
+            // Groups without static members may be dynamic groups, which are not indexed
+            if (!members.isEmpty()) {
+                for (DN member : members) {
+                    if (!index.isGroup(member)) {
+                        results.add(member.toString());
+                    }
+                }
+                return results;
+            }
+        }
         Connection conn = null;
         String[] attrs;
         if (memberURLAttr != null) {
@@ -1471,9 +1519,11 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
     }
 
     /**
-     * Returns the group membership informations for this given user. In case the memberOf attribute is configured,
-     * this will try to query the user entry and return the group DNs found in the memberOf attribute. Otherwise a
-     * search request will be issued using the uniqueMember attribute looking for matches with the user DN.
+     * Returns the group membership informations for this given user. If the group membership index is enabled and
+     * loaded, the groups are those the user is a member of either directly or through nested groups, as found in the
+     * index. In case the memberOf attribute is configured, this will try to query the user entry and return the group
+     * DNs found in the memberOf attribute. Otherwise a search request will be issued using the uniqueMember
+     * attribute looking for matches with the user DN.
      *
      * @param dn The DN of the user identity.
      * @return The DNs of the groups that the provided user is member of.
@@ -1481,7 +1531,12 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
      */
     private Set<String> getGroupMemberships(String dn) throws IdRepoException {
         Set<String> results = new HashSet<String>();
-        if (memberOfAttr == null) {
+        GroupMembershipIndex index = groupIndex;
+        if (index != null) {
+            for (DN group : index.getGroups(DN.valueOf(dn))) {
+                results.add(group.toString());
+            }
+        } else if (memberOfAttr == null) {
             Filter filter = Filter.and(groupSearchFilter, Filter.equality(uniqueMemberAttr, dn));
             SearchRequest searchRequest =
                     LDAPRequests.newSearchRequest(getBaseDN(IdType.GROUP), defaultScope, filter, DN_ATTR);
@@ -1671,6 +1726,11 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                     conn.modify(userMod);
                 }
             }
+            // Do not wait for the persistent search result, so the change is visible to the next request
+            GroupMembershipIndex index = groupIndex;
+            if (index != null) {
+                refreshIndexedGroup(index, DN.valueOf(groupDN));
+            }
         } catch (LdapException ere) {
             DEBUG.error("An error occurred while trying to modify group membership. Name: " + groupDN
                     + " memberDNs: " + memberDNs + " Operation: " + modType, ere);
@@ -2078,7 +2138,11 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         if (StringUtils.isEmpty(psearchBaseDN)) {
             if (DEBUG.warningEnabled()) {
                 DEBUG.warning("Persistent search base DN is missing, persistent search is disabled.");
+                if (groupIndexEnabled) {
+                    DEBUG.warning("The group membership index requires persistent search, it is disabled.");
+                }
             }
+            groupIndexEnabled = false;
             return 0;
         }
 
@@ -2092,6 +2156,9 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                 if (dnCacheEnabled) {
                     pSearch.addMovedOrRenamedListener(this);
                 }
+                if (groupIndexEnabled) {
+                    pSearch.addEntryChangeListener(this);
+                }
                 pSearch.addListener(idRepoListener, getSupportedTypes());
                 pSearch.startSearch();
                 pSearchMap.put(pSearchId, pSearch);
@@ -2100,8 +2167,26 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                 if (dnCacheEnabled) {
                     pSearch.addMovedOrRenamedListener(this);
                 }
+                if (groupIndexEnabled) {
+                    pSearch.addEntryChangeListener(this);
+                }
             }
         }
+        if (groupIndexEnabled) {
+            synchronized (groupIndexLock) {
+                if (groupIndexExecutor == null) {
+                    groupIndexExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "DJLDAPv3Repo-GroupMembershipIndexUpdater");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+            scheduleGroupIndexLoad();
+        }
         return 0;
     }
 
@@ -2127,6 +2212,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                     DEBUG.error("PSearch is already removed, unable to unregister");
                 } else {
                     pSearch.removeMovedOrRenamedListener(this);
+                    pSearch.removeEntryChangeListener(this);
                     pSearch.removeListener(idRepoListener);
                     if (!pSearch.hasListeners()) {
                         pSearch.stopSearch();
@@ -2153,6 +2239,16 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         IOUtils.closeIfNotNull(connectionFactory);
         IOUtils.closeIfNotNull(bindConnectionFactory);
         idRepoListener = null;
+        groupIndexEnabled = false;
+        groupIndex = null;
+        synchronized (groupIndexLock) {
+            if (groupIndexExecutor != null) {
+                groupIndexExecutor.shutdownNow();
+                groupIndexExecutor = null;
+            }
+            groupIndexChanges.clear();
+            groupIndexChangesScheduled = false;
+        }
     }
 
     /**
@@ -2173,6 +2269,306 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         }
     }
 
+    /**
+     * Called for every persistent search result when the group membership index is enabled. Entries which cannot be
+     * groups are ignored. The changes of the other entries are coalesced per DN and applied in the background by a
+     * single thread, as applying them may read the entry again. If too many changes are waiting to be applied, they
+     * are discarded and the index is loaded again instead.
+     *
+     * @param entry The changed entry, with its object classes.
+     * @param previousDN The DN of the entry before it was moved or renamed, otherwise null.
+     * @param type The type of the change.
+     */
+    @Override
+    public void entryChanged(Entry entry, DN previousDN, PersistentSearchChangeType type) {
+        DN dn = entry.getName();
+        if (!mayChangeGroupIndex(entry, previousDN)) {
+            return;
+        }
+        boolean overflow = false;
+        boolean schedule = false;
+        ExecutorService executor;
+        synchronized (groupIndexLock) {
+            executor = groupIndexExecutor;
+            if (executor == null) {
+                return;
+            }
+            if (groupIndexChanges.size() >= GROUP_INDEX_MAX_PENDING_CHANGES) {
+                groupIndexChanges.clear();
+                overflow = true;
+            } else {
+                if (previousDN != null) {
+                    groupIndexChanges.put(previousDN, Boolean.TRUE);
+                }
+                groupIndexChanges.put(dn, PersistentSearchChangeType.DELETE.equals(type));
+                schedule = scheduleGroupIndexChanges();
+            }
+        }
+        if (overflow) {
+            if (DEBUG.warningEnabled()) {
+                DEBUG.warning("Too many changes are waiting to be applied to the group membership index, reloading it");
+            }
+            allEntriesChanged();
+        } else if (schedule) {
+            executeGroupIndexChanges(executor);
+        }
+    }
+
+    /**
+     * Decides on the persistent search thread, without reading the directory, whether a change can affect the group
+     * membership index.
+     *
+     * @param entry The changed entry.
+     * @param previousDN The DN of the entry before it was moved or renamed, otherwise null.
+     * @return Whether the entry is an indexed group, or may be a group.
+     */
+    private boolean mayChangeGroupIndex(Entry entry, DN previousDN) {
+        DN dn = entry.getName();
+        GroupMembershipIndex index = groupIndex;
+        if (index != null && (index.isGroup(dn) || previousDN != null && index.isGroup(previousDN))) {
+            return true;
+        }
+        DN groupBaseDN = getBaseDN(IdType.GROUP);
+        return !ConditionResult.FALSE.equals(groupFilterMatcher.matches(entry))
+                && (dn.isInScopeOf(groupBaseDN, defaultScope)
+                || previousDN != null && previousDN.isInScopeOf(groupBaseDN, defaultScope));
+    }
+
+    /**
+     * Marks the waiting changes as scheduled to be applied, unless they already are or the index is being loaded.
+     * Must be called while holding the group index lock.
+     *
+     * @return Whether the caller must schedule the changes to be applied.
+     */
+    private boolean scheduleGroupIndexChanges() {
+        if (groupIndexChangesScheduled || groupIndex == null || groupIndexChanges.isEmpty()) {
+            return false;
+        }
+        groupIndexChangesScheduled = true;
+        return true;
+    }
+
+    private void executeGroupIndexChanges(ExecutorService executor) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    applyGroupIndexChanges();
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            if (DEBUG.messageEnabled()) {
+                DEBUG.message("Ignoring the changes of the group membership index, the data store is shutting down");
+            }
+        }
+    }
+
+    /**
+     * Applies the waiting changes to the group membership index, in the order the entries were first changed. While
+     * the index is being loaded the changes are kept, and applied once the new index has been published.
+     */
+    private void applyGroupIndexChanges() {
+        while (true) {
+            DN dn;
+            boolean deleted;
+            GroupMembershipIndex index;
+            synchronized (groupIndexLock) {
+                index = groupIndex;
+                Iterator<Map.Entry<DN, Boolean>> changes = groupIndexChanges.entrySet().iterator();
+                if (index == null || !changes.hasNext()) {
+                    groupIndexChangesScheduled = false;
+                    return;
+                }
+                Map.Entry<DN, Boolean> change = changes.next();
+                changes.remove();
+                dn = change.getKey();
+                deleted = change.getValue();
+            }
+            if (deleted) {
+                index.removeGroup(dn);
+            } else {
+                refreshIndexedGroup(index, dn);
+            }
+        }
+    }
+
+    /**
+     * Called when persistent search results may have been missed, the group membership index is loaded again.
+     */
+    @Override
+    public void allEntriesChanged() {
+        if (groupIndexEnabled) {
+            groupIndex = null;
+            scheduleGroupIndexLoad();
+        }
+    }
+
+    /**
+     * Loads the group membership index in a background thread, unless it is already being loaded in which case it
+     * is loaded once more. Group memberships are read from the directory until the index is loaded.
+     */
+    private void scheduleGroupIndexLoad() {
+        groupIndexStale = true;
+        if (groupIndexBuilding.compareAndSet(false, true)) {
+            Thread loader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    loadGroupIndex();
+                }
+            }, "DJLDAPv3Repo-GroupMembershipIndex");
+            loader.setDaemon(true);
+            loader.start();
+        }
+    }
+
+    /**
+     * Loads the group membership index and publishes it. The entries changed while it was being loaded are then read
+     * again by the thread which applies the persistent search results, so that they are applied in order with any
+     * later changes.
+     */
+    private void loadGroupIndex() {
+        try {
+            while (groupIndexStale && groupIndexEnabled) {
+                groupIndexStale = false;
+                GroupMembershipIndex index = loadGroupMembershipIndex();
+                boolean schedule;
+                ExecutorService executor;
+                synchronized (groupIndexLock) {
+                    if (groupIndexStale) {
+                        continue;
+                    }
+                    groupIndex = index;
+                    executor = groupIndexExecutor;
+                    schedule = executor != null && scheduleGroupIndexChanges();
+                }
+                if (schedule) {
+                    executeGroupIndexChanges(executor);
+                }
+            }
+        } catch (IdRepoException ire) {
+            DEBUG.error("Unable to load the group membership index, group memberships will be read from the directory",
+                    ire);
+        } finally {
+            groupIndexBuilding.set(false);
+            if (groupIndexStale && groupIndexEnabled) {
+                scheduleGroupIndexLoad();
+            }
+        }
+    }
+
+    /**
+     * Reads the static members of all groups using paged searches.
+     *
+     * @return The new group membership index.
+     * @throws IdRepoException If there was an error while searching for the groups.
+     */
+    private GroupMembershipIndex loadGroupMembershipIndex() throws IdRepoException {
+        long start = System.currentTimeMillis();
+        GroupMembershipIndex index = new GroupMembershipIndex();
+        Connection conn = null;
+        try {
+            conn = connectionFactory.getConnection();
+            ByteString cookie = ByteString.empty();
+            do {
+                SearchRequest searchRequest = LDAPRequests.newSearchRequest(getBaseDN(IdType.GROUP), defaultScope,
+                        groupSearchFilter, uniqueMemberAttr);
+                searchRequest.addControl(SimplePagedResultsControl.newControl(true, GROUP_INDEX_PAGE_SIZE, cookie));
+                ConnectionEntryReader reader = conn.search(searchRequest);
+                while (reader.hasNext()) {
+                    if (reader.isEntry()) {
+                        SearchResultEntry entry = reader.readEntry();
+                        index.setMembers(entry.getName(), getMemberDNs(entry));
+                    } else {
+                        //ignore search result references
+                        reader.readReference();
+                    }
+                }
+                SimplePagedResultsControl control =
+                        reader.readResult().getControl(SimplePagedResultsControl.DECODER, new DecodeOptions());
+                cookie = control == null ? ByteString.empty() : control.getCookie();
+            } while (!cookie.isEmpty());
+        } catch (LdapException ere) {
+            DEBUG.error("An error occurred while loading the group membership index", ere);
+            handleErrorResult(ere);
+            throw newIdRepoException(IdRepoErrorCode.SEARCH_FAILED, CLASS_NAME);
+        } catch (SearchResultReferenceIOException srrioe) {
+            //should never ever happen...
+            DEBUG.error("Got reference instead of entry", srrioe);
+            throw newIdRepoException(IdRepoErrorCode.SEARCH_FAILED, CLASS_NAME);
+        } catch (DecodeException de) {
+            DEBUG.error("Unable to decode the paged results control", de);
+            throw newIdRepoException(IdRepoErrorCode.SEARCH_FAILED, CLASS_NAME);
+        } finally {
+            IOUtils.closeIfNotNull(conn);
+        }
+        if (DEBUG.messageEnabled()) {
+            DEBUG.message("Loaded the group membership index with " + index.size() + " groups in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        }
+        return index;
+    }
+
+    /**
+     * Reads the static members of a group again, if the entry is an indexed group or is within the group search
+     * base. Entries which no longer match the group search filter are removed from the index.
+     *
+     * @param index The group membership index.
+     * @param dn The DN of the changed entry.
+     */
+    private void refreshIndexedGroup(GroupMembershipIndex index, DN dn) {
+        if (!index.isGroup(dn) && !dn.isInScopeOf(getBaseDN(IdType.GROUP), defaultScope)) {
+            return;
+        }
+        Connection conn = null;
+        try {
+            conn = connectionFactory.getConnection();
+            SearchRequest searchRequest = LDAPRequests.newSearchRequest(dn, SearchScope.BASE_OBJECT,
+                    groupSearchFilter, uniqueMemberAttr);
+            ConnectionEntryReader reader = conn.search(searchRequest);
+            Set<DN> members = null;
+            while (reader.hasNext()) {
+                if (reader.isEntry()) {
+                    members = getMemberDNs(reader.readEntry());
+                } else {
+                    //ignore search result references
+                    reader.readReference();
+                }
+            }
+            if (members == null) {
+                index.removeGroup(dn);
+            } else {
+                index.setMembers(dn, members);
+            }
+        } catch (LdapException ere) {
+            if (ResultCode.NO_SUCH_OBJECT.equals(ere.getResult().getResultCode())) {
+                index.removeGroup(dn);
+            } else {
+                DEBUG.error("Unable to update the group membership index for " + dn + ", reloading it", ere);
+                allEntriesChanged();
+            }
+        } catch (SearchResultReferenceIOException srrioe) {
+            //should never ever happen...
+            DEBUG.error("Got reference instead of entry", srrioe);
+        } finally {
+            IOUtils.closeIfNotNull(conn);
+        }
+    }
+
+    private Set<DN> getMemberDNs(Entry entry) {
+        Set<DN> members = new HashSet<DN>();
+        Attribute attr = entry.getAttribute(uniqueMemberAttr);
+        if (attr != null) {
+            for (String member : LDAPUtils.getAttributeValuesAsStringSet(attr)) {
+                try {
+                    members.add(DN.valueOf(member));
+                } catch (LocalizedIllegalArgumentException liae) {
+                    DEBUG.warning("Ignoring invalid member DN " + member + " of group " + entry.getName());
+                }
+            }
+        }
+        return members;
+    }
+
     /**
      * This method constructs a persistent search "key", which will be used to
      * figure out whether there is an existing persistent search for the same
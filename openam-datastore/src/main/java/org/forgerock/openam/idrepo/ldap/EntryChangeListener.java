@@ -0,0 +1,41 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.idrepo.ldap;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.Entry;
+import org.forgerock.opendj.ldap.controls.PersistentSearchChangeType;
+
+/**
+ * Notified about every persistent search result, regardless of the type of the changed entry. Listeners are called
+ * on the persistent search thread, so they should not block.
+ */
+public interface EntryChangeListener {
+
+    /**
+     * Called when an entry has been changed within the identity store.
+     *
+     * @param entry The changed entry, with its object classes.
+     * @param previousDN The DN of the entry before it was moved or renamed, otherwise null.
+     * @param type The type of the change.
+     */
+    void entryChanged(Entry entry, DN previousDN, PersistentSearchChangeType type);
+
+    /**
+     * Called when changes may have been missed, for example because the persistent search has been restarted.
+     */
+    void allEntriesChanged();
+}
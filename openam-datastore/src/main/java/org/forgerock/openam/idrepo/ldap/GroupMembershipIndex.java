@@ -0,0 +1,213 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.idrepo.ldap;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * In-memory index of the static members of the groups in a directory, which resolves nested group memberships
+ * without searching the directory.
+ *
+ * <p>The index holds the direct members of each group and the reverse, the groups each entry is a direct member
+ * of. Changing the members of a group only updates these direct relationships. The transitive groups of an entry
+ * and the transitive members of a group are calculated on first use and memoized until the next change, so
+ * repeated membership checks are constant time lookups. Membership cycles are tolerated.</p>
+ *
+ * <p>This class is thread safe.</p>
+ */
+class GroupMembershipIndex {
+
+    // group -> direct members
+    private final Map<DN, Set<DN>> members = new HashMap<>();
+    // member -> groups it is a direct member of
+    private final Map<DN, Set<DN>> groups = new HashMap<>();
+    private final Map<DN, Set<DN>> transitiveGroups = new ConcurrentHashMap<>();
+    private final Map<DN, Set<DN>> transitiveMembers = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Replaces the direct members of a group, adding the group to the index if it is new.
+     *
+     * @param group The DN of the group.
+     * @param groupMembers The DNs of the direct members of the group.
+     */
+    void setMembers(DN group, Collection<DN> groupMembers) {
+        lock.writeLock().lock();
+        try {
+            unlink(group);
+            Set<DN> memberSet = new HashSet<>(groupMembers);
+            members.put(group, memberSet);
+            for (DN member : memberSet) {
+                Set<DN> memberGroups = groups.get(member);
+                if (memberGroups == null) {
+                    memberGroups = new HashSet<>(2);
+                    groups.put(member, memberGroups);
+                }
+                memberGroups.add(group);
+            }
+            invalidate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a group from the index. Does nothing if the DN is not that of an indexed group.
+     *
+     * @param group The DN of the group.
+     */
+    void removeGroup(DN group) {
+        lock.writeLock().lock();
+        try {
+            if (unlink(group)) {
+                invalidate();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param dn A DN.
+     * @return Whether the DN is that of an indexed group.
+     */
+    boolean isGroup(DN dn) {
+        lock.readLock().lock();
+        try {
+            return members.containsKey(dn);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed groups.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return members.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the groups the entry is a member of, either directly or through nested groups.
+     *
+     * @param member The DN of a user or group.
+     * @return The unmodifiable set of group DNs, never null.
+     */
+    Set<DN> getGroups(DN member) {
+        Set<DN> result = transitiveGroups.get(member);
+        if (result == null) {
+            lock.readLock().lock();
+            try {
+                result = closure(member, groups);
+                // Memoized under the read lock, so a concurrent change cannot invalidate it before it is stored
+                transitiveGroups.put(member, result);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the members of the group, either direct members or members of nested groups. Nested groups are
+     * included in the result.
+     *
+     * @param group The DN of the group.
+     * @return The unmodifiable set of member DNs, never null.
+     */
+    Set<DN> getMembers(DN group) {
+        Set<DN> result = transitiveMembers.get(group);
+        if (result == null) {
+            lock.readLock().lock();
+            try {
+                result = closure(group, members);
+                transitiveMembers.put(group, result);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the direct relationships of the group. Must be called while holding the write lock.
+     *
+     * @return Whether the group was indexed.
+     */
+    private boolean unlink(DN group) {
+        Set<DN> previous = members.remove(group);
+        if (previous == null) {
+            return false;
+        }
+        for (DN member : previous) {
+            Set<DN> memberGroups = groups.get(member);
+            if (memberGroups != null) {
+                memberGroups.remove(group);
+                if (memberGroups.isEmpty()) {
+                    groups.remove(member);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void invalidate() {
+        transitiveGroups.clear();
+        transitiveMembers.clear();
+    }
+
+    /**
+     * Walks the relationships breadth first. Must be called while holding the read or write lock.
+     */
+    private static Set<DN> closure(DN start, Map<DN, Set<DN>> edges) {
+        Set<DN> direct = edges.get(start);
+        if (direct == null) {
+            return Collections.emptySet();
+        }
+        Set<DN> visited = new HashSet<>(direct);
+        Deque<DN> pending = new ArrayDeque<>(direct);
+        while (!pending.isEmpty()) {
+            Set<DN> next = edges.get(pending.poll());
+            if (next != null) {
+                for (DN dn : next) {
+                    if (visited.add(dn)) {
+                        pending.add(dn);
+                    }
+                }
+            }
+        }
+        // A group in a membership cycle is not its own member
+        visited.remove(start);
+        return Collections.unmodifiableSet(visited);
+    }
+}
@@ -27,6 +27,7 @@ import com.sun.identity.idm.IdRepoListener;
 import com.sun.identity.idm.IdType;
 import com.sun.identity.shared.datastruct.CollectionHelper;
 import com.sun.identity.shared.debug.Debug;
+import org.forgerock.openam.idrepo.ldap.EntryChangeListener;
 import org.forgerock.openam.idrepo.ldap.IdentityMovedOrRenamedListener;
 import org.forgerock.openam.ldap.LDAPUtils;
 import org.forgerock.opendj.ldap.ConnectionFactory;
@@ -47,6 +48,7 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
     private static final Debug DEBUG = Debug.getInstance("PersistentSearch");
     private final SearchResultEntryHandler resultEntryHandler = new PSearchResultEntryHandler();
     private final Set<IdentityMovedOrRenamedListener> movedOrRenamedListenerSet = new HashSet<>(1);
+    private final Set<EntryChangeListener> entryChangeListenerSet = new HashSet<>(1);
     private final String usersSearchAttributeName;
 
     public DJLDAPv3PersistentSearch(Map<String, Set<String>> configMap, ConnectionFactory factory) {
@@ -56,7 +58,7 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
                                 Filter.objectClassPresent()), LDAPUtils
                         .getSearchScope(CollectionHelper.getMapAttr(configMap, LDAP_PERSISTENT_SEARCH_SCOPE),
                                 SearchScope.WHOLE_SUBTREE), factory,
-                CollectionHelper.getMapAttr(configMap, LDAP_USER_SEARCH_ATTR));
+                CollectionHelper.getMapAttr(configMap, LDAP_USER_SEARCH_ATTR), OBJECT_CLASS_ATTR);
         usersSearchAttributeName = CollectionHelper.getMapAttr(configMap, LDAP_USER_SEARCH_ATTR);
 
     }
@@ -85,11 +87,36 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
         movedOrRenamedListenerSet.remove(movedOrRenamedListener);
     }
 
+    /**
+     * Adds an {@link EntryChangeListener} object, which needs to be notified about all persistent search results.
+     * The caller must ensure that calls to addEntryChangeListener/removeEntryChangeListener invocations are
+     * synchronized correctly.
+     *
+     * @param entryChangeListener The {@link EntryChangeListener} instance that needs to be notified about changes.
+     */
+    public void addEntryChangeListener(EntryChangeListener entryChangeListener) {
+        entryChangeListenerSet.add(entryChangeListener);
+    }
+
+    /**
+     * Removes an {@link EntryChangeListener} if it was registered to get persistent search notifications.
+     * The caller must ensure that calls to addEntryChangeListener/removeEntryChangeListener invocations are
+     * synchronized correctly.
+     *
+     * @param entryChangeListener The {@link EntryChangeListener} instance to remove from the listeners
+     */
+    public void removeEntryChangeListener(EntryChangeListener entryChangeListener) {
+        entryChangeListenerSet.remove(entryChangeListener);
+    }
+
     @Override
     protected void clearCaches() {
         for (IdRepoListener idRepoListener : getListeners().keySet()) {
             idRepoListener.allObjectsChanged();
         }
+        for (EntryChangeListener listener : entryChangeListenerSet) {
+            listener.allEntriesChanged();
+        }
     }
 
     @Override
@@ -114,6 +141,10 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
                     }
                 }
 
+                for (EntryChangeListener listener : entryChangeListenerSet) {
+                    listener.entryChanged(entry, previousDn, type);
+                }
+
                 for (Map.Entry<IdRepoListener, Set<IdType>> listenerEntry : getListeners().entrySet()) {
                     IdRepoListener listener = listenerEntry.getKey();
 
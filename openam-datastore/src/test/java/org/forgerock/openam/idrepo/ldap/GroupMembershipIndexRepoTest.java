@@ -0,0 +1,105 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.idrepo.ldap;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.openam.ldap.LDAPConstants.LDAP_DEFAULT_GROUP_MEMBER;
+import static org.forgerock.openam.ldap.LDAPConstants.LDAP_GROUP_MEMBERSHIP_INDEX_ENABLED;
+import static org.forgerock.openam.utils.CollectionUtils.asSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.openam.utils.MapHelper;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.identity.idm.IdRepo;
+import com.sun.identity.idm.IdType;
+
+public class GroupMembershipIndexRepoTest extends IdRepoTestBase {
+
+    private static final String GENERIC_SETTINGS = "/config/genericsettings.properties";
+    private static final String GENERIC_DS_LDIF = "/ldif/generic.ldif";
+    private static final String USER = "searchTester1";
+    private static final String USER_DN = "uid=searchTester1,ou=people,dc=openam,dc=forgerock,dc=org";
+    private static final String INNER_GROUP = "inner";
+    private static final String INNER_GROUP_DN = "cn=inner,ou=groups,dc=openam,dc=forgerock,dc=org";
+    private static final String OUTER_GROUP = "outer";
+    private static final String OUTER_GROUP_DN = "cn=outer,ou=groups,dc=openam,dc=forgerock,dc=org";
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        Map<String, Set<String>> config = MapHelper.readMap(GENERIC_SETTINGS);
+        config.put(LDAP_GROUP_MEMBERSHIP_INDEX_ENABLED, asSet("true"));
+        config.remove(LDAP_DEFAULT_GROUP_MEMBER);
+        idrepo.initialize(config);
+        idrepo.create(null, IdType.GROUP, INNER_GROUP, group(INNER_GROUP, USER_DN));
+        idrepo.create(null, IdType.GROUP, OUTER_GROUP, group(OUTER_GROUP, INNER_GROUP_DN));
+        idrepo.addListener(null, idRepoListener);
+    }
+
+    @Override
+    protected String getLDIFPath() {
+        return GENERIC_DS_LDIF;
+    }
+
+    @Test
+    public void shouldResolveNestedGroupsOnceIndexIsLoaded() throws Exception {
+        // Given
+        awaitNestedMembership();
+
+        // Then
+        assertThat(idrepo.getMemberships(null, IdType.USER, USER, IdType.GROUP))
+                .containsOnly(INNER_GROUP_DN, OUTER_GROUP_DN);
+        assertThat(idrepo.getMembers(null, IdType.GROUP, OUTER_GROUP, IdType.USER)).containsOnly(USER_DN);
+        assertThat(idrepo.getMembers(null, IdType.GROUP, INNER_GROUP, IdType.USER)).containsOnly(USER_DN);
+    }
+
+    @Test(dependsOnMethods = "shouldResolveNestedGroupsOnceIndexIsLoaded")
+    public void shouldUpdateIndexWhenMembershipIsModified() throws Exception {
+        // When
+        idrepo.modifyMemberShip(null, IdType.GROUP, INNER_GROUP, asSet(USER), IdType.USER, IdRepo.REMOVEMEMBER);
+
+        // Then
+        assertThat(idrepo.getMemberships(null, IdType.USER, USER, IdType.GROUP)).isEmpty();
+
+        // When
+        idrepo.modifyMemberShip(null, IdType.GROUP, INNER_GROUP, asSet(USER), IdType.USER, IdRepo.ADDMEMBER);
+
+        // Then
+        assertThat(idrepo.getMemberships(null, IdType.USER, USER, IdType.GROUP))
+                .containsOnly(INNER_GROUP_DN, OUTER_GROUP_DN);
+    }
+
+    private void awaitNestedMembership() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!idrepo.getMemberships(null, IdType.USER, USER, IdType.GROUP).contains(OUTER_GROUP_DN)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private Map<String, Set<String>> group(String name, String member) {
+        Map<String, Set<String>> attributes = new HashMap<>();
+        attributes.put("cn", asSet(name));
+        attributes.put("objectclass", asSet("groupOfUniqueNames", "top"));
+        attributes.put("uniqueMember", asSet(member));
+        return attributes;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.idrepo.ldap;
+
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.DN;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class GroupMembershipIndexTest {
+
+    private static final DN USER = DN.valueOf("uid=demo,ou=people,dc=openam,dc=forgerock,dc=org");
+    private static final DN GROUP_A = DN.valueOf("cn=a,ou=groups,dc=openam,dc=forgerock,dc=org");
+    private static final DN GROUP_B = DN.valueOf("cn=b,ou=groups,dc=openam,dc=forgerock,dc=org");
+    private static final DN GROUP_C = DN.valueOf("cn=c,ou=groups,dc=openam,dc=forgerock,dc=org");
+
+    private GroupMembershipIndex index;
+
+    @BeforeMethod
+    public void setUp() {
+        index = new GroupMembershipIndex();
+    }
+
+    @Test
+    public void shouldResolveNestedGroups() {
+        index.setMembers(GROUP_A, asList(USER));
+        index.setMembers(GROUP_B, asList(GROUP_A));
+        index.setMembers(GROUP_C, asList(GROUP_B));
+
+        assertThat(index.getGroups(USER)).containsOnly(GROUP_A, GROUP_B, GROUP_C);
+        assertThat(index.getGroups(GROUP_B)).containsOnly(GROUP_C);
+        assertThat(index.getGroups(GROUP_C)).isEmpty();
+    }
+
+    @Test
+    public void shouldResolveTransitiveMembers() {
+        index.setMembers(GROUP_A, asList(USER));
+        index.setMembers(GROUP_B, asList(GROUP_A));
+
+        assertThat(index.getMembers(GROUP_B)).containsOnly(GROUP_A, USER);
+        assertThat(index.getMembers(USER)).isEmpty();
+    }
+
+    @Test
+    public void shouldTolerateMembershipCycles() {
+        index.setMembers(GROUP_A, asList(USER, GROUP_C));
+        index.setMembers(GROUP_B, asList(GROUP_A));
+        index.setMembers(GROUP_C, asList(GROUP_B));
+
+        assertThat(index.getGroups(USER)).containsOnly(GROUP_A, GROUP_B, GROUP_C);
+        assertThat(index.getGroups(GROUP_A)).containsOnly(GROUP_B, GROUP_C);
+        assertThat(index.getMembers(GROUP_A)).containsOnly(USER, GROUP_B, GROUP_C);
+    }
+
+    @Test
+    public void shouldUpdateMemoizedMembershipsWhenMembersChange() {
+        index.setMembers(GROUP_A, asList(USER));
+        index.setMembers(GROUP_B, asList(GROUP_A));
+        assertThat(index.getGroups(USER)).containsOnly(GROUP_A, GROUP_B);
+
+        index.setMembers(GROUP_B, Collections.<DN>emptyList());
+        assertThat(index.getGroups(USER)).containsOnly(GROUP_A);
+
+        index.setMembers(GROUP_C, asList(USER));
+        assertThat(index.getGroups(USER)).containsOnly(GROUP_A, GROUP_C);
+    }
+
+    @Test
+    public void shouldForgetRemovedGroups() {
+        index.setMembers(GROUP_A, asList(USER));
+        index.setMembers(GROUP_B, asList(GROUP_A));
+        assertThat(index.getGroups(USER)).containsOnly(GROUP_A, GROUP_B);
+
+        index.removeGroup(GROUP_A);
+        assertThat(index.isGroup(GROUP_A)).isFalse();
+        assertThat(index.isGroup(GROUP_B)).isTrue();
+        assertThat(index.getGroups(USER)).isEmpty();
+        assertThat(index.getMembers(GROUP_B)).containsOnly(GROUP_A);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldResolveDeeplyNestedGroups() {
+        // Given
+        final int groups = 1000;
+        final int usersPerGroup = 10;
+        final int fanOut = 10;
+        List<DN> groupDNs = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            groupDNs.add(DN.valueOf("cn=group" + i + ",ou=groups,dc=openam,dc=forgerock,dc=org"));
+        }
+
+        // When
+        for (int i = 0; i < groups; i++) {
+            List<DN> members = new ArrayList<>(usersPerGroup + fanOut);
+            for (int u = 0; u < usersPerGroup; u++) {
+                members.add(user(i * usersPerGroup + u));
+            }
+            // Every group is nested in its parent, giving a tree of depth log(groups)
+            for (int c = i * fanOut + 1; c <= i * fanOut + fanOut && c < groups; c++) {
+                members.add(groupDNs.get(c));
+            }
+            index.setMembers(groupDNs.get(i), members);
+        }
+
+        // Then
+        List<DN> ancestors = new ArrayList<>();
+        for (int i = groups - 1; i > 0; i = (i - 1) / fanOut) {
+            ancestors.add(groupDNs.get(i));
+        }
+        ancestors.add(groupDNs.get(0));
+        assertThat(index.size()).isEqualTo(groups);
+        assertThat(index.getGroups(user(groups * usersPerGroup - 1))).containsOnly(ancestors.toArray());
+        assertThat(index.getMembers(groupDNs.get(0))).hasSize(groups * usersPerGroup + groups - 1);
+    }
+
+    private DN user(int i) {
+        return DN.valueOf("uid=user" + i + ",ou=people,dc=openam,dc=forgerock,dc=org");
+    }
+}
@@ -15,6 +15,7 @@
  */
 /*
  * Portions Copyright 2011-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -22,6 +23,7 @@ package org.forgerock.openam.entitlement.conditions.environment;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -52,7 +54,7 @@ import static org.forgerock.openam.entitlement.conditions.environment.ConditionC
  *
  * @since 12.0.0
  */
-public class AMIdentityMembershipCondition extends EntitlementConditionAdaptor {
+public class AMIdentityMembershipCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     private final Debug debug;
     private final CoreWrapper coreWrapper;
@@ -294,4 +296,9 @@ public class AMIdentityMembershipCondition extends EntitlementConditionAdaptor {
         }
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.REMOTE;
+    }
 }
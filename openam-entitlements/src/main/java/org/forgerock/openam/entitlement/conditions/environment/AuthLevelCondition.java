@@ -14,6 +14,7 @@
  * Copyright 2006 Sun Microsystems Inc.
  *
  * Portions Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -21,6 +22,7 @@ package org.forgerock.openam.entitlement.conditions.environment;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -48,7 +50,7 @@ import static com.sun.identity.entitlement.EntitlementException.PROPERTY_VALUE_N
  *
  * @since 12.0.0
  */
-public class AuthLevelCondition extends EntitlementConditionAdaptor {
+public class AuthLevelCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     private static final String AUTH_LEVEL = "authLevel";
     private static final String REQUEST_AUTH_LEVEL = "requestAuthLevel";
@@ -341,4 +343,9 @@ public class AuthLevelCondition extends EntitlementConditionAdaptor {
         }
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.SESSION;
+    }
 }
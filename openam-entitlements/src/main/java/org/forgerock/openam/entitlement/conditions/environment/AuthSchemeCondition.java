@@ -15,6 +15,7 @@
  */
 /*
  * Portions Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -23,6 +24,7 @@ import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.authentication.util.AMAuthUtils;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -50,7 +52,7 @@ import static org.forgerock.openam.entitlement.conditions.environment.ConditionC
  *
  * @since 12.0.0
  */
-public class AuthSchemeCondition extends EntitlementConditionAdaptor {
+public class AuthSchemeCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     /**
      * Prefix for key that is used to set session property to track application based session idle timeout.
@@ -452,4 +454,9 @@ public class AuthSchemeCondition extends EntitlementConditionAdaptor {
         }
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.SESSION;
+    }
 }
@@ -15,6 +15,7 @@
  */
 /*
  * Portions Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -22,6 +23,7 @@ package org.forgerock.openam.entitlement.conditions.environment;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.common.CaseInsensitiveHashSet;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -47,7 +49,7 @@ import static org.forgerock.openam.entitlement.conditions.environment.ConditionC
  *
  * @since 12.0.0
  */
-public class AuthenticateToRealmCondition extends EntitlementConditionAdaptor {
+public class AuthenticateToRealmCondition extends EntitlementConditionAdaptor implements CostedCondition {
     private static final String AUTHENTICATE_TO_REALM_ATTR = "authenticateToRealm";
     private final Debug debug;
     private final EntitlementCoreWrapper entitlementCoreWrapper;
@@ -204,4 +206,9 @@ public class AuthenticateToRealmCondition extends EntitlementConditionAdaptor {
         }
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.SESSION;
+    }
 }
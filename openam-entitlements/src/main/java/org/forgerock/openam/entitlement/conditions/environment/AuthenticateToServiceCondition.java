@@ -13,6 +13,7 @@
  *
  * Copyright 2006 Sun Microsystems Inc
  * Portions Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -29,6 +30,7 @@ import java.util.Set;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.authentication.util.ISAuthConstants;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -46,7 +48,7 @@ import org.json.JSONObject;
  *
  * @since 12.0.0
  */
-public class AuthenticateToServiceCondition extends EntitlementConditionAdaptor {
+public class AuthenticateToServiceCondition extends EntitlementConditionAdaptor implements CostedCondition {
     private static final String AUTHENTICATE_TO_SERVICE_ATTR = "authenticateToService";
     private final Debug debug;
     private final CoreWrapper coreWrapper;
@@ -248,4 +250,9 @@ public class AuthenticateToServiceCondition extends EntitlementConditionAdaptor
         hc = 31*hc + (realmEmpty?1:0);
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.SESSION;
+    }
 }
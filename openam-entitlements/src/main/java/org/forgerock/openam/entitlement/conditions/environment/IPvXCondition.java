@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -19,6 +20,7 @@ package org.forgerock.openam.entitlement.conditions.environment;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import static com.sun.identity.entitlement.EntitlementException.CONDITION_EVALUATION_FAILED;
@@ -54,7 +56,7 @@ import org.json.JSONObject;
  *
  * @param <T> The type used for IP address values.
  */
-abstract class IPvXCondition<T extends Comparable<T>> extends EntitlementConditionAdaptor {
+abstract class IPvXCondition<T extends Comparable<T>> extends EntitlementConditionAdaptor implements CostedCondition {
 
     protected final Debug debug;
 
@@ -619,4 +621,8 @@ abstract class IPvXCondition<T extends Comparable<T>> extends EntitlementConditi
         return hc;
     }
 
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.ENVIRONMENT;
+    }
 }
@@ -15,6 +15,7 @@
  */
 /*
  * Portions Copyright 2010-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -32,6 +33,7 @@ import java.util.Set;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -41,7 +43,7 @@ import org.forgerock.openam.utils.CollectionUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-public class LDAPFilterCondition extends EntitlementConditionAdaptor {
+public class LDAPFilterCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     private final Debug debug = PrivilegeManager.debug;
     private final com.sun.identity.policy.plugins.LDAPFilterCondition condition;
@@ -174,4 +176,9 @@ public class LDAPFilterCondition extends EntitlementConditionAdaptor {
         }
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.REMOTE;
+    }
 }
@@ -12,11 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
 
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -42,7 +44,7 @@ import static com.sun.identity.entitlement.EntitlementException.INVALID_OAUTH2_S
  *
  * @since 12.0.0
  */
-public class OAuth2ScopeCondition extends EntitlementConditionAdaptor {
+public class OAuth2ScopeCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     /**
      * The attribute that should be sent in the environment map for policy evaluation requests against this condition.
@@ -230,4 +232,9 @@ public class OAuth2ScopeCondition extends EntitlementConditionAdaptor {
         }
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.ENVIRONMENT;
+    }
 }
@@ -16,6 +16,7 @@
 /*
  * Portions Copyrighted 2012 Open Source Solution Technology Corporation
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -30,6 +31,7 @@ import com.sun.identity.authentication.config.AMConfigurationException;
 import com.sun.identity.authentication.util.AMAuthUtils;
 import com.sun.identity.authentication.util.ISAuthConstants;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import static com.sun.identity.entitlement.EntitlementException.AUTH_LEVEL_NOT_INTEGER;
@@ -83,7 +85,7 @@ import org.json.JSONObject;
  * This condition provides the policy framework with the condition decision and advices based on the client's
  * environment or resource such as IP address, DNS host name, location, etc.
  */
-public class ResourceEnvIPCondition extends EntitlementConditionAdaptor {
+public class ResourceEnvIPCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     public static final String ENV_CONDITION_VALUE = "resourceEnvIPConditionValue";
 
@@ -1037,4 +1039,9 @@ public class ResourceEnvIPCondition extends EntitlementConditionAdaptor {
             return "IF " + paramName + "=" + paramValue + " THEN " + adviceName + "=" + adviceValue;
         }
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.REMOTE;
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.entitlement.conditions.environment;
 
@@ -27,6 +28,7 @@ import com.google.inject.name.Names;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.opensso.SubjectUtils;
@@ -65,7 +67,7 @@ import java.util.Set;
  *
  * @since 13.0.0
  */
-public class ScriptCondition extends EntitlementConditionAdaptor {
+public class ScriptCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     private static final ListToSetTransformation<String> LIST_TO_SET = new ListToSetTransformation<>();
     private static final String SCRIPT_ID = "scriptId";
@@ -229,4 +231,8 @@ public class ScriptCondition extends EntitlementConditionAdaptor {
 
     }
 
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.REMOTE;
+    }
 }
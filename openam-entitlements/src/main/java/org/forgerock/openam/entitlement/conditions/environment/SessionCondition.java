@@ -15,6 +15,7 @@
  */
 /*
  * Portions Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -22,6 +23,7 @@ package org.forgerock.openam.entitlement.conditions.environment;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -51,7 +53,7 @@ import static com.sun.identity.entitlement.EntitlementException.UNABLE_TO_PARSE_
  *
  * @since 12.0.0
  */
-public class SessionCondition extends EntitlementConditionAdaptor {
+public class SessionCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     /**
      * Key that is used to define the user session creation time of the request. This is passed in to the {@code env}
@@ -265,4 +267,9 @@ public class SessionCondition extends EntitlementConditionAdaptor {
         hc = 31*hc + (terminateSession?1:0);
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.SESSION;
+    }
 }
@@ -15,6 +15,7 @@
  */
 /*
  * Portions Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
@@ -22,6 +23,7 @@ package org.forgerock.openam.entitlement.conditions.environment;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -49,7 +51,7 @@ import static org.forgerock.openam.entitlement.conditions.environment.ConditionC
  *
  * @since 12.0.0
  */
-public class SessionPropertyCondition extends EntitlementConditionAdaptor {
+public class SessionPropertyCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     private static final boolean IGNORE_VALUE_CASE_DEFAULT = true;
     private static final String DELIMITER = "|";
@@ -305,4 +307,9 @@ public class SessionPropertyCondition extends EntitlementConditionAdaptor {
         hc = 31*hc + CollectionUtils.createHashForCaseInsensitiveMapOfSetOfStrings(this.properties);
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.SESSION;
+    }
 }
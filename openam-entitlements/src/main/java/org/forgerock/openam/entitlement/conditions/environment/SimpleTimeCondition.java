@@ -13,11 +13,13 @@
  *
  * Copyright 2006 Sun Microsystems Inc
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.entitlement.conditions.environment;
 
 import com.sun.identity.entitlement.ConditionDecision;
+import com.sun.identity.entitlement.CostedCondition;
 import com.sun.identity.entitlement.EntitlementConditionAdaptor;
 import com.sun.identity.entitlement.EntitlementException;
 import com.sun.identity.entitlement.PrivilegeManager;
@@ -45,7 +47,7 @@ import static com.sun.identity.entitlement.EntitlementException.*;
 import static org.forgerock.openam.entitlement.conditions.environment.ConditionConstants.*;
 import static org.forgerock.openam.utils.Time.*;
 
-public class SimpleTimeCondition extends EntitlementConditionAdaptor {
+public class SimpleTimeCondition extends EntitlementConditionAdaptor implements CostedCondition {
 
     /**
      * Key that is used to define current time that is passed in the {@code env} parameter while invoking
@@ -670,4 +672,9 @@ public class SimpleTimeCondition extends EntitlementConditionAdaptor {
 
         return hc;
     }
+
+    @Override
+    public Cost getEvaluationCost() {
+        return Cost.ENVIRONMENT;
+    }
 }
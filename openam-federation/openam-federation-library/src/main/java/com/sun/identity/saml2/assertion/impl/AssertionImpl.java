@@ -25,6 +25,7 @@
  * $Id: AssertionImpl.java,v 1.8 2009/05/09 15:43:59 mallas Exp $
  *
  * Portions Copyrighted 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 
@@ -86,6 +87,8 @@ public class AssertionImpl implements Assertion {
     private Issuer issuer;
     private boolean isMutable = true;
     private String signedXMLString = null;
+    // Parsed form of signedXMLString, only kept until the assertion is first serialized, verified or encrypted
+    private Document signedDocument = null;
     private Boolean isSignatureValid = null;
 
     public static String ASSERTION_ELEMENT = "Assertion";
@@ -133,6 +136,7 @@ public class AssertionImpl implements Assertion {
         }
         if (signature != null) {
             signedXMLString = xml;
+            signedDocument = document;
         }   
     }
 
@@ -149,6 +153,9 @@ public class AssertionImpl implements Assertion {
         makeImmutable();
         if (signature != null) {
             signedXMLString = XMLUtils.print(element,"UTF-8");
+            if (element.getOwnerDocument().getDocumentElement() == element) {
+                signedDocument = element.getOwnerDocument();
+            }
         }
     }
 
@@ -663,10 +670,15 @@ public class AssertionImpl implements Assertion {
     throws SAML2Exception {
 
         if (isSignatureValid == null) {            
-            if (signedXMLString == null) {
-                signedXMLString = toXMLString(true, true);
+            Document document = takeSignedDocument();
+            if (document != null) {
+                isSignatureValid = SigManager.getSigInstance().verify(document, getID(), verificationCerts);
+            } else {
+                if (signedXMLString == null) {
+                    signedXMLString = toXMLString(true, true);
+                }
+                isSignatureValid = SigManager.getSigInstance().verify(signedXMLString, getID(), verificationCerts);
             }
-            isSignatureValid = SigManager.getSigInstance().verify(signedXMLString, getID(), verificationCerts);
         }
         return isSignatureValid.booleanValue();
     }
@@ -687,20 +699,33 @@ public class AssertionImpl implements Assertion {
         X509Certificate cert
     ) throws SAML2Exception {
 
+        Document document = XMLUtils.toDOMDocument(toXMLString(true, true), SAML2SDKUtils.debug);
+        if (document == null) {
+            throw new SAML2Exception(SAML2SDKUtils.bundle.getString("errorObtainingElement"));
+        }
         Element signatureElement = 
             SigManager.getSigInstance().sign(
-            toXMLString(true, true),
+            document,
             getID(),
             privateKey,
             cert
         );
         signature = XMLUtils.print(signatureElement); 
-        signedXMLString = XMLUtils.print(
-            signatureElement.getOwnerDocument().
-            getDocumentElement(), "UTF-8");
+        signedDocument = signatureElement.getOwnerDocument();
+        signedXMLString = XMLUtils.print(signedDocument.getDocumentElement(), "UTF-8");
         makeImmutable();  
     }
 
+    /**
+     * Returns the parsed signed assertion, if it is still held, and releases it. The document may be modified
+     * by the caller, so it can only be used once.
+     */
+    private Document takeSignedDocument() {
+        Document document = signedDocument;
+        signedDocument = null;
+        return document;
+    }
+
     /**
      * Returns an <code>EncryptedAssertion</code> object.
      *
@@ -727,14 +752,22 @@ public class AssertionImpl implements Assertion {
         String recipientEntityID
     ) throws SAML2Exception {
         
-        Element el = EncManager.getEncInstance().encrypt(
-            toXMLString(true, true),
-            recipientPublicKey,
-            dataEncAlgorithm,
-            dataEncStrength,
-            recipientEntityID,
-            "EncryptedAssertion"
-        );
+        Document document = takeSignedDocument();
+        Element el;
+        if (document != null) {
+            // Encrypt the document the assertion was signed or parsed in rather than parsing it again
+            el = EncManager.getEncInstance().encrypt(document, recipientPublicKey, null, dataEncAlgorithm,
+                    dataEncStrength, recipientEntityID, "EncryptedAssertion");
+        } else {
+            el = EncManager.getEncInstance().encrypt(
+                toXMLString(true, true),
+                recipientPublicKey,
+                dataEncAlgorithm,
+                dataEncStrength,
+                recipientEntityID,
+                "EncryptedAssertion"
+            );
+        }
         return AssertionFactory.getInstance().
             createEncryptedAssertion(el);
     }
@@ -772,6 +805,7 @@ public class AssertionImpl implements Assertion {
         throws SAML2Exception {
 
         if ((signature != null) && (signedXMLString != null)) {
+            signedDocument = null;
             return signedXMLString;
         }
 
@@ -24,6 +24,7 @@
  *
  * $Id: ResponseImpl.java,v 1.4 2009/12/16 05:26:39 ericow Exp $
  *
+ * Portions Copyright 2026 Wren Security.
  */
 
 
@@ -295,7 +296,9 @@ public class ResponseImpl extends StatusResponseImpl implements Response {
         if (isSigned) {
             signedXMLString = XMLUtils.print(element,
                 "UTF-8");
-
+            if (element.getOwnerDocument().getDocumentElement() == element) {
+                signedDocument = element.getOwnerDocument();
+            }
         }
     }
 
@@ -315,6 +318,7 @@ public class ResponseImpl extends StatusResponseImpl implements Response {
         parseElement(doc.getDocumentElement());
         if (isSigned) {
             signedXMLString = xmlString;
+            signedDocument = doc;
         }
     }
 
@@ -416,6 +420,7 @@ public class ResponseImpl extends StatusResponseImpl implements Response {
     public String toXMLString(boolean includeNSPrefix, boolean declareNS)
 	throws SAML2Exception {
 	if (isSigned && signedXMLString != null) {
+	    signedDocument = null;
 	    return signedXMLString;
 	}
 	this.validateData();
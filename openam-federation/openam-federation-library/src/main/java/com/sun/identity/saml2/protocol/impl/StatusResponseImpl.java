@@ -25,6 +25,7 @@
  * $Id: StatusResponseImpl.java,v 1.4 2008/06/25 05:48:01 qcheng Exp $
  *
  * Portions Copyrighted 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.saml2.protocol.impl;
 
@@ -47,6 +48,7 @@ import java.security.cert.X509Certificate;
 import java.util.Set;
 
 import com.sun.identity.saml2.xmlsig.SigManager;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import com.sun.identity.shared.xml.XMLUtils;
 
@@ -74,6 +76,11 @@ public abstract class StatusResponseImpl implements StatusResponse {
     protected boolean isMutable = false;
     protected PublicKey publicKey = null;
     protected String  signedXMLString = null;
+    /**
+     * The parsed form of <code>signedXMLString</code> for a received response, kept until the signature is verified
+     * so that it does not have to be parsed again.
+     */
+    protected Document signedDocument = null;
 
     /**
      * Returns the value of the version property.
@@ -360,7 +367,13 @@ public abstract class StatusResponseImpl implements StatusResponse {
     public boolean isSignatureValid(Set<X509Certificate> verificationCerts)
         throws SAML2Exception { 	
         if (isSignatureValid == null) {
-             isSignatureValid = SigManager.getSigInstance().verify(signedXMLString, getID(), verificationCerts);
+            Document document = signedDocument;
+            signedDocument = null;
+            if (document != null) {
+                isSignatureValid = SigManager.getSigInstance().verify(document, getID(), verificationCerts);
+            } else {
+                isSignatureValid = SigManager.getSigInstance().verify(signedXMLString, getID(), verificationCerts);
+            }
          }
          return isSignatureValid.booleanValue();
     }   
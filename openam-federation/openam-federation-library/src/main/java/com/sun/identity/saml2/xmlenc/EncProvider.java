@@ -25,9 +25,11 @@
  * $Id: EncProvider.java,v 1.3 2008/06/25 05:48:03 qcheng Exp $
  *
  * Portions Copyrighted 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.saml2.xmlenc;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import java.security.Key;
 import java.security.PrivateKey;
@@ -35,6 +37,7 @@ import java.util.Set;
 import javax.crypto.SecretKey;
 
 import com.sun.identity.saml2.common.SAML2Exception;
+import com.sun.identity.shared.xml.XMLUtils;
 
 /**
  * <code>EncProvider</code> is an interface for encrypting and 
@@ -111,6 +114,37 @@ public interface EncProvider {
 
 	throws SAML2Exception;
 
+    /**
+     * Encrypts the root element of an already parsed XML document, as
+     * {@link #encrypt(String, Key, SecretKey, String, int, String, String)}
+     * does for an XML string, so that a document which has just been signed
+     * does not need to be serialized and parsed again. The document is
+     * modified by the encryption and should not be used afterwards.
+     * <p>
+     * The default implementation serializes the document and delegates to
+     * the string based method.
+     *
+     * @param doc Document whose root element is to be encrypted.
+     * @param recipientPublicKey Public key used to encrypt the data encryption
+     *                           (secret) key.
+     * @param secretKey the secret key used to encrypted data, or null to use
+     *                  the cached key of the recipient.
+     * @param dataEncAlgorithm Data encryption algorithm.
+     * @param dataEncStrength Data encryption strength.
+     * @param recipientEntityID Unique identifier of the recipient, used as the
+     *                          index to the cached secret key. May be null.
+     * @param outerElementName Name of the element that will wrap around the
+     *                         encrypted data and encrypted key(s) sub-elements
+     * @return org.w3c.dom.Element Root element of the encypted document
+     * @exception SAML2Exception if there is an error during the encryption
+     *                           process
+     */
+    default Element encrypt(Document doc, Key recipientPublicKey, SecretKey secretKey, String dataEncAlgorithm,
+            int dataEncStrength, String recipientEntityID, String outerElementName) throws SAML2Exception {
+        return encrypt(doc == null ? null : XMLUtils.print(doc.getDocumentElement(), "UTF-8"), recipientPublicKey,
+                secretKey, dataEncAlgorithm, dataEncStrength, recipientEntityID, outerElementName);
+    }
+
     /**
      * Returns the secret key that encrypts encrypted data and is encrypted
      * with recipient's public key in the XML document.
@@ -25,6 +25,7 @@
  * $Id: FMEncProvider.java,v 1.5 2008/06/25 05:48:03 qcheng Exp $
  *
  * Portions Copyrighted 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.saml2.xmlenc;
 
@@ -167,9 +168,30 @@ public final class FMEncProvider implements EncProvider {
 
 	String classMethod = "FMEncProvider.encrypt: ";
 
+	if (xmlString==null || xmlString.length()==0) {
+            SAML2SDKUtils.debug.error(
+		classMethod + "Null input parameter(s).");
+	    throw new SAML2Exception(
+		SAML2SDKUtils.bundle.getString("nullInput"));
+	}
+	Document doc =
+	    XMLUtils.toDOMDocument(xmlString, SAML2SDKUtils.debug);
+        if (doc == null) {
+            throw new SAML2Exception(
+                SAML2SDKUtils.bundle.getString("errorObtainingElement"));
+        }
+        return encrypt(doc, recipientPublicKey, secretKey, dataEncAlgorithm, dataEncStrength, recipientEntityID,
+                outerElementName);
+    }
+
+    @Override
+    public Element encrypt(Document doc, Key recipientPublicKey, SecretKey secretKey, String dataEncAlgorithm,
+            int dataEncStrength, String recipientEntityID, String outerElementName) throws SAML2Exception {
+
+	String classMethod = "FMEncProvider.encrypt: ";
+
 	// checking the input parameters
-	if (xmlString==null ||
-	    xmlString.length()==0 ||
+	if (doc==null ||
 	    recipientPublicKey==null ||
 	    dataEncAlgorithm==null ||
 	    dataEncAlgorithm.length() == 0 ||
@@ -204,12 +226,6 @@ public final class FMEncProvider implements EncProvider {
             throw new SAML2Exception(SAML2SDKUtils.bundle.getString(
 		"algSizeMismatch"));
 	}	    	    
-	Document doc =
-	    XMLUtils.toDOMDocument(xmlString, SAML2SDKUtils.debug);
-        if (doc == null) {
-            throw new SAML2Exception(
-                SAML2SDKUtils.bundle.getString("errorObtainingElement"));
-        }
 	if (dataEncStrength <= 0) {
 	    dataEncStrength = 128;
 	}
@@ -25,6 +25,7 @@
  * $Id: FMSigProvider.java,v 1.5 2009/05/09 15:43:59 mallas Exp $
  *
  *  Portions Copyrighted 2011-2016 ForgeRock AS.
+ *  Portions Copyright 2026 Wren Security.
  */
 
 package com.sun.identity.saml2.xmlsig;
@@ -131,6 +132,22 @@ public final class FMSigProvider implements SigProvider {
         if (StringUtils.isEmpty(xmlString)) {
             SAML2SDKUtils.debug.error(classMethod + "The xml to sign was empty.");
             throw new SAML2Exception(SAML2SDKUtils.BUNDLE_NAME, "emptyInputMessage", new String[]{"xml"});
+        }
+	    Document doc = XMLUtils.toDOMDocument(xmlString, SAML2SDKUtils.debug);
+        if (doc == null) {
+            throw new SAML2Exception(SAML2SDKUtils.bundle.getString("errorObtainingElement"));
+        }
+        return sign(doc, idValue, privateKey, cert);
+    }
+
+    @Override
+    public Element sign(Document doc, String idValue, PrivateKey privateKey, X509Certificate cert)
+            throws SAML2Exception {
+
+        String classMethod = "FMSigProvider.sign: ";
+        if (doc == null) {
+            SAML2SDKUtils.debug.error(classMethod + "The document to sign was null.");
+            throw new SAML2Exception(SAML2SDKUtils.BUNDLE_NAME, "nullInputMessage", new String[]{"document"});
         }
         if (StringUtils.isEmpty(idValue)) {
             SAML2SDKUtils.debug.error(classMethod + "The idValue was empty.");
@@ -140,10 +157,6 @@ public final class FMSigProvider implements SigProvider {
             SAML2SDKUtils.debug.error(classMethod + "The private key was null.");
             throw new SAML2Exception(SAML2SDKUtils.BUNDLE_NAME, "nullInputMessage", new String[]{"private key"});
         }                                                 
-	    Document doc = XMLUtils.toDOMDocument(xmlString, SAML2SDKUtils.debug);
-        if (doc == null) {
-            throw new SAML2Exception(SAML2SDKUtils.bundle.getString("errorObtainingElement"));
-        }
 	Element root = doc.getDocumentElement();
 	XMLSignature sig = null;
 	try {
@@ -255,6 +268,18 @@ public final class FMSigProvider implements SigProvider {
                             "errorObtainingElement")
             );
         }
+        return verify(doc, idValue, verificationCerts);
+    }
+
+    @Override
+    public boolean verify(Document doc, String idValue, Set<X509Certificate> verificationCerts)
+            throws SAML2Exception {
+
+        String classMethod = "FMSigProvider.verify: ";
+        if (doc == null || StringUtils.isEmpty(idValue)) {
+            SAML2SDKUtils.debug.error(classMethod + "Either input document or idValue is null.");
+            throw new SAML2Exception(SAML2SDKUtils.bundle.getString("nullInput"));
+        }
         Element nscontext =
                 org.apache.xml.security.utils.XMLUtils.
                         createDSctx(doc, "ds", Constants.SignatureSpecNS);
@@ -25,6 +25,7 @@
  * $Id: SigProvider.java,v 1.2 2008/06/25 05:48:04 qcheng Exp $
  *
  * Portions Copyrighted 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.saml2.xmlsig;
 
@@ -35,6 +36,7 @@ import java.security.cert.X509Certificate;
 import java.util.Set;
 
 import com.sun.identity.saml2.common.SAML2Exception;
+import com.sun.identity.shared.xml.XMLUtils;
 
 /**
  * <code>SigProvider</code> is an interface for signing
@@ -64,6 +66,34 @@ public interface SigProvider {
 	X509Certificate cert
     ) throws SAML2Exception;
 
+    /**
+     * Sign the root element of the given document, as
+     * {@link #sign(String, String, PrivateKey, X509Certificate)} does for an
+     * XML string, but without parsing and serializing the document. The
+     * signature is inserted into the document, so callers which build,
+     * sign and encrypt a message on one DOM only serialize it once.
+     * <p>
+     * The default implementation serializes the document and delegates to
+     * the string based method, in which case the returned signature belongs
+     * to a copy of the document.
+     *
+     * @param doc Document whose root element is to be signed
+     * @param idValue id attribute value of the root node to be signed
+     * @param privateKey Signing key
+     * @param cert Certificate which contain the public key correlated to
+     *             the signing key; It if is not null, then the signature
+     *             will include the certificate; Otherwise, the signature
+     *             will not include any certificate
+     * @return Element representing the signature element; use its owner
+     *         document to obtain the signed document
+     * @throws SAML2Exception if the document could not be signed
+     */
+    default Element sign(Document doc, String idValue, PrivateKey privateKey, X509Certificate cert)
+            throws SAML2Exception {
+        return sign(doc == null ? null : XMLUtils.print(doc.getDocumentElement(), "UTF-8"), idValue, privateKey,
+                cert);
+    }
+
 	/**
 	 * Verify the signature of the xml document.
 	 *
@@ -80,4 +110,24 @@ public interface SigProvider {
 	String idValue,
 	Set<X509Certificate> verificationCerts
     ) throws SAML2Exception;
+
+    /**
+     * Verify the signature of an already parsed xml document, as
+     * {@link #verify(String, String, Set)} does for an XML string. The
+     * document may be modified, for example by marking its ID attribute.
+     * <p>
+     * The default implementation serializes the document and delegates to
+     * the string based method.
+     *
+     * @param doc Signed document.
+     * @param idValue id attribute value of the node whose signature is to be verified.
+     * @param verificationCerts Certificates containing the public keys which may be used for signature verification.
+     * @return true if the xml signature is verified, false otherwise.
+     * @throws SAML2Exception if problem occurs during verification.
+     */
+    default boolean verify(Document doc, String idValue, Set<X509Certificate> verificationCerts)
+            throws SAML2Exception {
+        return verify(doc == null ? null : XMLUtils.print(doc.getDocumentElement(), "UTF-8"), idValue,
+                verificationCerts);
+    }
 }
@@ -12,23 +12,38 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package com.sun.identity.saml2.xmlsig;
 
 
 import com.sun.identity.saml.xmlsig.KeyProvider;
+import com.sun.identity.saml2.assertion.Assertion;
+import com.sun.identity.saml2.assertion.AssertionFactory;
+import com.sun.identity.saml2.assertion.EncryptedAssertion;
+import com.sun.identity.saml2.assertion.Issuer;
+import com.sun.identity.saml2.common.SAML2Constants;
 import com.sun.identity.saml2.common.SAML2Exception;
 import com.sun.identity.saml2.common.SAML2Utils;
+import com.sun.identity.saml2.protocol.ProtocolFactory;
+import com.sun.identity.saml2.protocol.Response;
+import com.sun.identity.saml2.protocol.Status;
+import com.sun.identity.saml2.protocol.StatusCode;
 import com.sun.identity.shared.xml.XMLUtils;
+import org.apache.xml.security.encryption.XMLCipher;
 import org.forgerock.openam.utils.AMKeyProvider;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
 import java.util.Collections;
+import java.util.Date;
 
 public class SigProviderTest {
 
@@ -89,4 +104,113 @@ public class SigProviderTest {
         }
         Assert.assertTrue(verified);
     }
+
+    @Test
+    public void testSigningDocumentInPlace() throws SAML2Exception {
+
+        Document document = XMLUtils.toDOMDocument(ClassLoader.getSystemResourceAsStream(XML_DOCUMENT_TO_SIGN),
+                SAML2Utils.debug);
+        X509Certificate cert = keyProvider.getX509Certificate(DEFAULT_PRIVATE_KEY_ALIAS);
+
+        // The signature is added to the given document rather than to a parsed copy
+        Element signature = sigProvider.sign(document, ID_ATTRIBUTE_VALUE,
+                keyProvider.getPrivateKey(DEFAULT_PRIVATE_KEY_ALIAS), cert);
+
+        Assert.assertSame(signature.getOwnerDocument(), document);
+        Assert.assertSame(signature.getParentNode(), document.getDocumentElement());
+        Assert.assertTrue(sigProvider.verify(XMLUtils.print(document.getDocumentElement(), "UTF-8"),
+                ID_ATTRIBUTE_VALUE, Collections.singleton(cert)));
+    }
+
+    @Test
+    public void testVerifySignatureOfDocument() throws SAML2Exception {
+
+        Document signedDocument = XMLUtils.toDOMDocument(ClassLoader.getSystemResourceAsStream(SIGNED_XML_DOCUMENT),
+                SAML2Utils.debug);
+
+        Assert.assertTrue(sigProvider.verify(signedDocument, ID_ATTRIBUTE_VALUE,
+                Collections.singleton(keyProvider.getX509Certificate(DEFAULT_PRIVATE_KEY_ALIAS))));
+    }
+
+    @Test
+    public void testSignedAssertionVerifies() throws SAML2Exception {
+
+        Assertion assertion = createAssertion("s2assertion");
+        X509Certificate cert = keyProvider.getX509Certificate(DEFAULT_PRIVATE_KEY_ALIAS);
+
+        assertion.sign(keyProvider.getPrivateKey(DEFAULT_PRIVATE_KEY_ALIAS), cert);
+
+        Assert.assertTrue(assertion.isSignatureValid(Collections.singleton(cert)));
+        Assert.assertTrue(AssertionFactory.getInstance().createAssertion(assertion.toXMLString(true, true))
+                .isSignatureValid(Collections.singleton(cert)));
+    }
+
+    @Test
+    public void testEncryptedSignedAssertionDecryptsAndVerifies() throws SAML2Exception {
+
+        Assertion assertion = createAssertion("s2assertion");
+        PrivateKey key = keyProvider.getPrivateKey(DEFAULT_PRIVATE_KEY_ALIAS);
+        X509Certificate cert = keyProvider.getX509Certificate(DEFAULT_PRIVATE_KEY_ALIAS);
+        assertion.sign(key, cert);
+
+        // The assertion is encrypted from the document it was signed in
+        EncryptedAssertion encrypted = assertion.encrypt(cert.getPublicKey(), XMLCipher.AES_128, 128, "sp");
+        Assertion decrypted = encrypted.decrypt(Collections.singleton(key));
+
+        Assert.assertEquals(decrypted.getID(), "s2assertion");
+        Assert.assertTrue(decrypted.isSignatureValid(Collections.singleton(cert)));
+    }
+
+    @Test
+    public void testReceivedSignedResponseVerifies() throws SAML2Exception {
+
+        PrivateKey key = keyProvider.getPrivateKey(DEFAULT_PRIVATE_KEY_ALIAS);
+        X509Certificate cert = keyProvider.getX509Certificate(DEFAULT_PRIVATE_KEY_ALIAS);
+        String signedResponse = createSignedResponse(key, cert);
+
+        // Both verify the document the response was parsed from rather than parsing it again
+        Response fromString = ProtocolFactory.getInstance().createResponse(signedResponse);
+        Response fromElement = ProtocolFactory.getInstance().createResponse(
+                XMLUtils.toDOMDocument(signedResponse, SAML2Utils.debug).getDocumentElement());
+
+        Assert.assertTrue(fromString.isSignatureValid(Collections.singleton(cert)));
+        Assert.assertTrue(fromElement.isSignatureValid(Collections.singleton(cert)));
+        Assert.assertEquals(fromString.getEncryptedAssertion().size(), 1);
+    }
+
+    private String createSignedResponse(PrivateKey key, X509Certificate cert) throws SAML2Exception {
+        ProtocolFactory protocolFactory = ProtocolFactory.getInstance();
+        Assertion assertion = createAssertion("s2assertion");
+        assertion.sign(key, cert);
+
+        Response response = protocolFactory.createResponse();
+        response.setEncryptedAssertion(Collections.singletonList(
+                assertion.encrypt(cert.getPublicKey(), XMLCipher.AES_128, 128, "sp")));
+        response.setID("s2response");
+        response.setVersion(SAML2Constants.VERSION_2_0);
+        response.setIssueInstant(new Date());
+        Issuer issuer = AssertionFactory.getInstance().createIssuer();
+        issuer.setValue("http://idp.example.com");
+        response.setIssuer(issuer);
+        StatusCode statusCode = protocolFactory.createStatusCode();
+        statusCode.setValue(SAML2Constants.SUCCESS);
+        Status status = protocolFactory.createStatus();
+        status.setStatusCode(statusCode);
+        response.setStatus(status);
+        response.sign(key, cert);
+        return response.toXMLString(true, true);
+    }
+
+    private Assertion createAssertion(String id) throws SAML2Exception {
+        return AssertionFactory.getInstance().createAssertion(
+                "<saml:Assertion xmlns:saml=\"urn:oasis:names:tc:SAML:2.0:assertion\" ID=\"" + id + "\""
+                + " IssueInstant=\"2026-01-01T00:00:00Z\" Version=\"2.0\">"
+                + "<saml:Issuer>http://idp.example.com</saml:Issuer>"
+                + "<saml:Subject><saml:NameID>user</saml:NameID>"
+                + "<saml:SubjectConfirmation Method=\"urn:oasis:names:tc:SAML:2.0:cm:bearer\"/></saml:Subject>"
+                + "<saml:AuthnStatement AuthnInstant=\"2026-01-01T00:00:00Z\"><saml:AuthnContext>"
+                + "<saml:AuthnContextClassRef>urn:oasis:names:tc:SAML:2.0:ac:classes:PasswordProtectedTransport"
+                + "</saml:AuthnContextClassRef></saml:AuthnContext></saml:AuthnStatement>"
+                + "</saml:Assertion>");
+    }
 }
@@ -69,6 +69,10 @@ public final class LDAPConstants {
     /** LDAP DN cache size property key. */
     public static final String LDAP_DNCACHE_SIZE = "sun-idrepo-ldapv3-dncache-size";
 
+    /** LDAP nested group membership index enabled property key. */
+    public static final String LDAP_GROUP_MEMBERSHIP_INDEX_ENABLED =
+            "sun-idrepo-ldapv3-config-group-membership-index-enabled";
+
     /** LDAP server list property key. */
     public static final String LDAP_SERVER_LIST = "sun-idrepo-ldapv3-config-ldap-server";
 
@@ -0,0 +1,193 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.radius.server;
+
+import static org.forgerock.openam.utils.Time.*;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Remembers recently received requests so that retransmissions can be recognised, as described in section 2.2.2 of
+ * rfc 5080. A client retransmits a request with the same identifier and request authenticator from the same address
+ * when it has not received a response in time, and expects the same response as to the original request.
+ * <p/>
+ * A retransmission of a request which has been answered is answered with the cached response. A retransmission of a
+ * request which is still being handled is dropped, as the response to the original request will follow. Requests are
+ * remembered for a fixed time and the number of remembered requests is bounded, the oldest requests being forgotten
+ * first.
+ */
+final class DuplicateRequestCache {
+
+    /**
+     * Length of the code, identifier, length and authenticator fields at the start of a packet.
+     */
+    private static final int HEADER_LENGTH = 20;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final long retentionMillis;
+    private final int maxSize;
+
+    /**
+     * Constructor.
+     *
+     * @param retentionMillis the time in milliseconds a request is remembered.
+     * @param maxSize the maximum number of remembered requests.
+     */
+    DuplicateRequestCache(long retentionMillis, int maxSize) {
+        this.retentionMillis = retentionMillis;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Creates the entry of a received request, which is not yet remembered.
+     *
+     * @param source the address the request was received from.
+     * @param packet the received packet, between its position and limit, which are not changed.
+     * @return the entry of the request, or null if the packet is too short to be a request.
+     */
+    Entry createEntry(InetSocketAddress source, ByteBuffer packet) {
+        if (packet.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+        final int start = packet.position();
+        final byte[] authenticator = new byte[HEADER_LENGTH - 4];
+        for (int i = 0; i < authenticator.length; i++) {
+            authenticator[i] = packet.get(start + 4 + i);
+        }
+        return new Entry(new Key(source, packet.get(start + 1), authenticator), currentTimeMillis());
+    }
+
+    /**
+     * Remembers a received request, unless it is a retransmission of a remembered request.
+     *
+     * @param entry the entry of the received request.
+     * @return null if the request has been remembered, or the entry of the original request if this is a
+     *         retransmission.
+     */
+    Entry putIfAbsent(Entry entry) {
+        final Entry original = entries.putIfAbsent(entry.key, entry);
+        if (original != null && entry.createdAt - original.createdAt < retentionMillis) {
+            return original;
+        } else if (original != null) {
+            // Same identifier and authenticator long after the original request, treat as new
+            entries.replace(entry.key, original, entry);
+        }
+        order.add(entry);
+        expire(entry.createdAt);
+        return null;
+    }
+
+    /**
+     * Forgets a request, so that a retransmission of it is handled as a new request.
+     *
+     * @param entry the entry of the request.
+     */
+    void remove(Entry entry) {
+        entries.remove(entry.key, entry);
+    }
+
+    /**
+     * Returns the number of remembered requests.
+     *
+     * @return the number of remembered requests.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private void expire(long now) {
+        Entry oldest;
+        while ((oldest = order.peek()) != null
+                && (now - oldest.createdAt >= retentionMillis || entries.size() > maxSize)) {
+            if (order.remove(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    /**
+     * A remembered request and, once sent, its response.
+     */
+    static final class Entry {
+        private final Key key;
+        private final long createdAt;
+        private volatile byte[] response;
+
+        private Entry(Key key, long createdAt) {
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+
+        /**
+         * Returns the response sent to the request.
+         *
+         * @return the octets of the response, or null if no response has been sent yet.
+         */
+        byte[] getResponse() {
+            return response;
+        }
+
+        /**
+         * Records the response sent to the request.
+         *
+         * @param response the octets of the response.
+         */
+        void setResponse(byte[] response) {
+            this.response = response;
+        }
+    }
+
+    /**
+     * Identifies a request by the client address, identifier and request authenticator.
+     */
+    private static final class Key {
+        private final InetSocketAddress source;
+        private final byte identifier;
+        private final byte[] authenticator;
+        private final int hash;
+
+        private Key(InetSocketAddress source, byte identifier, byte[] authenticator) {
+            this.source = source;
+            this.identifier = identifier;
+            this.authenticator = authenticator;
+            this.hash = (source.hashCode() * 31 + identifier) * 31 + Arrays.hashCode(authenticator);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return identifier == other.identifier && source.equals(other.source)
+                    && Arrays.equals(authenticator, other.authenticator);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.radius.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.openam.radius.server.config.RadiusServerConstants;
+
+/**
+ * A pool of direct buffers which packets are received into, so that the listener neither allocates a buffer for each
+ * packet nor has the channel copy each packet through a temporary direct buffer.
+ * <p/>
+ * At most a fixed number of direct buffers is allocated. When all of them are in use, for example while a burst of
+ * requests is queued for the request handlers, heap buffers are handed out instead, which are not returned to the
+ * pool.
+ */
+final class RadiusBufferPool {
+
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final int capacity;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of direct buffers.
+     */
+    RadiusBufferPool(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.buffers = new ArrayBlockingQueue<>(this.capacity);
+    }
+
+    /**
+     * Takes a buffer from the pool, ready to receive a packet in network byte order.
+     *
+     * @return an empty buffer which can hold the largest RADIUS packet.
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            if (allocated.incrementAndGet() <= capacity) {
+                buffer = ByteBuffer.allocateDirect(RadiusServerConstants.MAX_PACKET_SIZE);
+            } else {
+                allocated.decrementAndGet();
+                buffer = ByteBuffer.allocate(RadiusServerConstants.MAX_PACKET_SIZE);
+            }
+        }
+        buffer.clear();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool once its packet has been handled.
+     *
+     * @param buffer a buffer obtained from {@link #acquire()}.
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer.isDirect()) {
+            buffers.offer(buffer);
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyrighted 2015 Intellectual Reserve, Inc (IRI)
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.radius.server;
 
@@ -78,6 +79,11 @@ public class RadiusRequestContext {
      */
     private short requestId;
 
+    /**
+     * Remembers the response for answering retransmissions of the request, if set.
+     */
+    private volatile DuplicateRequestCache.Entry duplicateEntry;
+
     /**
      * Constructs the reponse handler.
      *
@@ -170,7 +176,12 @@ public class RadiusRequestContext {
         if (clientConfig.isLogPackets()) {
             logPacketContent(response, "\nPacket to " + clientConfig.getName() + ":");
         }
-        final ByteBuffer reqBuf = ByteBuffer.wrap(response.getOctets());
+        final byte[] octets = response.getOctets();
+        final DuplicateRequestCache.Entry entry = duplicateEntry;
+        if (entry != null) {
+            entry.setResponse(octets);
+        }
+        final ByteBuffer reqBuf = ByteBuffer.wrap(octets);
 
         try {
             LOG.message("Sending response of type " + response.getType() + " to " + clientConfig.getName());
@@ -213,6 +224,15 @@ public class RadiusRequestContext {
         }
     }
 
+    /**
+     * Sets the entry of the request in the cache of recent requests, in which the response is to be kept.
+     *
+     * @param duplicateEntry the entry of the request.
+     */
+    void setDuplicateEntry(DuplicateRequestCache.Entry duplicateEntry) {
+        this.duplicateEntry = duplicateEntry;
+    }
+
     /**
      * Indicates if a response has already been sent for the request represented by this context object.
      *
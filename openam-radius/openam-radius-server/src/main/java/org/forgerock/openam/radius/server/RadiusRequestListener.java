@@ -12,30 +12,41 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyrighted 2015 Intellectual Reserve, Inc (IRI)
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.radius.server;
 
+import static org.forgerock.openam.utils.Time.*;
+
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
+import java.net.SocketOption;
 import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.DatagramChannel;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.guava.common.eventbus.EventBus;
 import org.forgerock.openam.radius.server.config.ClientConfig;
 import org.forgerock.openam.radius.server.config.RadiusServerConstants;
 import org.forgerock.openam.radius.server.config.RadiusServiceConfig;
+import org.forgerock.openam.radius.server.events.DuplicatePacketReceivedEvent;
+import org.forgerock.openam.radius.server.events.PacketDroppedEvent;
 import org.forgerock.openam.radius.server.events.PacketProcessedEvent;
 import org.forgerock.openam.radius.server.events.PacketReceivedEvent;
-import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.ResultHandler;
 
 import com.sun.identity.shared.debug.Debug;
 
@@ -45,20 +56,30 @@ import com.sun.identity.shared.debug.Debug;
  * buffered incoming requests while packets in process of being handled are polished off and can send their responses
  * through the backing channel. Then it closes the channel and exits.
  * <p/>
+ * Packets are received by several receiver threads. Where the platform supports SO_REUSEPORT each receiver binds its
+ * own channel to the port and the operating system spreads the packets over them, otherwise the receivers share one
+ * channel. Packets are received into pooled direct buffers, and retransmissions of requests which have already been
+ * received are answered from a cache of recent responses rather than being handled again.
  */
-public class RadiusRequestListener implements Runnable {
+public class RadiusRequestListener {
 
     private static final Debug LOG = Debug.getInstance(RadiusServerConstants.RADIUS_SERVER_LOGGER);
 
     /**
-     * The configuration values for the Radius service pulled from OpenAM admin console constructs.
+     * The minimum time in milliseconds between warnings about dropped packets, so that an overloaded server does not
+     * also flood its log.
      */
-    private volatile RadiusServiceConfig config;
+    private static final long DROPPED_WARNING_INTERVAL_MILLIS = 10000;
 
     /**
-     * The thread pool for handling requests.
+     * The SO_REUSEPORT socket option, which only exists from Java 9, or null where it does not exist.
      */
-    // private final ThreadPoolExecutor pool;
+    private static final SocketOption<Boolean> SO_REUSEPORT = findReusePortOption();
+
+    /**
+     * The configuration values for the Radius service pulled from OpenAM admin console constructs.
+     */
+    private volatile RadiusServiceConfig config;
 
     /**
      * Indicates if the listener was successfully started meaning it was able to bind to a listening data port and set
@@ -66,19 +87,18 @@ public class RadiusRequestListener implements Runnable {
      */
     private volatile boolean startedSuccessfully = false;
     /**
-     * Indicates to the daemon for this class embedded in its run method that the JVM or web app is shutting down and
-     * thus the daemon should exit.
+     * Indicates to the receivers of this class that the JVM or web app is shutting down and thus they should exit.
      */
     private volatile boolean terminated = false;
     /**
-     * The datagram channel of this listener.
+     * The datagram channels of this listener, one per receiver if the platform supports SO_REUSEPORT.
      */
-    private DatagramChannel channel = null;
+    private final List<DatagramChannel> channels = new ArrayList<>();
 
     /**
-     * The thread instance that is running this listener's Runnable.
+     * Counted down by each receiver thread as it exits.
      */
-    private volatile Thread listenerThread = null;
+    private final CountDownLatch receiversExited;
 
     /**
      * Service factory from which we may obtain an executor service that is automatically wired up to shutdown when the
@@ -97,8 +117,22 @@ public class RadiusRequestListener implements Runnable {
     private AccessRequestHandlerFactory accessRequestHandlerFactory;
 
     /**
-     * Construct listener, opens the DatagramChannel to receive requests, sets up the thread pool, and launches the
-     * listener's thread which will capture the requests, drop unauthorized clients, and spool to the thread pool.
+     * The buffers packets are received into.
+     */
+    private final RadiusBufferPool bufferPool;
+
+    /**
+     * Recently received requests, used to recognise retransmissions.
+     */
+    private final DuplicateRequestCache duplicateCache;
+
+    /**
+     * The time the last warning about dropped packets was logged.
+     */
+    private final AtomicLong lastDroppedWarning = new AtomicLong();
+
+    /**
+     * Construct listener with a single receiver and the default duplicate request cache settings.
      *
      * @param config the configuration loaded from our admin console pages
      * @param executorService the thread pool executor to process radius requests.
@@ -112,45 +146,104 @@ public class RadiusRequestListener implements Runnable {
             final EventBus eventBus,
             final AccessRequestHandlerFactory accessRequestHandlerFactory)
             throws RadiusLifecycleException {
+        this(config, executorService, eventBus, accessRequestHandlerFactory, 1,
+                TimeUnit.SECONDS.toMillis(RadiusServerConstants.DEFAULT_DUPLICATE_CACHE_SECONDS),
+                RadiusServerConstants.DEFAULT_DUPLICATE_CACHE_SIZE);
+    }
+
+    /**
+     * Construct listener, opens the DatagramChannels to receive requests, and launches the listener's receiver threads
+     * which will capture the requests, drop unauthorized clients, answer retransmissions, and spool the remaining
+     * requests to the thread pool.
+     *
+     * @param config the configuration loaded from our admin console pages
+     * @param executorService the thread pool executor to process radius requests.
+     * @param eventBus may used to notify interested parties when events occur during the processing of radius events.
+     * @param accessRequestHandlerFactory used to obtain access request handler classes for specific clients, as defined
+     *            in the configuration.
+     * @param receivers the number of threads receiving packets.
+     * @param duplicateRetentionMillis the time in milliseconds a request is remembered to recognise retransmissions.
+     * @param duplicateCacheSize the maximum number of requests remembered to recognise retransmissions.
+     * @throws RadiusLifecycleException when the config is insufficient or invalid.
+     */
+    public RadiusRequestListener(final RadiusServiceConfig config,
+            final ExecutorService executorService,
+            final EventBus eventBus,
+            final AccessRequestHandlerFactory accessRequestHandlerFactory,
+            final int receivers,
+            final long duplicateRetentionMillis,
+            final int duplicateCacheSize)
+            throws RadiusLifecycleException {
         LOG.warning("RADIUS service enabled. Starting Listener.");
         this.config = config;
         this.executorService = executorService;
         this.eventBus = eventBus;
         this.accessRequestHandlerFactory = accessRequestHandlerFactory;
+        final int receiverCount = Math.max(1, receivers);
+        // enough buffers for every request being handled or queued, and one being received by each receiver
+        this.bufferPool = new RadiusBufferPool(config.getThreadPoolConfig().getMaxThreads()
+                + config.getThreadPoolConfig().getQueueSize() + receiverCount);
+        this.duplicateCache = new DuplicateRequestCache(duplicateRetentionMillis, duplicateCacheSize);
+
+        // lets get our inbound channels opened and bound
+        final boolean reusePort = receiverCount > 1 && isReusePortSupported();
+        try {
+            final int channelCount = reusePort ? receiverCount : 1;
+            for (int i = 0; i < channelCount; i++) {
+                channels.add(openChannel(config.getPort(), reusePort));
+            }
+        } catch (final RadiusLifecycleException e) {
+            closeChannels();
+            this.startedSuccessfully = false;
+            throw e;
+        }
+
+        // now spin up our receiver threads to feed the pool
+        receiversExited = new CountDownLatch(receiverCount);
+        final String threadName = MessageFormat.format(RadiusServerConstants.LISTENER_THREAD_NAME, config.getPort());
+        for (int i = 0; i < receiverCount; i++) {
+            final Thread receiverThread = new Thread(new Receiver(channels.get(i % channels.size())));
+            receiverThread.setName(receiverCount == 1 ? threadName : threadName + "-" + i);
+            receiverThread.setDaemon(true);
+            receiverThread.start();
+        }
+        dumpBannerToLog(receiverCount);
+        this.startedSuccessfully = true;
+    }
 
-        // lets get our inbound channel opened and bound
+    /**
+     * Opens a datagram channel bound to the RADIUS port.
+     *
+     * @param port the port to bind to.
+     * @param reusePort whether to set SO_REUSEPORT, so that several channels can bind to the port.
+     * @return the bound channel.
+     * @throws RadiusLifecycleException if the channel could not be opened or bound.
+     */
+    private DatagramChannel openChannel(int port, boolean reusePort) throws RadiusLifecycleException {
+        final DatagramChannel channel;
         try {
-            this.channel = DatagramChannel.open();
+            channel = DatagramChannel.open();
             // ensure that we can re-open port immediately after shutdown when changing handlerConfig
-            this.channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            if (reusePort) {
+                channel.setOption(SO_REUSEPORT, true);
+            }
         } catch (final IOException e) {
-            this.startedSuccessfully = false;
             throw new RadiusLifecycleException("RADIUS listener unable to open datagram channel.", e);
         }
 
         try {
-            final int radiusPort = config.getPort();
-            LOG.message("Starting RADIUS listener on port " + Integer.toString(radiusPort));
-            this.channel.socket().bind(new InetSocketAddress(radiusPort));
+            LOG.message("Starting RADIUS listener on port " + Integer.toString(port));
+            channel.socket().bind(new InetSocketAddress(port));
         } catch (final SocketException e) {
-            this.startedSuccessfully = false;
-            throw new RadiusLifecycleException("RADIUS listener unable to bind to port " + config.getPort(), e);
+            try {
+                channel.close();
+            } catch (final IOException ignored) {
+                // already failing
+            }
+            throw new RadiusLifecycleException("RADIUS listener unable to bind to port " + port, e);
         }
-
-        // final DroppedRequestHandler dropsHandler = new DroppedRequestHandler();
-        // final ThreadFactory fact = new RadiusThreadFactory();
-        // final ExecutorServiceFactory esf = new ExecutorServiceFactory(ShutdownManager.getInstance());
-
-        // pool = new ThreadPoolExecutor(poolCfg.getCoreThreads(), poolCfg.getMaxThreads(),
-        // poolCfg.getKeepAliveSeconds(),
-        // TimeUnit.SECONDS, queue, fact, dropsHandler);
-
-        // now spin up our listener thread to feed the pool
-        listenerThread = new Thread(this);
-        listenerThread.setName(MessageFormat.format(RadiusServerConstants.LISTENER_THREAD_NAME, config.getPort()));
-        listenerThread.setDaemon(true);
-        listenerThread.start();
-        this.startedSuccessfully = true;
+        return channel;
     }
 
     /**
@@ -176,14 +269,13 @@ public class RadiusRequestListener implements Runnable {
     }
 
     /**
-     * Blocking call that terminates the thread pool, tells the listener to drop any new requests, waits until the
-     * thread pool is empty, and then interrupts the listener thread in case it is blocked waiting for new requests. We
-     * must wait for the pool to empty before interrupting the listener thread since that closes the channel if the
-     * thread is blocked on waiting for a new request and a closed channel then throws exceptions when any request
-     * handlers in-progress attempt to send their responses to their clients.
+     * Blocking call that terminates the thread pool, tells the receivers to drop any new requests, waits until the
+     * thread pool is empty, and then closes the channels to kick the receivers out of waiting for new requests. We
+     * must wait for the pool to empty before closing the channels since a closed channel throws exceptions when any
+     * request handlers in-progress attempt to send their responses to their clients.
      */
     public void terminate() {
-        // tell listener to stop accepting requests if any come in while pool is shutting down
+        // tell receivers to stop accepting requests if any come in while pool is shutting down
         this.terminated = true;
 
         // tell the pool to perform an orderly shutdown; stop accepting more work, but empty the work queue.
@@ -191,7 +283,6 @@ public class RadiusRequestListener implements Runnable {
 
         // now wait until the pool is finished
         boolean finished = false;
-        boolean interrupted = false;
 
         // So we need to make a decision on how long to wait for the executor service to shutdown. 5 secs seems
         // reasonable.
@@ -202,139 +293,167 @@ public class RadiusRequestListener implements Runnable {
                         TimeUnit.SECONDS);
             } catch (final InterruptedException e) {
                 LOG.warning("InterruptedException caught while waiting for executorService to terminate.");
-                interrupted = true;
             }
         }
-        // now that all in-process requests are finished with the channel we can interrupt the listener if it is still
-        // around (like when it was waiting for more requests prior to termination and received none and needs to be
-        // kicked out of receiving mode
-        final Thread t = listenerThread;
-        if (t != null) {
-            t.interrupt();
-
-            while (listenerThread != null) {
-                LOG.warning("Waiting for RADIUS Listener to exit.");
-                try {
-                    Thread.sleep(200);
-                } catch (final InterruptedException e) {
-                    // ignore and wait for our listener thread to exit
-                }
+        // now that all in-process requests are finished with the channels we can close them, which kicks any
+        // receivers still waiting for more requests out of receiving mode
+        closeChannels();
+
+        boolean exited = false;
+        while (!exited) {
+            LOG.warning("Waiting for RADIUS Listener to exit.");
+            try {
+                exited = receiversExited.await(200, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                // ignore and wait for our receiver threads to exit
+            }
+        }
+    }
+
+    private void closeChannels() {
+        for (final DatagramChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (final Exception e) {
+                LOG.error("Failed to close the Listener's UDP channel", e);
             }
         }
     }
 
     /**
-     * Where the work gets done. :-) Blocks until packets are received, validates the source IP against configured
-     * clients and drops packets accordingly, then spools valid ones to the thread pool for handling and goes back to
-     * listening.
+     * Validates the source IP of a received packet against configured clients and drops packets accordingly, answers
+     * retransmissions of requests which have already been answered, and spools new requests to the thread pool.
+     *
+     * @param channel the channel the packet was received through.
+     * @param iAddr the address the packet was received from.
+     * @param bfr the buffer holding the packet, ready for draining.
+     * @return true if the buffer has been handed to the thread pool, which releases it, or false if the caller should
+     *         release it.
      */
-    @Override
-    public void run() {
-        // Flag to hold interrupted state for returning after cleanup.
-        boolean interrupted = false;
-
-        dumpBannerToLog();
-
-        while (!terminated && !interrupted) {
-            try {
-                // assure big-endian (network) byte order for our buffer
-                final ByteBuffer bfr = ByteBuffer.allocate(RadiusServerConstants.MAX_PACKET_SIZE);
-                bfr.order(ByteOrder.BIG_ENDIAN);
-                InetSocketAddress iAddr = null;
+    private boolean dispatch(DatagramChannel channel, InetSocketAddress iAddr, ByteBuffer bfr) {
+        // see if it is for a registered client
+        final String ipAddr = iAddr.getAddress().toString();
+        final ClientConfig clientConfig = config.findClient(ipAddr);
+
+        if (clientConfig == null) {
+            LOG.warning("No Defined RADIUS Client matches IP address " + ipAddr + ". Dropping request.");
+            return false;
+        }
+        if (!clientConfig.isClassIsValid()) {
+            LOG.warning("Declared Handler Class for Client '" + clientConfig.getName()
+                    + "' is not valid. See earlier loading exception. Dropping request.");
+            return false;
+        }
 
-                // see if we have a datagram packet waiting for us
-                try {
-                    iAddr = (InetSocketAddress) channel.receive(bfr);
-                    if (iAddr == null) {
-                        // no datagram was available, it happens, just go back to listening
-                        LOG.message("DatagramChannel receive returned null. No datagram available.");
-                        continue;
-                    } else {
-                        eventBus.post(new PacketReceivedEvent());
-                    }
-                } catch (final ClosedByInterruptException c) {
-                    interrupted = true;
-                    continue;
-                } catch (final IOException e) {
-                    LOG.warning("Exception Receiving RADIUS packet. Ignoring.", e);
-                    continue;
-                } catch (final SecurityException e) {
-                    LOG.error("a security manager has been installed and it does not permit datagrams to be "
-                            + " accepted from the datagram's sender. Ignoring", e);
-                    continue;
-                }
-                // see if it is for a registered client
-                final String ipAddr = iAddr.getAddress().toString();
-                final ClientConfig clientConfig = config.findClient(ipAddr);
+        // see if the client is retransmitting a request we have already received
+        final DuplicateRequestCache.Entry entry = duplicateCache.createEntry(iAddr, bfr);
+        if (entry != null) {
+            final DuplicateRequestCache.Entry original = duplicateCache.putIfAbsent(entry);
+            if (original != null) {
+                eventBus.post(new DuplicatePacketReceivedEvent());
+                resendResponse(channel, iAddr, original);
+                return false;
+            }
+        }
 
-                if (clientConfig == null) {
-                    LOG.warning("No Defined RADIUS Client matches IP address " + ipAddr + ". Dropping request.");
-                    continue;
-                }
-                if (!clientConfig.isClassIsValid()) {
-                    LOG.warning("Declared Handler Class for Client '" + clientConfig.getName()
-                            + "' is not valid. See earlier loading exception. Dropping request.");
-                    continue;
-                }
+        final RadiusRequestContext reqCtx = new RadiusRequestContext(clientConfig, channel, iAddr);
+        reqCtx.setDuplicateEntry(entry);
+        try {
+            executorService.execute(new RequestTask(reqCtx, bfr, entry));
+            return true;
+        } catch (final RejectedExecutionException e) {
+            if (entry != null) {
+                duplicateCache.remove(entry);
+            }
+            if (!terminated) {
+                eventBus.post(new PacketDroppedEvent());
+                warnDropped(clientConfig);
+            }
+            return false;
+        }
+    }
 
-                // prepare buffer for draining and queue up a handler
-                bfr.flip();
-                final RadiusRequestContext reqCtx = new RadiusRequestContext(clientConfig, channel, iAddr);
+    private void resendResponse(DatagramChannel channel, InetSocketAddress iAddr,
+            DuplicateRequestCache.Entry original) {
+        final byte[] response = original.getResponse();
+        if (response == null) {
+            LOG.message("Dropping retransmitted request from " + iAddr + " as the original is still being handled.");
+            return;
+        }
+        LOG.message("Answering retransmitted request from " + iAddr + " with the original response.");
+        try {
+            channel.send(ByteBuffer.wrap(response), iAddr);
+        } catch (final IOException e) {
+            LOG.warning("Unable to resend response to RADIUS client at " + iAddr, e);
+        }
+    }
 
-                final PromiseImpl<RadiusResponse, RadiusProcessingException> promise = PromiseImpl.create();
-                final RadiusRequestHandler requestHandler = new RadiusRequestHandler(accessRequestHandlerFactory,
-                        reqCtx, bfr, promise, promise,
-                        eventBus);
+    private void warnDropped(ClientConfig clientConfig) {
+        final long now = currentTimeMillis();
+        final long last = lastDroppedWarning.get();
+        if (now - last >= DROPPED_WARNING_INTERVAL_MILLIS && lastDroppedWarning.compareAndSet(last, now)) {
+            LOG.warning("RADIUS request handlers are busy, dropping requests. Last dropped request was from client '"
+                    + clientConfig.getName() + "'.");
+        }
+    }
 
-                executorService.execute(requestHandler);
+    private void handleProcessingException(RadiusProcessingException e) {
+        final RadiusProcessingExceptionNature nature = e.getNature();
+        switch (nature) {
+        case CATASTROPHIC:
+            LOG.error("Catestrophic error processing a RADIUS request.", e);
+            stopAfterFailure();
+            break;
+        case INVALID_RESPONSE:
+            LOG.error("Failed to handle request. This request will be ignored.", e);
+            break;
+        case TEMPORARY_FAILURE:
+            final String errStr = "Failed to handle request. This request could be retried, but that is"
+                    + " currently not implemented.";
+            LOG.error(errStr, e);
+            break;
+        default:
+            break;
+        }
+    }
 
+    /**
+     * Stops the listener after a catastrophic failure, so that it does not keep holding the port. Called on a thread of
+     * the pool, so the pool is waited for and the channels closed on another thread, as in {@link #terminate()}.
+     */
+    private void stopAfterFailure() {
+        if (terminated) {
+            // already stopping
+            return;
+        }
+        terminated = true;
+        executorService.shutdown();
+        final Thread stopper = new Thread(new Runnable() {
+            @Override
+            public void run() {
                 try {
-                    final RadiusResponse result = promise.getOrThrow();
-                    eventBus.post(new PacketProcessedEvent());
-
-                } catch (final RadiusProcessingException e) {
-                    final RadiusProcessingExceptionNature nature = e.getNature();
-                    switch (nature) {
-                    case CATASTROPHIC:
-                        LOG.error("Catestrophic error processing a RADIUS request.", e);
-                        terminated = true;
-                        break;
-                    case INVALID_RESPONSE:
-                        LOG.error("Failed to handle request. This request will be ignored.", e);
-                        break;
-                    case TEMPORARY_FAILURE:
-                        final String errStr = "Failed to handle request. This request could be retried, but that is"
-                                + " currently not implemented.";
-                        LOG.error(errStr, e);
-                        break;
-                    default:
-                        break;
+                    while (!executorService.awaitTermination(RadiusServerConstants.THREAD_POOL_SHUTDOWN_WAIT_SECONDS,
+                            TimeUnit.SECONDS)) {
+                        LOG.warning("Waiting for RADIUS thread pool's request handler(s) to finish processing.");
                     }
+                } catch (final InterruptedException e) {
+                    LOG.warning("InterruptedException caught while waiting for executorService to terminate.");
                 }
-            } catch (final Exception t) {
-                LOG.error("Error receiving request.", t);
+                // closing the channels kicks the receivers out of receiving mode and releases the port
+                closeChannels();
             }
-        } // End of while loop
-
-        // re-assert interrupted state if it occurred
-        if (interrupted) {
-            Thread.currentThread().interrupt();
-        }
-        try {
-            // be sure that channel is closed
-            channel.close();
-        } catch (final Exception e) {
-            LOG.error("Failed to close the Listener's UDP channel", e);
-        }
-        LOG.message("RADIUS Listener Exited.");
-        this.listenerThread = null;
+        }, "RADIUS Listener Shutdown");
+        stopper.setDaemon(true);
+        stopper.start();
     }
 
-    private void dumpBannerToLog() {
+    private void dumpBannerToLog(int receivers) {
         final StringWriter sw = new StringWriter();
         final PrintWriter pw = new PrintWriter(sw);
         pw.println("RADIUS Listener is Active.");
         pw.println("Port              : " + config.getPort());
+        pw.println("Receivers         : " + receivers);
+        pw.println("Channels          : " + channels.size());
         pw.println("Threads Core      : " + config.getThreadPoolConfig().getCoreThreads());
         pw.println("Threads Max       : " + config.getThreadPoolConfig().getMaxThreads());
         pw.println("Thread Keep-alive : " + config.getThreadPoolConfig().getKeepAliveSeconds() + " sec");
@@ -343,4 +462,125 @@ public class RadiusRequestListener implements Runnable {
 
         LOG.message(sw.toString());
     }
+
+    private static boolean isReusePortSupported() {
+        if (SO_REUSEPORT == null) {
+            LOG.message("SO_REUSEPORT is not available, RADIUS receivers will share one channel.");
+            return false;
+        }
+        try (DatagramChannel probe = DatagramChannel.open()) {
+            return probe.supportedOptions().contains(SO_REUSEPORT);
+        } catch (final IOException e) {
+            LOG.warning("Unable to determine whether SO_REUSEPORT is supported.", e);
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> findReusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Blocks until packets are received on its channel and dispatches them, until the listener is terminated.
+     */
+    private final class Receiver implements Runnable {
+
+        private final DatagramChannel channel;
+
+        private Receiver(DatagramChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!terminated) {
+                    final ByteBuffer bfr = bufferPool.acquire();
+                    boolean handedOff = false;
+                    try {
+                        final InetSocketAddress iAddr;
+                        // see if we have a datagram packet waiting for us
+                        try {
+                            iAddr = (InetSocketAddress) channel.receive(bfr);
+                        } catch (final ClosedChannelException c) {
+                            // the listener has been terminated
+                            break;
+                        } catch (final IOException e) {
+                            LOG.warning("Exception Receiving RADIUS packet. Ignoring.", e);
+                            continue;
+                        } catch (final SecurityException e) {
+                            LOG.error("a security manager has been installed and it does not permit datagrams to be "
+                                    + " accepted from the datagram's sender. Ignoring", e);
+                            continue;
+                        }
+                        if (iAddr == null) {
+                            // no datagram was available, it happens, just go back to listening
+                            LOG.message("DatagramChannel receive returned null. No datagram available.");
+                            continue;
+                        }
+                        eventBus.post(new PacketReceivedEvent());
+
+                        // prepare buffer for draining and queue up a handler
+                        bfr.flip();
+                        handedOff = dispatch(channel, iAddr, bfr);
+                    } catch (final Exception t) {
+                        LOG.error("Error receiving request.", t);
+                    } finally {
+                        if (!handedOff) {
+                            bufferPool.release(bfr);
+                        }
+                    }
+                }
+            } finally {
+                LOG.message("RADIUS Listener Exited.");
+                receiversExited.countDown();
+            }
+        }
+    }
+
+    /**
+     * Handles a request on the thread pool, then releases its buffer and reports the outcome.
+     */
+    private final class RequestTask implements Runnable, ResultHandler<RadiusResponse>,
+            ExceptionHandler<RadiusProcessingException> {
+
+        private final RadiusRequestContext reqCtx;
+        private final ByteBuffer bfr;
+        private final DuplicateRequestCache.Entry entry;
+        private final long receivedAt = currentTimeMillis();
+
+        private RequestTask(RadiusRequestContext reqCtx, ByteBuffer bfr, DuplicateRequestCache.Entry entry) {
+            this.reqCtx = reqCtx;
+            this.bfr = bfr;
+            this.entry = entry;
+        }
+
+        @Override
+        public void run() {
+            try {
+                new RadiusRequestHandler(accessRequestHandlerFactory, reqCtx, bfr, this, this, eventBus).run();
+            } finally {
+                bufferPool.release(bfr);
+                // a request which was not answered may be retransmitted and should then be handled again
+                if (entry != null && entry.getResponse() == null) {
+                    duplicateCache.remove(entry);
+                }
+            }
+        }
+
+        @Override
+        public void handleResult(RadiusResponse result) {
+            eventBus.post(new PacketProcessedEvent(currentTimeMillis() - receivedAt));
+        }
+
+        @Override
+        public void handleException(RadiusProcessingException exception) {
+            handleProcessingException(exception);
+        }
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 /**
  *
@@ -31,6 +32,7 @@ import org.forgerock.openam.radius.server.config.RadiusServiceConfig;
 import org.forgerock.openam.radius.server.config.ThreadPoolConfig;
 import org.forgerock.util.thread.ExecutorServiceFactory;
 
+import com.iplanet.am.util.SystemProperties;
 import com.sun.identity.shared.debug.Debug;
 
 /**
@@ -89,7 +91,15 @@ public class RequestListenerFactory {
         final ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<Runnable>(poolConfig.getQueueSize());
         final ExecutorService executorService = executorServiceFactory.createThreadPool(coreSize, maxSize, idleTimeout,
                 TimeUnit.SECONDS, queue);
-        return new RadiusRequestListener(serviceConfig, executorService, eventBus, accessRequestHandlerFactory);
+        final int receivers = SystemProperties.getAsInt(RadiusServerConstants.RECEIVERS_PROPERTY,
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
+        final int duplicateCacheSeconds = SystemProperties.getAsInt(
+                RadiusServerConstants.DUPLICATE_CACHE_SECONDS_PROPERTY,
+                RadiusServerConstants.DEFAULT_DUPLICATE_CACHE_SECONDS);
+        final int duplicateCacheSize = SystemProperties.getAsInt(RadiusServerConstants.DUPLICATE_CACHE_SIZE_PROPERTY,
+                RadiusServerConstants.DEFAULT_DUPLICATE_CACHE_SIZE);
+        return new RadiusRequestListener(serviceConfig, executorService, eventBus, accessRequestHandlerFactory,
+                receivers, TimeUnit.SECONDS.toMillis(duplicateCacheSeconds), duplicateCacheSize);
     }
 
 
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyrighted 2015 Intellectual Reserve, Inc (IRI)
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.radius.server.config;
 
@@ -155,4 +156,33 @@ public final class RadiusServerConstants {
      * another warning message will be issued to log indicating that the pool is taking longer than allowed.
      */
     public static final long THREAD_POOL_SHUTDOWN_WAIT_SECONDS = 5;
+
+    /**
+     * System property holding the number of threads receiving packets. Where the platform supports SO_REUSEPORT each
+     * receiver has its own channel bound to the port, otherwise the receivers share one channel. Defaults to the number
+     * of processors, up to four.
+     */
+    public static final String RECEIVERS_PROPERTY = "org.forgerock.openam.radius.server.receivers";
+
+    /**
+     * System property holding the number of seconds a request is remembered, so that a retransmission of it by the
+     * client is answered with the response to the original request rather than being processed again.
+     */
+    public static final String DUPLICATE_CACHE_SECONDS_PROPERTY =
+            "org.forgerock.openam.radius.server.duplicateCacheSeconds";
+
+    /**
+     * System property holding the maximum number of requests remembered for detecting retransmissions.
+     */
+    public static final String DUPLICATE_CACHE_SIZE_PROPERTY = "org.forgerock.openam.radius.server.duplicateCacheSize";
+
+    /**
+     * The default number of seconds a request is remembered for detecting retransmissions.
+     */
+    public static final int DEFAULT_DUPLICATE_CACHE_SECONDS = 30;
+
+    /**
+     * The default maximum number of requests remembered for detecting retransmissions.
+     */
+    public static final int DEFAULT_DUPLICATE_CACHE_SIZE = 10000;
 }
@@ -0,0 +1,31 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.radius.server.events;
+
+/**
+ * Event submitted to the event bus when a client retransmits a request which has already been received. The
+ * retransmission is answered with the response to the original request, or dropped if that request is still being
+ * handled.
+ */
+public class DuplicatePacketReceivedEvent extends RadiusEvent {
+
+    /**
+     * Constructor.
+     */
+    public DuplicatePacketReceivedEvent() {
+
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.radius.server.events;
 
@@ -26,10 +27,35 @@ public class PacketProcessedEvent extends RadiusEvent {
 
     private static final Debug LOG = Debug.getInstance(RadiusServerConstants.RADIUS_SERVER_LOGGER);
 
+    /**
+     * The time in milliseconds between receiving the packet and sending the response, or -1 if not known.
+     */
+    private final long timeToServiceRequestInMilliSeconds;
+
     /**
      * Constructor.
      */
     public PacketProcessedEvent() {
+        this(-1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param timeToServiceRequestInMilliSeconds the time in milliseconds between receiving the packet and sending the
+     *            response.
+     */
+    public PacketProcessedEvent(long timeToServiceRequestInMilliSeconds) {
         LOG.message("Constructing PacketProcessedEvent.PacketProcessedEvent()");
+        this.timeToServiceRequestInMilliSeconds = timeToServiceRequestInMilliSeconds;
+    }
+
+    /**
+     * Get the time taken to process the packet.
+     *
+     * @return the time in milliseconds between receiving the packet and sending the response, or -1 if not known.
+     */
+    public long getTimeToServiceRequestInMilliSeconds() {
+        return timeToServiceRequestInMilliSeconds;
     }
 }
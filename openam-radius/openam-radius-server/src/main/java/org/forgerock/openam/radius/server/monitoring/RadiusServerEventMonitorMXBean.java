@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.radius.server.monitoring;
@@ -58,4 +59,49 @@ public interface RadiusServerEventMonitorMXBean {
      * @return a <code>long</code> indicating the number of requests that resulted in rejection.
      */
     long getNumberOfAuthRequestsRejected();
+
+    /**
+     * get the number of packets from defined clients that were dropped without being handled because the request
+     * handlers were too busy to accept them.
+     *
+     * @return a <code>long</code> indicating the number of packets dropped.
+     */
+    long getNumberOfPacketsDropped();
+
+    /**
+     * get the number of retransmitted requests that were recognised as duplicates of a request already received, and
+     * answered with the cached response or dropped while the original request was still being handled.
+     *
+     * @return a <code>long</code> indicating the number of duplicate packets.
+     */
+    long getNumberOfDuplicatePackets();
+
+    /**
+     * get the average number of packets received per second over the last minute.
+     *
+     * @return a <code>double</code> indicating the packets received per second.
+     */
+    double getPacketsReceivedPerSecond();
+
+    /**
+     * get the average number of packets dropped per second over the last minute.
+     *
+     * @return a <code>double</code> indicating the packets dropped per second.
+     */
+    double getPacketsDroppedPerSecond();
+
+    /**
+     * get the average time in milliseconds taken to handle a request, from its receipt to the response being sent,
+     * over the last minute.
+     *
+     * @return a <code>double</code> indicating the average handling time in milliseconds.
+     */
+    double getAverageRequestProcessingTime();
+
+    /**
+     * get the longest time in milliseconds taken to handle a request over the last minute.
+     *
+     * @return a <code>long</code> indicating the longest handling time in milliseconds.
+     */
+    long getMaximumRequestProcessingTime();
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 /**
  *
@@ -26,12 +27,15 @@ import javax.inject.Named;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
+import org.forgerock.guava.common.eventbus.AllowConcurrentEvents;
 import org.forgerock.guava.common.eventbus.EventBus;
 import org.forgerock.guava.common.eventbus.Subscribe;
 import org.forgerock.openam.radius.server.config.RadiusServerConstants;
 import org.forgerock.openam.radius.server.events.AuthRequestAcceptedEvent;
 import org.forgerock.openam.radius.server.events.AuthRequestReceivedEvent;
 import org.forgerock.openam.radius.server.events.AuthRequestRejectedEvent;
+import org.forgerock.openam.radius.server.events.DuplicatePacketReceivedEvent;
+import org.forgerock.openam.radius.server.events.PacketDroppedEvent;
 import org.forgerock.openam.radius.server.events.PacketProcessedEvent;
 import org.forgerock.openam.radius.server.events.PacketReceivedEvent;
 
@@ -50,6 +54,11 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
     private final AtomicLong noOfPacketsProcessed = new AtomicLong();
     private final AtomicLong noOfAuthRequestsAccepted = new AtomicLong();
     private final AtomicLong noOfAuthRequestsRejected = new AtomicLong();
+    private final AtomicLong noOfPacketsDropped = new AtomicLong();
+    private final AtomicLong noOfDuplicatePackets = new AtomicLong();
+    private final SlidingWindow packetsReceivedWindow = new SlidingWindow();
+    private final SlidingWindow packetsDroppedWindow = new SlidingWindow();
+    private final SlidingWindow processingTimeWindow = new SlidingWindow();
 
     /**
      * Constructor. Registers this class with the radius events bus, such that it will be a subscriber to radius events.
@@ -95,6 +104,7 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
      * @param receivedEvent - the event that was posted to the <code>EventBus</code>
      */
     @Subscribe
+    @AllowConcurrentEvents
     public void packetReceived(PacketReceivedEvent receivedEvent) {
         LOG.message("RadiusServerEventRegistrar.packetReceived() called by EventBus");
         packetReceived();
@@ -107,6 +117,7 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
     @Override
     public long packetReceived() {
         long total = noOfPacketsReceived.incrementAndGet();
+        packetsReceivedWindow.record();
         LOG.message("RadiusServerEventRegistrar.packetReceived() - total now " + total);
         return total;
     }
@@ -131,6 +142,7 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
      * @param receivedRadiusEvent - the event that was posted to the <code>EventBus</code>
      */
     @Subscribe
+    @AllowConcurrentEvents
     public void packetAccepted(AuthRequestReceivedEvent receivedRadiusEvent) {
         LOG.message("RadiusServerEventRegistrar.packetAccepted() called by EventBus");
         this.packetAccepted();
@@ -168,9 +180,15 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
      * @param packetProcessedEvent - the event that was posted to the <code>EventBus</code>
      */
     @Subscribe
+    @AllowConcurrentEvents
     public void packetProcessed(PacketProcessedEvent packetProcessedEvent) {
         LOG.message("RadiusServerEventRegistrar.packetProcessed() called by EventBus");
-        packetProcessed();
+        final long time = packetProcessedEvent.getTimeToServiceRequestInMilliSeconds();
+        if (time >= 0) {
+            packetProcessed(time);
+        } else {
+            packetProcessed();
+        }
     }
 
     /*
@@ -184,6 +202,16 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
         return total;
     }
 
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventRegistrator#packetProcessed(long)
+     */
+    @Override
+    public long packetProcessed(long timeToServiceRequestInMilliSeconds) {
+        processingTimeWindow.record(timeToServiceRequestInMilliSeconds);
+        return packetProcessed();
+    }
+
     /*
      * (non-Javadoc)
      * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getNumberOfPacketsProcessed()
@@ -195,6 +223,35 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
         return total;
     }
 
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getPacketsReceivedPerSecond()
+     */
+    @Override
+    public double getPacketsReceivedPerSecond() {
+        return packetsReceivedWindow.getRatePerSecond();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see
+     * org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getAverageRequestProcessingTime()
+     */
+    @Override
+    public double getAverageRequestProcessingTime() {
+        return processingTimeWindow.getAverage();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see
+     * org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getMaximumRequestProcessingTime()
+     */
+    @Override
+    public long getMaximumRequestProcessingTime() {
+        return processingTimeWindow.getMaximum();
+    }
+
     /////////////////////
     // Requests Accepted.
 
@@ -210,6 +267,7 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
      * @param acceptedEvent - the event that was posted to the <code>EventBus</code>
      */
     @Subscribe
+    @AllowConcurrentEvents
     public void authRequestAccepted(AuthRequestAcceptedEvent acceptedEvent) {
         LOG.message("RadiusServerEventRegistrar.authRequestAccepted() called by EventBus");
         authRequestAccepted();
@@ -244,6 +302,7 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
      * @param authRequestRejectedEvent - the event that was posted to the <code>EventBus</code>
      */
     @Subscribe
+    @AllowConcurrentEvents
     public void authRequestRejected(AuthRequestRejectedEvent authRequestRejectedEvent) {
         LOG.message("Entering RadiusServerEventRegistrar.authRequestRejected()");
         authRequestRejected();
@@ -267,4 +326,83 @@ public class RadiusServerEventRegistrar implements RadiusServerEventRegistrator,
     public long getNumberOfAuthRequestsRejected() {
         return noOfAuthRequestsRejected.get();
     }
+
+    ///////////////////
+    // Packets Dropped.
+
+    /**
+     * Once an object of this class has registered with the eventBus (passed into the constructor) the
+     * <code>EventBus</code> will call this method when any <code>PacketDroppedEvent</code> objects are posted.
+     *
+     * @param packetDroppedEvent - the event that was posted to the <code>EventBus</code>
+     */
+    @Subscribe
+    @AllowConcurrentEvents
+    public void packetDropped(PacketDroppedEvent packetDroppedEvent) {
+        LOG.message("RadiusServerEventRegistrar.packetDropped() called by EventBus");
+        packetDropped();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventRegistrator#packetDropped()
+     */
+    @Override
+    public long packetDropped() {
+        packetsDroppedWindow.record();
+        return noOfPacketsDropped.incrementAndGet();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getNumberOfPacketsDropped()
+     */
+    @Override
+    public long getNumberOfPacketsDropped() {
+        return noOfPacketsDropped.get();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getPacketsDroppedPerSecond()
+     */
+    @Override
+    public double getPacketsDroppedPerSecond() {
+        return packetsDroppedWindow.getRatePerSecond();
+    }
+
+    /////////////////////
+    // Duplicate Packets.
+
+    /**
+     * Once an object of this class has registered with the eventBus (passed into the constructor) the
+     * <code>EventBus</code> will call this method when any <code>DuplicatePacketReceivedEvent</code> objects are
+     * posted.
+     *
+     * @param duplicateEvent - the event that was posted to the <code>EventBus</code>
+     */
+    @Subscribe
+    @AllowConcurrentEvents
+    public void duplicatePacketReceived(DuplicatePacketReceivedEvent duplicateEvent) {
+        LOG.message("RadiusServerEventRegistrar.duplicatePacketReceived() called by EventBus");
+        duplicatePacketReceived();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventRegistrator#duplicatePacketReceived()
+     */
+    @Override
+    public long duplicatePacketReceived() {
+        return noOfDuplicatePackets.incrementAndGet();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventMonitorMXBean#getNumberOfDuplicatePackets()
+     */
+    @Override
+    public long getNumberOfDuplicatePackets() {
+        return noOfDuplicatePackets.get();
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 /**
  *
@@ -61,4 +62,27 @@ public interface RadiusServerEventRegistrator {
      * @return the total number of authentication requests that have been rejected.
      */
     long authRequestRejected();
+
+    /**
+     * Notify the event Registrar that a packet has been processed, and how long that took.
+     *
+     * @param timeToServiceRequestInMilliSeconds the time taken from receipt of the packet to sending the response.
+     * @return the total number of packets that have been processed.
+     */
+    long packetProcessed(long timeToServiceRequestInMilliSeconds);
+
+    /**
+     * Notify the event Registrar that a packet from a defined client has been dropped because the request handlers
+     * were too busy to accept it.
+     *
+     * @return the total number of packets that have been dropped.
+     */
+    long packetDropped();
+
+    /**
+     * Notify the event Registrar that a retransmission of a request already received has been recognised.
+     *
+     * @return the total number of duplicate packets.
+     */
+    long duplicatePacketReceived();
 }
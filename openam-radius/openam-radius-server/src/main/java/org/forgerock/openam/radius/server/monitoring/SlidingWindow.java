@@ -0,0 +1,118 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.radius.server.monitoring;
+
+import static org.forgerock.openam.utils.Time.*;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregates values recorded over the last minute in one second buckets, so that rates and latencies reported over
+ * JMX describe the current load of the server rather than its whole lifetime.
+ * <p/>
+ * A bucket is reset by the first value recorded in a new second. Values recorded concurrently with the reset may be
+ * lost, which is acceptable for monitoring.
+ */
+final class SlidingWindow {
+
+    private static final int SECONDS = 60;
+
+    private final AtomicLongArray seconds = new AtomicLongArray(SECONDS);
+    private final AtomicLongArray counts = new AtomicLongArray(SECONDS);
+    private final AtomicLongArray sums = new AtomicLongArray(SECONDS);
+    private final AtomicLongArray maxima = new AtomicLongArray(SECONDS);
+
+    /**
+     * Records an occurrence without a value.
+     */
+    void record() {
+        record(0);
+    }
+
+    /**
+     * Records an occurrence with a value, such as the time taken to handle a request.
+     *
+     * @param value the value, not negative.
+     */
+    void record(long value) {
+        final long second = currentTimeMillis() / 1000;
+        final int i = (int) (second % SECONDS);
+        final long bucketSecond = seconds.get(i);
+        if (bucketSecond != second && seconds.compareAndSet(i, bucketSecond, second)) {
+            counts.set(i, 0);
+            sums.set(i, 0);
+            maxima.set(i, 0);
+        }
+        counts.incrementAndGet(i);
+        sums.addAndGet(i, value);
+        long max;
+        while ((max = maxima.get(i)) < value && !maxima.compareAndSet(i, max, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * Returns the average number of occurrences per second over the last minute.
+     *
+     * @return the number of occurrences per second.
+     */
+    double getRatePerSecond() {
+        final long now = currentTimeMillis() / 1000;
+        long count = 0;
+        for (int i = 0; i < SECONDS; i++) {
+            // Only complete seconds count towards the rate
+            final long age = now - seconds.get(i);
+            if (age > 0 && age <= SECONDS) {
+                count += counts.get(i);
+            }
+        }
+        return (double) count / SECONDS;
+    }
+
+    /**
+     * Returns the average value recorded over the last minute.
+     *
+     * @return the average value, or zero if nothing was recorded.
+     */
+    double getAverage() {
+        final long now = currentTimeMillis() / 1000;
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < SECONDS; i++) {
+            if (now - seconds.get(i) < SECONDS) {
+                count += counts.get(i);
+                sum += sums.get(i);
+            }
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the largest value recorded over the last minute.
+     *
+     * @return the largest value, or zero if nothing was recorded.
+     */
+    long getMaximum() {
+        final long now = currentTimeMillis() / 1000;
+        long max = 0;
+        for (int i = 0; i < SECONDS; i++) {
+            if (now - seconds.get(i) < SECONDS) {
+                max = Math.max(max, maxima.get(i));
+            }
+        }
+        return max;
+    }
+}
@@ -12,14 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 /**
  *
  */
 package org.forgerock.openam.radius.server.spi.handlers.amhandler;
 
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map.Entry;
 import java.util.UUID;
 
@@ -27,24 +26,23 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.forgerock.openam.radius.server.config.RadiusServerConstants;
-import org.forgerock.openam.utils.collections.LeastRecentlyUsed;
+import org.forgerock.openam.utils.collections.ConcurrentCache;
 
 import com.sun.identity.shared.debug.Debug;
 /**
- * A thread safe cache for ContextHolder objects.
+ * A thread safe cache for ContextHolder objects. Lookups and removals do not lock the whole cache, so concurrent
+ * requests from RADIUS clients only contend when their keys fall in the same segment of the cache.
  */
-@SuppressWarnings("deprecation")
-// Deprecated due to move to org.apache.commons.collections.map.LRUMap in v4
 @Singleton
 public class ContextHolderCache {
 
     private static Debug logger = Debug.getInstance(RadiusServerConstants.RADIUS_SERVER_LOGGER);
 
     /**
-     * This class is really a synchronization wrapper around a LeastRecentlyUsed cache. It also prevents inappropriate
-     * access to the cache methods (hence the use of encapsulation rather than inheritance).
+     * The cache itself. It is replaced when the desired cache size changes, hence volatile. Encapsulation rather than
+     * inheritance prevents inappropriate access to the cache methods.
      */
-    private LeastRecentlyUsed<String, ContextHolder> cache;
+    private volatile ConcurrentCache<String, ContextHolder> cache;
 
     /**
      * The determination of cache size is also encapsulated so that the cache behaviour can be more easily tested, but
@@ -60,7 +58,7 @@ public class ContextHolderCache {
      */
     @Inject
     public ContextHolderCache(ContextCacheSize contextCacheSize) {
-        cache = new LeastRecentlyUsed<String, ContextHolder>(contextCacheSize.getDesiredCacheSize());
+        cache = new ConcurrentCache<String, ContextHolder>(contextCacheSize.getDesiredCacheSize());
         this.contextCacheSize = contextCacheSize;
     }
 
@@ -71,7 +69,7 @@ public class ContextHolderCache {
      *            - the key whose associated value is to be returned.
      * @return the cached value associated with the specified key, or null if no cache entry is held with the key.
      */
-    public synchronized ContextHolder get(String key) {
+    public ContextHolder get(String key) {
         return cache.get(key);
     }
 
@@ -82,7 +80,7 @@ public class ContextHolderCache {
      *            - the key whose mapping is to be removed from the cache.
      * @return The item removed from the cache, or null if there was no mapping for the key.
      */
-    public synchronized ContextHolder remove(String key) {
+    public ContextHolder remove(String key) {
         return cache.remove(key);
     }
 
@@ -92,14 +90,12 @@ public class ContextHolderCache {
      *
      * @return the newly cached <code>ContextHolder</code> object.
      */
-    public synchronized ContextHolder createCachedContextHolder() {
-        updateCacheSize();
+    public ContextHolder createCachedContextHolder() {
+        final ConcurrentCache<String, ContextHolder> current = updateCacheSize();
         while (true) {
             final String key = UUID.randomUUID().toString();
-
-            if (!cache.containsKey(key)) {
-                final ContextHolder holder = new ContextHolder(key);
-                cache.put(key, holder);
+            final ContextHolder holder = new ContextHolder(key);
+            if (current.putIfAbsent(key, holder) == null) {
                 return holder;
             }
         }
@@ -113,12 +109,10 @@ public class ContextHolderCache {
      *            - key with which the specified value is to be associated
      * @param contextHolder
      *            - the <code>ContextHolder</code> associated with the specified key
-     * @return the previous value associated with key, or null if there was no entry for key. (A null return can also
-     *         indicate that the cache previously associated null with key.)
+     * @return the previous value associated with key, or null if there was no entry for key.
      */
-    public synchronized ContextHolder put(String key, ContextHolder contextHolder) {
-        updateCacheSize();
-        return cache.put(key, contextHolder);
+    public ContextHolder put(String key, ContextHolder contextHolder) {
+        return updateCacheSize().put(key, contextHolder);
     }
 
     /**
@@ -126,7 +120,7 @@ public class ContextHolderCache {
      *
      * @return the number of key-ContextHolder entries in the cache.
      */
-    public synchronized int size() {
+    public int size() {
         return cache.size();
     }
 
@@ -137,51 +131,41 @@ public class ContextHolderCache {
      *
      * @return the bounded size of the cache.
      */
-    public synchronized int getMaxSize() {
-        return cache.getMaxSize();
+    public int getMaxSize() {
+        return cache.getCapacity();
     }
 
     /**
      * Updates the maximum cache size. *** Warning - the least recently used cache entries may be lost if the size of
      * the existing cache is greater than new cache size. ***
+     *
+     * @return the cache to use, which has the desired maximum size.
      */
-    private void updateCacheSize() {
+    private ConcurrentCache<String, ContextHolder> updateCacheSize() {
         final int desiredMaxSize = contextCacheSize.getDesiredCacheSize();
-        final int actualMaxSize = cache.getMaxSize();
-        if (desiredMaxSize != actualMaxSize) {
-            final LeastRecentlyUsed<String, ContextHolder> newCache = new LeastRecentlyUsed<String, ContextHolder>(
-                    desiredMaxSize);
-
-            if (desiredMaxSize > cache.size()) {
-                for (final Entry<String, ContextHolder> entry : cache.entrySet()) {
-                    newCache.put(entry.getKey(), entry.getValue());
-                }
-            } else {
-                logger.warning("Shrinking ContextHolderCache in response to change of system setting that determines "
-                        + "the maximum number of allowable concurrent sessions. Some cache entries will.");
-                // Bit of a faff this, but as there are too many entries in the existing cache to fit into the new
-                // cache we need to reverse the entries, copy the desiredSize number off the back (the most recently
-                // used), Then insert the entries we copied into the new cache, making sure to enter the least recently
-                // used first.
-                final LinkedList<Entry<String, ContextHolder>> entriesAsList =
-                        new LinkedList<Entry<String, ContextHolder>>(cache.entrySet());
-                final Iterator<Entry<String, ContextHolder>> itr = entriesAsList.descendingIterator();
-                final LinkedList<Entry<String, ContextHolder>> entriesToCopy =
-                        new LinkedList<Entry<String, ContextHolder>>();
-
-                int numberCopied = 0;
-                while (itr.hasNext() && numberCopied++ < desiredMaxSize) {
-                    final Entry<String, ContextHolder> entry = itr.next();
-                    entriesToCopy.add(entry);
+        ConcurrentCache<String, ContextHolder> current = cache;
+        if (desiredMaxSize == current.getCapacity()) {
+            return current;
+        }
+        synchronized (this) {
+            current = cache;
+            if (desiredMaxSize != current.getCapacity()) {
+                if (desiredMaxSize < current.size()) {
+                    logger.warning("Shrinking ContextHolderCache in response to change of system setting that "
+                            + "determines the maximum number of allowable concurrent sessions. Some cache entries "
+                            + "will be lost.");
                 }
-
-                final Iterator<Entry<String, ContextHolder>> toCopyRevItr = entriesToCopy.descendingIterator();
-                while (toCopyRevItr.hasNext()) {
-                    final Entry<String, ContextHolder> toCopy = toCopyRevItr.next();
-                    newCache.put(toCopy.getKey(), toCopy.getValue());
+                // Entries are iterated least recently used first, so when the new cache is smaller it evicts the
+                // least recently used entries as the more recently used ones are copied in.
+                final ConcurrentCache<String, ContextHolder> newCache =
+                        new ConcurrentCache<String, ContextHolder>(desiredMaxSize);
+                for (final Entry<String, ContextHolder> entry : current.entrySet()) {
+                    newCache.put(entry.getKey(), entry.getValue());
                 }
+                cache = newCache;
+                current = newCache;
             }
-            cache = newCache;
+            return current;
         }
     }
 }
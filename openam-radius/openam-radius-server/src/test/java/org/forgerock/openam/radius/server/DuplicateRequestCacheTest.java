@@ -0,0 +1,124 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.radius.server;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test methods for the <code>DuplicateRequestCache</code> class.
+ *
+ * @see org.forgerock.openam.radius.server.DuplicateRequestCache
+ */
+public class DuplicateRequestCacheTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("127.0.0.1", 5000);
+
+    /**
+     * Test that a retransmitted request is recognised and yields the original request's response.
+     */
+    @Test
+    public void retransmissionReturnsOriginal() {
+        // Given
+        final DuplicateRequestCache cache = new DuplicateRequestCache(30000, 10);
+        final DuplicateRequestCache.Entry entry = cache.createEntry(CLIENT, packet(1, 7));
+        assertThat(cache.putIfAbsent(entry)).isNull();
+        entry.setResponse(new byte[] {2});
+        // When
+        final DuplicateRequestCache.Entry original = cache.putIfAbsent(cache.createEntry(CLIENT, packet(1, 7)));
+        // Then
+        assertThat(original).isSameAs(entry);
+        assertThat(original.getResponse()).containsExactly(2);
+    }
+
+    /**
+     * Test that requests differing in identifier, authenticator or source are not duplicates.
+     */
+    @Test
+    public void differentRequestsAreNotDuplicates() {
+        // Given
+        final DuplicateRequestCache cache = new DuplicateRequestCache(30000, 10);
+        cache.putIfAbsent(cache.createEntry(CLIENT, packet(1, 7)));
+        // When
+        final DuplicateRequestCache.Entry otherId = cache.putIfAbsent(cache.createEntry(CLIENT, packet(2, 7)));
+        final DuplicateRequestCache.Entry otherAuth = cache.putIfAbsent(cache.createEntry(CLIENT, packet(1, 8)));
+        final DuplicateRequestCache.Entry otherSource = cache.putIfAbsent(
+                cache.createEntry(new InetSocketAddress("127.0.0.1", 5001), packet(1, 7)));
+        // Then
+        assertThat(otherId).isNull();
+        assertThat(otherAuth).isNull();
+        assertThat(otherSource).isNull();
+        assertThat(cache.size()).isEqualTo(4);
+    }
+
+    /**
+     * Test that a removed request is handled as new when retransmitted.
+     */
+    @Test
+    public void removedRequestIsNotDuplicate() {
+        // Given
+        final DuplicateRequestCache cache = new DuplicateRequestCache(30000, 10);
+        final DuplicateRequestCache.Entry entry = cache.createEntry(CLIENT, packet(1, 7));
+        cache.putIfAbsent(entry);
+        // When
+        cache.remove(entry);
+        // Then
+        assertThat(cache.putIfAbsent(cache.createEntry(CLIENT, packet(1, 7)))).isNull();
+    }
+
+    /**
+     * Test that the oldest requests are forgotten when the cache is full.
+     */
+    @Test
+    public void oldestRequestsAreForgotten() {
+        // Given
+        final DuplicateRequestCache cache = new DuplicateRequestCache(30000, 2);
+        // When
+        for (int i = 0; i < 3; i++) {
+            cache.putIfAbsent(cache.createEntry(CLIENT, packet(i, 7)));
+        }
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.putIfAbsent(cache.createEntry(CLIENT, packet(0, 7)))).isNull();
+    }
+
+    /**
+     * Test that a packet too short to be a request is not remembered.
+     */
+    @Test
+    public void shortPacketHasNoEntry() {
+        // Given
+        final DuplicateRequestCache cache = new DuplicateRequestCache(30000, 10);
+        // When
+        final DuplicateRequestCache.Entry entry = cache.createEntry(CLIENT, ByteBuffer.allocate(19));
+        // Then
+        assertThat(entry).isNull();
+    }
+
+    private static ByteBuffer packet(int identifier, int authenticatorFill) {
+        final ByteBuffer packet = ByteBuffer.allocate(20);
+        packet.put((byte) 1).put((byte) identifier).putShort((short) 20);
+        for (int i = 0; i < 16; i++) {
+            packet.put((byte) authenticatorFill);
+        }
+        packet.flip();
+        return packet;
+    }
+}
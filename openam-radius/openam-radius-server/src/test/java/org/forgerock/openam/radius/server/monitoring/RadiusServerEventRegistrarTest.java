@@ -12,12 +12,15 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyrighted 2015 Intellectual Reserve, Inc (IRI)
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.openam.radius.server.monitoring;
 
 import static org.assertj.core.api.Assertions.*;
 
 import org.forgerock.guava.common.eventbus.EventBus;
+import org.forgerock.openam.radius.server.events.PacketDroppedEvent;
+import org.forgerock.openam.radius.server.events.PacketProcessedEvent;
 import org.testng.annotations.Test;
 
 /**
@@ -121,4 +124,39 @@ public class RadiusServerEventRegistrarTest {
         // Then
         assertThat(eventRegistrar.getNumberOfPacketsRecieved()).isEqualTo(1);
     }
+
+    /**
+     * Test that processing times posted to the event bus are reported.
+     *
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventRegistrar#packetProcessed(long)
+     */
+    @Test(enabled = true)
+    public void packetProcessedWithTime() {
+        // Given
+        EventBus eventBus = new EventBus();
+        final RadiusServerEventRegistrar eventRegistrar = new RadiusServerEventRegistrar(eventBus);
+        // When
+        eventBus.post(new PacketProcessedEvent(10));
+        eventBus.post(new PacketProcessedEvent(30));
+        // Then
+        assertThat(eventRegistrar.getNumberOfPacketsProcessed()).isEqualTo(2);
+        assertThat(eventRegistrar.getAverageRequestProcessingTime()).isEqualTo(20.0);
+        assertThat(eventRegistrar.getMaximumRequestProcessingTime()).isEqualTo(30);
+    }
+
+    /**
+     * Test that dropped packets posted to the event bus are counted.
+     *
+     * @see org.forgerock.openam.radius.server.monitoring.RadiusServerEventRegistrar#packetDropped
+     */
+    @Test(enabled = true)
+    public void packetDropped() {
+        // Given
+        EventBus eventBus = new EventBus();
+        final RadiusServerEventRegistrar eventRegistrar = new RadiusServerEventRegistrar(eventBus);
+        // When
+        eventBus.post(new PacketDroppedEvent());
+        // Then
+        assertThat(eventRegistrar.getNumberOfPacketsDropped()).isEqualTo(1);
+    }
 }
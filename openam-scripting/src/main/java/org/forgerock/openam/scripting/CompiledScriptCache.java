@@ -0,0 +1,183 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.scripting;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.forgerock.openam.utils.collections.ConcurrentCache;
+import org.forgerock.util.Reject;
+
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+
+/**
+ * A bounded cache of compiled scripts, so that scripts are parsed and compiled once rather than on every evaluation.
+ *
+ * <p>Entries are keyed by the script engine manager, the language and the source of the script. A changed script
+ * therefore never matches the entry of its previous source, and each engine manager keeps its own compiled scripts,
+ * which are bound to the sandbox of the engine that compiled them.</p>
+ *
+ * @since 14.0.0
+ */
+@Singleton
+public class CompiledScriptCache {
+
+    /**
+     * The system property defining the maximum number of compiled scripts to keep.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "org.forgerock.openam.scripting.compiledScriptCacheSize";
+
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final ConcurrentCache<Key, CompiledScript> cache;
+    private final AtomicLong compileCount = new AtomicLong();
+
+    /**
+     * Constructs a cache sized by the {@link #CACHE_SIZE_PROPERTY} system property.
+     */
+    public CompiledScriptCache() {
+        this(SystemPropertiesManager.getAsInt(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Constructs a cache of the given size.
+     *
+     * @param capacity the maximum number of compiled scripts to keep.
+     */
+    public CompiledScriptCache(int capacity) {
+        this.cache = new ConcurrentCache<>("CompiledScriptCache", capacity);
+    }
+
+    /**
+     * Returns the compiled form of the script, compiling it with the given engine if it is not cached yet.
+     *
+     * @param scriptEngineManager the script engine manager the engine belongs to. May not be null.
+     * @param script the script to compile. May not be null.
+     * @param engine the engine to compile the script with. May not be null.
+     * @return the compiled script, or {@code null} if the engine does not support compilation.
+     * @throws ScriptException if the script does not compile.
+     */
+    public CompiledScript getCompiledScript(StandardScriptEngineManager scriptEngineManager, ScriptObject script,
+            ScriptEngine engine) throws ScriptException {
+        Reject.ifNull(scriptEngineManager, script, engine);
+        if (!(engine instanceof Compilable)) {
+            return null;
+        }
+        final Key key = new Key(scriptEngineManager, script.getLanguage(), script.getScript());
+        CompiledScript compiled = cache.get(key);
+        if (compiled == null) {
+            // Concurrent misses may compile the same script more than once, which is harmless
+            compiled = ((Compilable) engine).compile(script.getScript());
+            compileCount.incrementAndGet();
+            cache.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Discards the compiled forms of the given script source, for all script engine managers.
+     *
+     * @param language the language of the script.
+     * @param source the source of the script.
+     */
+    public void invalidate(ScriptingLanguage language, String source) {
+        if (language == null || source == null) {
+            return;
+        }
+        for (Iterator<Map.Entry<Key, CompiledScript>> i = cache.entrySet().iterator(); i.hasNext();) {
+            final Key key = i.next().getKey();
+            if (key.language.equals(language) && key.source.equals(source)) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards all scripts compiled by the engines of the given script engine manager, for example because its
+     * sandbox configuration has changed.
+     *
+     * @param scriptEngineManager the script engine manager.
+     */
+    public void invalidate(StandardScriptEngineManager scriptEngineManager) {
+        for (Iterator<Map.Entry<Key, CompiledScript>> i = cache.entrySet().iterator(); i.hasNext();) {
+            if (i.next().getKey().scriptEngineManager == scriptEngineManager) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of scripts compiled.
+     */
+    public long getCompileCount() {
+        return compileCount.get();
+    }
+
+    /**
+     * @return the number of evaluations which found their script already compiled.
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * @return the number of compiled scripts currently held.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private static final class Key {
+        private final StandardScriptEngineManager scriptEngineManager;
+        private final ScriptingLanguage language;
+        private final String source;
+        private final int hashCode;
+
+        private Key(StandardScriptEngineManager scriptEngineManager, ScriptingLanguage language, String source) {
+            this.scriptEngineManager = scriptEngineManager;
+            this.language = language;
+            this.source = source;
+            this.hashCode = 31 * (31 * System.identityHashCode(scriptEngineManager) + language.hashCode())
+                    + source.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return scriptEngineManager == that.scriptEngineManager && hashCode == that.hashCode
+                    && language.equals(that.language) && source.equals(that.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -64,6 +64,14 @@ public final class ScriptConstants {
     public static final int DEFAULT_QUEUE_SIZE = 10;
     public static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 60l; // Seconds
 
+    /**
+     * System property selecting how server side scripts are evaluated: {@value #THREAD_POOL_EVALUATOR} (the default)
+     * on a thread pool, or {@value #CALLER_THREAD_EVALUATOR} on the calling thread with a concurrency limit.
+     */
+    public static final String SCRIPT_EVALUATOR_PROPERTY = "org.forgerock.openam.scripting.evaluator";
+    public static final String THREAD_POOL_EVALUATOR = "threadPool";
+    public static final String CALLER_THREAD_EVALUATOR = "callerThread";
+
     public static final String LOGGER_NAME = "Scripting";
 
     public static final String AUTHENTICATION_SERVER_SIDE_NAME = "AUTHENTICATION_SERVER_SIDE";
@@ -0,0 +1,220 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.scripting;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+
+import org.forgerock.openam.scripting.timeouts.ObservedContextFactory.ScriptTimeoutError;
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates scripts on the calling thread, limiting the number of concurrent evaluations with a semaphore rather
+ * than with the size of a thread pool.
+ *
+ * <p>Scripts which block, for example on HTTP calls, therefore hold a permit but no additional thread, and the
+ * limit can be set well above the thread pool size of {@link ThreadPoolScriptEvaluator}. The maximum thread pool
+ * size of the configuration is used as the number of permits and the queue size as the maximum number of callers
+ * waiting for a permit.</p>
+ *
+ * <p>Timeouts are enforced cooperatively. JavaScript contexts check their running time every few instructions in
+ * {@link org.forgerock.openam.scripting.timeouts.ObservedContextFactory}. For other scripts a watchdog interrupts
+ * the calling thread when the timeout expires, which stops Groovy scripts at their next interrupt check and aborts
+ * blocking calls. The interrupt status is cleared again before the caller gets the timeout error.</p>
+ */
+public final class SemaphoreScriptEvaluator implements ScriptEvaluator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SemaphoreScriptEvaluator.class);
+
+    private final StandardScriptEngineManager scriptEngineManager;
+    private final ScheduledExecutorService watchdog;
+    private final ScriptEvaluator delegate;
+    private final ResizableSemaphore permits = new ResizableSemaphore();
+    private volatile int maxWaiting;
+
+    /**
+     * Constructs a script evaluator that evaluates scripts on the calling thread, delegating actual script
+     * execution to another script evaluator. Registers a configuration listener to adjust the number of permits
+     * according to current application settings.
+     *
+     * @param scriptEngineManager the manager object to listen for configuration changes. Not null.
+     * @param watchdog the scheduler used to interrupt scripts which time out. Not null.
+     * @param delegate the script evaluator to use to evaluate scripts. Not null.
+     */
+    public SemaphoreScriptEvaluator(final StandardScriptEngineManager scriptEngineManager,
+                                    final ScheduledExecutorService watchdog,
+                                    final ScriptEvaluator delegate) {
+        Reject.ifNull(scriptEngineManager, watchdog, delegate);
+
+        this.scriptEngineManager = scriptEngineManager;
+        this.watchdog = watchdog;
+        this.delegate = delegate;
+
+        scriptEngineManager.addConfigurationListener(new StandardScriptEngineManager.ConfigurationListener() {
+            @Override
+            public void onConfigurationChange(ScriptEngineConfiguration newConfiguration) {
+                permits.resize(Math.max(1, newConfiguration.getThreadPoolMaxSize()));
+                maxWaiting = newConfiguration.getThreadPoolQueueSize();
+            }
+        });
+    }
+
+    /**
+     * Evaluates the script on the calling thread once a permit is available.
+     *
+     * @param script {@inheritDoc}
+     * @param bindings {@inheritDoc}
+     * @throws ScriptException if the script failed, timed out or too many scripts are waiting to be evaluated.
+     */
+    @Override
+    public <T> T evaluateScript(final ScriptObject script, final Bindings bindings) throws ScriptException {
+        final long timeout = TimeUnit.SECONDS.toNanos(scriptEngineManager.getConfiguration()
+                .getScriptExecutionTimeout());
+        final long start = System.nanoTime();
+
+        acquirePermit(timeout);
+        try {
+            if (timeout == ScriptEngineConfiguration.NO_TIMEOUT) {
+                return delegate.evaluateScript(script, bindings);
+            }
+            final long remaining = timeout - (System.nanoTime() - start);
+            final Watchdog task = new Watchdog(Thread.currentThread());
+            final ScheduledFuture<?> scheduled = watchdog.schedule(task, remaining, TimeUnit.NANOSECONDS);
+            try {
+                return delegate.evaluateScript(script, bindings);
+            } catch (ScriptTimeoutError ex) {
+                throw timedOut(ex);
+            } catch (ScriptException | RuntimeException ex) {
+                if (task.isExpired()) {
+                    throw timedOut(ex);
+                }
+                throw ex;
+            } finally {
+                scheduled.cancel(false);
+                task.finish();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquirePermit(long timeout) throws ScriptException {
+        final int waitLimit = maxWaiting;
+        if (waitLimit != ScriptEngineConfiguration.UNBOUNDED_QUEUE_SIZE
+                && permits.availablePermits() <= 0 && permits.getQueueLength() >= waitLimit) {
+            LOGGER.warn("Script rejected, too many scripts waiting to be evaluated");
+            throw new ScriptException(new RejectedExecutionException("Script evaluation limit reached"));
+        }
+        try {
+            if (timeout == ScriptEngineConfiguration.NO_TIMEOUT) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(timeout, TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Script timed out waiting to be evaluated");
+                throw new ScriptException(new TimeoutException("Timed out waiting to evaluate script"));
+            }
+        } catch (InterruptedException ex) {
+            // Reset interrupted status for callers
+            Thread.currentThread().interrupt();
+            LOGGER.debug("Interrupted while waiting to evaluate script");
+            throw new ScriptException(ex);
+        }
+    }
+
+    private ScriptException timedOut(Throwable cause) {
+        LOGGER.warn("Script timed out");
+        final TimeoutException timeout = new TimeoutException("Script timed out");
+        timeout.initCause(cause);
+        return new ScriptException(timeout);
+    }
+
+    @Override
+    public void bindVariableInGlobalScope(final String name, final Object object) {
+        delegate.bindVariableInGlobalScope(name, object);
+    }
+
+    /**
+     * @return the number of scripts which can currently start evaluating without waiting.
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Interrupts the evaluating thread when the timeout expires, unless the evaluation has finished by then.
+     */
+    private static final class Watchdog implements Runnable {
+        private final Thread thread;
+        private boolean finished;
+        private volatile boolean expired;
+
+        private Watchdog(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!finished) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * Called by the evaluating thread once the script has returned. Once this has returned the thread is not
+         * interrupted anymore, and an interrupt sent by the watchdog is cleared.
+         */
+        synchronized void finish() {
+            finished = true;
+            if (expired) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * A semaphore whose number of permits can be changed while permits are held.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private int size;
+
+        private ResizableSemaphore() {
+            super(0, true);
+        }
+
+        synchronized void resize(int newSize) {
+            if (newSize > size) {
+                release(newSize - size);
+            } else if (newSize < size) {
+                // Permits currently held are not returned
+                reducePermits(size - newSize);
+            }
+            size = newSize;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -40,6 +41,9 @@ import javax.script.SimpleScriptContext;
  * us sending its thread an interrupt signal, while JavaScript has its own timer which is checked on
  * each processed instruction.
  *
+ * When constructed with a {@link CompiledScriptCache}, scripts are compiled once and the compiled form is evaluated
+ * on subsequent calls.
+ *
  * @since 12.0.0
  */
 public class StandardScriptEvaluator implements ScriptEvaluator {
@@ -47,15 +51,39 @@ public class StandardScriptEvaluator implements ScriptEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(StandardScriptEvaluator.class);
 
     private final StandardScriptEngineManager scriptEngineManager;
+    private final CompiledScriptCache compiledScriptCache;
 
     /**
-     * Constructs the script evaluator using the given JSR 223 script engine manager instance.
+     * Constructs the script evaluator using the given JSR 223 script engine manager instance. Scripts are compiled
+     * on every evaluation.
      *
      * @param scriptEngineManager the script engine manager to use for creating script engines. May not be null.
      */
     public StandardScriptEvaluator(StandardScriptEngineManager scriptEngineManager) {
         Reject.ifNull(scriptEngineManager);
         this.scriptEngineManager = scriptEngineManager;
+        this.compiledScriptCache = null;
+    }
+
+    /**
+     * Constructs the script evaluator using the given JSR 223 script engine manager instance and caching compiled
+     * scripts. Cached scripts of this engine manager are discarded whenever its configuration changes, as they are
+     * bound to the sandbox they were compiled with.
+     *
+     * @param scriptEngineManager the script engine manager to use for creating script engines. May not be null.
+     * @param compiledScriptCache the cache of compiled scripts. May not be null.
+     */
+    public StandardScriptEvaluator(final StandardScriptEngineManager scriptEngineManager,
+            final CompiledScriptCache compiledScriptCache) {
+        Reject.ifNull(scriptEngineManager, compiledScriptCache);
+        this.scriptEngineManager = scriptEngineManager;
+        this.compiledScriptCache = compiledScriptCache;
+        scriptEngineManager.addConfigurationListener(new StandardScriptEngineManager.ConfigurationListener() {
+            @Override
+            public void onConfigurationChange(ScriptEngineConfiguration newConfiguration) {
+                compiledScriptCache.invalidate(scriptEngineManager);
+            }
+        });
     }
 
     /**
@@ -91,6 +119,13 @@ public class StandardScriptEvaluator implements ScriptEvaluator {
         final Bindings variableBindings = mergeBindings(script.getBindings(), bindings);
         final ScriptContext context = buildScriptContext(variableBindings);
 
+        if (compiledScriptCache != null) {
+            final CompiledScript compiledScript =
+                    compiledScriptCache.getCompiledScript(scriptEngineManager, script, engine);
+            if (compiledScript != null) {
+                return (T) compiledScript.eval(context);
+            }
+        }
         return (T) engine.eval(script.getScript(), context);
     }
 
@@ -39,6 +39,8 @@ import org.forgerock.openam.scripting.ScriptConstants;
 import org.forgerock.openam.scripting.ScriptEngineConfiguration;
 import org.forgerock.openam.scripting.ScriptEvaluator;
 import org.forgerock.openam.scripting.ScriptValidator;
+import org.forgerock.openam.scripting.SemaphoreScriptEvaluator;
+import org.forgerock.openam.scripting.CompiledScriptCache;
 import org.forgerock.openam.scripting.StandardScriptEngineManager;
 import org.forgerock.openam.scripting.StandardScriptEvaluator;
 import org.forgerock.openam.scripting.StandardScriptValidator;
@@ -57,6 +59,8 @@ import org.forgerock.util.thread.ExecutorServiceFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+
 
 /**
  * Guice configuration for OpenAM scripting-related components.
@@ -114,10 +118,12 @@ public class ScriptingGuiceModule extends AbstractModule {
 
     /**
      * Creates the script evaluator to use for evaluating scripted auth module scripts. The evaluator returned uses a
-     * thread pool to evaluate scripts (supporting script interruption), delegating to a sandboxed script evaluator.
+     * thread pool to evaluate scripts (supporting script interruption), delegating to a sandboxed script evaluator,
+     * unless evaluation on the calling thread is selected with {@link ScriptConstants#SCRIPT_EVALUATOR_PROPERTY}.
      *
      * @param scriptEngineManager the script engine manager to use.
      * @param executorServiceFactory the factory for creating managed thread pools for script execution.
+     * @param compiledScriptCache the cache of compiled scripts.
      * @return an appropriately configured script evaluator for use with scripted authentication.
      */
     @Provides
@@ -126,17 +132,19 @@ public class ScriptingGuiceModule extends AbstractModule {
     @Named(AUTHENTICATION_SERVER_SIDE_NAME)
     ScriptEvaluator getAuthenticationServerSideScriptEvaluator(
             @Named(AUTHENTICATION_SERVER_SIDE_NAME) StandardScriptEngineManager scriptEngineManager,
-            ExecutorServiceFactory executorServiceFactory) {
+            ExecutorServiceFactory executorServiceFactory, CompiledScriptCache compiledScriptCache) {
 
-        return createEvaluator(scriptEngineManager, executorServiceFactory);
+        return createEvaluator(scriptEngineManager, executorServiceFactory, compiledScriptCache);
     }
 
     /**
      * Creates the script evaluator to use for evaluating entitlement condition scripts. The evaluator returned uses a
-     * thread pool to evaluate scripts (supporting script interruption), delegating to a sandboxed script evaluator.
+     * thread pool to evaluate scripts (supporting script interruption), delegating to a sandboxed script evaluator,
+     * unless evaluation on the calling thread is selected with {@link ScriptConstants#SCRIPT_EVALUATOR_PROPERTY}.
      *
      * @param scriptEngineManager the script engine manager to use.
      * @param executorServiceFactory the factory for creating managed thread pools for script execution.
+     * @param compiledScriptCache the cache of compiled scripts.
      * @return an appropriately configured script evaluator for use with scripted entitlement condition.
      */
     @Provides
@@ -145,17 +153,19 @@ public class ScriptingGuiceModule extends AbstractModule {
     @Named(POLICY_CONDITION_NAME)
     ScriptEvaluator getPoliyConditionScriptEvaluator(
             @Named(POLICY_CONDITION_NAME) StandardScriptEngineManager scriptEngineManager,
-            ExecutorServiceFactory executorServiceFactory) {
+            ExecutorServiceFactory executorServiceFactory, CompiledScriptCache compiledScriptCache) {
 
-        return createEvaluator(scriptEngineManager, executorServiceFactory);
+        return createEvaluator(scriptEngineManager, executorServiceFactory, compiledScriptCache);
     }
 
     /**
      * Creates the script evaluator to use for evaluating OIDC Claims scripts. The evaluator returned uses a
-     * thread pool to evaluate scripts (supporting script interruption), delegating to a sandboxed script evaluator.
+     * thread pool to evaluate scripts (supporting script interruption), delegating to a sandboxed script evaluator,
+     * unless evaluation on the calling thread is selected with {@link ScriptConstants#SCRIPT_EVALUATOR_PROPERTY}.
      *
      * @param scriptEngineManager the script engine manager to use.
      * @param executorServiceFactory the factory for creating managed thread pools for script execution.
+     * @param compiledScriptCache the cache of compiled scripts.
      * @return an appropriately configured script evaluator for use with OIDC Claims scripts.
      */
     @Provides
@@ -164,13 +174,19 @@ public class ScriptingGuiceModule extends AbstractModule {
     @Named(OIDC_CLAIMS_NAME)
     ScriptEvaluator getOidcClaimsScriptEvaluator(
             @Named(OIDC_CLAIMS_NAME) StandardScriptEngineManager scriptEngineManager,
-            ExecutorServiceFactory executorServiceFactory) {
+            ExecutorServiceFactory executorServiceFactory, CompiledScriptCache compiledScriptCache) {
 
-        return createEvaluator(scriptEngineManager, executorServiceFactory);
+        return createEvaluator(scriptEngineManager, executorServiceFactory, compiledScriptCache);
     }
 
-    private ThreadPoolScriptEvaluator createEvaluator(StandardScriptEngineManager scriptEngineManager,
-                                                      ExecutorServiceFactory executorServiceFactory) {
+    private ScriptEvaluator createEvaluator(StandardScriptEngineManager scriptEngineManager,
+                                            ExecutorServiceFactory executorServiceFactory,
+                                            CompiledScriptCache compiledScriptCache) {
+
+        if (CALLER_THREAD_EVALUATOR.equals(SystemPropertiesManager.get(SCRIPT_EVALUATOR_PROPERTY))) {
+            return new SemaphoreScriptEvaluator(scriptEngineManager, executorServiceFactory.createScheduledService(1),
+                    new StandardScriptEvaluator(scriptEngineManager, compiledScriptCache));
+        }
 
         ScriptEngineConfiguration configuration = scriptEngineManager.getConfiguration();
 
@@ -182,7 +198,7 @@ public class ScriptingGuiceModule extends AbstractModule {
                         TimeUnit.SECONDS,
                         getThreadPoolQueue(configuration.getThreadPoolQueueSize())
                 ),
-                new StandardScriptEvaluator(scriptEngineManager));
+                new StandardScriptEvaluator(scriptEngineManager, compiledScriptCache));
     }
 
     private BlockingQueue<Runnable> getThreadPoolQueue(int size) {
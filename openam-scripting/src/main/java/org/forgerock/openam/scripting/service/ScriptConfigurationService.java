@@ -25,6 +25,7 @@ import com.google.inject.assistedinject.Assisted;
 import com.google.inject.name.Named;
 import com.sun.identity.entitlement.opensso.SubjectUtils;
 import org.forgerock.util.query.QueryFilter;
+import org.forgerock.openam.scripting.CompiledScriptCache;
 import org.forgerock.openam.scripting.ScriptException;
 import org.forgerock.openam.scripting.datastore.ScriptingDataStore;
 import org.forgerock.openam.scripting.datastore.ScriptingDataStoreFactory;
@@ -47,6 +48,20 @@ public class ScriptConfigurationService implements ScriptingService {
     private final Subject subject;
     private final String realm;
     private final ScriptingDataStore dataStore;
+    private final CompiledScriptCache compiledScriptCache;
+
+    /**
+     * Construct a new instance of {@code ScriptConfigurationService} which does not discard compiled scripts, for
+     * use outside of the server.
+     * @param logger The logger log any error and debug messages to.
+     * @param subject The subject requesting modification to the {@code ScriptConfiguration}.
+     * @param realm The realm in which the {@code ScriptConfiguration} resides in.
+     * @param dataStoreFactory A factory for providing new scripting data store instances.
+     */
+    public ScriptConfigurationService(Logger logger, Subject subject, String realm,
+                                      ScriptingDataStoreFactory dataStoreFactory) {
+        this(logger, subject, realm, dataStoreFactory, null);
+    }
 
     /**
      * Construct a new instance of {@code ScriptConfigurationService}.
@@ -54,16 +69,19 @@ public class ScriptConfigurationService implements ScriptingService {
      * @param subject The subject requesting modification to the {@code ScriptConfiguration}.
      * @param realm The realm in which the {@code ScriptConfiguration} resides in.
      * @param dataStoreFactory A factory for providing new scripting data store instances.
+     * @param compiledScriptCache The cache of compiled scripts, from which changed and deleted scripts are removed.
      */
     @Inject
     public ScriptConfigurationService(@Named("ScriptLogger") Logger logger,
                                       @Assisted Subject subject, @Assisted String realm,
-                                      ScriptingDataStoreFactory dataStoreFactory) {
+                                      ScriptingDataStoreFactory dataStoreFactory,
+                                      CompiledScriptCache compiledScriptCache) {
         Reject.ifNull(subject, realm);
         this.logger = logger;
         this.subject = subject;
         this.realm = realm;
         this.dataStore = dataStoreFactory.create(subject, realm);
+        this.compiledScriptCache = compiledScriptCache;
     }
 
     @Override
@@ -78,7 +96,9 @@ public class ScriptConfigurationService implements ScriptingService {
     @Override
     public void delete(String uuid) throws ScriptException {
         failIfUuidDoesNotExist(uuid);
+        final ScriptConfiguration oldConfig = dataStore.get(uuid);
         dataStore.delete(uuid);
+        invalidateCompiledScript(oldConfig);
     }
 
     @Override
@@ -105,9 +125,18 @@ public class ScriptConfigurationService implements ScriptingService {
         }
         final ScriptConfiguration updatedConfig = setMetaData(config);
         dataStore.save(updatedConfig);
+        if (!oldConfig.getScript().equals(updatedConfig.getScript())) {
+            invalidateCompiledScript(oldConfig);
+        }
         return updatedConfig;
     }
 
+    private void invalidateCompiledScript(ScriptConfiguration config) {
+        if (compiledScriptCache != null && config != null) {
+            compiledScriptCache.invalidate(config.getLanguage(), config.getScript());
+        }
+    }
+
     private void failIfNameExists(String name) throws ScriptException {
         if (dataStore.containsName(name)) {
             throw createAndLogDebug(logger, SCRIPT_NAME_EXISTS, name, realm);
@@ -57,7 +57,18 @@ public class ObservedContextFactory extends ContextFactory {
         final long timeout = TimeUnit.MILLISECONDS.convert(manager.getConfiguration().getScriptExecutionTimeout(),
                 TimeUnit.SECONDS);
         if (timeout > 0 && currentTimeMillis() - context.getStartTime() > timeout) {
-            throw new Error("Interrupt.");
+            throw new ScriptTimeoutError();
+        }
+    }
+
+    /**
+     * Thrown from within the script engine to stop a script which has run past its timeout. As an {@link Error} it
+     * cannot be caught by the script.
+     */
+    public static final class ScriptTimeoutError extends Error {
+
+        private ScriptTimeoutError() {
+            super("Interrupt.");
         }
     }
 
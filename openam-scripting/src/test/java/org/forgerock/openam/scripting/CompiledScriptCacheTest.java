@@ -0,0 +1,137 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.scripting;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.openam.scripting.StandardScriptEvaluatorTest.getGroovyScript;
+import static org.forgerock.openam.scripting.StandardScriptEvaluatorTest.getJavascript;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CompiledScriptCacheTest {
+
+    private static final ScriptEngineConfiguration CONFIGURATION =
+            ScriptEngineConfiguration.builder()
+                .withWhiteList(Arrays.asList(Pattern.compile("java\\..*"), Pattern.compile("groovy\\..*")))
+                .withBlackList(Arrays.asList(Pattern.compile("java\\.lang\\.Class"),
+                        Pattern.compile("java\\.lang\\.reflect\\..*")))
+                .build();
+
+    private StandardScriptEngineManager scriptEngineManager;
+    private CompiledScriptCache cache;
+    private StandardScriptEvaluator evaluator;
+
+    @BeforeMethod
+    public void setup() {
+        scriptEngineManager = new StandardScriptEngineManager();
+        scriptEngineManager.setConfiguration(CONFIGURATION);
+        cache = new CompiledScriptCache(10);
+        evaluator = new StandardScriptEvaluator(scriptEngineManager, cache);
+    }
+
+    @Test
+    public void shouldCompileScriptOnceAndEvaluateWithEachBindings() throws Exception {
+        // Given
+        ScriptObject script = getJavascript("x * 2");
+
+        // When
+        Number first = evaluator.evaluateScript(script, bindings("x", 2));
+        Number second = evaluator.evaluateScript(script, bindings("x", 5));
+
+        // Then
+        assertThat(first.intValue()).isEqualTo(4);
+        assertThat(second.intValue()).isEqualTo(10);
+        assertThat(cache.getCompileCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCacheGroovyScripts() throws Exception {
+        // Given
+        ScriptObject script = getGroovyScript("x + 1");
+
+        // When
+        evaluator.evaluateScript(script, bindings("x", 1));
+        Number result = evaluator.evaluateScript(script, bindings("x", 2));
+
+        // Then
+        assertThat(result.intValue()).isEqualTo(3);
+        assertThat(cache.getCompileCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepSandboxForCachedScripts() throws Exception {
+        // Given
+        ScriptObject evil = getGroovyScript("Integer.valueOf(1).getClass().getDeclaredFields()");
+
+        // When
+        int failures = 0;
+        for (int i = 0; i < 2; i++) {
+            try {
+                evaluator.evaluateScript(evil, null);
+            } catch (ScriptException e) {
+                failures++;
+            }
+        }
+
+        // Then
+        assertThat(failures).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldDiscardScriptsOfChangedSource() throws Exception {
+        // Given
+        ScriptObject script = getJavascript("1");
+        evaluator.evaluateScript(script, null);
+
+        // When
+        cache.invalidate(script.getLanguage(), script.getScript());
+
+        // Then
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldDiscardScriptsWhenConfigurationChanges() throws Exception {
+        // Given
+        StandardScriptEngineManager otherManager = new StandardScriptEngineManager();
+        StandardScriptEvaluator otherEvaluator = new StandardScriptEvaluator(otherManager, cache);
+        evaluator.evaluateScript(getJavascript("1"), null);
+        otherEvaluator.evaluateScript(getJavascript("1"), null);
+        assertThat(cache.size()).isEqualTo(2);
+
+        // When
+        scriptEngineManager.setConfiguration(CONFIGURATION);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private Bindings bindings(String name, Object value) {
+        Bindings bindings = new SimpleBindings();
+        bindings.put(name, value);
+        return bindings;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.scripting;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.openam.scripting.StandardScriptEvaluatorTest.getGroovyScript;
+import static org.forgerock.openam.scripting.StandardScriptEvaluatorTest.getJavascript;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import javax.script.Bindings;
+import javax.script.ScriptException;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SemaphoreScriptEvaluatorTest {
+
+    private StandardScriptEngineManager scriptEngineManager;
+    private ScheduledExecutorService watchdog;
+
+    @BeforeMethod
+    public void setupTests() {
+        scriptEngineManager = new StandardScriptEngineManager();
+        watchdog = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    public void shouldEvaluateOnCallingThread() throws Exception {
+        // Given
+        ScriptEvaluator delegate = mock(ScriptEvaluator.class);
+        when(delegate.evaluateScript(any(ScriptObject.class), any(Bindings.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return Thread.currentThread();
+            }
+        });
+        SemaphoreScriptEvaluator evaluator = new SemaphoreScriptEvaluator(scriptEngineManager, watchdog, delegate);
+
+        // When
+        Thread thread = evaluator.evaluateScript(getJavascript("1"), null);
+
+        // Then
+        assertThat(thread).isSameAs(Thread.currentThread());
+        assertThat(evaluator.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldStopGroovyScriptWhenTimeoutReached() throws Exception {
+        // Given
+        setConfiguration(1, 1, 1);
+        SemaphoreScriptEvaluator evaluator = new SemaphoreScriptEvaluator(scriptEngineManager, watchdog,
+                new StandardScriptEvaluator(scriptEngineManager));
+
+        // When
+        try {
+            evaluator.evaluateScript(getGroovyScript("while (true) { }"), null);
+        } catch (ScriptException ex) {
+            // Then
+            assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+            assertThat(Thread.interrupted()).isFalse();
+            return;
+        }
+        throw new AssertionError("Script should have timed out");
+    }
+
+    @Test
+    public void shouldStopJavaScriptWhenTimeoutReached() throws Exception {
+        // Given
+        setConfiguration(1, 1, 1);
+        SemaphoreScriptEvaluator evaluator = new SemaphoreScriptEvaluator(scriptEngineManager, watchdog,
+                new StandardScriptEvaluator(scriptEngineManager));
+
+        // When
+        try {
+            evaluator.evaluateScript(getJavascript("while (true) { }"), null);
+        } catch (ScriptException ex) {
+            // Then
+            assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+            assertThat(Thread.interrupted()).isFalse();
+            return;
+        }
+        throw new AssertionError("Script should have timed out");
+    }
+
+    @Test
+    public void shouldRejectScriptsWhenTooManyAreWaiting() throws Exception {
+        // Given
+        setConfiguration(0, 1, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ScriptEvaluator delegate = mock(ScriptEvaluator.class);
+        when(delegate.evaluateScript(any(ScriptObject.class), any(Bindings.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws InterruptedException {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        });
+        final SemaphoreScriptEvaluator evaluator =
+                new SemaphoreScriptEvaluator(scriptEngineManager, watchdog, delegate);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Object> running = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return evaluator.evaluateScript(getJavascript("1"), null);
+            }
+        });
+        started.await();
+
+        // When
+        try {
+            evaluator.evaluateScript(getJavascript("1"), null);
+            throw new AssertionError("Script should have been rejected");
+        } catch (ScriptException ex) {
+            // Then
+            assertThat(ex.getMessage()).contains("Script evaluation limit reached");
+        } finally {
+            release.countDown();
+            running.get();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldResizePermitsOnConfigurationChange() {
+        // Given
+        SemaphoreScriptEvaluator evaluator = new SemaphoreScriptEvaluator(scriptEngineManager, watchdog,
+                mock(ScriptEvaluator.class));
+
+        // When
+        setConfiguration(0, 50, 10);
+
+        // Then
+        assertThat(evaluator.getAvailablePermits()).isEqualTo(50);
+    }
+
+    @Test
+    public void shouldRunMoreBlockingScriptsConcurrentlyThanThePoolSize() throws Exception {
+        // Given
+        final int callers = 20;
+        setConfiguration(10, callers, 0);
+        final CountDownLatch allRunning = new CountDownLatch(callers);
+        ScriptEvaluator delegate = mock(ScriptEvaluator.class);
+        when(delegate.evaluateScript(any(ScriptObject.class), any(Bindings.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws InterruptedException {
+                // Blocks until every caller is evaluating a script at the same time
+                allRunning.countDown();
+                return allRunning.await(5, TimeUnit.SECONDS);
+            }
+        });
+        final SemaphoreScriptEvaluator evaluator =
+                new SemaphoreScriptEvaluator(scriptEngineManager, watchdog, delegate);
+        ExecutorService requests = Executors.newFixedThreadPool(callers);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < callers; i++) {
+            results.add(requests.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return evaluator.evaluateScript(getJavascript("1"), null);
+                }
+            }));
+        }
+
+        // Then
+        try {
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+        assertThat(evaluator.getAvailablePermits()).isEqualTo(callers);
+    }
+
+    private void setConfiguration(long timeoutSeconds, int maxSize, int queueSize) {
+        scriptEngineManager.setConfiguration(builder(timeoutSeconds, maxSize, queueSize).build());
+    }
+
+    private ScriptEngineConfiguration.Builder builder(long timeoutSeconds, int maxSize, int queueSize) {
+        return ScriptEngineConfiguration.builder()
+                .withTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .withWhiteList(Arrays.asList(Pattern.compile("java\\..*"), Pattern.compile("groovy\\..*")))
+                .withThreadPoolCoreSize(Math.min(maxSize, 10))
+                .withThreadPoolMaxSize(maxSize)
+                .withThreadPoolQueueSize(queueSize);
+    }
+}
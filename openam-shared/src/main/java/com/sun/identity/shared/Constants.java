@@ -25,6 +25,7 @@
  * $Id: Constants.java,v 1.47 2009/08/12 23:10:44 ericow Exp $
  *
  * Portions Copyrighted 2010-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package com.sun.identity.shared;
 
@@ -393,6 +394,35 @@ public interface Constants {
     static final String SERVICES_COMM_SERVER_PLLREQUEST_MAX_CONTENT_LENGTH =
             "com.iplanet.services.comm.server.pllrequest.maxContentLength";
 
+    /**
+     * Property string to send PLL requests with the pooled transport, which
+     * bounds and reuses the connections to each server and streams the
+     * request and response documents.
+     */
+    static final String SERVICES_COMM_CLIENT_POOLED =
+            "com.iplanet.services.comm.client.pooled";
+
+    /**
+     * Property string for the maximum number of connections the pooled PLL
+     * transport opens to one server.
+     */
+    static final String SERVICES_COMM_CLIENT_MAX_CONNECTIONS =
+            "com.iplanet.services.comm.client.maxConnections";
+
+    /**
+     * Property string for the time in milliseconds the pooled PLL transport
+     * waits for a connection to a server to become available.
+     */
+    static final String SERVICES_COMM_CLIENT_CONNECTION_WAIT_TIME =
+            "com.iplanet.services.comm.client.connectionWaitTime";
+
+    /**
+     * Property string for the maximum number of queued PLL requests sent to a
+     * server in one RequestSet.
+     */
+    static final String SERVICES_COMM_CLIENT_MAX_BATCH_SIZE =
+            "com.iplanet.services.comm.client.maxBatchSize";
+
     /**
      * Property string for encrypting class implementation.
      */
@@ -996,6 +1026,20 @@ public interface Constants {
      */
     static final String SMS_CACHE_TTL = "com.sun.identity.sm.cache.ttl";
 
+    /**
+     * property string to load the whole service configuration subtree with
+     * one paged search when the configuration store is first read. Requires
+     * the SMS cache to be enabled.
+     */
+    static final String SMS_PRELOAD_ENABLED = "com.sun.identity.sm.preload.enabled";
+
+    /**
+     * property string for the local file holding a snapshot of the service
+     * configuration subtree, reconciled with the configuration store on startup
+     * instead of loading the whole subtree. Used only when the preload is enabled.
+     */
+    static final String SMS_PRELOAD_SNAPSHOT = "com.sun.identity.sm.preload.snapshot";
+
     /**
      * property string to manage the persistent connection to directory
      */
@@ -0,0 +1,448 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.shared.concurrency;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.forgerock.openam.audit.context.AuditRequestContextPropagatingRunnable;
+import org.forgerock.util.Reject;
+
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * A named, fixed size thread pool which reports its activity through JMX.
+ *
+ * Tasks wait in a queue which is either unbounded, bounded, or empty so that tasks are handed straight to an idle
+ * thread. A task which does not fit in the queue is handled according to the {@link RejectionPolicy} of the pool. Each
+ * task runs with the audit request context of the thread which submitted it.
+ *
+ * While running, the pool is registered in the platform MBeanServer under
+ * {@code org.forgerock.openam:type=ThreadPool,name=<pool name>}, where it reports its active, queued, completed and
+ * rejected tasks, and how long tasks waited for a thread. Pools sharing a name are registered with a numeric suffix.
+ *
+ * The number of threads, the queue size and the rejection policy given to the {@link Builder} can be overridden for
+ * each pool with the {@code org.forgerock.openam.threadpool.<pool name>.threads}, {@code .queueSize} and
+ * {@code .rejectionPolicy} properties. When {@code org.forgerock.openam.threadpool.virtualThreads} is {@code true}, or
+ * {@code org.forgerock.openam.threadpool.<pool name>.virtualThreads} for a single pool, tasks run on virtual threads
+ * if the JVM supports them.
+ */
+public final class MonitoredThreadPool extends ThreadPoolExecutor implements MonitoredThreadPoolMXBean {
+
+    /**
+     * What happens to a task which does not fit in the queue of the pool.
+     */
+    public enum RejectionPolicy {
+        /** The task is rejected with a {@link RejectedExecutionException}. */
+        ABORT,
+        /** The task runs on the thread which submitted it. */
+        CALLER_RUNS,
+        /** The task is silently dropped. */
+        DISCARD,
+        /** The submitting thread waits until there is room in the queue. */
+        BLOCK
+    }
+
+    /** Queue size of a pool whose queue is unbounded. */
+    public static final int UNBOUNDED = -1;
+
+    /** Prefix of the properties configuring the pools. */
+    public static final String PROPERTY_PREFIX = "org.forgerock.openam.threadpool.";
+
+    /** Whether the pools run their tasks on virtual threads. */
+    public static final String VIRTUAL_THREADS = PROPERTY_PREFIX + "virtualThreads";
+
+    private static final String OBJECT_NAME = "org.forgerock.openam:type=ThreadPool,name=";
+    private static final ConcurrentHashMap<String, MonitoredThreadPool> REGISTERED = new ConcurrentHashMap<>();
+    private static final Debug DEBUG = Debug.getInstance("amThreadPool");
+
+    private final String name;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final boolean virtualThreads;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicLong maximumWait = new AtomicLong();
+    private volatile String registeredName;
+
+    private MonitoredThreadPool(String name, int threads, int queueSize, RejectionPolicy rejectionPolicy,
+            ThreadFactory threadFactory, boolean virtualThreads) {
+        super(threads, threads, 60L, TimeUnit.SECONDS, MonitoredThreadPool.<Runnable>newQueue(queueSize),
+                threadFactory);
+        this.name = name;
+        this.queueCapacity = queueSize < 0 ? UNBOUNDED : queueSize;
+        this.rejectionPolicy = rejectionPolicy;
+        this.virtualThreads = virtualThreads;
+        setRejectedExecutionHandler(new Rejection());
+    }
+
+    /**
+     * Starts building a pool.
+     *
+     * @param name The name of the pool, used for its threads, its properties and its MBean.
+     * @return The builder.
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Reject.ifNull(command);
+        super.execute(new Task(command));
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable failure) {
+        super.afterExecute(task, failure);
+        if (failure != null) {
+            DEBUG.error("Task in thread pool " + name + " failed", failure);
+        }
+    }
+
+    @Override
+    protected void terminated() {
+        super.terminated();
+        unregister();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getThreads() {
+        return getMaximumPoolSize();
+    }
+
+    @Override
+    public synchronized void setThreads(int threads) {
+        Reject.ifTrue(threads < 1, "Thread pool needs at least one thread");
+        if (threads > getMaximumPoolSize()) {
+            setMaximumPoolSize(threads);
+            setCorePoolSize(threads);
+        } else {
+            setCorePoolSize(threads);
+            setMaximumPoolSize(threads);
+        }
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public int getQueuedTaskCount() {
+        return getQueue().size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public String getRejectionPolicy() {
+        return rejectionPolicy.name();
+    }
+
+    @Override
+    public long getRejectedTaskCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public double getAverageQueueWaitTime() {
+        long count = started.get();
+        return count == 0 ? 0 : nanosToMillis(totalWait.get()) / count;
+    }
+
+    @Override
+    public double getMaximumQueueWaitTime() {
+        return nanosToMillis(maximumWait.get());
+    }
+
+    @Override
+    public String toString() {
+        return name + "[threads=" + getThreads() + ", active=" + getActiveCount() + ", queued="
+                + getQueuedTaskCount() + "]";
+    }
+
+    private void recordWait(long wait) {
+        started.incrementAndGet();
+        totalWait.addAndGet(wait);
+        long maximum = maximumWait.get();
+        while (wait > maximum && !maximumWait.compareAndSet(maximum, wait)) {
+            maximum = maximumWait.get();
+        }
+    }
+
+    private void register() {
+        String candidate = name;
+        for (int i = 2; REGISTERED.putIfAbsent(candidate, this) != null; i++) {
+            candidate = name + "-" + i;
+        }
+        registeredName = candidate;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME + ObjectName.quote(candidate));
+            if (server.isRegistered(objectName)) {
+                // Left behind by an earlier deployment of the application
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException | SecurityException e) {
+            DEBUG.warning("Unable to register MBean of thread pool " + candidate, e);
+        }
+    }
+
+    private void unregister() {
+        String candidate = registeredName;
+        if (candidate == null || !REGISTERED.remove(candidate, this)) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME + ObjectName.quote(candidate));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            DEBUG.warning("Unable to unregister MBean of thread pool " + candidate, e);
+        }
+    }
+
+    private static <T> BlockingQueue<T> newQueue(int queueSize) {
+        if (queueSize < 0) {
+            return new LinkedBlockingQueue<>();
+        } else if (queueSize == 0) {
+            return new SynchronousQueue<>();
+        }
+        return new LinkedBlockingQueue<>(queueSize);
+    }
+
+    private static double nanosToMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * A submitted task, which remembers when it was queued.
+     */
+    private final class Task extends AuditRequestContextPropagatingRunnable {
+        private final Runnable command;
+        private final long queuedAt = System.nanoTime();
+
+        private Task(Runnable command) {
+            super(command);
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            recordWait(System.nanoTime() - queuedAt);
+            super.run();
+        }
+
+        @Override
+        public String toString() {
+            return command.toString();
+        }
+    }
+
+    /**
+     * Applies the rejection policy of the pool.
+     */
+    private final class Rejection implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException(name + " thread pool's being shutdown.");
+            }
+            rejected.incrementAndGet();
+            switch (rejectionPolicy) {
+            case CALLER_RUNS:
+                task.run();
+                break;
+            case DISCARD:
+                if (DEBUG.messageEnabled()) {
+                    DEBUG.message(name + " thread pool's task queue is full, discarding " + task);
+                }
+                break;
+            case BLOCK:
+                try {
+                    getQueue().put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(name + " thread pool's caller was interrupted", e);
+                }
+                break;
+            default:
+                throw new RejectedExecutionException(name + " thread pool's task queue is full.");
+            }
+        }
+    }
+
+    /**
+     * Builds a {@link MonitoredThreadPool}. The pool runs on a single platform daemon thread with an unbounded queue
+     * unless configured otherwise.
+     */
+    public static final class Builder {
+        private final String name;
+        private int threads = 1;
+        private int queueSize = UNBOUNDED;
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+        private boolean daemon = true;
+
+        private Builder(String name) {
+            Reject.ifNull(name);
+            this.name = name;
+        }
+
+        /**
+         * @param threads The number of threads running tasks, at least one.
+         * @return This builder.
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param queueSize The number of tasks which may wait for a thread; {@code 0} to hand each task straight to
+         * an idle thread, or {@link #UNBOUNDED}.
+         * @return This builder.
+         */
+        public Builder queueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * @param rejectionPolicy What happens to tasks which do not fit in the queue.
+         * @return This builder.
+         */
+        public Builder rejectionPolicy(RejectionPolicy rejectionPolicy) {
+            Reject.ifNull(rejectionPolicy);
+            this.rejectionPolicy = rejectionPolicy;
+            return this;
+        }
+
+        /**
+         * @param daemon Whether platform threads of the pool are daemon threads.
+         * @return This builder.
+         */
+        public Builder daemon(boolean daemon) {
+            this.daemon = daemon;
+            return this;
+        }
+
+        /**
+         * Creates the pool, applying the properties configured for its name, and registers its MBean.
+         *
+         * @return The pool.
+         */
+        public MonitoredThreadPool build() {
+            String prefix = PROPERTY_PREFIX + name + ".";
+            int poolThreads = SystemPropertiesManager.getAsInt(prefix + "threads", threads);
+            int poolQueueSize = SystemPropertiesManager.getAsInt(prefix + "queueSize", queueSize);
+            RejectionPolicy policy = rejectionPolicy;
+            String configuredPolicy = SystemPropertiesManager.get(prefix + "rejectionPolicy");
+            if (configuredPolicy != null) {
+                try {
+                    policy = RejectionPolicy.valueOf(configuredPolicy.trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    DEBUG.warning("Unknown rejection policy " + configuredPolicy + " for thread pool " + name);
+                }
+            }
+            Reject.ifTrue(poolThreads < 1, "Thread pool " + name + " needs at least one thread");
+
+            ThreadFactory threadFactory = null;
+            boolean virtual = SystemPropertiesManager.getAsBoolean(prefix + "virtualThreads",
+                    SystemPropertiesManager.getAsBoolean(VIRTUAL_THREADS, false));
+            if (virtual) {
+                threadFactory = virtualThreadFactory(name);
+            }
+            if (threadFactory == null) {
+                virtual = false;
+                threadFactory = new PlatformThreadFactory(name, daemon);
+            }
+
+            MonitoredThreadPool pool = new MonitoredThreadPool(name, poolThreads, poolQueueSize, policy,
+                    threadFactory, virtual);
+            if (DEBUG.messageEnabled()) {
+                DEBUG.message("Thread pool " + name + ": threads=" + poolThreads + ", queueSize=" + poolQueueSize
+                        + ", rejectionPolicy=" + policy + ", virtualThreads=" + virtual);
+            }
+            pool.register();
+            return pool;
+        }
+
+        /**
+         * Looks up {@code Thread.ofVirtual().name(name + "-", 1).factory()}, which only exists from Java 21.
+         */
+        private static ThreadFactory virtualThreadFactory(String name) {
+            try {
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                DEBUG.warning("Virtual threads are not available, thread pool " + name + " uses platform threads");
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Creates the platform threads of a pool, named after the pool.
+     */
+    private static final class PlatformThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String name;
+        private final boolean daemon;
+
+        private PlatformThreadFactory(String name, boolean daemon) {
+            this.name = name;
+            this.daemon = daemon;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.shared.concurrency;
+
+/**
+ * Management interface of a {@link MonitoredThreadPool}, registered under
+ * {@code org.forgerock.openam:type=ThreadPool,name=<pool name>}.
+ */
+public interface MonitoredThreadPoolMXBean {
+
+    /**
+     * @return The name of the pool.
+     */
+    String getName();
+
+    /**
+     * @return The number of threads the pool runs tasks on.
+     */
+    int getThreads();
+
+    /**
+     * Changes the number of threads the pool runs tasks on.
+     *
+     * @param threads The new number of threads, at least one.
+     */
+    void setThreads(int threads);
+
+    /**
+     * @return Whether the tasks run on virtual threads.
+     */
+    boolean isVirtualThreads();
+
+    /**
+     * @return The number of threads currently running a task.
+     */
+    int getActiveCount();
+
+    /**
+     * @return The number of tasks waiting for a thread.
+     */
+    int getQueuedTaskCount();
+
+    /**
+     * @return The maximum number of waiting tasks, or -1 if the queue is unbounded.
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return The name of the policy applied to tasks which do not fit in the queue.
+     */
+    String getRejectionPolicy();
+
+    /**
+     * @return The number of tasks which have completed.
+     */
+    long getCompletedTaskCount();
+
+    /**
+     * @return The number of tasks which did not fit in the queue.
+     */
+    long getRejectedTaskCount();
+
+    /**
+     * @return The average time in milliseconds a task waited for a thread.
+     */
+    double getAverageQueueWaitTime();
+
+    /**
+     * @return The longest time in milliseconds a task waited for a thread.
+     */
+    double getMaximumQueueWaitTime();
+}
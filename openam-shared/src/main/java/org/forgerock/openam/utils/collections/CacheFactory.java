@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.utils.collections;
+
+import java.util.Map;
+
+import com.iplanet.am.util.Cache;
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+
+/**
+ * Creates the bounded caches used in place of {@link Cache}.
+ *
+ * <p>By default the caches are {@link ConcurrentCache}s. Setting the system property
+ * {@value #LEGACY_CACHE_PROPERTY} to {@code true} returns the synchronized {@link Cache} instead, for comparison
+ * or as a fallback.</p>
+ */
+public final class CacheFactory {
+
+    /**
+     * The system property which selects the legacy synchronized cache implementation.
+     */
+    public static final String LEGACY_CACHE_PROPERTY = "org.forgerock.openam.cache.legacy";
+
+    private CacheFactory() {
+    }
+
+    /**
+     * Creates an unnamed cache.
+     *
+     * @param capacity The maximum number of entries in the cache.
+     * @param <K> The cache key type.
+     * @param <V> The cache value type.
+     * @return A thread safe, bounded cache.
+     */
+    public static <K, V> Map<K, V> newCache(int capacity) {
+        return newCache(null, capacity);
+    }
+
+    /**
+     * Creates a named cache.
+     *
+     * @param name The name of the cache, may be null.
+     * @param capacity The maximum number of entries in the cache.
+     * @param <K> The cache key type.
+     * @param <V> The cache value type.
+     * @return A thread safe, bounded cache.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Map<K, V> newCache(String name, int capacity) {
+        if (SystemPropertiesManager.getAsBoolean(LEGACY_CACHE_PROPERTY, false)) {
+            return new Cache(capacity);
+        }
+        return new ConcurrentCache<>(name, capacity);
+    }
+}
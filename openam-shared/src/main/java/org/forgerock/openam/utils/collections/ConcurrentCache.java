@@ -0,0 +1,498 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.utils.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.util.Reject;
+
+/**
+ * A bounded, thread safe cache with approximate Least Recently Used eviction.
+ *
+ * <p>This is a replacement for {@link com.iplanet.am.util.Cache}, which guards every read with a single
+ * monitor. The entries are split by key hash into up to sixteen segments, each of which is an access ordered
+ * {@link LeastRecentlyUsed} map with its own lock and an equal share of the capacity. Threads only contend when
+ * they use keys of the same segment, and each segment evicts its own least recently used entry when it is full,
+ * which approximates LRU eviction across the whole cache.</p>
+ *
+ * <p>As with {@link com.iplanet.am.util.Cache}, neither keys nor values may be null. Views of the cache iterate
+ * over a snapshot and never throw {@link java.util.ConcurrentModificationException}; removing through the
+ * iterator removes the entry from the cache.</p>
+ *
+ * <p>A cache may also be bounded by the total weight of its entries, such as their approximate size in bytes, as
+ * calculated by a {@link Weigher}. The weight of an entry is calculated when it is put in the cache, so an entry
+ * which changes after it has been cached should be put again to update its weight.</p>
+ *
+ * <p>Each instance counts its hits, misses and evictions.</p>
+ *
+ * @param <K> The cache key type.
+ * @param <V> The cache value type.
+ * @see CacheFactory
+ */
+public class ConcurrentCache<K, V> extends AbstractMap<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    /**
+     * Calculates the weight of a cache entry.
+     *
+     * @param <K> The cache key type.
+     * @param <V> The cache value type.
+     */
+    public interface Weigher<K, V> {
+        /**
+         * Calculates the weight of an entry. Called while the segment holding the entry is locked.
+         *
+         * @param key The entry key.
+         * @param value The entry value.
+         * @return The non-negative weight of the entry.
+         */
+        int weigh(K key, V value);
+    }
+
+    private final String name;
+    private final int capacity;
+    private final long maxWeight;
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Set<Entry<K, V>> entrySet = new EntrySet();
+
+    /**
+     * Constructs an unnamed cache.
+     *
+     * @param capacity The maximum number of entries in the cache.
+     */
+    public ConcurrentCache(int capacity) {
+        this(null, capacity);
+    }
+
+    /**
+     * Constructs a named cache.
+     *
+     * @param name The name of the cache, may be null.
+     * @param capacity The maximum number of entries in the cache, a capacity of zero is treated as one.
+     */
+    public ConcurrentCache(String name, int capacity) {
+        this(name, capacity, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Constructs a named cache which is bounded both by the number of its entries and by their total weight.
+     * Each segment evicts its least recently used entries until its share of the maximum weight is no longer
+     * exceeded, but always keeps the most recently put entry.
+     *
+     * @param name The name of the cache, may be null.
+     * @param capacity The maximum number of entries in the cache, a capacity of zero is treated as one.
+     * @param maxWeight The maximum total weight of the entries in the cache.
+     * @param weigher Calculates the weight of each entry, if null the cache is only bounded by its capacity.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentCache(String name, int capacity, long maxWeight, Weigher<? super K, ? super V> weigher) {
+        Reject.ifTrue(capacity < 0, "Capacity must not be negative");
+        Reject.ifTrue(maxWeight < 0, "Maximum weight must not be negative");
+        capacity = Math.max(capacity, 1);
+        if (weigher == null) {
+            maxWeight = Long.MAX_VALUE;
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.maxWeight = maxWeight;
+        int count = 1;
+        while (count < MAX_SEGMENTS && capacity / (count * 2) >= MIN_SEGMENT_CAPACITY) {
+            count *= 2;
+        }
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(capacity / count + (i < capacity % count ? 1 : 0), evictions,
+                    maxWeight / count + (i < maxWeight % count ? 1 : 0), weigher);
+        }
+    }
+
+    /**
+     * @return The name of the cache, may be null.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The maximum number of entries in the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The maximum total weight of the entries in the cache, {@link Long#MAX_VALUE} if unbounded.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @return The total weight of the entries in the cache, zero if the cache has no {@link Weigher}.
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * @return The number of lookups which found a value.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups which did not find a value.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries removed to make room for new entries.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public V get(Object key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.containsKey(key);
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        Reject.ifNull(value);
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                if (segment.containsValue(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Reject.ifNull(value);
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.store(key, value);
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Reject.ifNull(value);
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.storeIfAbsent(key, value);
+        }
+    }
+
+    /**
+     * Replaces the value of the key only if it is mapped to the old value. Putting an entry again with the same
+     * value calculates its weight again without reinstating it if it has been removed meanwhile.
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Reject.ifNull(oldValue);
+        Reject.ifNull(newValue);
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (!oldValue.equals(segment.get(key))) {
+                return false;
+            }
+            segment.store(key, newValue);
+            return true;
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.discard(key);
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.discard(key, value);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                if (!segment.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.reset();
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private List<Entry<K, V>> snapshot() {
+        List<Entry<K, V>> entries = new ArrayList<>();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                for (Entry<K, V> entry : segment.entrySet()) {
+                    entries.add(new SimpleImmutableEntry<>(entry));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            final Iterator<Entry<K, V>> snapshot = snapshot().iterator();
+            return new Iterator<Entry<K, V>>() {
+                private Entry<K, V> current;
+
+                @Override
+                public boolean hasNext() {
+                    return snapshot.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    current = snapshot.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    ConcurrentCache.this.remove(current.getKey(), current.getValue());
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Object value = entry.getKey() == null ? null : peek(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return entry.getKey() != null && ConcurrentCache.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentCache.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ConcurrentCache.this.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentCache.this.clear();
+        }
+    }
+
+    /**
+     * Returns the value of a key without counting a hit or miss.
+     */
+    private V peek(Object key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * The methods of a segment must only be called while holding its lock.
+     */
+    private static final class Segment<K, V> extends LeastRecentlyUsed<K, V> {
+        private final LongAdder evictions;
+        private final long maxWeight;
+        private final Weigher<? super K, ? super V> weigher;
+        private final Map<K, Integer> weights;
+        private long weight;
+
+        private Segment(int capacity, LongAdder evictions, long maxWeight, Weigher<? super K, ? super V> weigher) {
+            super(capacity);
+            this.evictions = evictions;
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+            this.weights = weigher == null ? null : new HashMap<K, Integer>();
+        }
+
+        private V store(K key, V value) {
+            V previous = put(key, value);
+            weigh(key, value);
+            return previous;
+        }
+
+        private V storeIfAbsent(K key, V value) {
+            V previous = putIfAbsent(key, value);
+            if (previous == null) {
+                weigh(key, value);
+            }
+            return previous;
+        }
+
+        private V discard(Object key) {
+            V previous = remove(key);
+            if (previous != null) {
+                unweigh(key);
+            }
+            return previous;
+        }
+
+        private boolean discard(Object key, Object value) {
+            if (remove(key, value)) {
+                unweigh(key);
+                return true;
+            }
+            return false;
+        }
+
+        private void reset() {
+            clear();
+            if (weights != null) {
+                weights.clear();
+                weight = 0;
+            }
+        }
+
+        private void weigh(K key, V value) {
+            if (weigher == null) {
+                return;
+            }
+            int entryWeight = weigher.weigh(key, value);
+            Integer previous = weights.put(key, entryWeight);
+            weight += entryWeight - (previous == null ? 0 : previous);
+            // The entry just put is the most recently used, so it is the last to be reached
+            Iterator<K> eldest = keySet().iterator();
+            while (weight > maxWeight && size() > 1) {
+                K evicted = eldest.next();
+                eldest.remove();
+                unweigh(evicted);
+                evictions.increment();
+            }
+        }
+
+        private void unweigh(Object key) {
+            if (weights != null) {
+                Integer previous = weights.remove(key);
+                if (previous != null) {
+                    weight -= previous;
+                }
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> entry) {
+            if (super.removeEldestEntry(entry)) {
+                evictions.increment();
+                unweigh(entry.getKey());
+                return true;
+            }
+            return false;
+        }
+    }
+}
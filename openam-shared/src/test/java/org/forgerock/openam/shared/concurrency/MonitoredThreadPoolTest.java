@@ -0,0 +1,159 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.shared.concurrency;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.forgerock.openam.shared.concurrency.MonitoredThreadPool.RejectionPolicy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class MonitoredThreadPoolTest {
+
+    private MonitoredThreadPool pool;
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldReportCompletedTasksAndQueueWaitTime() throws Exception {
+        // Given
+        pool = MonitoredThreadPool.builder("completed").threads(1).build();
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(new Blocker(release));
+        pool.execute(new Blocker(null));
+
+        // When
+        Thread.sleep(50);
+        release.countDown();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(pool.getCompletedTaskCount()).isEqualTo(2);
+        assertThat(pool.getQueuedTaskCount()).isEqualTo(0);
+        assertThat(pool.getMaximumQueueWaitTime()).isGreaterThanOrEqualTo(50);
+        assertThat(pool.getAverageQueueWaitTime()).isLessThan(pool.getMaximumQueueWaitTime());
+    }
+
+    @Test
+    public void shouldRejectTasksWhenQueueIsFull() throws Exception {
+        // Given
+        pool = MonitoredThreadPool.builder("rejecting").threads(1).queueSize(1).build();
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(new Blocker(release));
+        pool.execute(new Blocker(null));
+
+        // When
+        try {
+            pool.execute(new Blocker(null));
+            throw new AssertionError("Expected the task to be rejected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        } finally {
+            release.countDown();
+        }
+
+        // Then
+        assertThat(pool.getQueueCapacity()).isEqualTo(1);
+        assertThat(pool.getRejectedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRunTaskOnCallerWhenQueueIsFull() throws Exception {
+        // Given
+        pool = MonitoredThreadPool.builder("callerRuns").threads(1).queueSize(0)
+                .rejectionPolicy(RejectionPolicy.CALLER_RUNS).build();
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(new Blocker(release));
+        final AtomicReference<Thread> runner = new AtomicReference<>();
+
+        // When
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                runner.set(Thread.currentThread());
+            }
+        });
+        release.countDown();
+
+        // Then
+        assertThat(runner.get()).isSameAs(Thread.currentThread());
+        assertThat(pool.getRejectedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRegisterMBeanUntilTerminated() throws Exception {
+        // Given
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.forgerock.openam:type=ThreadPool,name=\"registered\"");
+        pool = MonitoredThreadPool.builder("registered").threads(2).build();
+        MonitoredThreadPool second = MonitoredThreadPool.builder("registered").build();
+        ObjectName secondName = new ObjectName("org.forgerock.openam:type=ThreadPool,name=\"registered-2\"");
+
+        // When
+        pool.execute(new Blocker(null));
+
+        // Then
+        assertThat(server.getAttribute(name, "Threads")).isEqualTo(2);
+        assertThat(server.getAttribute(name, "RejectionPolicy")).isEqualTo("ABORT");
+        assertThat(server.isRegistered(secondName)).isTrue();
+
+        // When
+        second.shutdown();
+        second.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(server.isRegistered(secondName)).isFalse();
+        assertThat(server.isRegistered(name)).isTrue();
+    }
+
+    /**
+     * Waits for the latch, if any.
+     */
+    private static final class Blocker implements Runnable {
+        private final CountDownLatch release;
+
+        private Blocker(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.openam.utils.collections;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+public class ConcurrentCacheTest {
+
+    @Test
+    public void shouldLimitCacheSize() {
+        final int max = 1000;
+        final ConcurrentCache<String, String> cache = new ConcurrentCache<>(max);
+        for (int i = 0; i < max * 5; i++) {
+            cache.put(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(max);
+        assertThat(cache.size()).isGreaterThan(max * 9 / 10);
+        assertThat(cache.getEvictionCount()).isEqualTo(max * 5 - cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(2);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.get(1);
+        cache.put(3, 3);
+        assertThat(cache.containsKey(1)).isTrue();
+        assertThat(cache.containsKey(2)).isFalse();
+        assertThat(cache.containsKey(3)).isTrue();
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        final ConcurrentCache<String, String> cache = new ConcurrentCache<>("badger", 10);
+        cache.put("weasel", "stoat");
+        cache.get("weasel");
+        cache.get("weasel");
+        cache.get("ferret");
+        assertThat(cache.getName()).isEqualTo("badger");
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRemoveEntriesThroughIterator() {
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+        Iterator<Integer> keys = cache.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next() % 2 == 0) {
+                keys.remove();
+            }
+        }
+        assertThat(cache.size()).isEqualTo(5);
+        assertThat(cache.containsKey(2)).isFalse();
+        assertThat(cache.containsKey(3)).isTrue();
+        assertThat(cache.values()).containsOnly(1, 3, 5, 7, 9);
+    }
+
+    @Test
+    public void shouldTreatZeroCapacityAsOne() {
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(0);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntriesToLimitWeight() {
+        final ConcurrentCache<String, String> cache = new ConcurrentCache<>("badger", 10, 10,
+                new ConcurrentCache.Weigher<String, String>() {
+                    @Override
+                    public int weigh(String key, String value) {
+                        return value.length();
+                    }
+                });
+        cache.put("weasel", "aaaa");
+        cache.put("stoat", "bbbb");
+        cache.get("weasel");
+        cache.put("ferret", "cccc");
+        assertThat(cache.containsKey("weasel")).isTrue();
+        assertThat(cache.containsKey("stoat")).isFalse();
+        assertThat(cache.containsKey("ferret")).isTrue();
+        assertThat(cache.getWeight()).isEqualTo(8);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldUpdateWeightWhenEntriesAreReplacedOrRemoved() {
+        final ConcurrentCache<String, String> cache = new ConcurrentCache<>("badger", 10, 100,
+                new ConcurrentCache.Weigher<String, String>() {
+                    @Override
+                    public int weigh(String key, String value) {
+                        return value.length();
+                    }
+                });
+        cache.put("weasel", "aaaa");
+        cache.put("weasel", "aa");
+        cache.put("stoat", "bbb");
+        assertThat(cache.getWeight()).isEqualTo(5);
+        cache.remove("stoat");
+        assertThat(cache.getWeight()).isEqualTo(2);
+        assertThat(cache.replace("stoat", "bbb", "bbb")).isFalse();
+        assertThat(cache.containsKey("stoat")).isFalse();
+        cache.clear();
+        assertThat(cache.getWeight()).isEqualTo(0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldRejectNullValues() {
+        new ConcurrentCache<String, String>(10).put("badger", null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldRejectNullKeys() {
+        new ConcurrentCache<String, String>(10).put(null, "badger");
+    }
+
+    @Test
+    public void shouldStayConsistentUnderContendedReadsAndWrites() throws Exception {
+        // Given
+        final int capacity = 1000;
+        final int operations = 20000;
+        final int threads = 8;
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(capacity);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong wrongValues = new AtomicLong();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        int key = seed;
+                        for (int i = 0; i < operations; i++) {
+                            key = (key * 1103515245 + 12345) & 0x7FFFFFFF;
+                            int entry = key % (capacity * 2);
+                            if (i % 4 == 0) {
+                                cache.put(entry, entry);
+                            } else {
+                                Integer value = cache.get(entry);
+                                reads.incrementAndGet();
+                                if (value != null && value != entry) {
+                                    wrongValues.incrementAndGet();
+                                }
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        boolean completed = done.await(1, TimeUnit.MINUTES);
+        executor.shutdownNow();
+
+        // Then
+        assertThat(completed).isTrue();
+        assertThat(wrongValues.get()).isZero();
+        assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+        assertThat(cache.getHitCount() + cache.getMissCount()).isEqualTo(reads.get());
+        assertThat(cache.getHitCount()).isGreaterThan(0);
+    }
+}
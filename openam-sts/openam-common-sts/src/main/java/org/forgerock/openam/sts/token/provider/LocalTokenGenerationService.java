@@ -0,0 +1,39 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyrighted [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.sts.token.provider;
+
+import org.forgerock.openam.sts.TokenCreationException;
+import org.forgerock.openam.sts.service.invocation.TokenGenerationServiceInvocationState;
+
+/**
+ * Generates tokens in the JVM of the caller, as the TokenService does when invoked over http. The token generation
+ * service module registers an implementation through {@link java.util.ServiceLoader}, so one is only found when the
+ * STS runs in the same web application as the TokenService. The {@link TokenServiceConsumerImpl} then invokes it
+ * directly, avoiding the json marshalling, the loopback http call and the authorization of the caller which an http
+ * invocation entails.
+ */
+public interface LocalTokenGenerationService {
+    /**
+     * Generates a token, validating the session of the subject and the realm of the invocation as the TokenService
+     * does.
+     * @param invocationState the state which would otherwise be posted to the TokenService.
+     * @return The string representation of the issued token.
+     * @throws TokenCreationException if the token could not be created, with the code the TokenService would
+     * have returned.
+     */
+    String generateToken(TokenGenerationServiceInvocationState invocationState) throws TokenCreationException;
+}
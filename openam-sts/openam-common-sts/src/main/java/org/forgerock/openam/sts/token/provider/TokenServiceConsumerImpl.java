@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package org.forgerock.openam.sts.token.provider;
@@ -35,6 +36,8 @@ import org.forgerock.openam.sts.token.SAML2SubjectConfirmation;
 import org.forgerock.openam.sts.token.UrlConstituentCatenator;
 import org.forgerock.openam.utils.JsonValueBuilder;
 
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 
@@ -42,13 +45,19 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
 
 import static org.forgerock.openam.sts.service.invocation.TokenGenerationServiceInvocationState.TokenGenerationServiceInvocationStateBuilder;
 
 
 /**
+ * Invokes the TokenService over http, except for token creation when a {@link LocalTokenGenerationService} is
+ * deployed in the same web application, which is then invoked directly. Setting the
+ * {@code org.forgerock.openam.sts.tokengeneration.inProcess} system property to false forces the http invocation.
  * @see TokenServiceConsumer
  */
 public class TokenServiceConsumerImpl implements TokenServiceConsumer {
@@ -56,6 +65,7 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
     private static final ProofTokenState NULL_PROOF_TOKEN_STATE = null;
     private static final String CREATE_ACTION_PARAM = SharedSTSConstants.PUBLISH_SERVICE_CREATE_ACTION_URL_ELEMENT;
     private static final String DELETE = "DELETE";
+    private static final String IN_PROCESS_TOKEN_GENERATION = "org.forgerock.openam.sts.tokengeneration.inProcess";
 
     private final AMSTSConstants.STSType stsType;
     private final String tokenServiceEndpoint;
@@ -63,6 +73,7 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
     private final HttpURLConnectionWrapperFactory httpURLConnectionWrapperFactory;
     private final String amSessionCookieName;
     private final UrlConstituentCatenator urlConstituentCatenator;
+    private final LocalTokenGenerationService localTokenGenerationService;
 
     @Inject
     TokenServiceConsumerImpl(AMSTSConstants.STSType stsType,
@@ -72,12 +83,42 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
                              @Named(AMSTSConstants.CREST_VERSION_TOKEN_GEN_SERVICE) String crestVersionTokenGenService,
                              HttpURLConnectionWrapperFactory httpURLConnectionWrapperFactory,
                              @Named(AMSTSConstants.AM_SESSION_COOKIE_NAME) String amSessionCookieName) {
+        this(stsType, urlConstituentCatenator, amDeploymentUrl, tokenGenServiceUriElement, crestVersionTokenGenService,
+                httpURLConnectionWrapperFactory, amSessionCookieName, findLocalTokenGenerationService());
+    }
+
+    /*
+    Ctor which allows the LocalTokenGenerationService to be specified, or to be null if the TokenService is to be
+    invoked over http.
+     */
+    TokenServiceConsumerImpl(AMSTSConstants.STSType stsType,
+                             UrlConstituentCatenator urlConstituentCatenator,
+                             String amDeploymentUrl,
+                             String tokenGenServiceUriElement,
+                             String crestVersionTokenGenService,
+                             HttpURLConnectionWrapperFactory httpURLConnectionWrapperFactory,
+                             String amSessionCookieName,
+                             LocalTokenGenerationService localTokenGenerationService) {
         this.stsType = stsType;
         this.urlConstituentCatenator = urlConstituentCatenator;
         tokenServiceEndpoint = urlConstituentCatenator.catenateUrlConstituents(amDeploymentUrl, tokenGenServiceUriElement);
         this.crestVersionTokenGenService = crestVersionTokenGenService;
         this.httpURLConnectionWrapperFactory = httpURLConnectionWrapperFactory;
         this.amSessionCookieName = amSessionCookieName;
+        this.localTokenGenerationService = localTokenGenerationService;
+    }
+
+    private static LocalTokenGenerationService findLocalTokenGenerationService() {
+        if (!SystemPropertiesManager.getAsBoolean(IN_PROCESS_TOKEN_GENERATION, true)) {
+            return null;
+        }
+        try {
+            Iterator<LocalTokenGenerationService> services = ServiceLoader.load(LocalTokenGenerationService.class,
+                    TokenServiceConsumerImpl.class.getClassLoader()).iterator();
+            return services.hasNext() ? services.next() : null;
+        } catch (ServiceConfigurationError e) {
+            return null;
+        }
     }
 
     @Override
@@ -90,7 +131,7 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
                 buildCommonTokenGenerationInvocationState(TokenType.SAML2, stsInstanceId, realm, ssoTokenString);
         invocationStateBuilder.saml2GenerationState(buildSaml2TokenGenerationState(authnContextClassRef,
                 SAML2SubjectConfirmation.BEARER, NULL_PROOF_TOKEN_STATE));
-        return invokeTokenCreation(invocationStateBuilder.build().toJson().toString(), callerSSOTokenString);
+        return createToken(invocationStateBuilder.build(), callerSSOTokenString);
     }
 
     @Override
@@ -103,7 +144,7 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
                 buildCommonTokenGenerationInvocationState(TokenType.SAML2, stsInstanceId, realm, ssoTokenString);
         invocationStateBuilder.saml2GenerationState(buildSaml2TokenGenerationState(authnContextClassRef,
                 SAML2SubjectConfirmation.SENDER_VOUCHES, NULL_PROOF_TOKEN_STATE));
-        return invokeTokenCreation(invocationStateBuilder.build().toJson().toString(), callerSSOTokenString);
+        return createToken(invocationStateBuilder.build(), callerSSOTokenString);
     }
 
     @Override
@@ -117,7 +158,7 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
                 buildCommonTokenGenerationInvocationState(TokenType.SAML2, stsInstanceId, realm, ssoTokenString);
         invocationStateBuilder.saml2GenerationState(buildSaml2TokenGenerationState(authnContextClassRef,
                 SAML2SubjectConfirmation.HOLDER_OF_KEY, proofTokenState));
-        return invokeTokenCreation(invocationStateBuilder.build().toJson().toString(), callerSSOTokenString);
+        return createToken(invocationStateBuilder.build(), callerSSOTokenString);
     }
 
     @Override
@@ -129,7 +170,7 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
                 buildCommonTokenGenerationInvocationState(TokenType.OPENIDCONNECT, stsInstanceId, realm, ssoTokenString);
         invocationStateBuilder.openIdConnectTokenGenerationState(buildOpenIdConectTokenGenerationState(authnContextClassRef,
                 authnMethodReferences, authnTimeInSeconds, nonce));
-        return invokeTokenCreation(invocationStateBuilder.build().toJson().toString(), callerSSOTokenString);
+        return createToken(invocationStateBuilder.build(), callerSSOTokenString);
     }
 
     @Override
@@ -216,6 +257,14 @@ public class TokenServiceConsumerImpl implements TokenServiceConsumer {
         }
     }
 
+    private String createToken(TokenGenerationServiceInvocationState invocationState,
+                               String callerSSOTokenString) throws TokenCreationException {
+        if (localTokenGenerationService != null) {
+            return localTokenGenerationService.generateToken(invocationState);
+        }
+        return invokeTokenCreation(invocationState.toJson().toString(), callerSSOTokenString);
+    }
+
     private String invokeTokenCreation(String invocationString, String callerSSOTokenString) throws TokenCreationException {
         try {
             Map<String, String> headerMap = makeCommonHeaders(callerSSOTokenString);
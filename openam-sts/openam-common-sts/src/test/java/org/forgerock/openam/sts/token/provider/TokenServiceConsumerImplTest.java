@@ -0,0 +1,122 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyrighted [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.sts.token.provider;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.forgerock.openam.sts.AMSTSConstants;
+import org.forgerock.openam.sts.HttpURLConnectionWrapper;
+import org.forgerock.openam.sts.HttpURLConnectionWrapperFactory;
+import org.forgerock.openam.sts.TokenType;
+import org.forgerock.openam.sts.service.invocation.TokenGenerationServiceInvocationState;
+import org.forgerock.openam.sts.token.UrlConstituentCatenatorImpl;
+import org.forgerock.openam.utils.JsonValueBuilder;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+public class TokenServiceConsumerImplTest {
+    private static final String ASSERTION = "<saml:Assertion/>";
+    private static final String RESPONSE = "{\"" + AMSTSConstants.ISSUED_TOKEN + "\":\"" + ASSERTION + "\"}";
+
+    @Test
+    public void testLocalTokenGenerationServiceIsInvokedDirectly() throws Exception {
+        LocalTokenGenerationService localService = mock(LocalTokenGenerationService.class);
+        when(localService.generateToken(any(TokenGenerationServiceInvocationState.class))).thenReturn(ASSERTION);
+        HttpURLConnectionWrapperFactory wrapperFactory = mock(HttpURLConnectionWrapperFactory.class);
+        TokenServiceConsumerImpl consumer = consumer("http://localhost:8080/openam", wrapperFactory, localService);
+
+        String assertion = consumer.getSAML2BearerAssertion("subject", "instance", "/", "authnContext", "caller");
+
+        assertThat(assertion).isEqualTo(ASSERTION);
+        ArgumentCaptor<TokenGenerationServiceInvocationState> state =
+                ArgumentCaptor.forClass(TokenGenerationServiceInvocationState.class);
+        verify(localService).generateToken(state.capture());
+        assertThat(state.getValue().getTokenType()).isEqualTo(TokenType.SAML2);
+        assertThat(state.getValue().getSsoTokenString()).isEqualTo("subject");
+        assertThat(state.getValue().getStsInstanceId()).isEqualTo("instance");
+        verifyZeroInteractions(wrapperFactory);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTokenServiceIsInvokedOverHttpWithoutLocalTokenGenerationService() throws Exception {
+        HttpURLConnectionWrapper.ConnectionResult result = mock(HttpURLConnectionWrapper.ConnectionResult.class);
+        when(result.getStatusCode()).thenReturn(HttpURLConnection.HTTP_CREATED);
+        when(result.getResult()).thenReturn(RESPONSE);
+        HttpURLConnectionWrapper wrapper = mock(HttpURLConnectionWrapper.class);
+        when(wrapper.setRequestHeaders(anyMap())).thenReturn(wrapper);
+        when(wrapper.setRequestMethod(anyString())).thenReturn(wrapper);
+        when(wrapper.setRequestPayload(anyString())).thenReturn(wrapper);
+        when(wrapper.makeInvocation()).thenReturn(result);
+        HttpURLConnectionWrapperFactory wrapperFactory = mock(HttpURLConnectionWrapperFactory.class);
+        when(wrapperFactory.httpURLConnectionWrapper(any(URL.class))).thenReturn(wrapper);
+        TokenServiceConsumerImpl consumer = consumer("http://localhost:8080/openam", wrapperFactory, null);
+
+        String assertion = consumer.getSAML2BearerAssertion("subject", "instance", "/", "authnContext", "caller");
+
+        assertThat(assertion).isEqualTo(ASSERTION);
+        verify(wrapper).setRequestMethod(AMSTSConstants.POST);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHttpInvocationCarriesSameStateAsLocalInvocation() throws Exception {
+        LocalTokenGenerationService localService = mock(LocalTokenGenerationService.class);
+        when(localService.generateToken(any(TokenGenerationServiceInvocationState.class))).thenReturn(ASSERTION);
+        HttpURLConnectionWrapper.ConnectionResult result = mock(HttpURLConnectionWrapper.ConnectionResult.class);
+        when(result.getStatusCode()).thenReturn(HttpURLConnection.HTTP_CREATED);
+        when(result.getResult()).thenReturn(RESPONSE);
+        HttpURLConnectionWrapper wrapper = mock(HttpURLConnectionWrapper.class);
+        when(wrapper.setRequestHeaders(anyMap())).thenReturn(wrapper);
+        when(wrapper.setRequestMethod(anyString())).thenReturn(wrapper);
+        when(wrapper.setRequestPayload(anyString())).thenReturn(wrapper);
+        when(wrapper.makeInvocation()).thenReturn(result);
+        HttpURLConnectionWrapperFactory wrapperFactory = mock(HttpURLConnectionWrapperFactory.class);
+        when(wrapperFactory.httpURLConnectionWrapper(any(URL.class))).thenReturn(wrapper);
+
+        consumer("http://localhost:8080/openam", wrapperFactory, localService)
+                .getSAML2BearerAssertion("subject", "instance", "/", "authnContext", "caller");
+        consumer("http://localhost:8080/openam", wrapperFactory, null)
+                .getSAML2BearerAssertion("subject", "instance", "/", "authnContext", "caller");
+
+        ArgumentCaptor<TokenGenerationServiceInvocationState> localState =
+                ArgumentCaptor.forClass(TokenGenerationServiceInvocationState.class);
+        verify(localService).generateToken(localState.capture());
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(wrapper).setRequestPayload(payload.capture());
+        assertThat(TokenGenerationServiceInvocationState.fromJson(JsonValueBuilder.toJsonValue(payload.getValue())))
+                .isEqualTo(localState.getValue());
+    }
+
+    private static TokenServiceConsumerImpl consumer(String deploymentUrl,
+                                                     HttpURLConnectionWrapperFactory wrapperFactory,
+                                                     LocalTokenGenerationService localService) {
+        return new TokenServiceConsumerImpl(AMSTSConstants.STSType.REST, new UrlConstituentCatenatorImpl(),
+                deploymentUrl, "sts-tokengen", "protocol=1.0, resource=1.0", wrapperFactory, "iPlanetDirectoryPro",
+                localService);
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package org.forgerock.openam.sts.tokengeneration.config;
@@ -21,9 +22,11 @@ import com.google.inject.Injector;
 import com.google.inject.Key;
 
 /**
- * Class used to create the injector corresponding to the bindings defining the TokenGenerationService. This class will
- * only be referenced by the TokenGenerationServiceHttpRouteProvider, when it is initialized by the CREST
- * servlet the first time the token-generation-service is invoked. This class serves as the bridge between the
+ * Class used to create the injector corresponding to the bindings defining the TokenGenerationService. This class
+ * will only be referenced when the TokenGenerationService is created, either by the
+ * TokenGenerationServiceHttpRouteProvider, when it is initialized by the CREST servlet the first time the
+ * token-generation-service is invoked, or by the InProcessTokenGenerationService the first time an STS deployed in
+ * OpenAM generates a token. This class serves as the bridge between the
  * non-guice CREST servlet context and the guice bindings which define the functionality of the token generation service.
  */
 public enum TokenGenerationServiceInjectorHolder {
@@ -45,7 +48,7 @@ public enum TokenGenerationServiceInjectorHolder {
     /**
      * Returns the appropriate instance for the given injection key.
      * Avoid using this method, in favor of having Guice inject your dependencies ahead of time.
-     * Is only called by the TokenGenerationServiceHttpRouteProvider.
+     * Is only called when the TokenGenerationService is created.
      *
      * @param key The key that defines the class to get.
      * @param <T> The type of class defined by the key.
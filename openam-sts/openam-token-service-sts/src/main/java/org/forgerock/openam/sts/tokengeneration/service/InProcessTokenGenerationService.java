@@ -0,0 +1,139 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.sts.tokengeneration.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.forgerock.audit.events.AccessAuditEventBuilder.ResponseStatus.FAILED;
+import static org.forgerock.audit.events.AccessAuditEventBuilder.ResponseStatus.SUCCESSFUL;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.openam.audit.AuditConstants.*;
+import static org.forgerock.openam.utils.StringUtils.isEmpty;
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
+import org.forgerock.audit.events.AccessAuditEventBuilder;
+import org.forgerock.guice.core.InjectorHolder;
+import org.forgerock.json.resource.ResourceException;
+import org.forgerock.openam.audit.AMAccessAuditEventBuilder;
+import org.forgerock.openam.audit.AuditEventFactory;
+import org.forgerock.openam.audit.AuditEventPublisher;
+import org.forgerock.openam.audit.context.AuditRequestContext;
+import org.forgerock.openam.sts.TokenCreationException;
+import org.forgerock.openam.sts.service.invocation.TokenGenerationServiceInvocationState;
+import org.forgerock.openam.sts.token.provider.LocalTokenGenerationService;
+
+/**
+ * {@link LocalTokenGenerationService} registered through {@link java.util.ServiceLoader}, which lets an STS deployed
+ * in OpenAM generate tokens by calling the {@link TokenGenerationService} directly rather than over http. The
+ * subject session and invocation realm are validated as for http invocations. The caller is not authorized by the
+ * STSTokenGenerationServiceAuthzModule, as only code deployed in OpenAM can make the invocation. Each invocation is
+ * audited as an STS access, like the sts-tokengen route audits http invocations.
+ */
+public class InProcessTokenGenerationService implements LocalTokenGenerationService {
+
+    /**
+     * The protocol and operation reported in access events, as there is no http request.
+     */
+    static final String IN_PROCESS = "IN_PROCESS";
+    static final String GENERATE_TOKEN = "generateToken";
+
+    /**
+     * Defers creating the TokenGenerationService, and thereby its injector, until a token is first generated.
+     */
+    private static final class ServiceHolder {
+        private static final TokenGenerationService SERVICE = TokenGenerationService.fromInjector();
+        private static final AuditEventPublisher AUDIT_EVENT_PUBLISHER =
+                InjectorHolder.getInstance(AuditEventPublisher.class);
+        private static final AuditEventFactory AUDIT_EVENT_FACTORY =
+                InjectorHolder.getInstance(AuditEventFactory.class);
+    }
+
+    private final TokenGenerationService tokenGenerationService;
+    private final AuditEventPublisher auditEventPublisher;
+    private final AuditEventFactory auditEventFactory;
+
+    /**
+     * Constructor invoked by the {@link java.util.ServiceLoader}.
+     */
+    public InProcessTokenGenerationService() {
+        this(null, null, null);
+    }
+
+    /*
+    Ctor which allows the TokenGenerationService and auditing to be specified. If null, the TokenGenerationService
+    created from the TokenGenerationServiceInjectorHolder, and the auditing bound by the InjectorHolder, are used.
+     */
+    InProcessTokenGenerationService(TokenGenerationService tokenGenerationService,
+            AuditEventPublisher auditEventPublisher, AuditEventFactory auditEventFactory) {
+        this.tokenGenerationService = tokenGenerationService;
+        this.auditEventPublisher = auditEventPublisher;
+        this.auditEventFactory = auditEventFactory;
+    }
+
+    @Override
+    public String generateToken(TokenGenerationServiceInvocationState invocationState)
+            throws TokenCreationException {
+        TokenGenerationService service = tokenGenerationService != null
+                ? tokenGenerationService : ServiceHolder.SERVICE;
+        AuditEventPublisher publisher = auditEventPublisher != null
+                ? auditEventPublisher : ServiceHolder.AUDIT_EVENT_PUBLISHER;
+        AuditEventFactory factory = auditEventFactory != null ? auditEventFactory : ServiceHolder.AUDIT_EVENT_FACTORY;
+        String realm = isEmpty(invocationState.getRealm()) ? NO_REALM : invocationState.getRealm();
+        long startTime = currentTimeMillis();
+        if (publisher.isAuditing(realm, ACCESS_TOPIC, EventName.AM_ACCESS_ATTEMPT)) {
+            publisher.tryPublish(ACCESS_TOPIC, accessEvent(factory, realm, startTime)
+                    .eventName(EventName.AM_ACCESS_ATTEMPT)
+                    .toEvent());
+        }
+        try {
+            String token = service.generateToken(invocationState);
+            auditOutcome(publisher, factory, realm, startTime, SUCCESSFUL, "", null);
+            return token;
+        } catch (TokenCreationException e) {
+            auditOutcome(publisher, factory, realm, startTime, FAILED, Integer.toString(e.getCode()), e.getMessage());
+            throw e;
+        } catch (ResourceException e) {
+            auditOutcome(publisher, factory, realm, startTime, FAILED, Integer.toString(e.getCode()), e.getMessage());
+            throw new TokenCreationException(e.getCode(), e.getMessage(), e);
+        }
+    }
+
+    private void auditOutcome(AuditEventPublisher publisher, AuditEventFactory factory, String realm, long startTime,
+            AccessAuditEventBuilder.ResponseStatus status, String statusCode, String reason) {
+        if (publisher.isAuditing(realm, ACCESS_TOPIC, EventName.AM_ACCESS_OUTCOME)) {
+            long endTime = currentTimeMillis();
+            AMAccessAuditEventBuilder builder = accessEvent(factory, realm, endTime)
+                    .eventName(EventName.AM_ACCESS_OUTCOME);
+            if (reason == null) {
+                builder.response(status, statusCode, endTime - startTime, MILLISECONDS);
+            } else {
+                builder.responseWithDetail(status, statusCode, endTime - startTime, MILLISECONDS,
+                        json(object(field(ACCESS_RESPONSE_DETAIL_REASON, reason))));
+            }
+            publisher.tryPublish(ACCESS_TOPIC, builder.toEvent());
+        }
+    }
+
+    private AMAccessAuditEventBuilder accessEvent(AuditEventFactory factory, String realm, long timestamp) {
+        return factory.accessEvent(realm)
+                .timestamp(timestamp)
+                .transactionId(AuditRequestContext.getTransactionIdValue())
+                .component(Component.STS)
+                .request(IN_PROCESS, GENERATE_TOKEN);
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyrighted 2026 Wren Security.
  */
 
 package org.forgerock.openam.sts.tokengeneration.service;
@@ -25,6 +26,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.iplanet.sso.SSOTokenManager;
@@ -60,6 +63,7 @@ import org.forgerock.openam.sts.TokenCreationException;
 import org.forgerock.openam.sts.TokenType;
 import org.forgerock.openam.sts.service.invocation.TokenGenerationServiceInvocationState;
 import org.forgerock.openam.sts.tokengeneration.CTSTokenPersistence;
+import org.forgerock.openam.sts.tokengeneration.config.TokenGenerationServiceInjectorHolder;
 import org.forgerock.openam.sts.tokengeneration.oidc.OpenIdConnectTokenGeneration;
 import org.forgerock.openam.sts.tokengeneration.saml2.SAML2TokenGeneration;
 import org.forgerock.openam.sts.tokengeneration.state.RestSTSInstanceState;
@@ -87,6 +91,23 @@ class TokenGenerationService implements CollectionResourceProvider {
     private final CTSTokenPersistence ctsTokenPersistence;
     private final Logger logger;
 
+    /**
+     * Creates a TokenGenerationService from the bindings of the TokenGenerationServiceInjectorHolder.
+     *
+     * @return the new TokenGenerationService.
+     */
+    static TokenGenerationService fromInjector() {
+        return new TokenGenerationService(
+                TokenGenerationServiceInjectorHolder.getInstance(Key.get(SAML2TokenGeneration.class)),
+                TokenGenerationServiceInjectorHolder.getInstance(Key.get(OpenIdConnectTokenGeneration.class)),
+                TokenGenerationServiceInjectorHolder.getInstance(
+                        Key.get(new TypeLiteral<STSInstanceStateProvider<RestSTSInstanceState>>(){})),
+                TokenGenerationServiceInjectorHolder.getInstance(
+                        Key.get(new TypeLiteral<STSInstanceStateProvider<SoapSTSInstanceState>>(){})),
+                TokenGenerationServiceInjectorHolder.getInstance(Key.get(CTSTokenPersistence.class)),
+                TokenGenerationServiceInjectorHolder.getInstance(Key.get(Logger.class)));
+    }
+
     /*
     Ctor invoked by the TokenGenerationServiceConnectionFactory, using the SAML2TokenGeneration, STSInstanceStateProvider,
     and Logger bound by guice.
@@ -113,52 +134,55 @@ class TokenGenerationService implements CollectionResourceProvider {
             logger.error("Exception caught marshalling json into TokenGenerationServiceInvocationState instance: " + e);
             return new BadRequestException(e.getMessage(), e).asPromise();
         }
-        SSOToken subjectToken;
-        try {
-            subjectToken = validateAssertionSubjectSession(invocationState);
-        } catch (ForbiddenException e) {
-            return e.asPromise();
-        }
-
-        STSInstanceState stsInstanceState;
         try {
-            stsInstanceState = getSTSInstanceState(invocationState);
+            return newResultPromise(issuedTokenResource(generateToken(invocationState)));
         } catch (ResourceException e) {
             return e.asPromise();
         }
+    }
+
+    /**
+     * Generates the token specified by the invocation state, after validating the session of the subject. Invoked
+     * for http invocations, and directly by the {@link InProcessTokenGenerationService}.
+     *
+     * @param invocationState the state specifying the token to generate.
+     * @return the issued token assertion.
+     * @throws ResourceException if the subject session is invalid, or the token could not be generated.
+     */
+    String generateToken(TokenGenerationServiceInvocationState invocationState) throws ResourceException {
+        SSOToken subjectToken = validateAssertionSubjectSession(invocationState);
+        STSInstanceState stsInstanceState = getSTSInstanceState(invocationState);
 
         if (TokenType.SAML2.equals(invocationState.getTokenType())) {
             try {
-                final String assertion = saml2TokenGeneration.generate(
+                return saml2TokenGeneration.generate(
                         subjectToken,
                         stsInstanceState,
                         invocationState);
-                return newResultPromise(issuedTokenResource(assertion));
             } catch (TokenCreationException e) {
                 logger.error("Exception caught generating saml2 token: " + e, e);
-                return e.asPromise();
+                throw e;
             } catch (Exception e) {
                 logger.error("Exception caught generating saml2 token: " + e, e);
-                return new InternalServerErrorException(e.toString(), e).asPromise();
+                throw new InternalServerErrorException(e.toString(), e);
             }
         } else if (TokenType.OPENIDCONNECT.equals(invocationState.getTokenType())) {
             try {
-                final String assertion = openIdConnectTokenGeneration.generate(
+                return openIdConnectTokenGeneration.generate(
                         subjectToken,
                         stsInstanceState,
                         invocationState);
-                return newResultPromise(issuedTokenResource(assertion));
             } catch (TokenCreationException e) {
                 logger.error("Exception caught generating OpenIdConnect token: " + e, e);
-                return e.asPromise();
+                throw e;
             } catch (Exception e) {
                 logger.error("Exception caught generating OpenIdConnect token: " + e, e);
-                return new InternalServerErrorException(e.toString(), e).asPromise();
+                throw new InternalServerErrorException(e.toString(), e);
             }
         } else {
             String message = "Bad request: unexpected token type:" + invocationState.getTokenType();
             logger.error(message);
-            return new BadRequestException(message).asPromise();
+            throw new BadRequestException(message);
         }
     }
 
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.openam.sts.tokengeneration.service;
@@ -26,8 +27,6 @@ import javax.inject.Provider;
 import java.util.Collections;
 import java.util.Set;
 
-import com.google.inject.Key;
-import com.google.inject.TypeLiteral;
 import org.forgerock.http.Handler;
 import org.forgerock.http.handler.Handlers;
 import org.forgerock.json.resource.CollectionResourceProvider;
@@ -35,14 +34,6 @@ import org.forgerock.openam.http.HttpRoute;
 import org.forgerock.openam.http.HttpRouteProvider;
 import org.forgerock.openam.rest.ResourceRouter;
 import org.forgerock.openam.rest.authz.STSTokenGenerationServiceAuthzModule;
-import org.forgerock.openam.sts.tokengeneration.CTSTokenPersistence;
-import org.forgerock.openam.sts.tokengeneration.config.TokenGenerationServiceInjectorHolder;
-import org.forgerock.openam.sts.tokengeneration.oidc.OpenIdConnectTokenGeneration;
-import org.forgerock.openam.sts.tokengeneration.saml2.SAML2TokenGeneration;
-import org.forgerock.openam.sts.tokengeneration.state.RestSTSInstanceState;
-import org.forgerock.openam.sts.tokengeneration.state.STSInstanceStateProvider;
-import org.forgerock.openam.sts.tokengeneration.state.SoapSTSInstanceState;
-import org.slf4j.Logger;
 
 /**
  * {@link HttpRouteProvider} for STS token generation REST route.
@@ -69,14 +60,7 @@ public class TokenGenerationServiceHttpRouteProvider implements HttpRouteProvide
         return Collections.singleton(HttpRoute.newHttpRoute(STARTS_WITH, "sts-tokengen", new Provider<Handler>() {
             @Override
             public Handler get() {
-                CollectionResourceProvider tokenGenerationService =
-                        new TokenGenerationService(
-                                TokenGenerationServiceInjectorHolder.getInstance(Key.get(SAML2TokenGeneration.class)),
-                                TokenGenerationServiceInjectorHolder.getInstance(Key.get(OpenIdConnectTokenGeneration.class)),
-                                TokenGenerationServiceInjectorHolder.getInstance(Key.get(new TypeLiteral<STSInstanceStateProvider<RestSTSInstanceState>>(){})),
-                                TokenGenerationServiceInjectorHolder.getInstance(Key.get(new TypeLiteral<STSInstanceStateProvider<SoapSTSInstanceState>>(){})),
-                                TokenGenerationServiceInjectorHolder.getInstance(Key.get(CTSTokenPersistence.class)),
-                                TokenGenerationServiceInjectorHolder.getInstance(Key.get(Logger.class)));
+                CollectionResourceProvider tokenGenerationService = TokenGenerationService.fromInjector();
 
                 rootRouter.route("")
                         .auditAs(STS)
@@ -0,0 +1,107 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.openam.sts.tokengeneration.service;
+
+import static org.forgerock.openam.audit.AuditConstants.ACCESS_TOPIC;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+
+import org.forgerock.audit.events.AuditEvent;
+import org.forgerock.json.JsonValue;
+import org.forgerock.openam.audit.AuditConstants.Component;
+import org.forgerock.openam.audit.AuditConstants.EventName;
+import org.forgerock.openam.audit.AuditEventFactory;
+import org.forgerock.openam.audit.AuditEventPublisher;
+import org.forgerock.openam.sts.TokenCreationException;
+import org.forgerock.openam.sts.service.invocation.TokenGenerationServiceInvocationState;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class InProcessTokenGenerationServiceTest {
+    private static final String ASSERTION = "<saml:Assertion/>";
+
+    private TokenGenerationService tokenGenerationService;
+    private AuditEventPublisher auditEventPublisher;
+    private TokenGenerationServiceInvocationState invocationState;
+    private InProcessTokenGenerationService inProcessService;
+
+    @BeforeMethod
+    public void setUp() {
+        tokenGenerationService = mock(TokenGenerationService.class);
+        auditEventPublisher = mock(AuditEventPublisher.class);
+        when(auditEventPublisher.isAuditing(anyString(), eq(ACCESS_TOPIC), any(EventName.class))).thenReturn(true);
+        invocationState = mock(TokenGenerationServiceInvocationState.class);
+        when(invocationState.getRealm()).thenReturn("/realm");
+        inProcessService = new InProcessTokenGenerationService(tokenGenerationService, auditEventPublisher,
+                new AuditEventFactory());
+    }
+
+    @Test
+    public void testSuccessfulTokenGenerationIsAudited() throws Exception {
+        when(tokenGenerationService.generateToken(invocationState)).thenReturn(ASSERTION);
+
+        assertEquals(inProcessService.generateToken(invocationState), ASSERTION);
+
+        List<AuditEvent> events = publishedEvents();
+        assertAccessEvent(events.get(0), EventName.AM_ACCESS_ATTEMPT);
+        assertAccessEvent(events.get(1), EventName.AM_ACCESS_OUTCOME);
+        assertEquals(events.get(1).getValue().get("response").get("status").asString(), "SUCCESSFUL");
+    }
+
+    @Test
+    public void testFailedTokenGenerationIsAudited() throws Exception {
+        when(tokenGenerationService.generateToken(invocationState))
+                .thenThrow(new TokenCreationException(400, "Invalid subject"));
+
+        try {
+            inProcessService.generateToken(invocationState);
+            fail("Expected TokenCreationException");
+        } catch (TokenCreationException e) {
+            assertEquals(e.getCode(), 400);
+        }
+
+        List<AuditEvent> events = publishedEvents();
+        assertAccessEvent(events.get(0), EventName.AM_ACCESS_ATTEMPT);
+        assertAccessEvent(events.get(1), EventName.AM_ACCESS_OUTCOME);
+        JsonValue response = events.get(1).getValue().get("response");
+        assertEquals(response.get("status").asString(), "FAILED");
+        assertEquals(response.get("statusCode").asString(), "400");
+    }
+
+    private List<AuditEvent> publishedEvents() {
+        ArgumentCaptor<AuditEvent> events = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditEventPublisher, times(2)).tryPublish(eq(ACCESS_TOPIC), events.capture());
+        return events.getAllValues();
+    }
+
+    private void assertAccessEvent(AuditEvent event, EventName eventName) {
+        JsonValue value = event.getValue();
+        assertEquals(value.get("eventName").asString(), eventName.toString());
+        assertEquals(value.get("component").asString(), Component.STS.toString());
+        assertEquals(value.get("realm").asString(), "/realm");
+    }
+}